@@ -2,6 +2,8 @@ package com.example;
 
 import com.example.model.User;
 import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
 import com.example.repository.UserRepo;
 import com.example.repository.WalletRepo;
 import com.example.service.UserService;
@@ -9,6 +11,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+
 @Component
 public class DataInitializer implements CommandLineRunner {
     @Autowired
@@ -19,12 +23,17 @@ public class DataInitializer implements CommandLineRunner {
     private UserRepo userRepo;
     @Override
     public void run(String... args) throws Exception {
-        // Add initial users and wallets here
-        // Example:
+        walletRepo.backfillVersions();
+        // Add initial users and wallets here, once: the database outlives restarts
+        if (userRepo.count() > 0) {
+            return;
+        }
 
-        User user = new User("testuser", "password");
+        User user = new User("testuser", LocalDate.of(1990, 1, 1), "09120000000",
+                "testuser@example.com", "password", UserStatusForMan.yes, UserGender.Female);
         userRepo.save(user);
-        Wallet wallet = new Wallet(user, "123456789", "IR123456789012345678901234");
+        Wallet wallet = new Wallet(user, "1234567890", "I1234567890123456789012");
+        wallet.setOwner(user.getFullName());
         walletRepo.save(wallet);
     }
 }
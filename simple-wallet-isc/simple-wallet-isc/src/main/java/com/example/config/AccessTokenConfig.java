@@ -0,0 +1,85 @@
+package com.example.config;
+
+import com.example.filter.AccessTokenFilter;
+import com.example.repository.WalletRepo;
+import com.example.service.auth.AccessTokenService;
+import com.example.service.auth.ResourceOwnership;
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+
+@Configuration
+@EnableWebSecurity
+@ConditionalOnProperty(name = "wallet.auth.token.enabled", havingValue = "true")
+public class AccessTokenConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenConfig.class);
+
+    @Bean
+    AccessTokenService accessTokenService(
+            @Value("${wallet.auth.token.secret:}") String secret,
+            @Value("${wallet.auth.token.ttl:PT15M}") Duration timeToLive,
+            @Value("${wallet.auth.token.cache-size:10000}") long cacheSize) {
+        byte[] key;
+        if (secret.isBlank()) {
+            logger.warn("wallet.auth.token.secret is not set; using a random key, so tokens die with this instance");
+            key = new byte[AccessTokenService.MINIMUM_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret);
+        }
+        return new AccessTokenService(key, timeToLive, cacheSize, Clock.systemUTC());
+    }
+
+    @Bean
+    ResourceOwnership resourceOwnership(WalletRepo walletRepo,
+                                        @Value("${wallet.auth.ownership.cache-size:100000}") long cacheSize) {
+        return new ResourceOwnership(walletRepo, cacheSize);
+    }
+
+    @Bean
+    SecurityFilterChain accessTokenFilterChain(HttpSecurity http, AccessTokenService accessTokenService,
+                                               ResourceOwnership ownership,
+                                               @Value("${wallet.auth.admin-user-ids:}") Set<Long> adminUserIds) throws Exception {
+        http.csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(requests -> requests
+                        // Async dispatches continue a request (balance streams, exports) that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                        .requestMatchers("/api/users/register", "/api/users/login", "/api/wallets/login", "/actuator/health").permitAll()
+                        // Metrics, and the reconciliation and posting operations that write
+                        .requestMatchers("/actuator/**").hasRole(ResourceOwnership.ADMIN)
+                        // A user's own profile and wallet only; transfers, exports and async statuses are checked in the controller
+                        .requestMatchers("/api/users/getUser/{id}", "/api/users/updateUser/{id}").access(ownership.user("id"))
+                        .requestMatchers(HttpMethod.DELETE, "/api/users/{id}").access(ownership.user("id"))
+                        .requestMatchers("/api/wallets/{userId}", "/api/wallets/{userId}/foundUser").access(ownership.user("userId"))
+                        .requestMatchers("/api/wallets/{walletId}/*", "/api/wallets/{walletId}/balance/stream",
+                                "/api/transactions/{walletId}/deposit", "/api/transactions/{walletId}/withdraw",
+                                "/api/transactions/{walletId}/history").access(ownership.wallet("walletId"))
+                        .requestMatchers(HttpMethod.POST, "/api/transactions/bulk").hasRole(ResourceOwnership.ADMIN)
+                        .requestMatchers(HttpMethod.GET, "/api/transactions/{walletId:\\d+}").access(ownership.wallet("walletId"))
+                        .anyRequest().authenticated())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new AccessTokenFilter(accessTokenService, adminUserIds), UsernamePasswordAuthenticationFilter.class);
+        return http.build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.config;
+
+import com.example.service.TransactionWalletService;
+import com.example.service.async.AsyncTransactionQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.transactions.async.enabled", havingValue = "true")
+public class AsyncTransactionConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    AsyncTransactionQueue asyncTransactionQueue(
+            @Value("${wallet.transactions.async.workers:8}") int workers,
+            @Value("${wallet.transactions.async.queue-capacity:1000}") int queueCapacity,
+            @Value("${wallet.transactions.async.status-cache-size:100000}") long statusCacheSize,
+            @Value("${wallet.transactions.async.status-retention:PT1H}") Duration statusRetention,
+            @Value("${wallet.transactions.async.retry-after:PT1S}") Duration retryAfter,
+            TransactionWalletService transactionWalletService) {
+        return new AsyncTransactionQueue(transactionWalletService, workers, queueCapacity,
+                statusCacheSize, statusRetention, retryAfter);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.config;
+
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceConcurrencyMode;
+import com.example.service.concurrency.BalanceUpdateStrategy;
+import com.example.service.concurrency.ConditionalUpdateBalanceStrategy;
+import com.example.service.concurrency.OptimisticBalanceUpdateStrategy;
+import com.example.service.concurrency.PessimisticBalanceUpdateStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class BalanceConcurrencyConfig {
+
+    @Bean
+    BalanceUpdateStrategy balanceUpdateStrategy(
+            @Value("${wallet.balance.concurrency:OPTIMISTIC}") BalanceConcurrencyMode mode,
+            @Value("${wallet.balance.optimistic.max-attempts:5}") int maxAttempts,
+            WalletRepo walletRepo,
+            PlatformTransactionManager transactionManager) {
+        return create(mode, maxAttempts, walletRepo, new TransactionTemplate(transactionManager));
+    }
+
+    public static BalanceUpdateStrategy create(BalanceConcurrencyMode mode, int maxAttempts,
+                                               WalletRepo walletRepo, TransactionOperations transactionOperations) {
+        return switch (mode) {
+            case OPTIMISTIC -> new OptimisticBalanceUpdateStrategy(walletRepo, transactionOperations, maxAttempts);
+            case PESSIMISTIC -> new PessimisticBalanceUpdateStrategy(walletRepo, transactionOperations);
+            case CONDITIONAL_UPDATE -> new ConditionalUpdateBalanceStrategy(walletRepo, transactionOperations);
+        };
+    }
+}
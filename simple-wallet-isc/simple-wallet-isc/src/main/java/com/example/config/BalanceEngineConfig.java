@@ -0,0 +1,39 @@
+package com.example.config;
+
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.cache.WalletReadCache;
+import com.example.service.engine.BalanceEngine;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.balance.engine.enabled", havingValue = "true")
+public class BalanceEngineConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    BalanceEngine balanceEngine(
+            @Value("${wallet.balance.engine.partitions:4}") int partitions,
+            @Value("${wallet.balance.engine.inbox-capacity:65536}") int inboxCapacity,
+            @Value("${wallet.balance.engine.write-batch-size:512}") int writeBatchSize,
+            @Value("${wallet.balance.engine.wallets-per-partition:100000}") int walletsPerPartition,
+            WalletRepo walletRepo,
+            TransactionWalletRepo transactionWalletRepo,
+            PlatformTransactionManager transactionManager,
+            Validator validator,
+            ObjectProvider<WalletReadCache> walletReadCache) {
+        // Balance change events reach the cache before the write-back, so it is evicted again once the balance is stored
+        WalletReadCache cache = walletReadCache.getIfAvailable();
+        Consumer<Long> writtenBack = cache != null ? cache::evict : walletId -> { };
+        return new BalanceEngine(partitions, inboxCapacity, writeBatchSize, walletsPerPartition,
+                walletRepo, transactionWalletRepo, new TransactionTemplate(transactionManager), validator, writtenBack);
+    }
+}
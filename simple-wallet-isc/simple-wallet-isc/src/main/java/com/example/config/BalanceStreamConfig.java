@@ -0,0 +1,21 @@
+package com.example.config;
+
+import com.example.service.stream.BalanceStreamHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.balance.stream.enabled", havingValue = "true")
+public class BalanceStreamConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    BalanceStreamHub balanceStreamHub(
+            @Value("${wallet.balance.stream.timeout:PT30M}") Duration timeout,
+            @Value("${wallet.balance.stream.heartbeat-interval:PT15S}") Duration heartbeatInterval) {
+        return new BalanceStreamHub(timeout, heartbeatInterval);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.config;
+
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.groupcommit.GroupCommitStage;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.balance.group-commit.enabled", havingValue = "true")
+public class GroupCommitConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    GroupCommitStage groupCommitStage(
+            @Value("${wallet.balance.group-commit.window:PT0.002S}") Duration window,
+            @Value("${wallet.balance.group-commit.max-batch-size:256}") int maxBatchSize,
+            @Value("${wallet.balance.group-commit.queue-capacity:10000}") int queueCapacity,
+            WalletRepo walletRepo,
+            TransactionWalletRepo transactionWalletRepo,
+            PlatformTransactionManager transactionManager,
+            Validator validator) {
+        return new GroupCommitStage(walletRepo, transactionWalletRepo, new TransactionTemplate(transactionManager),
+                validator, window, maxBatchSize, queueCapacity);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.config;
+
+import com.example.filter.LoginRateLimitFilter;
+import com.example.service.ratelimit.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.login.rate-limit.enabled", havingValue = "true")
+public class LoginRateLimitConfig {
+
+    @Bean
+    TokenBucketRateLimiter loginClientLimiter(
+            @Value("${wallet.login.rate-limit.client.capacity:20}") int capacity,
+            @Value("${wallet.login.rate-limit.client.refill-interval:PT3S}") Duration refillInterval,
+            @Value("${wallet.login.rate-limit.maximum-keys:100000}") long maximumKeys,
+            @Value("${wallet.login.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        return new TokenBucketRateLimiter("login.client", capacity, refillInterval, maximumKeys, idleTimeout, System::nanoTime);
+    }
+
+    @Bean
+    TokenBucketRateLimiter loginIdentityLimiter(
+            @Value("${wallet.login.rate-limit.identity.capacity:5}") int capacity,
+            @Value("${wallet.login.rate-limit.identity.refill-interval:PT12S}") Duration refillInterval,
+            @Value("${wallet.login.rate-limit.maximum-keys:100000}") long maximumKeys,
+            @Value("${wallet.login.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        return new TokenBucketRateLimiter("login.identity", capacity, refillInterval, maximumKeys, idleTimeout, System::nanoTime);
+    }
+
+    // Registered on the login paths only, ahead of the security filter chain
+    @Bean
+    FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilter(TokenBucketRateLimiter loginClientLimiter,
+                                                                      TokenBucketRateLimiter loginIdentityLimiter) {
+        FilterRegistrationBean<LoginRateLimitFilter> registration =
+                new FilterRegistrationBean<>(new LoginRateLimitFilter(loginClientLimiter, loginIdentityLimiter));
+        registration.addUrlPatterns("/api/users/login", "/api/wallets/login");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.config;
+
+import com.example.model.money.Money;
+import com.example.repository.PostingCheckpointRepo;
+import com.example.repository.PostingRunRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.ledger.LedgerRowWriter;
+import com.example.service.posting.InterestPostingRule;
+import com.example.service.posting.MaintenanceFeeRule;
+import com.example.service.posting.PostingEndpoint;
+import com.example.service.posting.PostingJob;
+import com.example.service.posting.PostingRule;
+import com.example.service.posting.PostingThrottle;
+import com.example.service.posting.PostingWriter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.posting.enabled", havingValue = "true")
+public class PostingConfig {
+
+    // Postings write balances directly, under the engine that holds them in memory and writes them back later
+    public PostingConfig(@Value("${wallet.balance.engine.enabled:false}") boolean balanceEngineEnabled) {
+        if (balanceEngineEnabled) {
+            throw new IllegalStateException(
+                    "wallet.posting.enabled and wallet.balance.engine.enabled cannot both be true: the engine would overwrite posted balances");
+        }
+    }
+
+    @Bean
+    InterestPostingRule interestPostingRule(@Value("${wallet.posting.interest.basis-points:0}") long basisPoints) {
+        return new InterestPostingRule(basisPoints);
+    }
+
+    @Bean
+    MaintenanceFeeRule maintenanceFeeRule(@Value("${wallet.posting.maintenance-fee:0}") String fee) {
+        return new MaintenanceFeeRule(Money.parse(fee));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    PostingJob postingJob(
+            @Value("${wallet.posting.parallelism:2}") int parallelism,
+            @Value("${wallet.posting.chunk-size:1000}") long chunkSize,
+            @Value("${wallet.posting.max-wallets-per-second:0}") long maxWalletsPerSecond,
+            @Value("${wallet.posting.busy-backoff:PT0.1S}") Duration busyBackoff,
+            WalletRepo walletRepo,
+            PostingRunRepo runRepo,
+            PostingCheckpointRepo checkpointRepo,
+            LedgerRowWriter ledgerRowWriter,
+            TransactionOperations transactionOperations,
+            ApplicationEventPublisher eventPublisher,
+            DataSource dataSource,
+            List<PostingRule> rules) {
+        PostingWriter writer = new PostingWriter(walletRepo, checkpointRepo, ledgerRowWriter, transactionOperations,
+                eventPublisher);
+        PostingThrottle throttle = new PostingThrottle(maxWalletsPerSecond, busyBackoff, onlineBusy(dataSource),
+                System::nanoTime);
+        return new PostingJob(walletRepo, runRepo, checkpointRepo, writer, throttle, transactionOperations, rules,
+                parallelism, chunkSize);
+    }
+
+    @Bean
+    PostingEndpoint postingEndpoint(PostingJob postingJob) {
+        return new PostingEndpoint(postingJob);
+    }
+
+    // Requests waiting on the Hikari pool mean the batch is taking connections online traffic needs
+    private static BooleanSupplier onlineBusy(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                return () -> {
+                    HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                    return pool != null && pool.getThreadsAwaitingConnection() > 0;
+                };
+            }
+        } catch (SQLException e) {
+            // Not a Hikari pool; pace by rate only
+        }
+        return () -> false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.config;
+
+import com.example.repository.ReconciliationMismatchRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.reconciliation.ReconciliationEndpoint;
+import com.example.service.reconciliation.ReconciliationJob;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.reconciliation.enabled", havingValue = "true")
+public class ReconciliationConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    ReconciliationJob reconciliationJob(
+            @Value("${wallet.reconciliation.parallelism:4}") int parallelism,
+            @Value("${wallet.reconciliation.chunk-size:10000}") long chunkSize,
+            WalletRepo walletRepo,
+            ReconciliationMismatchRepo mismatchRepo,
+            PlatformTransactionManager transactionManager) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return new ReconciliationJob(walletRepo, mismatchRepo, readOnly, new TransactionTemplate(transactionManager),
+                parallelism, chunkSize);
+    }
+
+    @Bean
+    ReconciliationEndpoint reconciliationEndpoint(ReconciliationJob reconciliationJob) {
+        return new ReconciliationEndpoint(reconciliationJob);
+    }
+}
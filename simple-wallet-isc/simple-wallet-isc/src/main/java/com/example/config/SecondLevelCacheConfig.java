@@ -0,0 +1,63 @@
+package com.example.config;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.l2-cache.enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    // Regions are created here with their limits; Hibernate fails at startup if it asks for one that is missing
+    @Bean(destroyMethod = "close")
+    CacheManager secondLevelCacheManager(
+            @Value("${wallet.l2-cache.user.maximum-size:100000}") long userMaximumSize,
+            @Value("${wallet.l2-cache.wallet.maximum-size:100000}") long walletMaximumSize,
+            @Value("${wallet.l2-cache.query.maximum-size:10000}") long queryMaximumSize,
+            @Value("${wallet.l2-cache.ttl:PT10M}") Duration timeToLive) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("wallet-l2-cache"), getClass().getClassLoader());
+        cacheManager.createCache(User.class.getName(), region(userMaximumSize, timeToLive));
+        cacheManager.createCache(Wallet.class.getName(), region(walletMaximumSize, timeToLive));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryMaximumSize, timeToLive));
+        // One entry per table; never evicted, or a cached query result could outlive a change to its table
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCache(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration timeToLive) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        return configuration;
+    }
+}
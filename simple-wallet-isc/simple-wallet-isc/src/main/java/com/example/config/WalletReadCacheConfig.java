@@ -0,0 +1,21 @@
+package com.example.config;
+
+import com.example.service.cache.WalletReadCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.cache.enabled", havingValue = "true")
+public class WalletReadCacheConfig {
+
+    @Bean
+    WalletReadCache walletReadCache(
+            @Value("${wallet.cache.maximum-size:100000}") long maximumSize,
+            @Value("${wallet.cache.ttl:PT5M}") Duration timeToLive) {
+        return new WalletReadCache(maximumSize, timeToLive);
+    }
+}
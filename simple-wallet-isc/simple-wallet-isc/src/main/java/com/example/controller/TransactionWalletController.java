@@ -1,30 +1,70 @@
 package com.example.controller;
 
 import com.example.model.TransactionWallet;
-import com.example.model.Wallet;
+import com.example.model.dto.AsyncTransactionStatus;
+import com.example.model.dto.TransactionHistoryPage;
+import com.example.model.dto.TransferRequest;
+import com.example.model.dto.TransferResult;
+import com.example.model.dto.WalletDetails;
+import com.example.model.money.Money;
+import com.example.service.BulkTransactionService;
+import com.example.service.TransactionExportService;
 import com.example.service.TransactionWalletService;
+import com.example.service.async.AsyncTransactionQueue;
+import com.example.service.auth.ResourceOwnership;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/transactions")
 @Validated
 public class TransactionWalletController {
 
+    private static final String ASYNC_PREFERENCE = "Prefer=respond-async";
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private TransactionWalletService transactionWalletService;
 
+    @Autowired
+    private BulkTransactionService bulkTransactionService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    // Only present when wallet.transactions.async.enabled=true
+    @Autowired(required = false)
+    private AsyncTransactionQueue asyncTransactionQueue;
+
+    // Only present when wallet.auth.token.enabled=true; checks wallet ids the path rules cannot see
+    @Autowired(required = false)
+    private ResourceOwnership resourceOwnership;
+
     @PostMapping("/{walletId}/deposit")
     public ResponseEntity<TransactionWallet> deposit(
             @PathVariable Long walletId,
-            @Valid @RequestBody BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+            @Valid @RequestBody Money amount) {
+        if (amount.isNegative()) {
             throw new IllegalArgumentException("Amount must be positive");
         }
         else {
@@ -42,7 +82,7 @@ public class TransactionWalletController {
     @PostMapping("/{walletId}/withdraw")
     public ResponseEntity<TransactionWallet> withdraw(
             @PathVariable Long walletId,
-            @Valid @RequestBody BigDecimal amount) {
+            @Valid @RequestBody Money amount) {
         try {
             TransactionWallet transaction = transactionWalletService.withdraw(walletId, amount);
             return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
@@ -51,16 +91,133 @@ public class TransactionWalletController {
         }
     }
 
+    // Prefer: respond-async queues the deposit and answers 202 with a status to poll. Without the
+    // async queue the preference is ignored and the deposit runs synchronously.
+    @PostMapping(value = "/{walletId}/deposit", headers = ASYNC_PREFERENCE)
+    public ResponseEntity<?> depositAsync(
+            @PathVariable Long walletId,
+            @Valid @RequestBody Money amount) {
+        if (asyncTransactionQueue == null) {
+            return deposit(walletId, amount);
+        }
+        if (amount.isNegative()) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return accepted(asyncTransactionQueue.submit(walletId, TransactionWallet.TransactionType.DEPOSIT, amount));
+    }
+
+    @PostMapping(value = "/{walletId}/withdraw", headers = ASYNC_PREFERENCE)
+    public ResponseEntity<?> withdrawAsync(
+            @PathVariable Long walletId,
+            @Valid @RequestBody Money amount) {
+        if (asyncTransactionQueue == null) {
+            return withdraw(walletId, amount);
+        }
+        if (amount.isNegative()) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return accepted(asyncTransactionQueue.submit(walletId, TransactionWallet.TransactionType.WITHDRAWAL, amount));
+    }
+
+    // Only the owner of the status's wallet (or an admin) may poll it
+    @GetMapping("/status/{id}")
+    public ResponseEntity<AsyncTransactionStatus> getStatus(@PathVariable String id) {
+        if (asyncTransactionQueue == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<AsyncTransactionStatus> status = asyncTransactionQueue.status(id);
+        if (status.isPresent() && resourceOwnership != null) {
+            resourceOwnership.checkWallet(status.get().walletId());
+        }
+        return status.map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Debit one wallet and credit another atomically
+    @PostMapping("/transfer")
+    public ResponseEntity<TransferResult> transfer(@Valid @RequestBody TransferRequest request) {
+        if (resourceOwnership != null) {
+            resourceOwnership.checkWallet(request.fromWalletId());
+        }
+        TransferResult result = transactionWalletService.transfer(
+                request.fromWalletId(), request.toWalletId(), request.amount());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    // Streams a large NDJSON or CSV (walletId,type,amount) upload through chunked, JDBC-batched
+    // transactions and streams one NDJSON result line back per input line
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void bulk(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BulkTransactionService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? BulkTransactionService.Format.CSV
+                : BulkTransactionService.Format.NDJSON;
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        bulkTransactionService.process(request.getReader(), format, response.getWriter());
+    }
+
+    // Streams every transaction dated in [from, to), optionally for one wallet, as NDJSON or, with
+    // Accept: text/csv, as CSV. Gzipped when the client sends Accept-Encoding: gzip. Every wallet is for admins only.
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long walletId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        if (resourceOwnership != null) {
+            resourceOwnership.checkWallet(walletId);
+        }
+        boolean csv = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> !type.isWildcardType() && type.isCompatibleWith(TEXT_CSV));
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        TransactionExportService.Format format = csv ? TransactionExportService.Format.CSV : TransactionExportService.Format.NDJSON;
+        // Headers are only set once the arguments are accepted, so a bad range still gets a plain 400
+        transactionExportService.export(from, to, walletId, format, () -> {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            OutputStream body = response.getOutputStream();
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                body = new GZIPOutputStream(body, EXPORT_BUFFER_SIZE);
+            }
+            return new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        });
+    }
+
     @GetMapping("/{walletId}")
-    public ResponseEntity<Wallet> getWalletDetails(@PathVariable Long walletId) {
+    public ResponseEntity<WalletDetails> getWalletDetails(@PathVariable Long walletId) {
 
         try {
-            Wallet wallet = transactionWalletService.getWalletDetails(walletId);
+            WalletDetails wallet = transactionWalletService.getWalletDetails(walletId);
             return ResponseEntity.ok(wallet);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
+    // Keyset-paginated history, newest first; pass the returned nextCursor to get the following page
+    @GetMapping("/{walletId}/history")
+    public ResponseEntity<TransactionHistoryPage> getHistory(
+            @PathVariable Long walletId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TransactionWalletService.DEFAULT_HISTORY_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(transactionWalletService.getHistory(walletId, cursor, size));
+    }
+
+    private static ResponseEntity<AsyncTransactionStatus> accepted(AsyncTransactionStatus status) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/transactions/status/" + status.id()))
+                .body(status);
+    }
+
     // Global exception handling for IllegalArgumentException
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
@@ -1,9 +1,14 @@
 package com.example.controller;
 
 import com.example.model.User;
+import com.example.model.dto.AccessTokenResponse;
+import com.example.model.dto.UserProfile;
+import com.example.model.dto.UserSearchPage;
 import com.example.model.domain.UserGender;
 import com.example.model.domain.UserStatusForMan;
 import com.example.service.UserService;
+import com.example.service.auth.AccessTokenService;
+import com.example.service.search.UserSearchIndex;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import org.slf4j.Logger;
@@ -31,6 +36,10 @@ public class UserController {
 
     @Autowired
     private UserService userService;
+
+    // Present only when wallet.auth.token.enabled=true
+    @Autowired(required = false)
+    private AccessTokenService accessTokenService;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @PostMapping("/register")
@@ -54,7 +63,7 @@ public class UserController {
         }
     }
     @PostMapping("/login")
-    public ResponseEntity<String> login(
+    public ResponseEntity<?> login(
             @RequestParam @Email(message = "Email should be valid") @NotBlank String email,
             @RequestParam @NotBlank String password,
             @RequestParam @NotBlank String phoneNumber) {
@@ -63,7 +72,11 @@ public class UserController {
         Optional<User> user = userService.login(email, password, phoneNumber);
         if (user.isPresent()) {
             logger.info("Login successful for user: {}", email);
-            return ResponseEntity.ok("Login successful!");
+            if (accessTokenService == null) {
+                return ResponseEntity.ok("Login successful!");
+            }
+            AccessTokenService.AccessToken token = accessTokenService.issue(user.get().getId());
+            return ResponseEntity.ok(AccessTokenResponse.bearer(token, accessTokenService.timeToLive().toSeconds()));
         } else {
             logger.warn("Login failed for user: {}. Incorrect credentials.", email);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Login failed!");
@@ -72,9 +85,10 @@ public class UserController {
 
 
     @GetMapping("/getUser/{id}")
-    public ResponseEntity<User> getUser(@PathVariable Long id) {
-        User user = userService.findUserById(id);
-        return user != null ? ResponseEntity.ok(user) : ResponseEntity.notFound().build();
+    public ResponseEntity<UserProfile> getUser(@PathVariable Long id) {
+        return userService.getUserProfile(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
     @PutMapping("/updateUser/{id}")
     public ResponseEntity<User> updateUser(@PathVariable @Min(1) Long id,
@@ -102,10 +116,18 @@ public class UserController {
         }
     }
 
+    // Prefix search on the words of users' names, e.g. q=jo do; pass the returned nextCursor to get the following page
     @GetMapping("/search")
-    public ResponseEntity<User> getUserByFullName(@RequestParam String fullName) {
-        User user = userService.findUserByFullName(fullName);
-        return user != null ? ResponseEntity.ok(user) : ResponseEntity.notFound().build();
+    public ResponseEntity<UserSearchPage> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + UserSearchIndex.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(userService.searchUsers(q, cursor, size));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
     // Global exception handling for validation errors
@@ -2,20 +2,21 @@ package com.example.controller;
 
 import com.example.model.User;
 import com.example.model.Wallet;
+import com.example.model.money.Money;
 import com.example.service.UserService;
 import com.example.service.WalletService;
+import com.example.service.stream.BalanceStreamHub;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-
-
-import java.math.BigDecimal;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/wallets")
@@ -30,6 +31,10 @@ public class WalletController {
     @Autowired
     private UserService userService;
 
+    // Present only when wallet.balance.stream.enabled=true
+    @Autowired(required = false)
+    private BalanceStreamHub balanceStreamHub;
+
 
     @PostMapping("/{userId}")
 
@@ -64,8 +69,8 @@ public class WalletController {
 
     // Get the balance of a wallet
     @GetMapping("/{walletId}/balance")
-    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long walletId) {
-        BigDecimal balance = walletService.getBalance(walletId);
+    public ResponseEntity<Money> getBalance(@PathVariable Long walletId) {
+        Money balance = walletService.getBalance(walletId);
         if (balance == null) {
             logger.error("Wallet not found for walletId: {}", walletId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -74,10 +79,21 @@ public class WalletController {
         return ResponseEntity.ok(balance);
     }
 
+    // Stream the balance: the current value first, then one event after every committed change
+    @GetMapping(path = "/{walletId}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBalance(@PathVariable Long walletId) {
+        if (balanceStreamHub == null) {
+            logger.error("Balance streaming is disabled");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        walletService.getBalance(walletId); // Fails with "Wallet not found" before the stream is opened
+        return ResponseEntity.ok(balanceStreamHub.subscribe(walletId, () -> walletService.getBalance(walletId)));
+    }
+
     // Add funds to the wallet
     @PostMapping("/{walletId}/addFunds")
-    public ResponseEntity<Wallet> addFunds(@PathVariable Long walletId, @Valid @RequestBody BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public ResponseEntity<Wallet> addFunds(@PathVariable Long walletId, @Valid @RequestBody Money amount) {
+        if (!amount.isPositive()) {
             logger.error("Invalid amount for adding funds: {}", amount);
             throw new IllegalArgumentException("Amount must be positive.");
         }
@@ -89,8 +105,8 @@ public class WalletController {
 
     // Withdraw funds from the wallet
     @PostMapping("/{walletId}/withdrawFunds")
-    public ResponseEntity<Wallet> withdrawFunds(@PathVariable Long walletId, @Valid @RequestBody BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public ResponseEntity<Wallet> withdrawFunds(@PathVariable Long walletId, @Valid @RequestBody Money amount) {
+        if (!amount.isPositive()) {
             logger.error("Invalid amount for withdrawing funds: {}", amount);
             throw new IllegalArgumentException("Amount must be positive.");
         }
@@ -104,8 +120,7 @@ public class WalletController {
                                             @RequestParam String accountNumber,
                                             @RequestParam String shabaNumber){
 
-        User user = userService.findUserById(userId);
-        if ( user == null ) {
+        if (!userService.userExists(userId)) {
             logger.error("User not found for userId: {}", userId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found for userId: " + userId);
 
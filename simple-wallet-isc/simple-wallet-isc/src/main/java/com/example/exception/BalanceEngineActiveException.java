@@ -0,0 +1,8 @@
+package com.example.exception;
+
+public class BalanceEngineActiveException extends RuntimeException {
+
+    public BalanceEngineActiveException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.exception;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -28,4 +30,24 @@ public class GlobalExceptionHandlerUser {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    // Optimistic retries exhausted or the row lock timed out: the client may safely retry
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Wallet is busy, please retry");
+    }
+
+    // The balance engine owns the balances in memory; a path that writes them directly would be overwritten
+    @ExceptionHandler(BalanceEngineActiveException.class)
+    public ResponseEntity<String> handleBalanceEngineActive(BalanceEngineActiveException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // The async transaction queue is at capacity: shed the request and say when to come back
+    @ExceptionHandler(TransactionQueueFullException.class)
+    public ResponseEntity<String> handleTransactionQueueFull(TransactionQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(ex.getMessage());
+    }
+
 }
@@ -0,0 +1,16 @@
+package com.example.exception;
+
+import java.time.Duration;
+
+public class TransactionQueueFullException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TransactionQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
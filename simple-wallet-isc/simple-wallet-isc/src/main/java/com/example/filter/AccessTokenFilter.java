@@ -0,0 +1,69 @@
+package com.example.filter;
+
+import com.example.service.auth.AccessTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>} issued by {@link AccessTokenService}.
+ * The principal is the user id; users listed as admins also get {@code ROLE_ADMIN}. An invalid or expired token is rejected with 401 straight away; requests
+ * without a bearer token pass through unauthenticated and are left to the authorization rules.
+ * <p>
+ * Part of the security filter chain only, so it is not a bean: Boot would register it as a servlet filter too.
+ */
+public class AccessTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AccessTokenService accessTokenService;
+    private final Set<Long> adminUserIds;
+
+    public AccessTokenFilter(AccessTokenService accessTokenService) {
+        this(accessTokenService, Set.of());
+    }
+
+    public AccessTokenFilter(AccessTokenService accessTokenService, Set<Long> adminUserIds) {
+        this.accessTokenService = accessTokenService;
+        this.adminUserIds = Set.copyOf(adminUserIds);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<AccessTokenService.AccessToken> token =
+                accessTokenService.verify(authorization.substring(BEARER.length()).trim());
+        if (token.isEmpty()) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+
+        Long userId = token.get().userId();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(userId, null,
+                adminUserIds.contains(userId)
+                        ? AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")
+                        : AuthorityUtils.createAuthorityList("ROLE_USER")));
+        SecurityContextHolder.setContext(context);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.filter;
+
+import com.example.exception.IdempotencyConflictException;
+import com.example.model.IdempotencyRecord;
+import com.example.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Makes the money-moving POST endpoints safe to retry: a request carrying an {@code Idempotency-Key}
+ * header runs at most once, and repeats get the stored status, content type and body of the first
+ * successful response. Only 2xx responses are stored; a request that fails downstream releases its key.
+ * <p>
+ * Keys belong to the caller: the stored key is a SHA-256 of the authenticated principal's name and the header, so
+ * one client's key never replays another client's response. The filter runs after Spring Security's chain;
+ * unauthenticated callers share one scope.
+ * <p>
+ * A new key costs one statement on the request's path: the claim has to be committed before the request runs so
+ * a concurrent duplicate sees it. The response is stored in the background ({@link IdempotencyService}), and
+ * replays of completed keys are served from memory. If storing the response fails after a 2xx, the money has
+ * already moved, so the key is left pending: other instances answer 409 instead of running the request again.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final String ANONYMOUS = "anonymous";
+
+    private final IdempotencyService idempotencyService;
+    private final List<String> paths;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             @Value("${wallet.idempotency.paths:/api/transactions/*/deposit,/api/transactions/*/withdraw,"
+                                     + "/api/transactions/transfer,/api/wallets/*/addFunds,/api/wallets/*/withdrawFunds}")
+                             List<String> paths) {
+        this.idempotencyService = idempotencyService;
+        this.paths = paths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HEADER);
+        if (header.isBlank() || header.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String key = scopedKey(header);
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(request, cachedRequest.body);
+
+        Optional<IdempotencyRecord> stored;
+        try {
+            stored = idempotencyService.claim(key, fingerprint);
+        } catch (IdempotencyConflictException e) {
+            reject(response, e.getStatus(), e.getMessage());
+            return;
+        }
+        if (stored.isPresent()) {
+            replay(stored.get(), response);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(cachedRequest, cachedResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyService.release(key);
+            throw e;
+        }
+        try {
+            int status = cachedResponse.getStatus();
+            if (status < 200 || status >= 300) {
+                idempotencyService.release(key);
+                return;
+            }
+            try {
+                idempotencyService.complete(key, fingerprint, status,
+                        cachedResponse.getContentType(), cachedResponse.getContentAsByteArray());
+            } catch (RuntimeException e) {
+                logger.error("Could not store the response for Idempotency-Key {}; the key stays pending", header, e);
+            }
+        } finally {
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.getResponseStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        byte[] body = record.getResponseBody();
+        if (body != null) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    // Fixed length whatever the principal, so it fits the key column
+    private static String scopedKey(String header) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String principal = authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken ? ANONYMOUS : authentication.getName();
+        MessageDigest digest = sha256();
+        digest.update(principal.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest digest = sha256();
+        digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ' ');
+        digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Reads the body once so it can be both fingerprinted and handed on to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is all available as soon as a listener asks
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.filter;
+
+import com.example.service.ratelimit.TokenBucketRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the login endpoints before any password hashing or database lookup happens. Every attempt
+ * takes a permit from the client address's bucket and from the bucket of the identity it names (the
+ * {@code email} parameter of {@code /api/users/login}, the {@code walletId} of {@code /api/wallets/login});
+ * when either is empty the attempt is answered 429 with {@code Retry-After}.
+ * <p>
+ * The client address is {@link HttpServletRequest#getRemoteAddr()}: behind a proxy, enable
+ * {@code server.forward-headers-strategy} so that it is the caller's and not the proxy's.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimitFilter.class);
+
+    private final TokenBucketRateLimiter clientLimiter;
+    private final TokenBucketRateLimiter identityLimiter;
+
+    public LoginRateLimitFilter(TokenBucketRateLimiter clientLimiter, TokenBucketRateLimiter identityLimiter) {
+        this.clientLimiter = clientLimiter;
+        this.identityLimiter = identityLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = clientLimiter.tryAcquire(request.getRemoteAddr());
+        String identity = identity(request);
+        if (wait == 0 && identity != null) {
+            wait = identityLimiter.tryAcquire(identity);
+        }
+        if (wait > 0) {
+            logger.warn("Login attempt throttled for client {} ({})", request.getRemoteAddr(), identity);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(secondsRoundedUp(wait)));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("Too many login attempts, try again later");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static String identity(HttpServletRequest request) {
+        String email = request.getParameter("email");
+        if (email != null && !email.isBlank()) {
+            return "email:" + email.trim().toLowerCase(Locale.ROOT);
+        }
+        String walletId = request.getParameter("walletId");
+        if (walletId != null && !walletId.isBlank()) {
+            return "wallet:" + walletId.trim();
+        }
+        return null;
+    }
+
+    private static long secondsRoundedUp(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
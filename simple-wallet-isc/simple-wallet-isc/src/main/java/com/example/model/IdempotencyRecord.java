@@ -0,0 +1,42 @@
+package com.example.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored outcome of a request made with an {@code Idempotency-Key}. The row is claimed
+ * (responseStatus still null) before the request runs and completed with the response afterwards, in a batch
+ * shortly after the client has been answered.
+ */
+@Entity
+@Data
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created", columnList = "createdAt")
+})
+public class IdempotencyRecord {
+
+    // SHA-256 of the caller and the header value, so keys of different callers never meet
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of method, path and body; a replay with a different request is rejected
+    @Column(length = 64, nullable = false)
+    private String requestFingerprint;
+
+    private Integer responseStatus;
+
+    private String contentType;
+
+    @Lob
+    private byte[] responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public boolean isCompleted() {
+        return responseStatus != null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.model;
+
+import com.example.model.id.PooledSequence;
+import com.example.model.money.Money;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks one chunk of a posting run as done. Written in the same transaction as the chunk's postings,
+ * so a chunk has a checkpoint exactly when its postings are committed.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "posting_checkpoints", indexes = {
+        // A second checkpoint for the same chunk fails, rolling back a chunk that was somehow posted twice
+        @Index(name = "uk_posting_checkpoints_chunk", columnList = "runKey, chunkIndex", unique = true)
+})
+public class PostingCheckpoint {
+
+    @Id
+    @PooledSequence(sequenceName = "posting_checkpoints_seq")
+    private Long id;
+
+    @Column(length = 100, nullable = false)
+    private String runKey;
+
+    private long chunkIndex;
+
+    // Wallets that got a posting, and wallets the rule passed over or that could not take it
+    private int posted;
+
+    private int skipped;
+
+    private Money amount;
+
+    @Column(nullable = false)
+    private LocalDateTime committedAt;
+
+    public PostingCheckpoint(String runKey, long chunkIndex, int posted, int skipped, Money amount,
+                             LocalDateTime committedAt) {
+        this.runKey = runKey;
+        this.chunkIndex = chunkIndex;
+        this.posted = posted;
+        this.skipped = skipped;
+        this.amount = amount;
+        this.committedAt = committedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A batch posting run, keyed by the caller's run key (e.g. {@code interest-2026-10}). The wallet id range and
+ * chunk size are fixed when the run is first started, so a resumed run covers exactly the same chunks.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "posting_runs")
+public class PostingRun {
+
+    @Id
+    @Column(length = 100)
+    private String runKey;
+
+    @Column(length = 50, nullable = false)
+    private String rule;
+
+    // Wallet ids [firstId, endId)
+    private long firstId;
+
+    private long endId;
+
+    private long chunkSize;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set once every chunk has a checkpoint; starting the run again then does nothing
+    private LocalDateTime completedAt;
+
+    public PostingRun(String runKey, String rule, long firstId, long endId, long chunkSize, LocalDateTime createdAt) {
+        this.runKey = runKey;
+        this.rule = rule;
+        this.firstId = firstId;
+        this.endId = endId;
+        this.chunkSize = chunkSize;
+        this.createdAt = createdAt;
+    }
+
+    public long chunksTotal() {
+        return (endId - firstId + chunkSize - 1) / chunkSize;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.model;
+
+import com.example.model.id.PooledSequence;
+import com.example.model.money.Money;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A wallet whose balance did not equal the initial balance plus its deposits minus its withdrawals
+ * when a reconciliation pass checked it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "reconciliation_mismatches", indexes = {
+        @Index(name = "idx_reconciliation_mismatches_run", columnList = "runId, walletId")
+})
+public class ReconciliationMismatch {
+
+    @Id
+    @PooledSequence(sequenceName = "reconciliation_mismatches_seq")
+    private Long id;
+
+    @Column(length = 36, nullable = false)
+    private String runId;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    // What the ledger says the balance should be
+    private Money expectedBalance;
+
+    private Money actualBalance;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+
+    public ReconciliationMismatch(String runId, Long walletId, Money expectedBalance, Money actualBalance,
+                                  LocalDateTime detectedAt) {
+        this.runId = runId;
+        this.walletId = walletId;
+        this.expectedBalance = expectedBalance;
+        this.actualBalance = actualBalance;
+        this.detectedAt = detectedAt;
+    }
+}
@@ -1,19 +1,26 @@
 package com.example.model;
 
 import com.example.model.domain.TransactionType;
+import com.example.model.id.PooledSequence;
+import com.example.model.money.Money;
+import com.example.model.money.MoneyMax;
+import com.example.model.money.MoneyMin;
 import jakarta.persistence.*;
-import jakarta.validation.constraints.DecimalMax;
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 
 @Entity
 @Data
-@Table(name = "transactionWallet")
+@Table(name = "transactionWallet", indexes = {
+        // Serves the keyset-paginated history: equality on wallet_id, then a range seek on (transactionDate, id)
+        @Index(name = "idx_transaction_wallet_history", columnList = "wallet_id, transactionDate, id"),
+        @Index(name = "idx_transaction_wallet_transfer", columnList = "transferId"),
+        // Date-range exports across all wallets
+        @Index(name = "idx_transaction_wallet_date", columnList = "transactionDate, id")
+})
 public class TransactionWallet {
 
     public enum TransactionType {
@@ -22,28 +29,32 @@ public class TransactionWallet {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence(sequenceName = "transaction_wallet_seq")
     private Long id;
 
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "100000.00", message = "Amount must be at least 100,000")
-    @DecimalMax(value = "10000000.00", message = "Amount must not exceed 10,000,000")
-    private BigDecimal amount;
+    @MoneyMin(value = "100000.00", message = "Amount must be at least 100,000")
+    @MoneyMax(value = "10000000.00", message = "Amount must not exceed 10,000,000")
+    private Money amount;
 
     private LocalDateTime transactionDate;
 
     @NotNull(message = "Wallet must not be null")
-    @OneToOne(fetch = FetchType.EAGER)
-    @JoinColumn(name = "wallet_id",nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
     private Wallet wallet;
 
     @NotNull(message = "Transaction type is required")
     private TransactionType type;
 
+    // Shared by the debit and credit legs of a wallet-to-wallet transfer; null for plain deposits/withdrawals
+    @Column(length = 36)
+    private String transferId;
+
     public TransactionWallet() {
         this.transactionDate = LocalDateTime.now();
     }
-    public TransactionWallet(Wallet wallet, TransactionType type, BigDecimal amount) {
+    public TransactionWallet(Wallet wallet, TransactionType type, Money amount) {
         this.wallet = wallet;
         this.type = type;
         this.amount = amount;
@@ -62,9 +73,9 @@ public class TransactionWallet {
 
     public void setType(TransactionType type) {this.type = type;}
 
-    public BigDecimal getAmount() {return amount;}
+    public Money getAmount() {return amount;}
 
-    public void setAmount(BigDecimal amount) {this.amount = amount;}
+    public void setAmount(Money amount) {this.amount = amount;}
 
     public LocalDateTime getTransactionDate() {return transactionDate;}*/
 
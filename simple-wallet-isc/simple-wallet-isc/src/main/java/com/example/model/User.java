@@ -2,11 +2,15 @@ package com.example.model;
 
 import com.example.model.domain.UserGender;
 import com.example.model.domain.UserStatusForMan;
+import com.example.model.id.PooledSequence;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 import java.time.LocalDate;
@@ -14,18 +18,22 @@ import java.time.Period;
 
 @Entity
 @Data
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Login looks users up by email, which must identify one user
+        @Index(name = "uk_users_email", columnList = "email", unique = true),
+        @Index(name = "idx_users_full_name", columnList = "fullName")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence(sequenceName = "users_seq")
     private Long id;
 
-    //@Column(unique = true)
     private String fullName;
 
     @Email(message = "Email should be valid")
     @NotBlank(message = "Email is required")
-    //@Column(unique = true)
     private String email;
 
     @NotBlank(message = "Password is required")
@@ -49,7 +57,11 @@ public class User {
     @NotBlank(message = "Phone number is required")
     private String phoneNumber;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // Lazy only because the build enhances entities (hibernate-enhance-maven-plugin); without that Hibernate
+    // loads the non-owning side of a one-to-one with a second select every time a user is read. No MERGE
+    // cascade: save() on a loaded user would load the wallet just to merge it
+    @OneToOne(mappedBy = "user", cascade = {CascadeType.PERSIST, CascadeType.REMOVE}, fetch = FetchType.LAZY)
+    @JsonIgnore
     //@JoinColumn(name = "wallet_User",nullable = false)
     private Wallet wallet;
 
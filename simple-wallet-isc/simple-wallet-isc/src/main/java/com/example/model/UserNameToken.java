@@ -0,0 +1,57 @@
+package com.example.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+/**
+ * One normalized word of a user's full name. User search seeks the primary key (token, user_id) with a
+ * prefix range, so a page of matches is read in index order without scanning the users table.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "user_name_tokens", indexes = {
+        // Reindexing and deleting a user remove its tokens by user_id
+        @Index(name = "idx_user_name_tokens_user", columnList = "userId")
+})
+@IdClass(UserNameToken.Key.class)
+public class UserNameToken implements Persistable<UserNameToken.Key> {
+
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    @Id
+    @Column(length = MAX_TOKEN_LENGTH)
+    private String token;
+
+    @Id
+    private Long userId;
+
+    public UserNameToken(String token, Long userId) {
+        this.token = token;
+        this.userId = userId;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(token, userId);
+    }
+
+    // Tokens are only ever inserted after the old ones were deleted, so save() can persist without a SELECT
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String token;
+        private Long userId;
+    }
+}
@@ -1,23 +1,40 @@
 package com.example.model;
 
+import com.example.model.id.PooledSequence;
+import com.example.model.money.Money;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Data
-@Table(name = "wallets")
+@Table(name = "wallets", indexes = {
+        @Index(name = "uk_wallets_account_number", columnList = "accountNumber", unique = true),
+        @Index(name = "uk_wallets_shaba_number", columnList = "shabaNumber", unique = true),
+        @Index(name = "uk_wallets_user", columnList = "user_id", unique = true)
+})
+// Bulk balance updates (applyBalanceDelta, overwriteBalance) drop the whole region when they run
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Wallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence(sequenceName = "wallets_seq")
     private Long id;
 
-    private static final BigDecimal MINIMUM_BALANCE = BigDecimal.valueOf(10000);
+    public static final Money MINIMUM_BALANCE = Money.of(10000);
+
+    // Bumped on every balance change; lets optimistic writers detect a concurrent update. The default fills the
+    // column for rows that predate it when ddl-auto=update adds it; WalletRepo.backfillVersions covers older upgrades
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    private Long version;
 
 
     @NotBlank(message = "Account number is required")
@@ -28,18 +45,21 @@ public class Wallet {
     @Pattern(regexp = "[IR]\\d{22}", message = "SHABA number must start with two letters followed by 22 digits")
     private String shabaNumber;
 
-    private BigDecimal balance;
+    private Money balance;
 
     @NotNull
     private String owner;
 
     private LocalDateTime creationDate;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
     private TransactionWallet transactionWallet;
 
-    @OneToOne
+    // Not serialized: the owner is in the owner column, and the user is usually not loaded
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
     private User user;
 
     public Wallet() {
@@ -58,26 +78,24 @@ public class Wallet {
         return this.accountNumber.equals(accountNumber) && this.shabaNumber.equals(shabaNumber);
     }
 
-    public void addFunds(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) > 0) {
-            this.balance = this.balance.add(amount);
+    public void addFunds(Money amount) {
+        if (amount.isPositive()) {
+            this.balance = this.balance.plus(amount);
         } else {
             throw new IllegalArgumentException("Amount must be positive");
         }
     }
 
-    public void withdrawFunds(BigDecimal amount) {
-        //BigDecimal minimumBalance = new BigDecimal("10000.00");
-
-        if (this.balance.subtract(amount).compareTo(MINIMUM_BALANCE) < 0) {
+    public void withdrawFunds(Money amount) {
+        if (this.balance.minus(amount).isLessThan(MINIMUM_BALANCE)) {
             throw new IllegalArgumentException("Withdrawal would result in a balance below the minimum of 10,000");
         }
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Amount must be positive");
         }
 
-        this.balance = this.balance.subtract(amount);
+        this.balance = this.balance.minus(amount);
     }
     /*public Long getId() {return id;}
 
@@ -95,9 +113,9 @@ public class Wallet {
 
     public void setShabaNumber(String shabaNumber) {this.shabaNumber = shabaNumber;}
 
-    public BigDecimal getBalance() {return balance;}
+    public Money getBalance() {return balance;}
 
-    public void setBalance(BigDecimal balance) {this.balance = balance;}
+    public void setBalance(Money balance) {this.balance = balance;}
 
     public LocalDateTime getCreationDate() {return creationDate;}*/
 
@@ -0,0 +1,14 @@
+package com.example.model.dto;
+
+import com.example.service.auth.AccessTokenService;
+
+/**
+ * Body of a successful login. Send {@code accessToken} as {@code Authorization: Bearer <accessToken>};
+ * it expires after {@code expiresIn} seconds, when the client logs in again.
+ */
+public record AccessTokenResponse(String accessToken, String tokenType, long expiresIn) {
+
+    public static AccessTokenResponse bearer(AccessTokenService.AccessToken token, long expiresIn) {
+        return new AccessTokenResponse(token.value(), "Bearer", expiresIn);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.model.dto;
+
+import com.example.model.TransactionWallet;
+import com.example.model.money.Money;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a deposit or withdrawal submitted with {@code Prefer: respond-async}, polled at
+ * {@code GET /api/transactions/status/{id}}. {@code transactionId} is the ledger row once the
+ * transaction has completed; it stays empty when the balance engine defers the ledger insert.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AsyncTransactionStatus(String id,
+                                     Long walletId,
+                                     TransactionWallet.TransactionType type,
+                                     Money amount,
+                                     State state,
+                                     Long transactionId,
+                                     String error,
+                                     LocalDateTime submittedAt,
+                                     LocalDateTime finishedAt) {
+
+    public enum State {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+
+    public static AsyncTransactionStatus pending(String id, Long walletId,
+                                                 TransactionWallet.TransactionType type, Money amount) {
+        return new AsyncTransactionStatus(id, walletId, type, amount, State.PENDING, null, null,
+                LocalDateTime.now(), null);
+    }
+
+    public AsyncTransactionStatus completed(Long transactionId) {
+        return new AsyncTransactionStatus(id, walletId, type, amount, State.COMPLETED, transactionId, null,
+                submittedAt, LocalDateTime.now());
+    }
+
+    public AsyncTransactionStatus failed(String error) {
+        return new AsyncTransactionStatus(id, walletId, type, amount, State.FAILED, null, error,
+                submittedAt, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.model.dto;
+
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * A wallet's balance right after a change. Published as an application event once the change
+ * is committed and pushed to balance stream subscribers as-is.
+ */
+public record BalanceChange(Long walletId, Money balance, LocalDateTime changedAt) {
+
+    public static BalanceChange of(Wallet wallet) {
+        return new BalanceChange(wallet.getId(), wallet.getBalance(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.model.dto;
+
+import com.example.model.TransactionWallet;
+import com.example.model.money.Money;
+
+/**
+ * One deposit or withdrawal read from a bulk upload.
+ */
+public record BulkOperation(Long walletId, TransactionWallet.TransactionType type, Money amount) {
+}
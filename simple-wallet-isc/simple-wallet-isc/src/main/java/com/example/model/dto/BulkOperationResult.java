@@ -0,0 +1,23 @@
+package com.example.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one line of a bulk upload, written back as one NDJSON line.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkOperationResult(long line, Status status, Long transactionId, String error) {
+
+    public enum Status {
+        APPLIED,
+        REJECTED
+    }
+
+    public static BulkOperationResult applied(long line, Long transactionId) {
+        return new BulkOperationResult(line, Status.APPLIED, transactionId, null);
+    }
+
+    public static BulkOperationResult rejected(long line, String error) {
+        return new BulkOperationResult(line, Status.REJECTED, null, error);
+    }
+}
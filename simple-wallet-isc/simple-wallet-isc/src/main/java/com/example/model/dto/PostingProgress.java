@@ -0,0 +1,31 @@
+package com.example.model.dto;
+
+import com.example.model.money.Money;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a batch posting run, served at {@code /actuator/postings}. Counts cover the whole run,
+ * including chunks committed before a resume. A run is {@code FAILED} when any chunk could not be
+ * posted; starting it again with the same run key posts only the chunks without a checkpoint.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PostingProgress(String runKey,
+                              String rule,
+                              State state,
+                              long chunksTotal,
+                              long chunksDone,
+                              long chunksFailed,
+                              long walletsPosted,
+                              long walletsSkipped,
+                              Money amountPosted,
+                              LocalDateTime startedAt,
+                              LocalDateTime finishedAt) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
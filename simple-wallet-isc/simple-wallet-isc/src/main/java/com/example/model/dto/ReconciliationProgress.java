@@ -0,0 +1,27 @@
+package com.example.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a reconciliation pass, served at {@code /actuator/reconciliation}. A pass is
+ * {@code FAILED} when any chunk could not be checked; the wallets in it were not reconciled.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReconciliationProgress(String runId,
+                                     State state,
+                                     long chunksTotal,
+                                     long chunksDone,
+                                     long chunksFailed,
+                                     long walletsChecked,
+                                     long mismatches,
+                                     LocalDateTime startedAt,
+                                     LocalDateTime finishedAt) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.model.dto;
+
+import com.example.model.money.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * A wallet's stored balance next to the totals of its ledger, as read by one reconciliation chunk.
+ * {@code deposits} and {@code withdrawals} are zero for a wallet without transactions of that type.
+ */
+public record ReconciliationRow(Long walletId,
+                                Money balance,
+                                Money deposits,
+                                Money withdrawals) {
+
+    // SUM over a Money column comes back as the column's decimal, and as null when there is nothing to add up
+    public ReconciliationRow(Long walletId, Money balance, BigDecimal deposits, BigDecimal withdrawals) {
+        this(walletId, balance, deposits == null ? Money.ZERO : Money.of(deposits),
+                withdrawals == null ? Money.ZERO : Money.of(withdrawals));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.model.dto;
+
+import com.example.model.TransactionWallet;
+import com.example.model.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of a transaction export. Selected with a JPQL constructor expression, so
+ * streaming an export never puts a {@code TransactionWallet} or its {@code Wallet} into the
+ * persistence context.
+ */
+public record TransactionExportRow(Long id,
+                                   Long walletId,
+                                   TransactionWallet.TransactionType type,
+                                   Money amount,
+                                   LocalDateTime transactionDate,
+                                   String transferId) {
+}
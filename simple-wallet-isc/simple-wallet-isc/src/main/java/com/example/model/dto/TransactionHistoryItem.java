@@ -0,0 +1,16 @@
+package com.example.model.dto;
+
+import com.example.model.TransactionWallet;
+import com.example.model.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a wallet's transaction history. Selected with a JPQL constructor
+ * expression so a history page never loads the owning {@code Wallet}.
+ */
+public record TransactionHistoryItem(Long id,
+                                     TransactionWallet.TransactionType type,
+                                     Money amount,
+                                     LocalDateTime transactionDate) {
+}
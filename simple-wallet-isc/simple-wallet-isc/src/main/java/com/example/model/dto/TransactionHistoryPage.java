@@ -0,0 +1,9 @@
+package com.example.model.dto;
+
+import java.util.List;
+
+/**
+ * A page of transaction history, newest first. {@code nextCursor} is null on the last page.
+ */
+public record TransactionHistoryPage(List<TransactionHistoryItem> items, String nextCursor) {
+}
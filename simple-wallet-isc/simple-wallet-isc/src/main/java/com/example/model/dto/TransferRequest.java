@@ -0,0 +1,11 @@
+package com.example.model.dto;
+
+import com.example.model.money.Money;
+import com.example.model.money.MoneyMin;
+import jakarta.validation.constraints.NotNull;
+
+public record TransferRequest(@NotNull(message = "Source wallet is required") Long fromWalletId,
+                              @NotNull(message = "Destination wallet is required") Long toWalletId,
+                              @NotNull(message = "Amount is required")
+                              @MoneyMin(value = "0.01", message = "Amount must be positive") Money amount) {
+}
@@ -0,0 +1,17 @@
+package com.example.model.dto;
+
+import com.example.model.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a wallet-to-wallet transfer. Both legs carry the same {@code transferId}.
+ */
+public record TransferResult(String transferId,
+                             Long fromWalletId,
+                             Long toWalletId,
+                             Money amount,
+                             Long debitTransactionId,
+                             Long creditTransactionId,
+                             LocalDateTime transactionDate) {
+}
@@ -0,0 +1,20 @@
+package com.example.model.dto;
+
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+
+import java.time.LocalDate;
+
+/**
+ * What GET /api/users/getUser/{id} returns. Selected with a JPQL constructor expression, so neither the
+ * {@code User} nor its {@code Wallet} is loaded; {@code walletId} is null for a user without one.
+ */
+public record UserProfile(Long id,
+                          String fullName,
+                          String email,
+                          String phoneNumber,
+                          LocalDate dateOfBirth,
+                          UserGender gender,
+                          UserStatusForMan userStatusForMan,
+                          Long walletId) {
+}
@@ -0,0 +1,38 @@
+package com.example.model.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Seek position inside a user search: the query word results are ordered by, and the
+ * (matchedToken, id) of the last result already returned. Clients receive it as an opaque URL-safe token.
+ */
+public record UserSearchCursor(String lead, String token, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static UserSearchCursor after(String lead, UserSearchResult result) {
+        return new UserSearchCursor(lead, result.matchedToken(), result.id());
+    }
+
+    public String encode() {
+        String raw = lead + SEPARATOR + token + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Words never contain the separator, so the three parts split unambiguously
+    public static UserSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first <= 0 || first == last) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new UserSearchCursor(raw.substring(0, first), raw.substring(first + 1, last),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.model.dto;
+
+import java.util.List;
+
+/**
+ * A page of user search results, ordered by the matching name word. {@code nextCursor} is null on the last page.
+ */
+public record UserSearchPage(List<UserSearchResult> items, String nextCursor) {
+}
@@ -0,0 +1,14 @@
+package com.example.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * One user matching a name search. Selected with a JPQL constructor expression so a search page never
+ * loads {@code User} entities. {@code matchedToken} is the name word the match was found on; it positions
+ * the next page and is not part of the response.
+ */
+public record UserSearchResult(@JsonIgnore String matchedToken,
+                               Long id,
+                               String fullName,
+                               String email) {
+}
@@ -0,0 +1,18 @@
+package com.example.model.dto;
+
+import com.example.model.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * What GET /api/transactions/{walletId} returns. Selected with a JPQL constructor expression, so the
+ * owning {@code User} and the last {@code TransactionWallet} are referred to by id and never loaded.
+ */
+public record WalletDetails(Long id,
+                            String accountNumber,
+                            String shabaNumber,
+                            Money balance,
+                            String owner,
+                            LocalDateTime creationDate,
+                            Long userId) {
+}
@@ -0,0 +1,43 @@
+package com.example.model.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A {@link SequenceStyleGenerator} whose block size and optimizer come from configuration
+ * instead of the mapping, so they can be tuned per environment:
+ * <ul>
+ *     <li>{@value #ALLOCATION_SIZE_SETTING}: ids handed out per sequence call, also used as the
+ *     sequence increment (default {@value #DEFAULT_ALLOCATION_SIZE})</li>
+ *     <li>{@value #OPTIMIZER_SETTING}: {@code pooled-lo} (default) or {@code pooled}</li>
+ * </ul>
+ * Changing the allocation size of an existing sequence requires altering its increment to match.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "wallet.id.allocation_size";
+    public static final String OPTIMIZER_SETTING = "wallet.id.optimizer";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.sequenceName();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        parameters.put(SEQUENCE_PARAM, sequenceName);
+        parameters.put(INCREMENT_PARAM, String.valueOf(settings.getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE)));
+        parameters.put(OPT_PARAM, String.valueOf(settings.getOrDefault(OPTIMIZER_SETTING, "pooled-lo")));
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.model.money;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** The {@link Money} must be at most {@link #value()}, a decimal string; null is valid. */
+@Constraint(validatedBy = MoneyMaxValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.RECORD_COMPONENT})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MoneyMax {
+
+    String value();
+
+    String message() default "Amount is too large";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,20 @@
+package com.example.model.money;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class MoneyMaxValidator implements ConstraintValidator<MoneyMax, Money> {
+
+    // Parsed once, so each check is a single long comparison
+    private long maximumMinorUnits;
+
+    @Override
+    public void initialize(MoneyMax constraint) {
+        maximumMinorUnits = Money.parse(constraint.value()).minorUnits();
+    }
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        return value == null || value.minorUnits() <= maximumMinorUnits;
+    }
+}
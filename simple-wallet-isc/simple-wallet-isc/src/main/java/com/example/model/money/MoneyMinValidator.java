@@ -0,0 +1,20 @@
+package com.example.model.money;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class MoneyMinValidator implements ConstraintValidator<MoneyMin, Money> {
+
+    // Parsed once, so each check is a single long comparison
+    private long minimumMinorUnits;
+
+    @Override
+    public void initialize(MoneyMin constraint) {
+        minimumMinorUnits = Money.parse(constraint.value()).minorUnits();
+    }
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        return value == null || value.minorUnits() >= minimumMinorUnits;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.repository;
+
+import com.example.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepo extends JpaRepository<IdempotencyRecord, String> {
+
+    // A plain INSERT (save() would merge an assigned id); a concurrent claim of the same key fails on the primary key
+    @Transactional
+    @Modifying
+    @Query("INSERT INTO IdempotencyRecord (idempotencyKey, requestFingerprint, createdAt) " +
+            "VALUES (:key, :fingerprint, :createdAt)")
+    int claim(@Param("key") String key,
+              @Param("fingerprint") String fingerprint,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.contentType = :contentType, " +
+            "r.responseBody = :body WHERE r.idempotencyKey = :key")
+    int complete(@Param("key") String key,
+                 @Param("status") int status,
+                 @Param("contentType") String contentType,
+                 @Param("body") byte[] body);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.responseStatus IS NULL")
+    int release(@Param("key") String key);
+
+    // Completed records expire after the retention period, claims left behind by a crash after the pending timeout
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :expiredBefore " +
+            "OR (r.responseStatus IS NULL AND r.createdAt < :staleBefore)")
+    int purge(@Param("expiredBefore") LocalDateTime expiredBefore,
+              @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,13 @@
+package com.example.repository;
+
+import com.example.model.PostingCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PostingCheckpointRepo extends JpaRepository<PostingCheckpoint, Long> {
+
+    List<PostingCheckpoint> findByRunKey(String runKey);
+}
@@ -0,0 +1,13 @@
+package com.example.repository;
+
+import com.example.model.ReconciliationMismatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationMismatchRepo extends JpaRepository<ReconciliationMismatch, Long> {
+
+    List<ReconciliationMismatch> findByRunIdOrderByWalletId(String runId);
+}
@@ -1,9 +1,58 @@
 package com.example.repository;
 
 import com.example.model.TransactionWallet;
+import com.example.model.dto.TransactionExportRow;
+import com.example.model.dto.TransactionHistoryItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface TransactionWalletRepo extends JpaRepository<TransactionWallet, Long> {
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    // First page of a wallet's history, newest first
+    @Query("SELECT new com.example.model.dto.TransactionHistoryItem(t.id, t.type, t.amount, t.transactionDate) " +
+            "FROM TransactionWallet t WHERE t.wallet.id = :walletId " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionHistoryItem> findHistory(@Param("walletId") Long walletId, Limit limit);
+
+    // Next page: seeks past (afterDate, afterId) on idx_transaction_wallet_history instead of skipping an OFFSET
+    @Query("SELECT new com.example.model.dto.TransactionHistoryItem(t.id, t.type, t.amount, t.transactionDate) " +
+            "FROM TransactionWallet t WHERE t.wallet.id = :walletId " +
+            "AND (t.transactionDate < :afterDate OR (t.transactionDate = :afterDate AND t.id < :afterId)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionHistoryItem> findHistoryBefore(@Param("walletId") Long walletId,
+                                                   @Param("afterDate") LocalDateTime afterDate,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
+
+    // Export rows in [from, to), oldest first. Read forward-only through a cursor, EXPORT_FETCH_SIZE rows per
+    // round trip; the caller must hold a transaction open and close the stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.example.model.dto.TransactionExportRow(t.id, t.wallet.id, t.type, t.amount, t.transactionDate, t.transferId) " +
+            "FROM TransactionWallet t WHERE t.transactionDate >= :from AND t.transactionDate < :to " +
+            "ORDER BY t.transactionDate, t.id")
+    Stream<TransactionExportRow> streamExport(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // Same as streamExport for one wallet; served by idx_transaction_wallet_history
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.example.model.dto.TransactionExportRow(t.id, t.wallet.id, t.type, t.amount, t.transactionDate, t.transferId) " +
+            "FROM TransactionWallet t WHERE t.wallet.id = :walletId " +
+            "AND t.transactionDate >= :from AND t.transactionDate < :to " +
+            "ORDER BY t.transactionDate, t.id")
+    Stream<TransactionExportRow> streamExportForWallet(@Param("walletId") Long walletId,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,67 @@
+package com.example.repository;
+
+import com.example.model.UserNameToken;
+import com.example.model.dto.UserSearchResult;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserNameTokenRepo extends JpaRepository<UserNameToken, UserNameToken.Key> {
+
+    // Every pattern is a normalized word followed by '%'. The scan seeks the primary key on :lead; a user is
+    // reported once, on its smallest matching word, and must have a word matching each of :also1..:also3
+    // (callers pass :lead again for the ones they don't need)
+    String SEARCH = "SELECT new com.example.model.dto.UserSearchResult(t.token, u.id, u.fullName, u.email) " +
+            "FROM UserNameToken t JOIN User u ON u.id = t.userId " +
+            "WHERE t.token LIKE :lead " +
+            "AND EXISTS (SELECT 1 FROM UserNameToken a WHERE a.userId = t.userId AND a.token LIKE :also1) " +
+            "AND EXISTS (SELECT 1 FROM UserNameToken a WHERE a.userId = t.userId AND a.token LIKE :also2) " +
+            "AND EXISTS (SELECT 1 FROM UserNameToken a WHERE a.userId = t.userId AND a.token LIKE :also3) " +
+            "AND NOT EXISTS (SELECT 1 FROM UserNameToken s WHERE s.userId = t.userId AND s.token LIKE :lead AND s.token < t.token) ";
+
+    // First page of a search, ordered by matching word then user id
+    @Query(SEARCH + "ORDER BY t.token, t.userId")
+    List<UserSearchResult> search(@Param("lead") String lead,
+                                  @Param("also1") String also1,
+                                  @Param("also2") String also2,
+                                  @Param("also3") String also3,
+                                  Limit limit);
+
+    // Next page: seeks past (afterToken, afterId) instead of skipping an OFFSET
+    @Query(SEARCH + "AND (t.token > :afterToken OR (t.token = :afterToken AND t.userId > :afterId)) " +
+            "ORDER BY t.token, t.userId")
+    List<UserSearchResult> searchAfter(@Param("lead") String lead,
+                                       @Param("also1") String also1,
+                                       @Param("also2") String also2,
+                                       @Param("also3") String also3,
+                                       @Param("afterToken") String afterToken,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
+
+    // Users having a word that matches :pattern; with a small limit, a cheap estimate of how selective it is
+    @Query("SELECT t.userId FROM UserNameToken t WHERE t.token LIKE :pattern")
+    List<Long> findUserIdsByTokenLike(@Param("pattern") String pattern, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM UserNameToken t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Users after :afterId that have a name but no tokens yet, in id order
+    @Query("SELECT u.id AS id, u.fullName AS fullName FROM User u " +
+            "WHERE u.id > :afterId AND u.fullName IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM UserNameToken t WHERE t.userId = u.id) " +
+            "ORDER BY u.id")
+    List<UnindexedUser> findUnindexed(@Param("afterId") Long afterId, Limit limit);
+
+    interface UnindexedUser {
+        Long getId();
+
+        String getFullName();
+    }
+}
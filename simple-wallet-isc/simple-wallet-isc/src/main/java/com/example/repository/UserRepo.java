@@ -1,7 +1,10 @@
 package com.example.repository;
 
 import com.example.model.User;
+import com.example.model.dto.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,8 +12,15 @@ import java.util.Optional;
 public interface UserRepo extends JpaRepository<User, Long> {
 
 
-    Optional<Object> findByfullName(String fullName);
+    Optional<User> findByfullName(String fullName);
 
     Optional<User> findByEmail(String email);
 
+    boolean existsByEmail(String email);
+
+    // One statement with the wallet id joined in, instead of the User plus its inverse one-to-one lookup
+    @Query("SELECT new com.example.model.dto.UserProfile(u.id, u.fullName, u.email, u.phoneNumber, u.dateOfBirth, " +
+            "u.gender, u.userStatusForMan, w.id) FROM User u LEFT JOIN u.wallet w WHERE u.id = :id")
+    Optional<UserProfile> findProfileById(@Param("id") Long id);
+
 }
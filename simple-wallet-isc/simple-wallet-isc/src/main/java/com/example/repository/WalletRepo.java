@@ -1,10 +1,103 @@
 package com.example.repository;
 
+import com.example.model.TransactionWallet;
 import com.example.model.Wallet;
+import com.example.model.dto.ReconciliationRow;
+import com.example.model.dto.WalletDetails;
+import com.example.model.money.Money;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WalletRepo extends JpaRepository<Wallet, Long> {
+    // Query cache keeps the matching id; the wallet itself then comes from its entity region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Wallet findByUserId(Long userId);
+
+    // Just the balance column; the wallet and its one-to-ones are not loaded
+    @Query("SELECT w.balance FROM Wallet w WHERE w.id = :id")
+    Optional<Money> findBalanceById(@Param("id") Long id);
+
+    // The owner for access checks: the user_id column alone, no join
+    @Query("SELECT w.user.id FROM Wallet w WHERE w.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    // w.user.id reads the user_id column, no join
+    @Query("SELECT new com.example.model.dto.WalletDetails(w.id, w.accountNumber, w.shabaNumber, w.balance, " +
+            "w.owner, w.creationDate, w.user.id) FROM Wallet w WHERE w.id = :id")
+    Optional<WalletDetails> findDetailsById(@Param("id") Long id);
+
+    boolean existsByAccountNumberOrShabaNumber(String accountNumber, String shabaNumber);
+
+    @Query("SELECT MIN(w.id) AS minId, MAX(w.id) AS maxId FROM Wallet w")
+    WalletIdRange findIdRange();
+
+    // Each wallet in [fromId, toId) with its deposit and withdrawal totals. One statement,
+    // so the balance and the totals are read from the same snapshot
+    @Query("SELECT new com.example.model.dto.ReconciliationRow(w.id, w.balance, " +
+            "(SELECT SUM(t.amount) FROM TransactionWallet t WHERE t.wallet.id = w.id AND t.type = :deposit), " +
+            "(SELECT SUM(t.amount) FROM TransactionWallet t WHERE t.wallet.id = w.id AND t.type = :withdrawal)) " +
+            "FROM Wallet w WHERE w.id >= :fromId AND w.id < :toId")
+    List<ReconciliationRow> findReconciliationRows(@Param("fromId") long fromId,
+                                                   @Param("toId") long toId,
+                                                   @Param("deposit") TransactionWallet.TransactionType deposit,
+                                                   @Param("withdrawal") TransactionWallet.TransactionType withdrawal);
+
+    // SELECT ... FOR UPDATE; waits at most jakarta.persistence.lock.timeout for the row lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> findByIdForUpdate(@Param("id") Long id);
+
+    // Locks a whole chunk of wallets in ascending id order, the same order transfers use
+    default List<Wallet> findAllByIdForUpdate(Collection<Long> ids) {
+        return findAllByIdArrayForUpdate(ids.toArray(Long[]::new));
+    }
+
+    // One array parameter instead of an IN list, so the statement is the same for any number of ids: Hibernate
+    // translates an expanded IN list again on every call
+    @Query(value = "SELECT * FROM wallets WHERE id = ANY(:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Wallet> findAllByIdArrayForUpdate(@Param("ids") Long[] ids);
+
+    // Locks every wallet in [fromId, toId) in ascending id order, for batch postings
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id >= :fromId AND w.id < :toId ORDER BY w.id")
+    List<Wallet> findAllInRangeForUpdate(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Applies delta only if the balance stays at or above minimumBalance; returns 0 when the guard (or the id) fails
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :delta, w.version = COALESCE(w.version, 0) + 1 " +
+            "WHERE w.id = :id AND w.balance >= :minimumBalance - :delta")
+    int applyBalanceDelta(@Param("id") Long id,
+                          @Param("delta") Money delta,
+                          @Param("minimumBalance") Money minimumBalance);
+
+    // Used by the balance engine, which owns the authoritative balance and writes it back as-is
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = :balance, w.version = COALESCE(w.version, 0) + 1 WHERE w.id = :id")
+    int overwriteBalance(@Param("id") Long id, @Param("balance") Money balance);
+
+    // Rows from before the version column had a default carry NULL, which optimistic checks never match
+    @Transactional
+    @Modifying
+    @Query("UPDATE Wallet w SET w.version = 0 WHERE w.version IS NULL")
+    int backfillVersions();
+
+    interface WalletIdRange {
+        Long getMinId();
+
+        Long getMaxId();
+    }
 }
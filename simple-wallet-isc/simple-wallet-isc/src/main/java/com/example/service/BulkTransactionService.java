@@ -0,0 +1,261 @@
+package com.example.service;
+
+import com.example.exception.BalanceEngineActiveException;
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.dto.BalanceChange;
+import com.example.model.dto.BulkOperation;
+import com.example.model.dto.BulkOperationResult;
+import com.example.model.money.Money;
+import com.example.repository.WalletRepo;
+import com.example.service.engine.BalanceEngine;
+import com.example.service.ledger.LedgerRowWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Applies large uploads of deposits and withdrawals. The input is read line by line and
+ * applied in chunks; each chunk is one transaction that locks its wallets once, inserts its
+ * ledger rows as one JDBC batch through {@link LedgerRowWriter} and lets Hibernate send the
+ * balance updates as JDBC batches ({@code hibernate.jdbc.batch_size}). Amounts are checked
+ * against the same request limits as {@link TransactionWallet}. Results are streamed back one
+ * NDJSON line per input line, so memory stays bounded by the chunk size regardless of the
+ * upload size.
+ */
+@Service
+public class BulkTransactionService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkTransactionService.class);
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private LedgerRowWriter ledgerRowWriter;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Present only when wallet.balance.engine.enabled=true; uploads are then refused
+    @Autowired(required = false)
+    private BalanceEngine balanceEngine;
+
+    @Value("${wallet.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    // A parsed input line; exactly one of operation and error is set
+    private record Entry(long line, BulkOperation operation, String error) {
+    }
+
+    /**
+     * Applies every line of {@code input} and writes its results to {@code output}. Throws
+     * {@link BalanceEngineActiveException} before reading anything while the balance engine is on, since the
+     * engine would overwrite the balances the chunks write.
+     */
+    public void process(Reader input, Format format, Writer output) throws IOException {
+        if (balanceEngine != null) {
+            throw new BalanceEngineActiveException("Bulk uploads are not available while the balance engine is enabled");
+        }
+        BufferedReader reader = new BufferedReader(input);
+        // One generator for the whole upload, left open with the response; each result ends its own line
+        JsonGenerator results = objectMapper.createGenerator(output).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        results.setRootValueSeparator(null);
+        List<Entry> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        long processed = 0;
+        long applied = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                continue;
+            }
+            chunk.add(parse(lineNumber, line, format));
+            if (chunk.size() == chunkSize) {
+                applied += writeResults(applyChunk(chunk), results);
+                processed += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applied += writeResults(applyChunk(chunk), results);
+            processed += chunk.size();
+        }
+        results.flush();
+        logger.info("Bulk upload finished: {} applied, {} rejected", applied, processed - applied);
+    }
+
+    private List<BulkOperationResult> applyChunk(List<Entry> chunk) {
+        try {
+            return transactionOperations.execute(status -> applyInTransaction(chunk));
+        } catch (RuntimeException e) {
+            // The whole chunk rolled back; report every line so the caller can resubmit them
+            logger.error("Bulk chunk starting at line {} failed: {}", chunk.get(0).line(), e.getMessage());
+            List<BulkOperationResult> results = new ArrayList<>(chunk.size());
+            for (Entry entry : chunk) {
+                results.add(BulkOperationResult.rejected(entry.line(),
+                        entry.error() != null ? entry.error() : "Chunk failed, not applied"));
+            }
+            return results;
+        }
+    }
+
+    private List<BulkOperationResult> applyInTransaction(List<Entry> chunk) {
+        Set<Long> walletIds = new TreeSet<>();
+        for (Entry entry : chunk) {
+            if (entry.operation() != null) {
+                walletIds.add(entry.operation().walletId());
+            }
+        }
+        Map<Long, Wallet> wallets = new HashMap<>();
+        if (!walletIds.isEmpty()) {
+            for (Wallet wallet : walletRepo.findAllByIdForUpdate(walletIds)) {
+                wallets.put(wallet.getId(), wallet);
+            }
+        }
+
+        List<BulkOperationResult> results = new ArrayList<>(chunk.size());
+        List<LedgerRowWriter.Row> rows = new ArrayList<>(chunk.size());
+        List<Entry> appliedEntries = new ArrayList<>(chunk.size());
+        List<Integer> appliedResults = new ArrayList<>(chunk.size());
+        Map<Long, Wallet> changed = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Entry entry : chunk) {
+            if (entry.error() != null) {
+                results.add(BulkOperationResult.rejected(entry.line(), entry.error()));
+                continue;
+            }
+            BulkOperation operation = entry.operation();
+            Wallet wallet = wallets.get(operation.walletId());
+            if (wallet == null) {
+                results.add(BulkOperationResult.rejected(entry.line(), "Wallet not found"));
+                continue;
+            }
+            String violation = violation(operation);
+            if (violation != null) {
+                results.add(BulkOperationResult.rejected(entry.line(), violation));
+                continue;
+            }
+            try {
+                applyToWallet(wallet, operation);
+            } catch (IllegalArgumentException e) {
+                results.add(BulkOperationResult.rejected(entry.line(), e.getMessage()));
+                continue;
+            }
+            rows.add(new LedgerRowWriter.Row(wallet.getId(), operation.type(), operation.amount(), now));
+            changed.put(wallet.getId(), wallet);
+            appliedEntries.add(entry);
+            appliedResults.add(results.size());
+            // Replaced once the row has its id
+            results.add(null);
+        }
+        List<Long> transactionIds = ledgerRowWriter.insertAll(rows);
+        for (int i = 0; i < transactionIds.size(); i++) {
+            results.set(appliedResults.get(i), BulkOperationResult.applied(appliedEntries.get(i).line(), transactionIds.get(i)));
+        }
+        walletRepo.saveAll(wallets.values());
+        // Delivered only if the chunk commits
+        changed.values().forEach(wallet -> eventPublisher.publishEvent(BalanceChange.of(wallet)));
+        return results;
+    }
+
+    // The amount is the only field left to check: parse() required the type and the wallet was found. validateValue
+    // skips the traversal checks validating a whole TransactionWallet does on its lazy wallet
+    private String violation(BulkOperation operation) {
+        Set<ConstraintViolation<TransactionWallet>> violations =
+                validator.validateValue(TransactionWallet.class, "amount", operation.amount());
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private void applyToWallet(Wallet wallet, BulkOperation operation) {
+        Money amount = operation.amount();
+        if (operation.type() == TransactionWallet.TransactionType.DEPOSIT) {
+            wallet.addFunds(amount);
+        } else {
+            if (wallet.getBalance().isLessThan(amount)) {
+                throw new IllegalArgumentException("Insufficient funds for withdrawal");
+            }
+            wallet.withdrawFunds(amount);
+        }
+    }
+
+    private Entry parse(long lineNumber, String line, Format format) {
+        try {
+            BulkOperation operation = format == Format.CSV ? parseCsv(line) : objectMapper.readValue(line, BulkOperation.class);
+            if (operation.walletId() == null) {
+                return new Entry(lineNumber, null, "Wallet id is required");
+            }
+            if (operation.type() == null) {
+                return new Entry(lineNumber, null, "Transaction type is required");
+            }
+            return new Entry(lineNumber, operation, null);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return new Entry(lineNumber, null, "Malformed line");
+        }
+    }
+
+    // walletId,type,amount
+    private static BulkOperation parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("Expected 3 fields");
+        }
+        return new BulkOperation(Long.valueOf(fields[0].trim()),
+                TransactionWallet.TransactionType.valueOf(fields[1].trim().toUpperCase(Locale.ROOT)),
+                Money.parse(fields[2].trim()));
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return !Character.isDigit(line.trim().charAt(0));
+    }
+
+    // Returns how many lines were applied
+    private int writeResults(List<BulkOperationResult> results, JsonGenerator output) throws IOException {
+        int applied = 0;
+        for (BulkOperationResult result : results) {
+            output.writeObject(result);
+            output.writeRaw('\n');
+            if (result.status() == BulkOperationResult.Status.APPLIED) {
+                applied++;
+            }
+        }
+        output.flush();
+        return applied;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.service;
+
+import com.example.exception.IdempotencyConflictException;
+import com.example.model.IdempotencyRecord;
+import com.example.repository.IdempotencyRecordRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Remembers the responses of requests sent with an {@code Idempotency-Key}. Completed responses are
+ * served from a bounded in-memory cache with TTL eviction; the {@code idempotency_keys} table makes
+ * them survive restarts and be shared between instances, and its primary key stops two concurrent
+ * requests with the same key from both executing.
+ * <p>
+ * Only the claim is written on the request's path. Completed responses go to the cache at once and are
+ * written to the table by {@link #flushCompletions()} every {@code flush-interval} as one JDBC batch;
+ * until then another instance answers the key with 409 rather than running it again. When more than
+ * {@code cache-size} completions are waiting, the caller writes its own.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final String COMPLETE_KEY =
+            "UPDATE idempotency_keys SET response_status = ?, content_type = ?, response_body = ? WHERE idempotency_key = ?";
+
+    private final IdempotencyRecordRepo idempotencyRecordRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final Cache<String, IdempotencyRecord> completed;
+    private final BlockingQueue<IdempotencyRecord> unsaved;
+    private final Duration retention;
+    private final Duration pendingTimeout;
+
+    public IdempotencyService(IdempotencyRecordRepo idempotencyRecordRepo,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionOperations transactionOperations,
+                              @Value("${wallet.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${wallet.idempotency.retention:PT24H}") Duration retention,
+                              @Value("${wallet.idempotency.pending-timeout:PT5M}") Duration pendingTimeout) {
+        this.idempotencyRecordRepo = idempotencyRecordRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.unsaved = new ArrayBlockingQueue<>(cacheSize);
+        this.retention = retention;
+        this.pendingTimeout = pendingTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * Claims the key for a new request. Returns the stored response when the request was already
+     * completed, or empty when the caller now owns the key and must {@link #complete} or
+     * {@link #release} it.
+     */
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        IdempotencyRecord cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(checkFingerprint(cached, fingerprint));
+        }
+
+        try {
+            idempotencyRecordRepo.claim(key, fingerprint, LocalDateTime.now());
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = idempotencyRecordRepo.findById(key)
+                    .orElseThrow(IdempotencyService::inProgress);
+            checkFingerprint(existing, fingerprint);
+            if (!existing.isCompleted()) {
+                throw inProgress();
+            }
+            completed.put(key, existing);
+            return Optional.of(existing);
+        }
+    }
+
+    public void complete(String key, String fingerprint, int status, String contentType, byte[] body) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setRequestFingerprint(fingerprint);
+        record.setResponseStatus(status);
+        record.setContentType(contentType);
+        record.setResponseBody(body);
+        record.setCreatedAt(LocalDateTime.now());
+        completed.put(key, record);
+        if (!unsaved.offer(record)) {
+            // The flush has fallen behind; store this one on the request's thread
+            idempotencyRecordRepo.complete(key, status, contentType, body);
+        }
+    }
+
+    /** Writes the responses completed since the last flush as one batch in one transaction. */
+    @Scheduled(fixedDelayString = "${wallet.idempotency.flush-interval:PT0.02S}")
+    public void flushCompletions() {
+        List<IdempotencyRecord> batch = new ArrayList<>();
+        unsaved.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> values = new ArrayList<>(batch.size());
+        for (IdempotencyRecord record : batch) {
+            values.add(new Object[]{record.getResponseStatus(), record.getContentType(), record.getResponseBody(),
+                    record.getIdempotencyKey()});
+        }
+        try {
+            transactionOperations.executeWithoutResult(status -> jdbcTemplate.batchUpdate(COMPLETE_KEY, values));
+        } catch (RuntimeException e) {
+            // The keys stay pending in the table, so other instances keep answering 409; tried again on the next flush
+            logger.error("Could not store {} idempotent responses, retrying", batch.size(), e);
+            int dropped = 0;
+            for (IdempotencyRecord record : batch) {
+                if (!unsaved.offer(record)) {
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                logger.error("Gave up storing {} idempotent responses; their keys stay pending until the pending timeout", dropped);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushCompletions();
+    }
+
+    // The request failed or was rejected: nothing was stored, so the client may retry with the same key
+    public void release(String key) {
+        idempotencyRecordRepo.release(key);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = idempotencyRecordRepo.purge(now.minus(retention), now.minus(pendingTimeout));
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static IdempotencyRecord checkFingerprint(IdempotencyRecord record, String fingerprint) {
+        if (!record.getRequestFingerprint().equals(fingerprint)) {
+            throw new IdempotencyConflictException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        return record;
+    }
+
+    private static IdempotencyConflictException inProgress() {
+        return new IdempotencyConflictException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed");
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.service;
+
+import com.example.model.dto.TransactionExportRow;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every transaction in a date range, optionally for one wallet, as NDJSON or CSV. Rows are
+ * read forward-only through a database cursor and written as they arrive, and the query selects
+ * plain rows rather than entities, so memory stays flat whatever the size of the export.
+ */
+@Service
+public class TransactionExportService {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    /** Where an export is written; opened only after the export's arguments have been checked. */
+    @FunctionalInterface
+    public interface Destination {
+        Writer open() throws IOException;
+    }
+
+    static final String CSV_HEADER = "id,walletId,type,amount,transactionDate,transferId";
+
+    // Rows between explicit flushes, so a slow export still shows steady progress
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Writes the transactions dated in {@code [from, to)} oldest first to {@code destination}, closes
+     * it, and returns how many were written. Bad arguments fail before the destination is opened.
+     *
+     * @param walletId limits the export to one wallet; {@code null} exports all wallets
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, Long walletId, Format format,
+                       Destination destination) throws IOException {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Export range must have from before to");
+        }
+        if (walletId != null && !walletRepo.existsById(walletId)) {
+            throw new IllegalArgumentException("Wallet not found");
+        }
+
+        long written = 0;
+        try (Stream<TransactionExportRow> rows = walletId == null
+                ? transactionWalletRepo.streamExport(from, to)
+                : transactionWalletRepo.streamExportForWallet(walletId, from, to);
+             Writer output = destination.open()) {
+            if (format == Format.CSV) {
+                output.write(CSV_HEADER);
+                output.write('\n');
+            }
+            Iterator<TransactionExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                write(iterator.next(), format, output);
+                if (++written % FLUSH_EVERY == 0) {
+                    output.flush();
+                }
+            }
+        }
+        logger.info("Exported {} transactions from {} to {} for wallet ID: {}", written, from, to, walletId);
+        return written;
+    }
+
+    private void write(TransactionExportRow row, Format format, Writer output) throws IOException {
+        if (format == Format.NDJSON) {
+            output.write(objectMapper.writeValueAsString(row));
+        } else {
+            output.write(String.valueOf(row.id()));
+            output.write(',');
+            output.write(String.valueOf(row.walletId()));
+            output.write(',');
+            output.write(row.type().name());
+            output.write(',');
+            output.write(row.amount().toBigDecimal().toPlainString());
+            output.write(',');
+            output.write(row.transactionDate().toString());
+            output.write(',');
+            if (row.transferId() != null) {
+                output.write(row.transferId());
+            }
+        }
+        output.write('\n');
+    }
+}
@@ -1,66 +1,199 @@
 package com.example.service;
 
+import com.example.exception.BalanceEngineActiveException;
 import com.example.exception.InsufficientFundsException;
 import com.example.exception.WalletNotFoundException;
 import com.example.model.TransactionWallet;
 import com.example.model.Wallet;
+import com.example.model.dto.BalanceChange;
+import com.example.model.dto.HistoryCursor;
+import com.example.model.dto.TransactionHistoryItem;
+import com.example.model.dto.TransactionHistoryPage;
+import com.example.model.dto.TransferResult;
+import com.example.model.dto.WalletDetails;
+import com.example.model.money.Money;
 import com.example.repository.TransactionWalletRepo;
 import com.example.repository.WalletRepo;
+import com.example.service.cache.WalletReadCache;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.concurrency.BalanceUpdateStrategy;
+import com.example.service.engine.BalanceEngine;
+import com.example.service.groupcommit.GroupCommitStage;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Service
 public class TransactionWalletService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionWalletService.class);
 
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     @Autowired
     private TransactionWalletRepo transactionWalletRepo;
 
     @Autowired
     private WalletRepo walletRepo;
 
-    @Transactional
+    @Autowired
+    private BalanceUpdateStrategy balanceUpdateStrategy;
+
+    // Balance changes are published for the balance stream, which only acts on them after commit
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Present only when wallet.cache.enabled=true
+    @Autowired(required = false)
+    private WalletReadCache walletReadCache;
+
+    // Cache misses only: a hit needs neither a transaction nor a connection. Without a transaction manager
+    // (unit tests) the loaders run as plain repository calls.
+    private TransactionOperations readOnlyTransaction = TransactionOperations.withoutTransaction();
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        this.readOnlyTransaction = template;
+    }
+
+    // Present only when wallet.balance.engine.enabled=true; deposits and withdrawals then bypass the strategy,
+    // transfers are refused
+    @Autowired(required = false)
+    private BalanceEngine balanceEngine;
+
+    // Present only when wallet.balance.group-commit.enabled=true; used when the engine is off
+    @Autowired(required = false)
+    private GroupCommitStage groupCommitStage;
+
+    // No @Transactional here: the balance strategy owns the transaction so it can retry it
     public TransactionWallet deposit(@PathVariable Long walletId,
-                                     @Valid @RequestBody BigDecimal amount) {
+                                     @Valid @RequestBody Money amount) {
         validateAmount(amount);
-        Wallet wallet = walletRepo.findById(walletId)
-                .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
+        if (balanceEngine != null || groupCommitStage != null) {
+            return published(submit(walletId, BalanceMutation.credit(amount), TransactionWallet.TransactionType.DEPOSIT));
+        }
+        return published(balanceUpdateStrategy.update(walletId, BalanceMutation.credit(amount),
+                () -> new IllegalArgumentException("Wallet not found"),
+                wallet -> createTransaction(wallet, TransactionWallet.TransactionType.DEPOSIT, amount)));
+    }
 
-        TransactionWallet transaction = new TransactionWallet(wallet, TransactionWallet.TransactionType.DEPOSIT, amount);
-        wallet.addFunds(amount);
-        transactionWalletRepo.save(transaction);
-        walletRepo.save(wallet);
-        return transaction;
+    public TransactionWallet withdraw(@PathVariable Long walletId,
+                                      @Valid @RequestBody Money amount) {
+        validateAmount(amount);
+        BalanceMutation withdrawal = new BalanceMutation(amount, true, wallet -> {
+            if (wallet.getBalance().isLessThan(amount)) {
+                throw new IllegalArgumentException("Insufficient funds for withdrawal");
+            }
+            wallet.withdrawFunds(amount);
+        });
+        if (balanceEngine != null || groupCommitStage != null) {
+            return published(submit(walletId, withdrawal, TransactionWallet.TransactionType.WITHDRAWAL));
+        }
+        return published(balanceUpdateStrategy.update(walletId, withdrawal,
+                () -> new IllegalArgumentException("Wallet not found"),
+                wallet -> {
+                    TransactionWallet transaction = createTransaction(wallet, TransactionWallet.TransactionType.WITHDRAWAL, amount);
+                    logger.info("Withdrew {} from wallet ID: {}. New balance: {}", amount, walletId, wallet.getBalance());
+                    return transaction;
+                }));
     }
 
+    /**
+     * Moves {@code amount} between two wallets in one transaction and records both legs.
+     * Row locks are always taken in ascending wallet-id order, so two transfers touching the
+     * same pair of wallets in opposite directions queue behind each other instead of deadlocking.
+     * Refused while the balance engine is on: it would overwrite both balances with its own.
+     */
     @Transactional
-    public TransactionWallet withdraw(@PathVariable Long walletId,
-                                      @Valid @RequestBody BigDecimal amount) {
+    public TransferResult transfer(Long fromWalletId, Long toWalletId, Money amount) {
+        if (balanceEngine != null) {
+            throw new BalanceEngineActiveException("Transfers are not available while the balance engine is enabled");
+        }
         validateAmount(amount);
-        Wallet wallet = walletRepo.findById(walletId)
-                .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
+        if (fromWalletId.equals(toWalletId)) {
+            throw new IllegalArgumentException("Cannot transfer to the same wallet");
+        }
 
-        if (wallet.getBalance().compareTo(amount) < 0) {
+        Long firstId = Math.min(fromWalletId, toWalletId);
+        Long secondId = Math.max(fromWalletId, toWalletId);
+        Wallet first = lockWallet(firstId);
+        Wallet second = lockWallet(secondId);
+        Wallet from = first.getId().equals(fromWalletId) ? first : second;
+        Wallet to = from == first ? second : first;
+
+        if (from.getBalance().isLessThan(amount)) {
             throw new IllegalArgumentException("Insufficient funds for withdrawal");
         }
-        TransactionWallet transaction = new TransactionWallet(wallet, TransactionWallet.TransactionType.WITHDRAWAL, amount);
-        wallet.withdrawFunds(amount);
-        transactionWalletRepo.save(transaction);
-        walletRepo.save(wallet);
-        logger.info("Withdrew {} from wallet ID: {}. New balance: {}", amount, walletId, wallet.getBalance());
+        from.withdrawFunds(amount);
+        to.addFunds(amount);
+
+        String transferId = UUID.randomUUID().toString();
+        TransactionWallet debit = new TransactionWallet(from, TransactionWallet.TransactionType.WITHDRAWAL, amount);
+        TransactionWallet credit = new TransactionWallet(to, TransactionWallet.TransactionType.DEPOSIT, amount);
+        debit.setTransferId(transferId);
+        credit.setTransferId(transferId);
+        credit.setTransactionDate(debit.getTransactionDate());
+        transactionWalletRepo.save(debit);
+        transactionWalletRepo.save(credit);
+        walletRepo.save(from);
+        walletRepo.save(to);
+        eventPublisher.publishEvent(BalanceChange.of(from));
+        eventPublisher.publishEvent(BalanceChange.of(to));
+
+        logger.info("Transferred {} from wallet ID: {} to wallet ID: {} (transfer {})", amount, fromWalletId, toWalletId, transferId);
+        return new TransferResult(transferId, fromWalletId, toWalletId, amount,
+                debit.getId(), credit.getId(), debit.getTransactionDate());
+    }
+
+    // Hands the mutation to the balance engine or the group-commit stage and waits for its outcome
+    private TransactionWallet submit(Long walletId, BalanceMutation mutation, TransactionWallet.TransactionType type) {
+        Supplier<IllegalArgumentException> notFound = () -> new IllegalArgumentException("Wallet not found");
+        CompletableFuture<TransactionWallet> result = balanceEngine != null
+                ? balanceEngine.submit(walletId, mutation, type, notFound)
+                : groupCommitStage.submit(walletId, mutation, type, notFound);
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Surface the rule's own exception so callers see the same errors as on the JPA path
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // The transaction carries the wallet as it was right after the change, and was dated while the change held it
+    private TransactionWallet published(TransactionWallet transaction) {
+        Wallet wallet = transaction.getWallet();
+        eventPublisher.publishEvent(new BalanceChange(wallet.getId(), wallet.getBalance(), transaction.getTransactionDate()));
         return transaction;
     }
 
-    private void validateAmount(@Valid @RequestBody BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+    private Wallet lockWallet(Long walletId) {
+        return walletRepo.findByIdForUpdate(walletId)
+                .orElseThrow(() -> new IllegalArgumentException("Wallet not found: " + walletId));
+    }
+
+    private void validateAmount(@Valid @RequestBody Money amount) {
+        if (amount.isNegative()) {
             throw new IllegalArgumentException("Amount must be positive");
         }
     }
@@ -70,28 +203,65 @@ public class TransactionWalletService {
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
     }
 
-    private void ensureSufficientFunds(Wallet wallet, @Valid @RequestBody BigDecimal amount) {
-        if (wallet.getBalance().compareTo(amount) < 0) {
+    private void ensureSufficientFunds(Wallet wallet, @Valid @RequestBody Money amount) {
+        if (wallet.getBalance().isLessThan(amount)) {
             throw new InsufficientFundsException("Insufficient funds for withdrawal");
         }
     }
 
-    private TransactionWallet createTransaction(Wallet wallet, TransactionWallet.TransactionType type, @Valid @RequestBody BigDecimal amount) {
+    private TransactionWallet createTransaction(Wallet wallet, TransactionWallet.TransactionType type, @Valid @RequestBody Money amount) {
         TransactionWallet transaction = new TransactionWallet(wallet, type, amount);
         transactionWalletRepo.save(transaction); // Save the transaction
         return transaction;
     }
 
-    private void updateWalletBalance(Wallet wallet, @Valid @RequestBody BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) > 0) {
+    private void updateWalletBalance(Wallet wallet, @Valid @RequestBody Money amount) {
+        if (amount.isPositive()) {
             wallet.addFunds(amount);
         } else {
             wallet.withdrawFunds(amount.negate());
         }
         walletRepo.save(wallet); // Save the updated wallet
     }
-    public Wallet getWalletDetails(Long walletId) {
-        return walletRepo.findById(walletId)
+    public WalletDetails getWalletDetails(Long walletId) {
+        if (walletReadCache != null) {
+            return walletReadCache.wallet(walletId, this::loadWallet);
+        }
+        return loadWallet(walletId);
+    }
+
+    private WalletDetails loadWallet(Long walletId) {
+        return readOnlyTransaction.execute(status -> walletRepo.findDetailsById(walletId))
                 .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
     }
+
+    /**
+     * Returns one page of a wallet's history, newest first. Pages are addressed by the
+     * cursor of the previous page rather than an offset, so page N costs the same as page 1.
+     */
+    @Transactional(readOnly = true)
+    public TransactionHistoryPage getHistory(Long walletId, String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        if (!walletRepo.existsById(walletId)) {
+            throw new IllegalArgumentException("Wallet not found");
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        Limit limit = Limit.of(size + 1);
+        List<TransactionHistoryItem> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionWalletRepo.findHistory(walletId, limit);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = transactionWalletRepo.findHistoryBefore(walletId, after.transactionDate(), after.id(), limit);
+        }
+
+        if (rows.size() <= size) {
+            return new TransactionHistoryPage(rows, null);
+        }
+        List<TransactionHistoryItem> items = rows.subList(0, size);
+        return new TransactionHistoryPage(List.copyOf(items), HistoryCursor.after(items.get(size - 1)).encode());
+    }
 }
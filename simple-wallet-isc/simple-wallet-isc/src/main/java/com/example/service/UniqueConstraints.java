@@ -0,0 +1,31 @@
+package com.example.service;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Recognizes which unique index rejected an insert. The pre-checks in the services answer the common case;
+ * a request that loses a race with another one only finds out from the index when the row is flushed.
+ */
+final class UniqueConstraints {
+
+    private UniqueConstraints() {
+    }
+
+    // The database reports the index by name in its message, in whatever case it stores names
+    static boolean isViolated(DataIntegrityViolationException e, String... indexNames) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) {
+            return false;
+        }
+        String normalized = message.toLowerCase(Locale.ROOT);
+        for (String indexName : indexNames) {
+            if (normalized.contains(indexName.toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
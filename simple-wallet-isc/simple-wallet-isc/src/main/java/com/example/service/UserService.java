@@ -4,16 +4,20 @@ import com.example.model.User;
 import com.example.model.Wallet;
 import com.example.model.domain.UserGender;
 import com.example.model.domain.UserStatusForMan;
+import com.example.model.dto.UserProfile;
+import com.example.model.dto.UserSearchPage;
 import com.example.repository.UserRepo;
+import com.example.service.search.UserSearchIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -23,6 +27,9 @@ public class UserService {
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
     private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     @Transactional
     public User createUser(String fullName, LocalDate dateOfBirth, String phoneNumber,
@@ -44,13 +51,30 @@ public class UserService {
             logger.error("User is not eligible. Must be at least 18 years old. Date of Birth: {}", dateOfBirth);
             throw new IllegalArgumentException("User must be at least 18 years old.");
         }
+        // Checked before hashing; the unique index on email still decides between concurrent registrations
+        if (userRepo.existsByEmail(email)) {
+            logger.error("Registration failed: email already registered: {}", email);
+            throw new IllegalArgumentException("Email is already registered.");
+        }
         newUser.setPassword(passwordEncoder.encode(newUser.getPassword()));
         Wallet wallet = new Wallet();
-        wallet.setBalance(BigDecimal.valueOf(10000)); // Start with the minimum balance
+        wallet.setBalance(Wallet.MINIMUM_BALANCE); // Start with the minimum balance
         wallet.setUser(newUser);
         newUser.setWallet(wallet);
 
-        User savedUser = userRepo.save(newUser);
+        User savedUser;
+        try {
+            savedUser = userRepo.save(newUser);
+            // Flushed here so a registration that lost the race gets the same answer as the pre-check
+            userRepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, "uk_users_email")) {
+                logger.error("Registration failed: email already registered: {}", email);
+                throw new IllegalArgumentException("Email is already registered.");
+            }
+            throw e;
+        }
+        userSearchIndex.index(savedUser.getId(), savedUser.getFullName());
         logger.info("User created successfully: {}", savedUser.getEmail());
         return savedUser;
     }
@@ -79,7 +103,24 @@ public class UserService {
 
     public User findUserByFullName(String fullName) {
         logger.info("Searching for user by full name: {}", fullName);
-        return (User) userRepo.findByfullName(fullName).orElse(null);
+        return userRepo.findByfullName(fullName).orElse(null);
+    }
+
+    // Prefix search on any words of the full name, see UserSearchIndex
+    public UserSearchPage searchUsers(String query, String cursor, int size) {
+        logger.info("Searching users for: {}", query);
+        return userSearchIndex.search(query, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserProfile> getUserProfile(Long id) {
+        logger.info("Fetching profile of user ID: {}", id);
+        return userRepo.findProfileById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean userExists(Long id) {
+        return userRepo.existsById(id);
     }
 
     public User findUserById(Long id) {
@@ -96,6 +137,7 @@ public class UserService {
             throw new IllegalArgumentException("User not found");
         }
 
+        boolean renamed = !Objects.equals(existingUser.getFullName(), updatedUserData.getFullName());
         existingUser.setfullName(updatedUserData.getFullName());
         existingUser.setDateOfBirth(updatedUserData.getDateOfBirth());
         existingUser.setPhoneNumber(updatedUserData.getPhoneNumber());
@@ -104,13 +146,18 @@ public class UserService {
         existingUser.setUserStatusForMan(updatedUserData.getUserStatusForMan());
 
         userRepo.save(existingUser);
+        if (renamed) {
+            userSearchIndex.index(existingUser.getId(), existingUser.getFullName());
+        }
         logger.info("User updated successfully: {}", existingUser.getId());
         return existingUser;
     }
 
+    @Transactional
     public void deleteUser(Long id) {
         logger.info("Deleting user with ID: {}", id);
         if (userRepo.existsById(id)) {
+            userSearchIndex.remove(id);
             userRepo.deleteById(id);
             logger.info("User deleted successfully: {}", id);
         } else {
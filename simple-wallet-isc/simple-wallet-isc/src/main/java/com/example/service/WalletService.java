@@ -1,17 +1,30 @@
 package com.example.service;
 
+import com.example.exception.BalanceEngineActiveException;
 import com.example.exception.WalletNotFoundException;
+import com.example.model.TransactionWallet;
 import com.example.model.User;
 import com.example.model.Wallet;
+import com.example.model.dto.BalanceChange;
+import com.example.model.money.Money;
 import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.cache.WalletReadCache;
+import com.example.service.concurrency.BalanceUpdateStrategy;
+import com.example.service.engine.BalanceEngine;
+import com.example.service.ledger.LedgerRowWriter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.util.Optional;
 
 @Service
@@ -22,12 +35,58 @@ public class WalletService {
     @Autowired
     private WalletRepo walletRepo;
 
+    @Autowired
+    private BalanceUpdateStrategy balanceUpdateStrategy;
+
+    // addFunds and withdrawFunds take amounts outside the ledger's request limits, so their rows bypass the entity
+    @Autowired
+    private LedgerRowWriter ledgerRowWriter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Present only when wallet.cache.enabled=true
+    @Autowired(required = false)
+    private WalletReadCache walletReadCache;
+
+    // Present only when wallet.balance.engine.enabled=true; addFunds and withdrawFunds are then refused
+    @Autowired(required = false)
+    private BalanceEngine balanceEngine;
+
+    // Cache misses only: a hit needs neither a transaction nor a connection. Without a transaction manager
+    // (unit tests) the loaders run as plain repository calls.
+    private TransactionOperations readOnlyTransaction = TransactionOperations.withoutTransaction();
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        this.readOnlyTransaction = template;
+    }
+
+    // The wallet after a balance update, and its balance as of that update
+    private record Updated(Wallet wallet, BalanceChange change) {
+    }
+
     @Transactional
     public Wallet createWallet(User user, String accountNumber, String shabaNumber) {
         validateAccountDetails(accountNumber, shabaNumber);
+        if (walletRepo.existsByAccountNumberOrShabaNumber(accountNumber, shabaNumber)) {
+            throw new IllegalArgumentException("Account or SHABA number is already in use");
+        }
         Wallet wallet = new Wallet(user, accountNumber, shabaNumber);
         logger.info("Creating wallet for user: {}", user.getId());
-        return walletRepo.save(wallet);
+        try {
+            Wallet saved = walletRepo.save(wallet);
+            // Flushed here so a request that lost the race gets the same answer as the pre-check
+            walletRepo.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isViolated(e, "uk_wallets_account_number", "uk_wallets_shaba_number")) {
+                throw new IllegalArgumentException("Account or SHABA number is already in use");
+            }
+            throw e;
+        }
     }
 
     public boolean login(Long walletId, String accountNumber, String shabaNumber) {
@@ -39,19 +98,34 @@ public class WalletService {
         //return wallet.login(accountNumber, shabaNumber);
     }
 
-    public BigDecimal getBalance(Long walletId) {
-        return walletRepo.findById(walletId)
-                .map(Wallet::getBalance)
+    public Money getBalance(Long walletId) {
+        if (walletReadCache != null) {
+            return walletReadCache.balance(walletId, this::loadBalance);
+        }
+        return loadBalance(walletId);
+    }
+
+    private Money loadBalance(Long walletId) {
+        return readOnlyTransaction.execute(status -> walletRepo.findBalanceById(walletId))
                 .orElseThrow(() -> new IllegalArgumentException("Wallet not found"));
     }
 
-    @Transactional
-    public Wallet addFunds(Long walletId, BigDecimal amount) {
-        Wallet wallet = walletRepo.findById(walletId)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
-        wallet.addFunds(amount);
+    // No @Transactional here: the balance strategy owns the transaction so it can retry it
+    public Wallet addFunds(Long walletId, Money amount) {
+        refuseUnderBalanceEngine();
+        Updated updated = balanceUpdateStrategy.update(walletId, BalanceMutation.credit(amount),
+                () -> new WalletNotFoundException("Wallet not found"),
+                wallet -> recorded(wallet, TransactionWallet.TransactionType.DEPOSIT, amount));
         logger.info("Added funds to wallet ID: {}", walletId);
-        return walletRepo.save(wallet);
+        eventPublisher.publishEvent(updated.change());
+        return updated.wallet();
+    }
+
+    // The engine holds the balance in memory and its next write-back would overwrite this change
+    private void refuseUnderBalanceEngine() {
+        if (balanceEngine != null) {
+            throw new BalanceEngineActiveException("addFunds and withdrawFunds are not available while the balance engine is enabled");
+        }
     }
 
     private void validateAccountDetails(String accountNumber, String shabaNumber) {
@@ -65,14 +139,21 @@ public class WalletService {
     public Optional<Wallet> getWalletByUserId(Long userId) {
         return Optional.ofNullable(walletRepo.findByUserId(userId));
     }
-    @Transactional
-    public Wallet withdrawFunds(Long walletId, BigDecimal amount) {
-        Wallet wallet = walletRepo.findById(walletId)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
-
-
-        wallet.withdrawFunds(amount);
+    public Wallet withdrawFunds(Long walletId, Money amount) {
+        refuseUnderBalanceEngine();
+        Updated updated = balanceUpdateStrategy.update(walletId, BalanceMutation.debit(amount),
+                () -> new WalletNotFoundException("Wallet not found"),
+                wallet -> recorded(wallet, TransactionWallet.TransactionType.WITHDRAWAL, amount));
         logger.info("Withdrew funds from wallet ID: {}", walletId);
-        return walletRepo.save(wallet);
+        eventPublisher.publishEvent(updated.change());
+        return updated.wallet();
+    }
+
+    // Runs inside the strategy's transaction: the ledger row commits or rolls back with the balance, and the change
+    // is stamped while the update still holds the wallet
+    private Updated recorded(Wallet wallet, TransactionWallet.TransactionType type, Money amount) {
+        BalanceChange change = BalanceChange.of(wallet);
+        ledgerRowWriter.insert(new LedgerRowWriter.Row(wallet.getId(), type, amount, change.changedAt()));
+        return new Updated(wallet, change);
     }
 }
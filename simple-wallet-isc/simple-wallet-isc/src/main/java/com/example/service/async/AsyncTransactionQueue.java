@@ -0,0 +1,120 @@
+package com.example.service.async;
+
+import com.example.exception.TransactionQueueFullException;
+import com.example.model.TransactionWallet;
+import com.example.model.dto.AsyncTransactionStatus;
+import com.example.model.money.Money;
+import com.example.service.TransactionWalletService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs deposits and withdrawals off the request thread. Submissions wait in a bounded queue that a
+ * fixed pool of workers drains through {@link TransactionWalletService}, so a burst holds at most
+ * {@code workers} database connections instead of one per Tomcat thread. When the queue is full the
+ * submission is refused with {@link TransactionQueueFullException} rather than queued without limit.
+ * <p>
+ * Statuses live in memory for {@code statusRetention}; a restart forgets them and drops whatever was
+ * still queued.
+ */
+public class AsyncTransactionQueue {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransactionQueue.class);
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final TransactionWalletService transactionWalletService;
+    private final int workers;
+    private final int queueCapacity;
+    private final Duration retryAfter;
+    private final Cache<String, AsyncTransactionStatus> statuses;
+    private ThreadPoolExecutor executor;
+
+    public AsyncTransactionQueue(TransactionWalletService transactionWalletService, int workers, int queueCapacity,
+                                 long statusCacheSize, Duration statusRetention, Duration retryAfter) {
+        this.transactionWalletService = transactionWalletService;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.retryAfter = retryAfter;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(statusCacheSize)
+                .expireAfterWrite(statusRetention)
+                .build();
+    }
+
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> new Thread(task, "async-transaction-" + threads.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Stops accepting submissions and waits for the queued ones to finish. */
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("Async transaction queue did not drain in {}s, {} submissions dropped",
+                    STOP_TIMEOUT_SECONDS, executor.shutdownNow().size());
+        }
+    }
+
+    /**
+     * Queues the transaction and returns its {@code PENDING} status. Throws
+     * {@link TransactionQueueFullException} when the queue is at capacity.
+     */
+    public AsyncTransactionStatus submit(Long walletId, TransactionWallet.TransactionType type, Money amount) {
+        AsyncTransactionStatus pending = AsyncTransactionStatus.pending(UUID.randomUUID().toString(),
+                walletId, type, amount);
+        // Stored before queueing so a fast worker's result is never overwritten by PENDING
+        statuses.put(pending.id(), pending);
+        try {
+            executor.execute(() -> process(pending));
+        } catch (RejectedExecutionException e) {
+            statuses.invalidate(pending.id());
+            throw new TransactionQueueFullException("Transaction queue is full, please retry later", retryAfter);
+        }
+        return pending;
+    }
+
+    public Optional<AsyncTransactionStatus> status(String id) {
+        return Optional.ofNullable(statuses.getIfPresent(id));
+    }
+
+    public int queuedCount() {
+        return executor.getQueue().size();
+    }
+
+    private void process(AsyncTransactionStatus pending) {
+        try {
+            TransactionWallet transaction = pending.type() == TransactionWallet.TransactionType.DEPOSIT
+                    ? transactionWalletService.deposit(pending.walletId(), pending.amount())
+                    : transactionWalletService.withdraw(pending.walletId(), pending.amount());
+            statuses.put(pending.id(), pending.completed(transaction.getId()));
+        } catch (RuntimeException e) {
+            logger.info("Async {} {} for wallet ID: {} failed: {}", pending.type(), pending.id(),
+                    pending.walletId(), e.getMessage());
+            statuses.put(pending.id(), pending.failed(errorMessage(e)));
+        }
+    }
+
+    private static String errorMessage(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violations && !violations.getConstraintViolations().isEmpty()) {
+                return violations.getConstraintViolations().iterator().next().getMessage();
+            }
+        }
+        return e.getMessage();
+    }
+}
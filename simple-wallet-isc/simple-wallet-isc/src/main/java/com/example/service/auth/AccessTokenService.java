@@ -0,0 +1,119 @@
+package com.example.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless access tokens of the form {@code base64url(userId:expiresAt).base64url(HMAC-SHA256)}.
+ * BCrypt runs once, at login; after that a request costs one HMAC, or a cache lookup when the same token
+ * was verified recently. Only tokens that passed verification are cached, so forged tokens cannot fill it.
+ * <p>
+ * Tokens cannot be revoked before they expire: keep the time to live short.
+ */
+public class AccessTokenService implements MeterBinder {
+
+    public static final int MINIMUM_SECRET_BYTES = 32;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_TOKEN_LENGTH = 256;
+
+    private final SecretKeySpec key;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Cache<String, AccessToken> verified;
+
+    public record AccessToken(String value, Long userId, Instant expiresAt) {
+    }
+
+    public AccessTokenService(byte[] secret, Duration timeToLive, long cacheSize, Clock clock) {
+        if (secret.length < MINIMUM_SECRET_BYTES) {
+            throw new IllegalArgumentException("Token secret must be at least " + MINIMUM_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public AccessToken issue(Long userId) {
+        Instant expiresAt = clock.instant().plus(timeToLive);
+        String payload = encode((userId + ":" + expiresAt.getEpochSecond()).getBytes(StandardCharsets.US_ASCII));
+        return new AccessToken(payload + "." + encode(sign(payload)), userId, expiresAt);
+    }
+
+    /** Returns the token's claims if it is well formed, signed with our key and not expired. */
+    public Optional<AccessToken> verify(String token) {
+        AccessToken cached = verified.getIfPresent(token);
+        if (cached != null) {
+            return unexpired(cached);
+        }
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return Optional.empty();
+        }
+        String payload = token.substring(0, dot);
+        AccessToken parsed;
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            String[] claims = new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.US_ASCII).split(":");
+            parsed = new AccessToken(token, Long.valueOf(claims[0]), Instant.ofEpochSecond(Long.parseLong(claims[1])));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            return Optional.empty();
+        }
+        Optional<AccessToken> result = unexpired(parsed);
+        result.ifPresent(accessToken -> verified.put(token, accessToken));
+        return result;
+    }
+
+    public Duration timeToLive() {
+        return timeToLive;
+    }
+
+    /** Publishes hit, miss, eviction and size metrics as cache.* meters tagged cache=auth.verified-tokens. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verified, "auth.verified-tokens");
+    }
+
+    private Optional<AccessToken> unexpired(AccessToken token) {
+        return clock.instant().isBefore(token.expiresAt()) ? Optional.of(token) : Optional.empty();
+    }
+
+    // Mac instances are not thread-safe; a fresh one costs far less than the HMAC itself
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
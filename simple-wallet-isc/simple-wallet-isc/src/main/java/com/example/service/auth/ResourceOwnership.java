@@ -0,0 +1,115 @@
+package com.example.service.auth;
+
+import com.example.repository.WalletRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether the authenticated user may act on a user or wallet: the principal (the user id) must be the
+ * user itself or the wallet's owner, unless the caller is an admin. Path rules use {@link #user(String)} and
+ * {@link #wallet(String)}; ids that only appear in the request body or query are checked with
+ * {@link #checkWallet(Long)}.
+ * <p>
+ * A wallet never changes owner, so owners are cached once looked up. An unknown wallet is denied, which
+ * answers 403 rather than telling the caller whether it exists.
+ */
+public class ResourceOwnership implements MeterBinder {
+
+    public static final String ADMIN = "ADMIN";
+    private static final String ADMIN_AUTHORITY = "ROLE_" + ADMIN;
+
+    private final WalletRepo walletRepo;
+    private final Cache<Long, Long> owners;
+
+    public ResourceOwnership(WalletRepo walletRepo, long cacheSize) {
+        this.walletRepo = walletRepo;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+    }
+
+    /** Grants the request when the path variable {@code variable} is the caller's own user id. */
+    public AuthorizationManager<RequestAuthorizationContext> user(String variable) {
+        return (authentication, context) -> decide(authentication, context, variable, this::isUser);
+    }
+
+    /** Grants the request when the path variable {@code variable} is a wallet the caller owns. */
+    public AuthorizationManager<RequestAuthorizationContext> wallet(String variable) {
+        return (authentication, context) -> decide(authentication, context, variable, this::ownsWallet);
+    }
+
+    /**
+     * Throws {@link AccessDeniedException} unless the current caller owns the wallet; a {@code null} wallet id
+     * (every wallet) is for admins only.
+     */
+    public void checkWallet(Long walletId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean granted = authentication != null
+                && (isAdmin(authentication) || walletId != null && ownsWallet(authentication, walletId));
+        if (!granted) {
+            throw new AccessDeniedException("Not the owner of wallet " + walletId);
+        }
+    }
+
+    /** Publishes hit, miss, eviction and size metrics as cache.* meters tagged cache=auth.wallet-owners. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, owners, "auth.wallet-owners");
+    }
+
+    private AuthorizationDecision decide(Supplier<Authentication> authentication, RequestAuthorizationContext context,
+                                         String variable, OwnershipTest test) {
+        Authentication caller = authentication.get();
+        if (caller == null || !caller.isAuthenticated()) {
+            return new AuthorizationDecision(false);
+        }
+        if (isAdmin(caller)) {
+            return new AuthorizationDecision(true);
+        }
+        long id;
+        try {
+            id = Long.parseLong(context.getVariables().get(variable));
+        } catch (NumberFormatException e) {
+            return new AuthorizationDecision(false);
+        }
+        return new AuthorizationDecision(test.passes(caller, id));
+    }
+
+    private boolean isUser(Authentication caller, long userId) {
+        return Objects.equals(caller.getPrincipal(), userId);
+    }
+
+    private boolean ownsWallet(Authentication caller, long walletId) {
+        Long owner = owners.getIfPresent(walletId);
+        if (owner == null) {
+            owner = walletRepo.findUserIdById(walletId).orElse(null);
+            if (owner == null) {
+                return false;
+            }
+            owners.put(walletId, owner);
+        }
+        return Objects.equals(caller.getPrincipal(), owner);
+    }
+
+    private static boolean isAdmin(Authentication caller) {
+        return caller.getAuthorities().stream().anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority()));
+    }
+
+    @FunctionalInterface
+    private interface OwnershipTest {
+        boolean passes(Authentication caller, long id);
+    }
+}
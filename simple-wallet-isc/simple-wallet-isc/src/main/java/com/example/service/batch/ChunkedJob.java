@@ -0,0 +1,202 @@
+package com.example.service.batch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Runs passes over a range of chunk numbers on a ForkJoinPool of {@code parallelism} workers, for jobs that
+ * sweep every wallet a chunk of ids at a time. One pass runs at a time; a new one starts in the background
+ * ({@link #launch}) or on the pool while the caller waits ({@link #launchAndWait}). Subclasses say how a pass
+ * begins, what one chunk does, and what happens once the pass ends.
+ * <p>
+ * A chunk that throws aborts the pass; {@link #process} should count and log its own failures instead when
+ * the pass can go on without that chunk.
+ */
+public abstract class ChunkedJob<P extends ChunkedJob.Pass> {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedJob.class);
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final String label;
+    private final String threadPrefix;
+    private final int parallelism;
+    private ForkJoinPool pool;
+    private volatile P current;
+
+    protected ChunkedJob(String label, String threadPrefix, int parallelism) {
+        this.label = label;
+        this.threadPrefix = threadPrefix;
+        this.parallelism = parallelism;
+    }
+
+    public void start() {
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            var worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            worker.setName(threadPrefix + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+    }
+
+    /** Abandons a running pass; chunks already processed keep what they wrote. */
+    public void stop() throws InterruptedException {
+        pool.shutdownNow();
+        if (!pool.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("{} workers did not stop in {}s", label, STOP_TIMEOUT_SECONDS);
+        }
+    }
+
+    /** Begins a pass and runs it in the background unless one is running; returns the running pass. */
+    protected synchronized P launch(Supplier<P> begin) {
+        if (current == null || current.finishedAt() != null) {
+            P pass = begin.get();
+            current = pass;
+            pool.execute(() -> run(pass));
+        }
+        return current;
+    }
+
+    /** Begins a pass and waits for it unless one is running; returns the finished pass, or the running one. */
+    protected P launchAndWait(Supplier<P> begin) {
+        P pass;
+        synchronized (this) {
+            if (current != null && current.finishedAt() == null) {
+                return current;
+            }
+            pass = begin.get();
+            current = pass;
+        }
+        pool.submit(() -> run(pass)).join();
+        return pass;
+    }
+
+    /** The running pass, or the last one; empty before the first pass. */
+    protected Optional<P> current() {
+        return Optional.ofNullable(current);
+    }
+
+    /** Registers a gauge reading the running or last pass, 0 before the first pass. */
+    protected void gauge(MeterRegistry registry, String name, String description, ToDoubleFunction<P> value) {
+        Gauge.builder(name, this, job -> {
+                    P pass = job.current;
+                    return pass == null ? 0 : value.applyAsDouble(pass);
+                })
+                .description(description)
+                .register(registry);
+    }
+
+    /** Processes chunk number {@code chunk}, on a pool worker. */
+    protected abstract void process(P pass, long chunk);
+
+    /** Runs on the pool once every chunk was tried and the pass did not abort. */
+    protected void completed(P pass) {
+    }
+
+    /** Runs last, whether the pass completed or aborted; {@link Pass#finishedAt()} is set. */
+    protected abstract void finished(P pass);
+
+    private void run(P pass) {
+        Pass state = pass;
+        try {
+            new Chunks(pass, 0, state.chunksTotal).invoke();
+            completed(pass);
+        } catch (RuntimeException e) {
+            logger.error("{} {} aborted: {}", label, state.id(), e.getMessage());
+            state.aborted = true;
+        } finally {
+            state.finishedAt = LocalDateTime.now();
+            finished(pass);
+        }
+    }
+
+    // Splits a range of chunk numbers in halves until one chunk is left, so idle workers steal the other halves
+    private final class Chunks extends RecursiveAction {
+        private final P pass;
+        private final long first;
+        private final long end;
+
+        Chunks(P pass, long first, long end) {
+            this.pass = pass;
+            this.first = first;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - first <= 1) {
+                if (end > first && pass.pending(first)) {
+                    process(pass, first);
+                }
+                return;
+            }
+            long middle = first + (end - first) / 2;
+            invokeAll(new Chunks(pass, first, middle), new Chunks(pass, middle, end));
+        }
+    }
+
+    /** Progress every pass keeps; subclasses add their own counters and report it in their own form. */
+    public abstract static class Pass {
+        private final long chunksTotal;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final LongAdder chunksDone = new LongAdder();
+        private final LongAdder chunksFailed = new LongAdder();
+        private volatile boolean aborted;
+        private volatile LocalDateTime finishedAt;
+
+        protected Pass(long chunksTotal) {
+            this.chunksTotal = chunksTotal;
+        }
+
+        /** Names the pass in log lines. */
+        protected abstract String id();
+
+        /** False for a chunk this pass skips, e.g. one an earlier pass already committed. */
+        protected boolean pending(long chunk) {
+            return true;
+        }
+
+        public final void chunkDone() {
+            chunksDone.increment();
+        }
+
+        public final void chunkFailed() {
+            chunksFailed.increment();
+        }
+
+        public final long chunksTotal() {
+            return chunksTotal;
+        }
+
+        public final long chunksDone() {
+            return chunksDone.sum();
+        }
+
+        public final long chunksFailed() {
+            return chunksFailed.sum();
+        }
+
+        public final LocalDateTime startedAt() {
+            return startedAt;
+        }
+
+        /** Null while the pass runs. */
+        public final LocalDateTime finishedAt() {
+            return finishedAt;
+        }
+
+        /** True once the pass aborted or a chunk failed. */
+        public final boolean failed() {
+            return aborted || chunksFailed.sum() > 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.service.cache;
+
+import com.example.model.dto.BalanceChange;
+import com.example.model.dto.WalletDetails;
+import com.example.model.money.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for wallet balances and wallet details, bounded by size and TTL. Entries are
+ * dropped when a {@link BalanceChange} is delivered, which happens only after the changing transaction
+ * commits, so a rolled-back balance is never cached. A load that races with a change is dropped as
+ * well: Caffeine makes the invalidation wait for the load and then removes what it stored.
+ * <p>
+ * With the balance engine on, the change is delivered before the engine writes the new balance, so a load in
+ * between still reads the old one; the engine calls {@link #evict} again once its write-back commits.
+ * <p>
+ * Other edits to a wallet or its owner are not tracked and show up once the entry expires. Cached
+ * details are immutable records, shared between callers.
+ */
+public class WalletReadCache implements MeterBinder {
+
+    private final Cache<Long, Money> balances;
+    private final Cache<Long, WalletDetails> wallets;
+
+    public WalletReadCache(long maximumSize, Duration timeToLive) {
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.wallets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    /** Returns the cached balance, or loads and caches it; exceptions from the loader are not cached. */
+    public Money balance(Long walletId, Function<Long, Money> loader) {
+        return balances.get(walletId, loader);
+    }
+
+    public WalletDetails wallet(Long walletId, Function<Long, WalletDetails> loader) {
+        return wallets.get(walletId, loader);
+    }
+
+    // Runs after the publishing transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChange change) {
+        evict(change.walletId());
+    }
+
+    /** Drops the wallet's balance and details, so the next read loads them from the database. */
+    public void evict(Long walletId) {
+        balances.invalidate(walletId);
+        wallets.invalidate(walletId);
+    }
+
+    /** Publishes hit, miss, eviction and size metrics as cache.* meters tagged cache=wallet.balance / wallet.details. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, balances, "wallet.balance");
+        CaffeineCacheMetrics.monitor(registry, wallets, "wallet.details");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.service.concurrency;
+
+/**
+ * How concurrent balance changes on the same wallet are serialized.
+ * Selected with the {@code wallet.balance.concurrency} property.
+ */
+public enum BalanceConcurrencyMode {
+    // Read without locks, detect conflicts through Wallet.version at commit and retry a bounded number of times
+    OPTIMISTIC,
+    // SELECT ... FOR UPDATE the wallet row, waiting at most the configured lock timeout
+    PESSIMISTIC,
+    // One guarded UPDATE statement; the database applies the minimum-balance rule atomically
+    CONDITIONAL_UPDATE
+}
@@ -0,0 +1,29 @@
+package com.example.service.concurrency;
+
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+
+import java.util.function.Consumer;
+
+/**
+ * A single credit or debit against a wallet.
+ *
+ * @param amount the positive amount moved
+ * @param debit  whether the amount leaves the wallet
+ * @param rule   applies the change to a loaded wallet, throwing if the wallet's rules reject it
+ */
+public record BalanceMutation(Money amount, boolean debit, Consumer<Wallet> rule) {
+
+    public static BalanceMutation credit(Money amount) {
+        return new BalanceMutation(amount, false, wallet -> wallet.addFunds(amount));
+    }
+
+    public static BalanceMutation debit(Money amount) {
+        return new BalanceMutation(amount, true, wallet -> wallet.withdrawFunds(amount));
+    }
+
+    // Signed change applied to the balance column
+    public Money delta() {
+        return debit ? amount.negate() : amount;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.service.concurrency;
+
+import com.example.model.Wallet;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies a balance change to one wallet so that concurrent changes to the same wallet
+ * never overwrite each other. Implementations own the transaction boundary, so callers
+ * must not wrap them in their own transaction.
+ */
+public interface BalanceUpdateStrategy {
+
+    /**
+     * Applies {@code mutation} to the wallet, then runs {@code afterUpdate} with the updated
+     * wallet in the same transaction and returns its result.
+     *
+     * @param notFound thrown when no wallet has the given id
+     */
+    <T> T update(Long walletId, BalanceMutation mutation,
+                 Supplier<? extends RuntimeException> notFound,
+                 Function<Wallet, T> afterUpdate);
+
+    BalanceConcurrencyMode mode();
+}
@@ -0,0 +1,50 @@
+package com.example.service.concurrency;
+
+import com.example.model.Wallet;
+import com.example.repository.WalletRepo;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies the change with a single guarded {@code UPDATE}, so the read-check-write happens
+ * atomically inside the database and no application-level lock or retry is needed.
+ * When the guard rejects the change, the wallet's own rules are replayed on a rolled-back
+ * copy to report the same error the other strategies would.
+ */
+public class ConditionalUpdateBalanceStrategy implements BalanceUpdateStrategy {
+
+    private final WalletRepo walletRepo;
+    private final TransactionOperations transactionOperations;
+
+    public ConditionalUpdateBalanceStrategy(WalletRepo walletRepo, TransactionOperations transactionOperations) {
+        this.walletRepo = walletRepo;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @Override
+    public <T> T update(Long walletId, BalanceMutation mutation,
+                        Supplier<? extends RuntimeException> notFound,
+                        Function<Wallet, T> afterUpdate) {
+        if (!mutation.amount().isPositive()) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return transactionOperations.execute(status -> {
+            int updated = walletRepo.applyBalanceDelta(walletId, mutation.delta(), Wallet.MINIMUM_BALANCE);
+            Wallet wallet = walletRepo.findById(walletId).orElseThrow(notFound);
+            if (updated == 0) {
+                status.setRollbackOnly();
+                mutation.rule().accept(wallet);
+                // The guard failed but the rules pass: the balance moved between the two statements
+                throw new IllegalArgumentException("Withdrawal would result in a balance below the minimum of 10,000");
+            }
+            return afterUpdate.apply(wallet);
+        });
+    }
+
+    @Override
+    public BalanceConcurrencyMode mode() {
+        return BalanceConcurrencyMode.CONDITIONAL_UPDATE;
+    }
+}
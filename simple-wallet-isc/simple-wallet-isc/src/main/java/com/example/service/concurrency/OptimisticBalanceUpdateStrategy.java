@@ -0,0 +1,68 @@
+package com.example.service.concurrency;
+
+import com.example.model.Wallet;
+import com.example.repository.WalletRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Loads the wallet without locking and relies on {@code Wallet.version} to detect a
+ * concurrent writer at commit. A conflicting attempt is rolled back and replayed in a fresh
+ * transaction, up to {@code maxAttempts} times, with a short randomized backoff.
+ */
+public class OptimisticBalanceUpdateStrategy implements BalanceUpdateStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticBalanceUpdateStrategy.class);
+
+    private static final long MAX_BACKOFF_MICROS = 2000;
+
+    private final WalletRepo walletRepo;
+    private final TransactionOperations transactionOperations;
+    private final int maxAttempts;
+
+    public OptimisticBalanceUpdateStrategy(WalletRepo walletRepo, TransactionOperations transactionOperations, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.walletRepo = walletRepo;
+        this.transactionOperations = transactionOperations;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public <T> T update(Long walletId, BalanceMutation mutation,
+                        Supplier<? extends RuntimeException> notFound,
+                        Function<Wallet, T> afterUpdate) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> {
+                    Wallet wallet = walletRepo.findById(walletId).orElseThrow(notFound);
+                    mutation.rule().accept(wallet);
+                    T result = afterUpdate.apply(wallet);
+                    walletRepo.save(wallet);
+                    return result;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    logger.warn("Giving up on wallet ID: {} after {} conflicting attempts", walletId, attempt);
+                    throw e;
+                }
+                // Spread the retries out so the losers of one race don't collide again immediately
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(
+                        ThreadLocalRandom.current().nextLong(MAX_BACKOFF_MICROS * attempt)));
+            }
+        }
+    }
+
+    @Override
+    public BalanceConcurrencyMode mode() {
+        return BalanceConcurrencyMode.OPTIMISTIC;
+    }
+}
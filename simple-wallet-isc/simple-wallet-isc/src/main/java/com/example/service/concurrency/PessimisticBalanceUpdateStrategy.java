@@ -0,0 +1,42 @@
+package com.example.service.concurrency;
+
+import com.example.model.Wallet;
+import com.example.repository.WalletRepo;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Takes a row lock on the wallet ({@code SELECT ... FOR UPDATE}) before reading the balance,
+ * so writers queue on the database. A writer that cannot get the lock within
+ * {@code jakarta.persistence.lock.timeout} fails with a {@code PessimisticLockingFailureException}.
+ */
+public class PessimisticBalanceUpdateStrategy implements BalanceUpdateStrategy {
+
+    private final WalletRepo walletRepo;
+    private final TransactionOperations transactionOperations;
+
+    public PessimisticBalanceUpdateStrategy(WalletRepo walletRepo, TransactionOperations transactionOperations) {
+        this.walletRepo = walletRepo;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @Override
+    public <T> T update(Long walletId, BalanceMutation mutation,
+                        Supplier<? extends RuntimeException> notFound,
+                        Function<Wallet, T> afterUpdate) {
+        return transactionOperations.execute(status -> {
+            Wallet wallet = walletRepo.findByIdForUpdate(walletId).orElseThrow(notFound);
+            mutation.rule().accept(wallet);
+            T result = afterUpdate.apply(wallet);
+            walletRepo.save(wallet);
+            return result;
+        });
+    }
+
+    @Override
+    public BalanceConcurrencyMode mode() {
+        return BalanceConcurrencyMode.PESSIMISTIC;
+    }
+}
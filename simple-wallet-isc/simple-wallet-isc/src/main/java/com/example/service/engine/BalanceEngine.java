@@ -0,0 +1,87 @@
+package com.example.service.engine;
+
+import com.example.model.TransactionWallet;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import jakarta.validation.Validator;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer balance engine: wallet ids are hashed to a fixed set of partitions and every change
+ * to a wallet is applied by its partition's thread, in memory and in arrival order. Callers are
+ * answered as soon as the change is applied; ledger rows and balances reach the database shortly
+ * after, so changes acknowledged just before a crash can be lost.
+ * <p>
+ * While the engine runs it is the only writer of balances: transfers, bulk uploads and
+ * {@code WalletService.addFunds}/{@code withdrawFunds} are refused with {@code BalanceEngineActiveException}
+ * (409), and batch postings refuse to start, since the next write-back would overwrite what they wrote.
+ * <p>
+ * Each partition holds at most {@code walletsPerPartition} wallets in memory, dropping written-back ones to
+ * load others. {@code writtenBack} is called with each wallet id whose balance a write-back has just committed.
+ */
+public class BalanceEngine {
+
+    private final BalancePartition[] partitions;
+
+    public BalanceEngine(int partitionCount, int inboxCapacity, int writeBatchSize, int walletsPerPartition,
+                         WalletRepo walletRepo, TransactionWalletRepo transactionWalletRepo,
+                         TransactionOperations transactionOperations, Validator validator, Consumer<Long> writtenBack) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        if (walletsPerPartition < 1) {
+            throw new IllegalArgumentException("Wallets per partition must be positive");
+        }
+        this.partitions = new BalancePartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new BalancePartition(i, inboxCapacity, writeBatchSize, walletsPerPartition,
+                    walletRepo, transactionWalletRepo, transactionOperations, validator, writtenBack);
+        }
+    }
+
+    public void start() {
+        for (BalancePartition partition : partitions) {
+            partition.start();
+        }
+    }
+
+    /**
+     * Queues {@code mutation} on the wallet's partition. The future fails with the rule's exception,
+     * with {@code notFound}'s exception, with a {@code ConstraintViolationException} for an amount the
+     * ledger does not accept, or with a {@code ConcurrencyFailureException} when the partition inbox is full, its
+     * write-back is failing, or it has no room for another wallet.
+     */
+    public CompletableFuture<TransactionWallet> submit(Long walletId, BalanceMutation mutation,
+                                                       TransactionWallet.TransactionType type,
+                                                       Supplier<? extends RuntimeException> notFound) {
+        return partitionFor(walletId).submit(walletId, mutation, type, notFound);
+    }
+
+    /** True while a partition's write-back is failing; that partition refuses new submissions until it recovers. */
+    public boolean writeBackFailing() {
+        for (BalancePartition partition : partitions) {
+            if (partition.writeBackFailing()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Applies everything already queued and waits until it has been written to the database. */
+    public void stop() throws InterruptedException {
+        for (BalancePartition partition : partitions) {
+            partition.stop();
+        }
+    }
+
+    private BalancePartition partitionFor(Long walletId) {
+        // Fibonacci hashing spreads sequential ids evenly across partitions
+        long hash = walletId * 0x9E3779B97F4A7C15L;
+        return partitions[(int) Math.floorMod(hash >>> 32, (long) partitions.length)];
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.service.engine;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Owns the balances of every wallet hashed to it. A single processor thread drains the inbox and
+ * applies each mutation to its in-memory wallet, so no locking is needed; the resulting ledger rows
+ * and balances are handed to a write-back thread that stores them in batches.
+ * <p>
+ * Ledger rows are validated before the wallet is touched, as {@code TransactionWallet} would be on persist, so
+ * a write-back only fails for database reasons. A failed batch is retried, with a pause that doubles up to
+ * {@code MAX_WRITE_RETRY_MILLIS}, until it is stored; nothing after it is written first, so a balance never
+ * reaches the database ahead of its ledger rows. While it fails the partition refuses new work.
+ * <p>
+ * At most {@code maxWallets} wallets are held. To load another, the partition drops the wallets changed longest
+ * ago whose changes are already written back; if every held wallet still has unwritten changes the command fails
+ * with {@code ConcurrencyFailureException} until the write-back catches up.
+ */
+final class BalancePartition {
+    private static final Logger logger = LoggerFactory.getLogger(BalancePartition.class);
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long WRITE_RETRY_MILLIS = 500;
+    private static final long MAX_WRITE_RETRY_MILLIS = 30_000;
+    private static final int WRITE_BACK_QUEUE_CAPACITY = 1024;
+
+    private final RingBuffer<Command> inbox;
+    private final WalletRepo walletRepo;
+    private final TransactionWalletRepo transactionWalletRepo;
+    private final TransactionOperations transactionOperations;
+    private final Validator validator;
+    private final Consumer<Long> writtenBack;
+    private final int writeBatchSize;
+    private final int maxWallets;
+    private final BlockingQueue<WriteBatch> writeBackQueue;
+    private final Thread processor;
+    private final Thread writer;
+
+    // Everything below is confined to the processor thread. Wallets are kept in the order they were last changed,
+    // each with the number of the batch holding that change; pending rows belong to batch openBatch
+    private final Map<Long, HeldWallet> wallets = new LinkedHashMap<>();
+    private List<TransactionWallet> pendingTransactions = new ArrayList<>();
+    private Map<Long, Money> pendingBalances = new LinkedHashMap<>();
+    private long openBatch = 1;
+
+    // Highest batch number committed by the write-back
+    private volatile long writtenThrough;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+    private volatile boolean writeBackFailing;
+
+    BalancePartition(int index, int inboxCapacity, int writeBatchSize, int maxWallets,
+                     WalletRepo walletRepo, TransactionWalletRepo transactionWalletRepo,
+                     TransactionOperations transactionOperations, Validator validator, Consumer<Long> writtenBack) {
+        this.inbox = new RingBuffer<>(inboxCapacity);
+        this.writeBatchSize = writeBatchSize;
+        this.maxWallets = maxWallets;
+        this.walletRepo = walletRepo;
+        this.transactionWalletRepo = transactionWalletRepo;
+        this.transactionOperations = transactionOperations;
+        this.validator = validator;
+        this.writtenBack = writtenBack;
+        // Bounded so a slow database pushes back on the processor instead of growing the heap
+        this.writeBackQueue = new ArrayBlockingQueue<>(WRITE_BACK_QUEUE_CAPACITY);
+        this.processor = new Thread(this::process, "balance-partition-" + index);
+        this.writer = new Thread(this::writeBack, "balance-writeback-" + index);
+    }
+
+    void start() {
+        processor.start();
+        writer.start();
+    }
+
+    CompletableFuture<TransactionWallet> submit(Long walletId, BalanceMutation mutation,
+                                                TransactionWallet.TransactionType type,
+                                                Supplier<? extends RuntimeException> notFound) {
+        CompletableFuture<TransactionWallet> result = new CompletableFuture<>();
+        if (writeBackFailing) {
+            // Nothing acknowledged now could be stored until the database is back
+            result.completeExceptionally(new ConcurrencyFailureException("Balance engine cannot write to the database"));
+            return result;
+        }
+        if (!running || !inbox.offer(new Command(walletId, mutation, type, notFound, result))) {
+            result.completeExceptionally(new ConcurrencyFailureException("Balance engine is saturated"));
+            return result;
+        }
+        if (sleeping) {
+            LockSupport.unpark(processor);
+        }
+        return result;
+    }
+
+    boolean writeBackFailing() {
+        return writeBackFailing;
+    }
+
+    /** Stops accepting work, applies what is queued and waits until it is written back. */
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(processor);
+        processor.join();
+        writer.join();
+    }
+
+    private void process() {
+        int idle = 0;
+        int applied = 0;
+        while (running || !inbox.isEmpty()) {
+            Command command = inbox.poll();
+            if (command == null) {
+                // Nothing queued: write out what has been applied so far, then back off
+                if (applied > 0) {
+                    flush();
+                    applied = 0;
+                }
+                if (++idle > SPINS_BEFORE_PARK) {
+                    sleeping = true;
+                    if (inbox.isEmpty() && running) {
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                    sleeping = false;
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            idle = 0;
+            apply(command);
+            if (++applied >= writeBatchSize) {
+                flush();
+                applied = 0;
+            }
+        }
+        flush();
+        enqueue(WriteBatch.POISON);
+    }
+
+    private void apply(Command command) {
+        try {
+            HeldWallet held = wallets.get(command.walletId());
+            if (held == null) {
+                makeRoom();
+                held = new HeldWallet(walletRepo.findById(command.walletId()).orElseThrow(command.notFound()));
+                wallets.put(command.walletId(), held);
+            }
+            Wallet wallet = held.wallet;
+
+            TransactionWallet transaction = new TransactionWallet(wallet, command.type(), command.mutation().amount());
+            Set<ConstraintViolation<TransactionWallet>> violations = validator.validate(transaction);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+
+            Money before = wallet.getBalance();
+            try {
+                command.mutation().rule().accept(wallet);
+            } catch (RuntimeException e) {
+                wallet.setBalance(before);
+                throw e;
+            }
+
+            pendingTransactions.add(transaction);
+            pendingBalances.put(wallet.getId(), wallet.getBalance());
+            if (held.batch != openBatch) {
+                // First change in this batch: move it behind everything changed earlier
+                held.batch = openBatch;
+                wallets.remove(command.walletId());
+                wallets.put(command.walletId(), held);
+            }
+            command.result().complete(copyForCaller(transaction, wallet));
+        } catch (RuntimeException e) {
+            command.result().completeExceptionally(e);
+        }
+    }
+
+    // Drops written-back wallets, oldest change first, until one more fits
+    private void makeRoom() {
+        if (wallets.size() < maxWallets) {
+            return;
+        }
+        long written = writtenThrough;
+        Iterator<HeldWallet> eldest = wallets.values().iterator();
+        while (wallets.size() >= maxWallets && eldest.hasNext()) {
+            HeldWallet held = eldest.next();
+            if (held.batch > written) {
+                // Everything changed after it is unwritten too
+                break;
+            }
+            eldest.remove();
+        }
+        if (wallets.size() >= maxWallets) {
+            // Hand the open batch to the write-back so a retry can find room
+            flush();
+            throw new ConcurrencyFailureException("Balance engine holds " + maxWallets + " wallets with unwritten changes");
+        }
+    }
+
+    private void flush() {
+        if (pendingTransactions.isEmpty()) {
+            return;
+        }
+        enqueue(new WriteBatch(openBatch++, pendingTransactions, pendingBalances));
+        pendingTransactions = new ArrayList<>();
+        pendingBalances = new LinkedHashMap<>();
+    }
+
+    private void enqueue(WriteBatch batch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                writeBackQueue.put(batch);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeBack() {
+        List<WriteBatch> drained = new ArrayList<>();
+        while (true) {
+            try {
+                drained.add(writeBackQueue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Coalesce everything the processor queued while the last write was running into one transaction
+            writeBackQueue.drainTo(drained);
+            boolean last = drained.get(drained.size() - 1) == WriteBatch.POISON;
+
+            List<TransactionWallet> transactions = new ArrayList<>();
+            Map<Long, Money> balances = new LinkedHashMap<>();
+            long number = 0;
+            for (WriteBatch batch : drained) {
+                transactions.addAll(batch.transactions());
+                balances.putAll(batch.balances());
+                number = Math.max(number, batch.number());
+            }
+            drained.clear();
+            if (!transactions.isEmpty()) {
+                write(new WriteBatch(number, transactions, balances));
+                writtenThrough = number;
+                balances.keySet().forEach(writtenBack);
+            }
+            if (last) {
+                return;
+            }
+        }
+    }
+
+    // Batches are written strictly in order and a failed one is retried until it is stored: balances are overwritten
+    // with the partition's latest values, which already include this batch's changes
+    private void write(WriteBatch batch) {
+        long pause = WRITE_RETRY_MILLIS;
+        boolean interrupted = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionOperations.executeWithoutResult(status -> {
+                    transactionWalletRepo.saveAll(batch.transactions());
+                    batch.balances().forEach(walletRepo::overwriteBalance);
+                });
+                if (writeBackFailing) {
+                    logger.info("Write-back of {} transactions succeeded at attempt {}", batch.transactions().size(), attempt);
+                    writeBackFailing = false;
+                }
+                break;
+            } catch (RuntimeException e) {
+                writeBackFailing = true;
+                logger.error("Write-back of {} transactions failed (attempt {}), retrying in {} ms",
+                        batch.transactions().size(), attempt, pause, e);
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException stop) {
+                    // Finish this batch first; the flag is restored below so the write-back loop ends at its next take()
+                    interrupted = true;
+                }
+                pause = Math.min(pause * 2, MAX_WRITE_RETRY_MILLIS);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The partition keeps mutating its own wallet, so callers get a snapshot; the id is assigned on write-back
+    private static TransactionWallet copyForCaller(TransactionWallet transaction, Wallet wallet) {
+        Wallet snapshot = new Wallet(wallet.getUser(), wallet.getAccountNumber(), wallet.getShabaNumber());
+        snapshot.setId(wallet.getId());
+        snapshot.setOwner(wallet.getOwner());
+        snapshot.setBalance(wallet.getBalance());
+        snapshot.setCreationDate(wallet.getCreationDate());
+
+        TransactionWallet copy = new TransactionWallet(snapshot, transaction.getType(), transaction.getAmount());
+        copy.setTransactionDate(transaction.getTransactionDate());
+        return copy;
+    }
+
+    private record Command(Long walletId, BalanceMutation mutation, TransactionWallet.TransactionType type,
+                           Supplier<? extends RuntimeException> notFound,
+                           CompletableFuture<TransactionWallet> result) {
+    }
+
+    private static final class HeldWallet {
+        private final Wallet wallet;
+        // Batch of the wallet's last change; 0 if it was never changed
+        private long batch;
+
+        HeldWallet(Wallet wallet) {
+            this.wallet = wallet;
+        }
+    }
+
+    private record WriteBatch(long number, List<TransactionWallet> transactions, Map<Long, Money> balances) {
+        static final WriteBatch POISON = new WriteBatch(0, List.of(), Map.of());
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.service.groupcommit;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Commits concurrent deposits and withdrawals together: requests queue up while the previous
+ * group is committing, and a single committer thread applies each group in one transaction,
+ * so many callers share one flush and one commit. Every caller's future completes with its own
+ * ledger row once the group has committed, or with its own error; one rejected request does not
+ * affect the others in its group.
+ * <p>
+ * The group size adapts to load. The committer always takes whatever is already queued; it only
+ * waits (at most {@code window}) for more when recent groups were larger than what is queued,
+ * so a lone request under light traffic is committed straight away.
+ */
+public class GroupCommitStage {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitStage.class);
+
+    private static final double SIZE_SMOOTHING = 0.2;
+
+    private final WalletRepo walletRepo;
+    private final TransactionWalletRepo transactionWalletRepo;
+    private final TransactionOperations transactionOperations;
+    private final Validator validator;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Thread committer;
+
+    private volatile boolean running = true;
+    private volatile double averageBatchSize = 1;
+
+    public GroupCommitStage(WalletRepo walletRepo, TransactionWalletRepo transactionWalletRepo,
+                            TransactionOperations transactionOperations, Validator validator,
+                            Duration window, int maxBatchSize, int queueCapacity) {
+        this.walletRepo = walletRepo;
+        this.transactionWalletRepo = transactionWalletRepo;
+        this.transactionOperations = transactionOperations;
+        this.validator = validator;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.committer = new Thread(this::run, "group-commit");
+    }
+
+    public void start() {
+        committer.start();
+    }
+
+    /** Stops accepting requests and returns once everything queued has been committed. */
+    public void stop() throws InterruptedException {
+        running = false;
+        committer.join();
+    }
+
+    /**
+     * Queues {@code mutation} for the next group. The future fails with the rule's exception,
+     * with {@code notFound}'s exception, or with a {@code ConcurrencyFailureException} when
+     * the queue is full.
+     */
+    public CompletableFuture<TransactionWallet> submit(Long walletId, BalanceMutation mutation,
+                                                       TransactionWallet.TransactionType type,
+                                                       Supplier<? extends RuntimeException> notFound) {
+        CompletableFuture<TransactionWallet> result = new CompletableFuture<>();
+        if (!running || !queue.offer(new PendingWrite(walletId, mutation, type, notFound, result))) {
+            result.completeExceptionally(new ConcurrencyFailureException("Group commit queue is full"));
+        }
+        return result;
+    }
+
+    public double averageBatchSize() {
+        return averageBatchSize;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                fill(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            commit(batch);
+            averageBatchSize += SIZE_SMOOTHING * (batch.size() - averageBatchSize);
+            batch.clear();
+        }
+    }
+
+    // Waits up to the window for the group to reach the recent average size
+    private void fill(List<PendingWrite> batch) throws InterruptedException {
+        int target = (int) Math.min(maxBatchSize, Math.round(averageBatchSize));
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < target) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        Map<PendingWrite, TransactionWallet> applied = new IdentityHashMap<>();
+        Map<PendingWrite, RuntimeException> rejected = new IdentityHashMap<>();
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                applied.clear();
+                rejected.clear();
+                apply(batch, applied, rejected);
+            });
+        } catch (RuntimeException e) {
+            // Nothing in the group was committed
+            logger.error("Group commit of {} requests failed: {}", batch.size(), e.getMessage());
+            for (PendingWrite write : batch) {
+                write.result().completeExceptionally(rejected.getOrDefault(write, e));
+            }
+            return;
+        }
+        for (PendingWrite write : batch) {
+            TransactionWallet transaction = applied.get(write);
+            if (transaction != null) {
+                write.result().complete(transaction);
+            } else {
+                write.result().completeExceptionally(rejected.get(write));
+            }
+        }
+    }
+
+    private void apply(List<PendingWrite> batch, Map<PendingWrite, TransactionWallet> applied,
+                       Map<PendingWrite, RuntimeException> rejected) {
+        // Lock every wallet in the group once, in ascending id order like transfers and bulk uploads
+        Set<Long> walletIds = new TreeSet<>();
+        for (PendingWrite write : batch) {
+            walletIds.add(write.walletId());
+        }
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepo.findAllByIdForUpdate(walletIds)) {
+            wallets.put(wallet.getId(), wallet);
+        }
+
+        List<TransactionWallet> transactions = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            Wallet wallet = wallets.get(write.walletId());
+            if (wallet == null) {
+                rejected.put(write, write.notFound().get());
+                continue;
+            }
+            TransactionWallet transaction = new TransactionWallet(wallet, write.type(), write.mutation().amount());
+            Set<ConstraintViolation<TransactionWallet>> violations = validator.validate(transaction);
+            if (!violations.isEmpty()) {
+                rejected.put(write, new ConstraintViolationException(violations));
+                continue;
+            }
+            Money before = wallet.getBalance();
+            try {
+                write.mutation().rule().accept(wallet);
+            } catch (RuntimeException e) {
+                wallet.setBalance(before);
+                rejected.put(write, e);
+                continue;
+            }
+            transactions.add(transaction);
+            applied.put(write, transaction);
+        }
+        transactionWalletRepo.saveAll(transactions);
+    }
+
+    private record PendingWrite(Long walletId, BalanceMutation mutation, TransactionWallet.TransactionType type,
+                                Supplier<? extends RuntimeException> notFound,
+                                CompletableFuture<TransactionWallet> result) {
+    }
+}
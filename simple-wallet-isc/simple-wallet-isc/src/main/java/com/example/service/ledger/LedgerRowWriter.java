@@ -0,0 +1,73 @@
+package com.example.service.ledger;
+
+import com.example.model.TransactionWallet;
+import com.example.model.money.Money;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts ledger rows with plain JDBC rather than persisting {@link TransactionWallet}s: the request limits on
+ * {@link TransactionWallet#getAmount()} are for customer transactions, and postings or direct balance
+ * adjustments can fall outside them. Ids still come from the entity's pooled sequence generator. Must run
+ * inside the caller's transaction, so the rows commit or roll back with the balance they explain.
+ */
+@Component
+public class LedgerRowWriter {
+
+    // TransactionType is stored by ordinal
+    private static final String INSERT_ROW =
+            "INSERT INTO transaction_wallet (id, amount, transaction_date, type, wallet_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private volatile BeforeExecutionGenerator transactionIds;
+
+    public LedgerRowWriter(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    public record Row(Long walletId, TransactionWallet.TransactionType type, Money amount, LocalDateTime transactionDate) {
+    }
+
+    public void insert(Row row) {
+        insertAll(List.of(row));
+    }
+
+    /** Inserts the rows as one JDBC batch and returns their ids, in the order of {@code rows}. */
+    public List<Long> insertAll(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<Object[]> values = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Long id = nextTransactionId(session);
+            ids.add(id);
+            values.add(new Object[]{id, row.amount().toBigDecimal(), row.transactionDate(), row.type().ordinal(),
+                    row.walletId()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROW, values);
+        return ids;
+    }
+
+    // Same ids Hibernate would assign: one sequence call per allocation_size rows
+    private Long nextTransactionId(SharedSessionContractImplementor session) {
+        BeforeExecutionGenerator generator = transactionIds;
+        if (generator == null) {
+            generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                    .getEntityDescriptor(TransactionWallet.class).getGenerator();
+            transactionIds = generator;
+        }
+        return (Long) generator.generate(session, null, null, EventType.INSERT);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.service.posting;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+
+/** Credits {@code basisPoints} hundredths of a percent of the balance, rounded down to the minor unit. */
+public class InterestPostingRule implements PostingRule {
+
+    private static final long BASIS_POINTS_PER_UNIT = 10_000;
+
+    private final long basisPoints;
+
+    public InterestPostingRule(long basisPoints) {
+        if (basisPoints < 0) {
+            throw new IllegalArgumentException("Interest rate must not be negative");
+        }
+        this.basisPoints = basisPoints;
+    }
+
+    @Override
+    public String name() {
+        return "interest";
+    }
+
+    @Override
+    public TransactionWallet.TransactionType type() {
+        return TransactionWallet.TransactionType.DEPOSIT;
+    }
+
+    @Override
+    public Money amountFor(Wallet wallet) {
+        return new Money(Math.multiplyExact(wallet.getBalance().minorUnits(), basisPoints) / BASIS_POINTS_PER_UNIT);
+    }
+}
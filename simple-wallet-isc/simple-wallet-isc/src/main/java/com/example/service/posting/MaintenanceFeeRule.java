@@ -0,0 +1,36 @@
+package com.example.service.posting;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+
+/**
+ * Debits a flat fee. A wallet the fee would take below {@link Wallet#MINIMUM_BALANCE} is refused by
+ * {@link Wallet#withdrawFunds} and counted as skipped.
+ */
+public class MaintenanceFeeRule implements PostingRule {
+
+    private final Money fee;
+
+    public MaintenanceFeeRule(Money fee) {
+        if (fee.isNegative()) {
+            throw new IllegalArgumentException("Maintenance fee must not be negative");
+        }
+        this.fee = fee;
+    }
+
+    @Override
+    public String name() {
+        return "maintenance-fee";
+    }
+
+    @Override
+    public TransactionWallet.TransactionType type() {
+        return TransactionWallet.TransactionType.WITHDRAWAL;
+    }
+
+    @Override
+    public Money amountFor(Wallet wallet) {
+        return fee;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.service.posting;
+
+import com.example.model.dto.PostingProgress;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * {@code GET /actuator/postings} reports the running or last run (404 before the first one);
+ * {@code POST /actuator/postings} with {@code {"rule": "interest", "runKey": "interest-2026-10"}} starts or
+ * resumes a run unless one is going. An unknown rule or a run key taken by another rule answers 400.
+ */
+@Endpoint(id = "postings")
+public class PostingEndpoint {
+
+    private final PostingJob postingJob;
+
+    public PostingEndpoint(PostingJob postingJob) {
+        this.postingJob = postingJob;
+    }
+
+    @ReadOperation
+    public PostingProgress progress() {
+        return postingJob.progress().orElse(null);
+    }
+
+    @WriteOperation
+    public PostingProgress start(String rule, String runKey) {
+        try {
+            return postingJob.trigger(rule, runKey);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
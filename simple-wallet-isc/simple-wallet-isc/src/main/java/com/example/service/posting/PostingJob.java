@@ -0,0 +1,208 @@
+package com.example.service.posting;
+
+import com.example.model.PostingCheckpoint;
+import com.example.model.PostingRun;
+import com.example.model.dto.PostingProgress;
+import com.example.model.money.Money;
+import com.example.repository.PostingCheckpointRepo;
+import com.example.repository.PostingRunRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.batch.ChunkedJob;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a {@link PostingRule} to every wallet, e.g. month-end interest or maintenance fees. The wallet id range
+ * is cut into chunks of {@code chunkSize} ids that {@code parallelism} {@link ChunkedJob} workers post, each chunk
+ * in its own transaction through {@link PostingWriter}, so a run holds at most {@code parallelism} connections and
+ * row locks on at most {@code parallelism} chunks. Every worker asks the {@link PostingThrottle} before a chunk.
+ * <p>
+ * A run is identified by the caller's run key. Each committed chunk leaves a checkpoint, and starting a run key
+ * again posts only the chunks without one: after a crash or a failed chunk the run resumes where it stopped, and
+ * a completed run is never posted twice. One run goes at a time.
+ * <p>
+ * Not for use with the balance engine, which owns the balances it has loaded: {@code PostingConfig} refuses to
+ * create the job when both are enabled.
+ */
+public class PostingJob extends ChunkedJob<PostingJob.Pass> implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(PostingJob.class);
+
+    private static final int MAX_RUN_KEY_LENGTH = 100;
+
+    private final WalletRepo walletRepo;
+    private final PostingRunRepo runRepo;
+    private final PostingCheckpointRepo checkpointRepo;
+    private final PostingWriter writer;
+    private final PostingThrottle throttle;
+    private final TransactionOperations transactionOperations;
+    private final Map<String, PostingRule> rules;
+    private final long chunkSize;
+
+    public PostingJob(WalletRepo walletRepo, PostingRunRepo runRepo, PostingCheckpointRepo checkpointRepo,
+                      PostingWriter writer, PostingThrottle throttle, TransactionOperations transactionOperations,
+                      List<PostingRule> rules, int parallelism, long chunkSize) {
+        super("Posting run", "posting-", parallelism);
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Batch postings need a parallelism and chunk size of at least 1");
+        }
+        this.walletRepo = walletRepo;
+        this.runRepo = runRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.writer = writer;
+        this.throttle = throttle;
+        this.transactionOperations = transactionOperations;
+        this.rules = rules.stream().collect(Collectors.toMap(PostingRule::name, Function.identity()));
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Starts or resumes {@code runKey} in the background unless a run is going, and returns the progress of the
+     * running one. Throws {@link IllegalArgumentException} for an unknown rule, or a run key already used by
+     * another rule.
+     */
+    public PostingProgress trigger(String ruleName, String runKey) {
+        return launch(() -> begin(ruleName, runKey)).progress();
+    }
+
+    /** Same as {@link #trigger} but waits for the run to finish. */
+    public PostingProgress runNow(String ruleName, String runKey) {
+        return launchAndWait(() -> begin(ruleName, runKey)).progress();
+    }
+
+    /** Progress of the running run, or of the last one; empty before the first run. */
+    public Optional<PostingProgress> progress() {
+        return current().map(Pass::progress);
+    }
+
+    /** Publishes wallet.posting.chunks.done, .chunks.total, .wallets.posted and wallet.posting.throttled. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "wallet.posting.chunks.done", "Chunks with a checkpoint", Pass::chunksDone);
+        gauge(registry, "wallet.posting.chunks.total", "Chunks in the run", Pass::chunksTotal);
+        gauge(registry, "wallet.posting.wallets.posted", "Wallets that got a posting", pass -> pass.walletsPosted.sum());
+        FunctionCounter.builder("wallet.posting.throttled", throttle, t -> t.throttledNanos() / 1e9)
+                .description("Seconds workers waited on the throttle")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private Pass begin(String ruleName, String runKey) {
+        PostingRule rule = rules.get(ruleName);
+        if (rule == null) {
+            throw new IllegalArgumentException("Unknown posting rule: " + ruleName + ", expected one of " + rules.keySet());
+        }
+        if (runKey == null || runKey.isBlank() || runKey.length() > MAX_RUN_KEY_LENGTH) {
+            throw new IllegalArgumentException("Run key must be 1 to " + MAX_RUN_KEY_LENGTH + " characters");
+        }
+        PostingRun run = transactionOperations.execute(status -> runRepo.findById(runKey)
+                .orElseGet(() -> runRepo.save(newRun(runKey, ruleName))));
+        if (!run.getRule().equals(ruleName)) {
+            throw new IllegalArgumentException("Run key " + runKey + " was started with rule " + run.getRule());
+        }
+        Pass pass = new Pass(run, rule, checkpointRepo.findByRunKey(runKey));
+        logger.info("Posting run {} ({}) started over wallet IDs [{}, {}): {} of {} chunks already done",
+                runKey, ruleName, run.getFirstId(), run.getEndId(), pass.chunksDone(), pass.chunksTotal());
+        return pass;
+    }
+
+    private PostingRun newRun(String runKey, String ruleName) {
+        WalletRepo.WalletIdRange range = walletRepo.findIdRange();
+        long firstId = range == null || range.getMinId() == null ? 0 : range.getMinId();
+        long endId = range == null || range.getMaxId() == null ? 0 : range.getMaxId() + 1;
+        return new PostingRun(runKey, ruleName, firstId, endId, chunkSize, LocalDateTime.now());
+    }
+
+    @Override
+    protected void completed(Pass pass) {
+        if (pass.chunksDone() == pass.chunksTotal()) {
+            transactionOperations.executeWithoutResult(status -> runRepo.findById(pass.run.getRunKey())
+                    .filter(run -> run.getCompletedAt() == null)
+                    .ifPresent(run -> run.setCompletedAt(LocalDateTime.now())));
+        }
+    }
+
+    @Override
+    protected void finished(Pass pass) {
+        logger.info("Posting run {} finished: {} wallets posted, {} skipped, {} of {} chunks failed",
+                pass.run.getRunKey(), pass.walletsPosted.sum(), pass.walletsSkipped.sum(),
+                pass.chunksFailed(), pass.chunksTotal());
+    }
+
+    @Override
+    protected void process(Pass pass, long chunk) {
+        long fromId = pass.run.getFirstId() + chunk * pass.run.getChunkSize();
+        try {
+            throttle.acquire(Math.min(pass.run.getChunkSize(), pass.run.getEndId() - fromId));
+            PostingWriter.ChunkResult result = writer.post(pass.run, pass.rule, chunk);
+            pass.chunkDone();
+            pass.walletsPosted.add(result.posted());
+            pass.walletsSkipped.add(result.skipped());
+            pass.amountPosted.addAndGet(result.amount().minorUnits());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pass.chunkFailed();
+        } catch (RuntimeException e) {
+            pass.chunkFailed();
+            logger.error("Posting run {} could not post chunk {} (wallet IDs from {}): {}",
+                    pass.run.getRunKey(), chunk, fromId, e.getMessage());
+        }
+    }
+
+    static final class Pass extends ChunkedJob.Pass {
+        private final PostingRun run;
+        private final PostingRule rule;
+        // Chunks checkpointed before this pass started; never changed afterwards
+        private final Set<Long> committed = new HashSet<>();
+        private final LongAdder walletsPosted = new LongAdder();
+        private final LongAdder walletsSkipped = new LongAdder();
+        private final AtomicLong amountPosted = new AtomicLong();
+
+        Pass(PostingRun run, PostingRule rule, List<PostingCheckpoint> checkpoints) {
+            super(run.chunksTotal());
+            this.run = run;
+            this.rule = rule;
+            for (PostingCheckpoint checkpoint : checkpoints) {
+                committed.add(checkpoint.getChunkIndex());
+                chunkDone();
+                walletsPosted.add(checkpoint.getPosted());
+                walletsSkipped.add(checkpoint.getSkipped());
+                amountPosted.addAndGet(checkpoint.getAmount().minorUnits());
+            }
+        }
+
+        @Override
+        protected String id() {
+            return run.getRunKey();
+        }
+
+        @Override
+        protected boolean pending(long chunk) {
+            return !committed.contains(chunk);
+        }
+
+        PostingProgress progress() {
+            LocalDateTime finished = finishedAt();
+            PostingProgress.State state = finished == null ? PostingProgress.State.RUNNING
+                    : failed() ? PostingProgress.State.FAILED
+                    : PostingProgress.State.COMPLETED;
+            return new PostingProgress(run.getRunKey(), run.getRule(), state, chunksTotal(), chunksDone(),
+                    chunksFailed(), walletsPosted.sum(), walletsSkipped.sum(), new Money(amountPosted.get()),
+                    startedAt(), finished);
+        }
+    }
+}
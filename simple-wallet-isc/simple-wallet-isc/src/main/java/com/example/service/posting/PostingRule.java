@@ -0,0 +1,20 @@
+package com.example.service.posting;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+
+/**
+ * Decides what a batch posting run books on each wallet. Rules are Spring beans looked up by {@link #name()};
+ * add one by declaring another bean.
+ */
+public interface PostingRule {
+
+    /** Name used to start a run, e.g. {@code interest}. */
+    String name();
+
+    TransactionWallet.TransactionType type();
+
+    /** Amount to post to {@code wallet}, read under its row lock; zero or less leaves the wallet alone. */
+    Money amountFor(Wallet wallet);
+}
@@ -0,0 +1,83 @@
+package com.example.service.posting;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces batch posting workers so online requests keep their latency. Before each chunk a worker
+ * <ul>
+ *     <li>waits {@code backoff} for as long as {@code onlineBusy} reports requests queueing for a connection, and</li>
+ *     <li>reserves the chunk's wallets against a shared budget of {@code maxWalletsPerSecond}, sleeping until its
+ *     turn. The budget is a single time slot moved on by compare-and-set, as in the token buckets, so workers
+ *     together stay under the rate without a lock.</li>
+ * </ul>
+ * A rate of 0 turns the budget off.
+ */
+public class PostingThrottle {
+
+    private final long nanosPerWallet;
+    private final Duration backoff;
+    private final BooleanSupplier onlineBusy;
+    private final LongSupplier nanoClock;
+    private final AtomicLong nextFreeAt;
+    private final LongAdder backoffs = new LongAdder();
+    private final LongAdder throttledNanos = new LongAdder();
+
+    public PostingThrottle(long maxWalletsPerSecond, Duration backoff, BooleanSupplier onlineBusy, LongSupplier nanoClock) {
+        if (maxWalletsPerSecond < 0 || backoff.isNegative()) {
+            throw new IllegalArgumentException("Posting throttle needs a non-negative rate and backoff");
+        }
+        this.nanosPerWallet = maxWalletsPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxWalletsPerSecond;
+        this.backoff = backoff;
+        this.onlineBusy = onlineBusy;
+        this.nanoClock = nanoClock;
+        this.nextFreeAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public static PostingThrottle unlimited() {
+        return new PostingThrottle(0, Duration.ZERO, () -> false, System::nanoTime);
+    }
+
+    /** Blocks until a chunk of {@code wallets} wallets may start. */
+    public void acquire(long wallets) throws InterruptedException {
+        while (!backoff.isZero() && onlineBusy.getAsBoolean()) {
+            backoffs.increment();
+            throttledNanos.add(backoff.toNanos());
+            TimeUnit.NANOSECONDS.sleep(backoff.toNanos());
+        }
+        long waitNanos = reserve(wallets);
+        if (waitNanos > 0) {
+            throttledNanos.add(waitNanos);
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /** Books {@code wallets} wallets of the budget; returns the nanoseconds to wait before starting them. */
+    public long reserve(long wallets) {
+        if (nanosPerWallet == 0) {
+            return 0;
+        }
+        long cost = Math.multiplyExact(wallets, nanosPerWallet);
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = nextFreeAt.get();
+            // An idle budget does not bank time: a slot in the past starts now
+            long start = Math.max(current, now);
+            if (nextFreeAt.compareAndSet(current, start + cost)) {
+                return start - now;
+            }
+        }
+    }
+
+    public long backoffCount() {
+        return backoffs.sum();
+    }
+
+    public long throttledNanos() {
+        return throttledNanos.sum();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.service.posting;
+
+import com.example.model.PostingCheckpoint;
+import com.example.model.PostingRun;
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.dto.BalanceChange;
+import com.example.model.money.Money;
+import com.example.repository.PostingCheckpointRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.ledger.LedgerRowWriter;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Posts one chunk of a run in one transaction: locks the chunk's wallets in id order, applies the rule
+ * through the wallet's own balance rules, inserts the ledger rows as a single JDBC batch and saves the
+ * chunk's checkpoint. Balance updates go through Hibernate, so they are batched too, bump the version
+ * optimistic writers check and keep the second-level cache in step.
+ * <p>
+ * Ledger rows go through {@link LedgerRowWriter}: interest on a small balance is below the request limits on
+ * {@link TransactionWallet#getAmount()}.
+ */
+public class PostingWriter {
+
+    private final WalletRepo walletRepo;
+    private final PostingCheckpointRepo checkpointRepo;
+    private final LedgerRowWriter ledgerRowWriter;
+    private final TransactionOperations transactionOperations;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PostingWriter(WalletRepo walletRepo, PostingCheckpointRepo checkpointRepo, LedgerRowWriter ledgerRowWriter,
+                         TransactionOperations transactionOperations, ApplicationEventPublisher eventPublisher) {
+        this.walletRepo = walletRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.ledgerRowWriter = ledgerRowWriter;
+        this.transactionOperations = transactionOperations;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public record ChunkResult(int posted, int skipped, Money amount) {
+    }
+
+    public ChunkResult post(PostingRun run, PostingRule rule, long chunkIndex) {
+        long fromId = run.getFirstId() + chunkIndex * run.getChunkSize();
+        long toId = Math.min(run.getEndId(), fromId + run.getChunkSize());
+        return transactionOperations.execute(status -> {
+            List<Wallet> wallets = walletRepo.findAllInRangeForUpdate(fromId, toId);
+            List<LedgerRowWriter.Row> rows = new ArrayList<>(wallets.size());
+            LocalDateTime now = LocalDateTime.now();
+            Money amount = Money.ZERO;
+            int skipped = 0;
+            for (Wallet wallet : wallets) {
+                Money posting = rule.amountFor(wallet);
+                if (!posting.isPositive()) {
+                    skipped++;
+                    continue;
+                }
+                BalanceMutation mutation = rule.type() == TransactionWallet.TransactionType.DEPOSIT
+                        ? BalanceMutation.credit(posting) : BalanceMutation.debit(posting);
+                try {
+                    mutation.rule().accept(wallet);
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    continue;
+                }
+                rows.add(new LedgerRowWriter.Row(wallet.getId(), rule.type(), posting, now));
+                amount = amount.plus(posting);
+                // Delivered only if the chunk commits
+                eventPublisher.publishEvent(BalanceChange.of(wallet));
+            }
+            ledgerRowWriter.insertAll(rows);
+            checkpointRepo.save(new PostingCheckpoint(run.getRunKey(), chunkIndex, rows.size(), skipped, amount, now));
+            return new ChunkResult(rows.size(), skipped, amount);
+        });
+    }
+}
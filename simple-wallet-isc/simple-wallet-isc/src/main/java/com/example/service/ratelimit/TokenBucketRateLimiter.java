@@ -0,0 +1,82 @@
+package com.example.service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key: up to {@code capacity} permits at once, refilled at one per {@code refillInterval}.
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the GCRA form
+ * of a token bucket), so taking a permit is one compare-and-set and never blocks.
+ * <p>
+ * Buckets live in a bounded Caffeine table and are dropped once idle. The idle timeout is at least the
+ * time a drained bucket needs to refill, so dropping one never hands out more permits than waiting would.
+ * Under a flood of distinct keys the least recently used buckets are evicted first.
+ */
+public class TokenBucketRateLimiter implements MeterBinder {
+
+    private final String name;
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketRateLimiter(String name, int capacity, Duration refillInterval, long maximumKeys,
+                                  Duration idleTimeout, LongSupplier nanoClock) {
+        if (capacity < 1 || refillInterval.isZero() || refillInterval.isNegative()) {
+            throw new IllegalArgumentException("Rate limit needs a capacity of at least 1 and a positive refill interval");
+        }
+        this.name = name;
+        this.refillIntervalNanos = refillInterval.toNanos();
+        this.burstNanos = refillIntervalNanos * capacity;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(Math.max(idleTimeout.toNanos(), burstNanos)))
+                .build();
+    }
+
+    /** Takes a permit for key; returns 0 on success, otherwise the nanoseconds until the next permit is available. */
+    public long tryAcquire(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = fullAt.get();
+            // A bucket full at or before now holds capacity permits; each one taken moves that time one interval on
+            long next = Math.max(current, now) + refillIntervalNanos;
+            if (next - now > burstNanos) {
+                rejected.increment();
+                return next - now - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /** Publishes wallet.rate-limit.rejected and wallet.rate-limit.buckets, tagged limiter=name. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.rate-limit.rejected", rejected, LongAdder::doubleValue)
+                .description("Attempts refused because the key's bucket was empty")
+                .tag("limiter", name)
+                .register(registry);
+        Gauge.builder("wallet.rate-limit.buckets", buckets, Cache::estimatedSize)
+                .description("Keys currently tracked")
+                .tag("limiter", name)
+                .register(registry);
+    }
+}
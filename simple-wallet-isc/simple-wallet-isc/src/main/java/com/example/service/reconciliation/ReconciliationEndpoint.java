@@ -0,0 +1,30 @@
+package com.example.service.reconciliation;
+
+import com.example.model.dto.ReconciliationProgress;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * {@code GET /actuator/reconciliation} reports the running or last pass (404 before the first one);
+ * {@code POST /actuator/reconciliation} starts a pass unless one is running.
+ */
+@Endpoint(id = "reconciliation")
+public class ReconciliationEndpoint {
+
+    private final ReconciliationJob reconciliationJob;
+
+    public ReconciliationEndpoint(ReconciliationJob reconciliationJob) {
+        this.reconciliationJob = reconciliationJob;
+    }
+
+    @ReadOperation
+    public ReconciliationProgress progress() {
+        return reconciliationJob.progress().orElse(null);
+    }
+
+    @WriteOperation
+    public ReconciliationProgress start() {
+        return reconciliationJob.trigger();
+    }
+}
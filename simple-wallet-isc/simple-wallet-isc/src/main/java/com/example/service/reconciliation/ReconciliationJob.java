@@ -0,0 +1,172 @@
+package com.example.service.reconciliation;
+
+import com.example.model.ReconciliationMismatch;
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.dto.ReconciliationProgress;
+import com.example.model.dto.ReconciliationRow;
+import com.example.model.money.Money;
+import com.example.repository.ReconciliationMismatchRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.batch.ChunkedJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks that every wallet's balance equals {@link Wallet#MINIMUM_BALANCE} plus its deposits minus its
+ * withdrawals. The wallet id range is cut into chunks of {@code chunkSize} ids that {@code parallelism}
+ * {@link ChunkedJob} workers reconcile; a chunk is one read-only statement returning each wallet's balance
+ * next to its ledger totals, so a pass holds at most {@code parallelism} connections and never loads entities.
+ * Mismatches are stored in {@code reconciliation_mismatches} under the pass's run id.
+ * <p>
+ * One pass runs at a time. A chunk that fails is counted and logged and the pass goes on; the pass then ends
+ * {@code FAILED}. With the balance engine on, balances reach the database after the ledger rows, so a wallet
+ * written to during the pass can show up as a mismatch that a later pass no longer reports.
+ */
+public class ReconciliationJob extends ChunkedJob<ReconciliationJob.Pass> implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationJob.class);
+
+    private final WalletRepo walletRepo;
+    private final ReconciliationMismatchRepo mismatchRepo;
+    private final TransactionOperations readOnlyTransactions;
+    private final TransactionOperations transactionOperations;
+    private final long chunkSize;
+
+    public ReconciliationJob(WalletRepo walletRepo, ReconciliationMismatchRepo mismatchRepo,
+                             TransactionOperations readOnlyTransactions, TransactionOperations transactionOperations,
+                             int parallelism, long chunkSize) {
+        super("Reconciliation", "reconciliation-", parallelism);
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Reconciliation needs a parallelism and chunk size of at least 1");
+        }
+        this.walletRepo = walletRepo;
+        this.mismatchRepo = mismatchRepo;
+        this.readOnlyTransactions = readOnlyTransactions;
+        this.transactionOperations = transactionOperations;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Starts a pass in the background unless one is running, and returns the progress of the running pass. */
+    public ReconciliationProgress trigger() {
+        return launch(this::begin).progress();
+    }
+
+    /** Runs a whole pass on the pool and waits for it; returns the running pass's progress if one was already going. */
+    public ReconciliationProgress runNow() {
+        return launchAndWait(this::begin).progress();
+    }
+
+    // Off unless wallet.reconciliation.cron is set
+    @Scheduled(cron = "${wallet.reconciliation.cron:-}")
+    public void scheduledRun() {
+        trigger();
+    }
+
+    /** Progress of the running pass, or of the last one; empty before the first pass. */
+    public Optional<ReconciliationProgress> progress() {
+        return current().map(Pass::progress);
+    }
+
+    public List<ReconciliationMismatch> mismatches(String runId) {
+        return mismatchRepo.findByRunIdOrderByWalletId(runId);
+    }
+
+    /** Publishes wallet.reconciliation.chunks.done, .chunks.total, .wallets.checked and .mismatches for the running or last pass. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "wallet.reconciliation.chunks.done", "Chunks finished, checked or failed", Pass::chunksDone);
+        gauge(registry, "wallet.reconciliation.chunks.total", "Chunks in the pass", Pass::chunksTotal);
+        gauge(registry, "wallet.reconciliation.wallets.checked", "Wallets reconciled", pass -> pass.walletsChecked.sum());
+        gauge(registry, "wallet.reconciliation.mismatches", "Wallets whose balance disagrees with the ledger", pass -> pass.mismatches.sum());
+    }
+
+    private Pass begin() {
+        WalletRepo.WalletIdRange range = readOnlyTransactions.execute(status -> walletRepo.findIdRange());
+        long firstId = range == null || range.getMinId() == null ? 0 : range.getMinId();
+        long endId = range == null || range.getMaxId() == null ? 0 : range.getMaxId() + 1;
+        Pass pass = new Pass(UUID.randomUUID().toString(), firstId, endId, chunkSize);
+        logger.info("Reconciliation {} started over wallet IDs [{}, {}) in {} chunks",
+                pass.runId, firstId, endId, pass.chunksTotal());
+        return pass;
+    }
+
+    @Override
+    protected void finished(Pass pass) {
+        logger.info("Reconciliation {} finished: {} wallets checked, {} mismatches, {} of {} chunks failed",
+                pass.runId, pass.walletsChecked.sum(), pass.mismatches.sum(), pass.chunksFailed(), pass.chunksTotal());
+    }
+
+    @Override
+    protected void process(Pass pass, long chunk) {
+        long fromId = pass.firstId + chunk * chunkSize;
+        long toId = Math.min(pass.endId, fromId + chunkSize);
+        try {
+            List<ReconciliationRow> rows = readOnlyTransactions.execute(status -> walletRepo.findReconciliationRows(
+                    fromId, toId, TransactionWallet.TransactionType.DEPOSIT, TransactionWallet.TransactionType.WITHDRAWAL));
+            List<ReconciliationMismatch> mismatches = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (ReconciliationRow row : rows) {
+                Money expected = expectedBalance(row);
+                if (!expected.equals(row.balance())) {
+                    mismatches.add(new ReconciliationMismatch(pass.runId, row.walletId(), expected, row.balance(), now));
+                }
+            }
+            if (!mismatches.isEmpty()) {
+                transactionOperations.executeWithoutResult(status -> mismatchRepo.saveAll(mismatches));
+                logger.warn("Reconciliation {} found {} mismatched wallets in IDs [{}, {})",
+                        pass.runId, mismatches.size(), fromId, toId);
+            }
+            pass.walletsChecked.add(rows.size());
+            pass.mismatches.add(mismatches.size());
+        } catch (RuntimeException e) {
+            pass.chunkFailed();
+            logger.error("Reconciliation {} could not check wallet IDs [{}, {}): {}", pass.runId, fromId, toId, e.getMessage());
+        } finally {
+            pass.chunkDone();
+        }
+    }
+
+    private static Money expectedBalance(ReconciliationRow row) {
+        return Wallet.MINIMUM_BALANCE.plus(row.deposits()).minus(row.withdrawals());
+    }
+
+    static final class Pass extends ChunkedJob.Pass {
+        private final String runId;
+        private final long firstId;
+        private final long endId;
+        private final LongAdder walletsChecked = new LongAdder();
+        private final LongAdder mismatches = new LongAdder();
+
+        Pass(String runId, long firstId, long endId, long chunkSize) {
+            super((endId - firstId + chunkSize - 1) / chunkSize);
+            this.runId = runId;
+            this.firstId = firstId;
+            this.endId = endId;
+        }
+
+        @Override
+        protected String id() {
+            return runId;
+        }
+
+        ReconciliationProgress progress() {
+            LocalDateTime finished = finishedAt();
+            ReconciliationProgress.State state = finished == null ? ReconciliationProgress.State.RUNNING
+                    : failed() ? ReconciliationProgress.State.FAILED
+                    : ReconciliationProgress.State.COMPLETED;
+            return new ReconciliationProgress(runId, state, chunksTotal(), chunksDone(), chunksFailed(),
+                    walletsChecked.sum(), mismatches.sum(), startedAt(), finished);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.service.search;
+
+import com.example.model.UserNameToken;
+import com.example.model.dto.UserSearchCursor;
+import com.example.model.dto.UserSearchPage;
+import com.example.model.dto.UserSearchResult;
+import com.example.repository.UserNameTokenRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix search over user names. Each user's full name is split into normalized words (lower case,
+ * accents and diacritics removed, Arabic and Persian letter variants folded) that are stored in
+ * {@code user_name_tokens}. A query matches users that have, for every query word, a name word
+ * starting with it, in any order: "jo do" finds "John Doe" and "Doe, Johanna".
+ * <p>
+ * The index is kept current by {@link com.example.service.UserService} on create, update and delete;
+ * users stored before it existed are indexed once at startup.
+ */
+@Component
+public class UserSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // The search query has one seek term and three filter terms
+    public static final int MAX_QUERY_TERMS = 4;
+    // Query words are ranked by how many tokens they match, counted up to this many
+    private static final int SELECTIVITY_SAMPLE = 1000;
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    @Autowired
+    private UserNameTokenRepo userNameTokenRepo;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    /**
+     * Splits a name into its distinct normalized words, in order of appearance.
+     */
+    public static List<String> tokens(String name) {
+        if (name == null) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                // Arabic yeh and kaf are typed interchangeably with their Persian forms
+                .replace('\u064A', '\u06CC')
+                .replace('\u0643', '\u06A9');
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : SEPARATORS.split(folded)) {
+            if (!word.isEmpty()) {
+                tokens.add(word.length() > UserNameToken.MAX_TOKEN_LENGTH
+                        ? word.substring(0, UserNameToken.MAX_TOKEN_LENGTH) : word);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    // Replaces the user's tokens; joins the caller's transaction
+    @Transactional
+    public void index(Long userId, String fullName) {
+        userNameTokenRepo.deleteByUserId(userId);
+        insertTokens(userId, fullName);
+    }
+
+    @Transactional
+    public void remove(Long userId) {
+        userNameTokenRepo.deleteByUserId(userId);
+    }
+
+    /**
+     * Returns one page of users matching {@code query}. Pages are addressed by the cursor
+     * of the previous page rather than an offset, so page N costs the same as page 1.
+     */
+    @Transactional(readOnly = true)
+    public UserSearchPage search(String query, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<String> terms = tokens(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit");
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Search query must not have more than " + MAX_QUERY_TERMS + " words");
+        }
+        UserSearchCursor after = cursor == null || cursor.isBlank() ? null : UserSearchCursor.decode(cursor);
+        List<String> patterns = new ArrayList<>(terms.stream().map(term -> term + '%').toList());
+        if (after != null) {
+            // Later pages keep seeking on the word the first page was ordered by
+            if (!patterns.remove(after.lead())) {
+                throw new IllegalArgumentException("Cursor does not belong to this query");
+            }
+            patterns.add(0, after.lead());
+        } else if (patterns.size() > 1) {
+            patterns = bySelectivity(patterns);
+        }
+        // Seek on the most selective word; unused filters repeat it
+        String lead = patterns.get(0);
+        String also1 = patterns.size() > 1 ? patterns.get(1) : lead;
+        String also2 = patterns.size() > 2 ? patterns.get(2) : lead;
+        String also3 = patterns.size() > 3 ? patterns.get(3) : lead;
+
+        // One extra row tells whether another page exists
+        Limit limit = Limit.of(size + 1);
+        List<UserSearchResult> rows = after == null
+                ? userNameTokenRepo.search(lead, also1, also2, also3, limit)
+                : userNameTokenRepo.searchAfter(lead, also1, also2, also3, after.token(), after.id(), limit);
+        if (rows.size() <= size) {
+            return new UserSearchPage(rows, null);
+        }
+        List<UserSearchResult> items = rows.subList(0, size);
+        return new UserSearchPage(List.copyOf(items), UserSearchCursor.after(lead, items.get(size - 1)).encode());
+    }
+
+    // A common first name can match far more users than a longer but rare surname, so word length alone
+    // is a poor guide; ties (both words past the sample size) go to the longer word
+    private List<String> bySelectivity(List<String> patterns) {
+        Map<String, Integer> matches = new HashMap<>();
+        for (String pattern : patterns) {
+            matches.put(pattern, userNameTokenRepo.findUserIdsByTokenLike(pattern, Limit.of(SELECTIVITY_SAMPLE)).size());
+        }
+        return patterns.stream()
+                .sorted(Comparator.<String>comparingInt(matches::get)
+                        .thenComparing(Comparator.comparingInt(String::length).reversed()))
+                .toList();
+    }
+
+    // Indexes users stored before the index existed; each batch is its own transaction
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long afterId = Long.MIN_VALUE;
+        long indexed = 0;
+        while (true) {
+            long from = afterId;
+            List<UserNameTokenRepo.UnindexedUser> batch = transactionOperations.execute(status -> {
+                List<UserNameTokenRepo.UnindexedUser> users =
+                        userNameTokenRepo.findUnindexed(from, Limit.of(BACKFILL_BATCH_SIZE));
+                users.forEach(user -> insertTokens(user.getId(), user.getFullName()));
+                return users;
+            });
+            if (batch.isEmpty()) {
+                break;
+            }
+            indexed += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (indexed > 0) {
+            logger.info("Indexed the names of {} users for search", indexed);
+        }
+    }
+
+    private void insertTokens(Long userId, String fullName) {
+        List<UserNameToken> rows = new ArrayList<>();
+        for (String token : tokens(fullName)) {
+            rows.add(new UserNameToken(token, userId));
+        }
+        userNameTokenRepo.saveAll(rows);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.service.stream;
+
+import com.example.model.dto.BalanceChange;
+import com.example.model.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fans committed balance changes out to Server-Sent Events subscribers. Each subscription is an
+ * async {@link SseEmitter}, so an open stream holds a socket but no servlet thread. All sends run
+ * on one dispatcher thread, which keeps a slow client from stalling the committing request; changes
+ * to a wallet that arrive while a send is pending collapse into one send of the newest balance.
+ * <p>
+ * After-commit events from different threads can arrive out of order, so a change older than the newest one
+ * seen for its wallet is dropped rather than pushed as current. Changes are ordered by {@code changedAt}, which
+ * is stamped while the change holds the wallet (row lock, version check, or the engine partition's thread), so
+ * a later change to a wallet is stamped later. The version cannot order them: the conditional-update and engine
+ * paths do not load it.
+ * <p>
+ * The dispatcher also writes a comment every {@code heartbeatInterval} so dead connections are
+ * noticed and dropped.
+ */
+public class BalanceStreamHub {
+    private static final Logger logger = LoggerFactory.getLogger(BalanceStreamHub.class);
+
+    public static final String EVENT_NAME = "balance";
+
+    private final Duration emitterTimeout;
+    private final Duration heartbeatInterval;
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // Newest change seen per subscribed wallet, sent or not
+    private final Map<Long, BalanceChange> latest = new ConcurrentHashMap<>();
+    // Wallets with a flush queued on the dispatcher
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService dispatcher;
+
+    public BalanceStreamHub(Duration emitterTimeout, Duration heartbeatInterval) {
+        this.emitterTimeout = emitterTimeout;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "balance-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = heartbeatInterval.toMillis();
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+
+    /**
+     * Opens a stream for the wallet. The first event carries {@code currentBalance}, read on the
+     * dispatcher thread so it can never arrive after, and overwrite, a newer change.
+     */
+    public SseEmitter subscribe(Long walletId, Supplier<Money> currentBalance) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        subscribers.compute(walletId, (id, emitters) -> {
+            Set<SseEmitter> walletEmitters = emitters != null ? emitters : new CopyOnWriteArraySet<>();
+            walletEmitters.add(emitter);
+            return walletEmitters;
+        });
+        emitter.onCompletion(() -> unsubscribe(walletId, emitter));
+        emitter.onTimeout(() -> unsubscribe(walletId, emitter));
+        emitter.onError(e -> unsubscribe(walletId, emitter));
+        dispatcher.execute(() -> {
+            try {
+                BalanceChange snapshot = new BalanceChange(walletId, currentBalance.get(), LocalDateTime.now());
+                latest.merge(walletId, snapshot, BalanceStreamHub::newer);
+                send(walletId, emitter, snapshot);
+            } catch (RuntimeException e) {
+                unsubscribe(walletId, emitter);
+                emitter.completeWithError(e);
+            }
+        });
+        logger.info("Opened balance stream for wallet ID: {}", walletId);
+        return emitter;
+    }
+
+    // Runs after the publishing transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChange change) {
+        if (!subscribers.containsKey(change.walletId())) {
+            return;
+        }
+        if (latest.merge(change.walletId(), change, BalanceStreamHub::newer) != change) {
+            return;
+        }
+        if (queued.add(change.walletId())) {
+            try {
+                dispatcher.execute(() -> flush(change.walletId()));
+            } catch (RejectedExecutionException e) {
+                queued.remove(change.walletId());
+            }
+        }
+    }
+
+    // Ties go to the change that arrived last
+    private static BalanceChange newer(BalanceChange seen, BalanceChange arrived) {
+        return arrived.changedAt().isBefore(seen.changedAt()) ? seen : arrived;
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void flush(Long walletId) {
+        queued.remove(walletId);
+        BalanceChange change = latest.get(walletId);
+        Set<SseEmitter> emitters = subscribers.get(walletId);
+        if (change == null || emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(walletId, emitter, change);
+        }
+    }
+
+    private void send(Long walletId, SseEmitter emitter, BalanceChange change) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(change, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            unsubscribe(walletId, emitter);
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.forEach((walletId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(walletId, emitter);
+                }
+            }
+        });
+    }
+
+    private void unsubscribe(Long walletId, SseEmitter emitter) {
+        subscribers.computeIfPresent(walletId, (id, emitters) -> {
+            emitters.remove(emitter);
+            if (emitters.isEmpty()) {
+                latest.remove(id);
+                return null;
+            }
+            return emitters;
+        });
+    }
+}
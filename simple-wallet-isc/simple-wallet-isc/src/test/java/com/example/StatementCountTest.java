@@ -0,0 +1,155 @@
+package com.example;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.TransactionWalletService;
+import com.example.service.UserService;
+import com.example.service.WalletService;
+import com.example.service.ledger.LedgerRowWriter;
+import com.example.service.search.UserSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the number of SQL statements each endpoint's service call sends, counted by Hibernate statistics.
+ * A new association fetch, an eager mapping or a lost bytecode enhancement shows up here as an extra statement.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserService.class, UserSearchIndex.class, WalletService.class, TransactionWalletService.class,
+        LedgerRowWriter.class, BalanceConcurrencyConfig.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class StatementCountTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionWalletService transactionWalletService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCE.incrementAndGet();
+        user = new User("Counted User " + n, LocalDate.of(1990, 1, 1), "0916" + String.format("%06d", n),
+                "counted" + n + "@example.com", new BCryptPasswordEncoder().encode("password"),
+                UserStatusForMan.yes, UserGender.Female);
+        userRepo.save(user);
+        wallet = new Wallet(user, String.format("6%09d", n), String.format("I6%021d", n));
+        wallet.setOwner(user.getFullName());
+        walletRepo.save(wallet);
+        // Takes the first block of transaction ids, so the measured calls below never ask the sequence
+        transactionWalletService.deposit(wallet.getId(), Money.of(100000));
+    }
+
+    @Test
+    void getUser_SelectsTheProfileOnly() {
+        assertStatements(1, () -> userService.getUserProfile(user.getId()));
+    }
+
+    @Test
+    void loginUser_SkipsTheWallet() {
+        assertStatements(1, () -> assertTrue(userService.login(user.getEmail(), "password", user.getPhoneNumber()).isPresent()));
+    }
+
+    @Test
+    void updateUser_SelectsAndUpdatesTheUser() {
+        User changes = new User(user.getFullName(), user.getDateOfBirth(), "0999999999", user.getEmail(),
+                null, user.getUserStatusForMan(), user.getGender());
+        assertStatements(2, () -> userService.updateUser(user.getId(), changes));
+    }
+
+    @Test
+    void findUserById_SkipsTheWallet() {
+        assertStatements(1, () -> userService.findUserById(user.getId()));
+    }
+
+    @Test
+    void getBalance_SelectsTheBalanceOnly() {
+        assertStatements(1, () -> walletService.getBalance(wallet.getId()));
+    }
+
+    @Test
+    void loginWallet_SkipsTheUser() {
+        assertStatements(1, () -> assertTrue(walletService.login(wallet.getId(), wallet.getAccountNumber(), wallet.getShabaNumber())));
+    }
+
+    @Test
+    void addFunds_SelectsAndUpdatesTheWallet() {
+        // Plus the ledger row's INSERT, sent through JdbcTemplate and so not counted by Hibernate's statistics
+        assertStatements(2, () -> walletService.addFunds(wallet.getId(), Money.of(100000)));
+    }
+
+    @Test
+    void getWalletDetails_SelectsTheDetailsOnly() {
+        assertStatements(1, () -> transactionWalletService.getWalletDetails(wallet.getId()));
+    }
+
+    @Test
+    void getHistory_ChecksTheWalletAndSelectsOnePage() {
+        assertStatements(2, () -> transactionWalletService.getHistory(wallet.getId(), null, 20));
+    }
+
+    @Test
+    void deposit_SelectsTheWalletInsertsAndUpdates() {
+        assertStatements(3, () -> transactionWalletService.deposit(wallet.getId(), Money.of(100000)));
+    }
+
+    @Test
+    void withdraw_SelectsTheWalletInsertsAndUpdates() {
+        assertStatements(3, () -> transactionWalletService.withdraw(wallet.getId(), Money.of(100000)));
+    }
+
+    private void assertStatements(long expected, Runnable call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        call.run();
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.TransactionTest;
+
+import com.example.exception.TransactionQueueFullException;
+import com.example.model.TransactionWallet;
+import com.example.model.dto.AsyncTransactionStatus;
+import com.example.model.money.Money;
+import com.example.service.TransactionWalletService;
+import com.example.service.async.AsyncTransactionQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncTransactionQueueTest {
+
+    @Mock
+    private TransactionWalletService transactionWalletService;
+
+    private AsyncTransactionQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        queue = new AsyncTransactionQueue(transactionWalletService, 1, 1, 100, Duration.ofMinutes(1), Duration.ofSeconds(2));
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.stop();
+    }
+
+    @Test
+    void submit_CompletesWithLedgerRow() throws InterruptedException {
+        // Arrange
+        TransactionWallet transaction = new TransactionWallet();
+        transaction.setId(42L);
+        when(transactionWalletService.deposit(1L, Money.of(150000))).thenReturn(transaction);
+
+        // Act
+        AsyncTransactionStatus pending = queue.submit(1L, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000));
+        AsyncTransactionStatus finished = awaitFinished(pending.id());
+
+        // Assert
+        assertEquals(AsyncTransactionStatus.State.PENDING, pending.state());
+        assertEquals(AsyncTransactionStatus.State.COMPLETED, finished.state());
+        assertEquals(42L, finished.transactionId());
+        assertNotNull(finished.finishedAt());
+    }
+
+    @Test
+    void submit_RecordsFailure() throws InterruptedException {
+        // Arrange
+        when(transactionWalletService.withdraw(1L, Money.of(600000)))
+                .thenThrow(new IllegalArgumentException("Insufficient funds for withdrawal"));
+
+        // Act
+        AsyncTransactionStatus pending = queue.submit(1L, TransactionWallet.TransactionType.WITHDRAWAL, Money.of(600000));
+        AsyncTransactionStatus finished = awaitFinished(pending.id());
+
+        // Assert
+        assertEquals(AsyncTransactionStatus.State.FAILED, finished.state());
+        assertEquals("Insufficient funds for withdrawal", finished.error());
+        assertNull(finished.transactionId());
+    }
+
+    @Test
+    void submit_RejectsWhenQueueIsFull() throws InterruptedException {
+        // Arrange: the only worker is blocked and the single queue slot is taken
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionWalletService.deposit(eq(1L), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new TransactionWallet();
+        });
+        queue.submit(1L, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.submit(1L, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000));
+
+        // Act & Assert
+        TransactionQueueFullException rejected = assertThrows(TransactionQueueFullException.class,
+                () -> queue.submit(1L, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000)));
+        assertEquals(Duration.ofSeconds(2), rejected.getRetryAfter());
+        assertEquals(1, queue.queuedCount());
+        release.countDown();
+    }
+
+    private AsyncTransactionStatus awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        AsyncTransactionStatus status = queue.status(id).orElseThrow();
+        while (status.state() == AsyncTransactionStatus.State.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = queue.status(id).orElseThrow();
+        }
+        return status;
+    }
+}
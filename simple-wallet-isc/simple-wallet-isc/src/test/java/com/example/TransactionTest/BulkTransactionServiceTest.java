@@ -0,0 +1,136 @@
+package com.example.TransactionTest;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+import com.example.repository.WalletRepo;
+import com.example.service.BulkTransactionService;
+import com.example.service.ledger.LedgerRowWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BulkTransactionServiceTest {
+
+    @InjectMocks
+    private BulkTransactionService bulkTransactionService;
+
+    @Mock
+    private WalletRepo walletRepo;
+
+    @Mock
+    private LedgerRowWriter ledgerRowWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(bulkTransactionService, "transactionOperations", TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(bulkTransactionService, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(bulkTransactionService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(bulkTransactionService, "chunkSize", 2);
+        wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setBalance(Money.of(500000));
+        when(walletRepo.findAllByIdForUpdate(any())).thenReturn(List.of(wallet));
+        AtomicLong transactionIds = new AtomicLong();
+        when(ledgerRowWriter.insertAll(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+                .map(row -> transactionIds.incrementAndGet()).toList());
+    }
+
+    @Test
+    void process_NdjsonAppliesValidLinesAndRejectsTheRest() throws Exception {
+        // Arrange
+        String input = """
+                {"walletId":1,"type":"DEPOSIT","amount":150000}
+                {"walletId":1,"type":"WITHDRAWAL","amount":900000}
+                not json
+                {"walletId":2,"type":"DEPOSIT","amount":150000}
+                {"walletId":1,"type":"DEPOSIT","amount":50}
+                {"walletId":1,"amount":150000}
+                """;
+        StringWriter output = new StringWriter();
+
+        // Act
+        bulkTransactionService.process(new StringReader(input), BulkTransactionService.Format.NDJSON, output);
+
+        // Assert
+        String[] lines = output.toString().split("\n");
+        assertEquals(6, lines.length);
+        assertEquals("{\"line\":1,\"status\":\"APPLIED\",\"transactionId\":1}", lines[0]);
+        assertTrue(lines[1].contains("Insufficient funds for withdrawal"));
+        assertTrue(lines[2].contains("Malformed line"));
+        assertTrue(lines[3].contains("Wallet not found"));
+        assertTrue(lines[4].contains("Amount must be at least 100,000"));
+        assertTrue(lines[5].contains("Transaction type is required"));
+        assertEquals(Money.of(650000), wallet.getBalance());
+        ArgumentCaptor<List<LedgerRowWriter.Row>> rows = ArgumentCaptor.forClass(List.class);
+        verify(ledgerRowWriter, times(3)).insertAll(rows.capture());
+        assertEquals(List.of(new LedgerRowWriter.Row(1L, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000),
+                rows.getAllValues().get(0).get(0).transactionDate())), rows.getAllValues().get(0));
+        assertTrue(rows.getAllValues().get(1).isEmpty());
+        assertTrue(rows.getAllValues().get(2).isEmpty());
+        // Six lines with a chunk size of two: three transactions
+        verify(walletRepo, times(3)).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void process_CsvSkipsHeader() throws Exception {
+        // Arrange
+        String input = "walletId,type,amount\n1,deposit,200000\n1,WITHDRAWAL,100000\n";
+        StringWriter output = new StringWriter();
+
+        // Act
+        bulkTransactionService.process(new StringReader(input), BulkTransactionService.Format.CSV, output);
+
+        // Assert
+        String[] lines = output.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"line\":2,\"status\":\"APPLIED\",\"transactionId\":1}", lines[0]);
+        assertEquals("{\"line\":3,\"status\":\"APPLIED\",\"transactionId\":2}", lines[1]);
+        assertEquals(Money.of(600000), wallet.getBalance());
+        ArgumentCaptor<List<LedgerRowWriter.Row>> rows = ArgumentCaptor.forClass(List.class);
+        verify(ledgerRowWriter).insertAll(rows.capture());
+        assertEquals(List.of(TransactionWallet.TransactionType.DEPOSIT, TransactionWallet.TransactionType.WITHDRAWAL),
+                rows.getValue().stream().map(LedgerRowWriter.Row::type).toList());
+    }
+
+    @Test
+    void process_FailedChunkReportsEveryLine() throws Exception {
+        // Arrange
+        when(walletRepo.findAllByIdForUpdate(any())).thenThrow(new RuntimeException("lock timeout"));
+        StringWriter output = new StringWriter();
+
+        // Act
+        bulkTransactionService.process(new StringReader("1,DEPOSIT,150000\n1,DEPOSIT,150000\n"),
+                BulkTransactionService.Format.CSV, output);
+
+        // Assert
+        String[] lines = output.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("Chunk failed, not applied"));
+        assertTrue(lines[1].contains("Chunk failed, not applied"));
+        verify(ledgerRowWriter, never()).insertAll(any());
+    }
+}
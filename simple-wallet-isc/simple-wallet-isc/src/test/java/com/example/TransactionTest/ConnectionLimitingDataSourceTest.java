@@ -0,0 +1,92 @@
+package com.example.TransactionTest;
+
+import com.example.datasource.ConnectionLimitingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    void getConnection_WaitsForAPermitAndGetsItOnClose() throws Exception {
+        // Arrange
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, Duration.ofSeconds(5));
+        Connection first = dataSource.getConnection();
+
+        // Act
+        CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.waitingCount() == 0) {
+            Thread.sleep(1);
+        }
+        assertFalse(second.isDone());
+        first.close();
+
+        // Assert
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection_TimesOutWhenAllPermitsAreHeld() throws SQLException {
+        // Arrange
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, Duration.ofMillis(50));
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    void close_ReleasesThePermitOnce() throws SQLException {
+        // Arrange
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 2, Duration.ofSeconds(1));
+        Connection connection = dataSource.getConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(2, dataSource.availablePermits());
+        assertEquals(connection, connection);
+    }
+
+    @Test
+    void getConnection_ReleasesThePermitWhenThePoolFails() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 1, Duration.ofSeconds(1));
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.availablePermits());
+    }
+}
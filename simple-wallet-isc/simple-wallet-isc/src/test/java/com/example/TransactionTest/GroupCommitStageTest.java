@@ -0,0 +1,128 @@
+package com.example.TransactionTest;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.groupcommit.GroupCommitStage;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class GroupCommitStageTest {
+
+    @Mock
+    private WalletRepo walletRepo;
+
+    @Mock
+    private TransactionWalletRepo transactionWalletRepo;
+
+    private Wallet wallet;
+
+    private GroupCommitStage stage;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setBalance(Money.of(500000));
+        when(walletRepo.findAllByIdForUpdate(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.contains(1L) ? List.of(wallet) : List.of();
+        });
+        stage = new GroupCommitStage(walletRepo, transactionWalletRepo, TransactionOperations.withoutTransaction(),
+                Validation.buildDefaultValidatorFactory().getValidator(), Duration.ofMillis(5), 64, 1000);
+        stage.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stage.stop();
+    }
+
+    @Test
+    void concurrentRequests_ShareOneTransaction() throws Exception {
+        // Arrange: hold the first group open so the next requests queue up behind it
+        CountDownLatch firstGroupStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstGroup = new CountDownLatch(1);
+        when(walletRepo.findAllByIdForUpdate(anyCollection()))
+                .thenAnswer(invocation -> {
+                    firstGroupStarted.countDown();
+                    releaseFirstGroup.await();
+                    return List.of(wallet);
+                })
+                .thenReturn(List.of(wallet));
+
+        // Act
+        List<CompletableFuture<TransactionWallet>> results = new ArrayList<>();
+        results.add(deposit(1L, 100000));
+        firstGroupStarted.await();
+        for (int i = 0; i < 10; i++) {
+            results.add(deposit(1L, 100000));
+        }
+        releaseFirstGroup.countDown();
+        results.forEach(CompletableFuture::join);
+
+        // Assert: 11 requests, 2 transactions
+        verify(walletRepo, times(2)).findAllByIdForUpdate(anyCollection());
+        assertEquals(0, Money.of(1600000).compareTo(wallet.getBalance()));
+    }
+
+    @Test
+    void rejectedRequest_DoesNotAffectOthersInGroup() {
+        // Act
+        CompletableFuture<TransactionWallet> tooLarge = stage.submit(1L, BalanceMutation.debit(Money.of(495000)),
+                TransactionWallet.TransactionType.WITHDRAWAL, () -> new IllegalArgumentException("Wallet not found"));
+        CompletableFuture<TransactionWallet> tooSmall = deposit(1L, 10);
+        CompletableFuture<TransactionWallet> unknownWallet = deposit(2L, 100000);
+        CompletableFuture<TransactionWallet> accepted = deposit(1L, 100000);
+
+        // Assert
+        assertEquals("Withdrawal would result in a balance below the minimum of 10,000",
+                assertThrows(CompletionException.class, tooLarge::join).getCause().getMessage());
+        assertInstanceOf(ConstraintViolationException.class, assertThrows(CompletionException.class, tooSmall::join).getCause());
+        assertEquals("Wallet not found", assertThrows(CompletionException.class, unknownWallet::join).getCause().getMessage());
+        assertEquals(Money.of(100000), accepted.join().getAmount());
+        assertEquals(0, Money.of(600000).compareTo(wallet.getBalance()));
+    }
+
+    @Test
+    void failedCommit_FailsEveryRequestInGroup() {
+        // Arrange
+        when(transactionWalletRepo.saveAll(any())).thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        // Act
+        CompletableFuture<TransactionWallet> result = deposit(1L, 100000);
+
+        // Assert
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(DataAccessResourceFailureException.class, error.getCause());
+    }
+
+    private CompletableFuture<TransactionWallet> deposit(Long walletId, long amount) {
+        return stage.submit(walletId, BalanceMutation.credit(Money.of(amount)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found"));
+    }
+}
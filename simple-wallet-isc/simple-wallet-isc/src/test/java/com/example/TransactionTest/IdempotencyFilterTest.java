@@ -0,0 +1,254 @@
+package com.example.TransactionTest;
+
+import com.example.controller.TransactionWalletController;
+import com.example.filter.IdempotencyFilter;
+import com.example.model.IdempotencyRecord;
+import com.example.model.TransactionWallet;
+import com.example.model.money.Money;
+import com.example.repository.IdempotencyRecordRepo;
+import com.example.service.BulkTransactionService;
+import com.example.service.IdempotencyService;
+import com.example.service.TransactionWalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class IdempotencyFilterTest {
+    private static final String ANONYMOUS = "anonymous";
+
+    @InjectMocks
+    private TransactionWalletController transactionWalletController;
+
+    @Mock
+    private TransactionWalletService transactionWalletService;
+
+    @Mock
+    private BulkTransactionService bulkTransactionService;
+
+    @Mock
+    private IdempotencyRecordRepo idempotencyRecordRepo;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    // Parameters of the flush's batch: status, content type, body, key
+    @Captor
+    private ArgumentCaptor<List<Object[]>> stored;
+
+    private IdempotencyService idempotencyService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepo, jdbcTemplate,
+                TransactionOperations.withoutTransaction(), 100, Duration.ofHours(24), Duration.ofMinutes(5));
+        IdempotencyFilter filter = new IdempotencyFilter(idempotencyService, List.of("/api/transactions/*/deposit"));
+        mockMvc = MockMvcBuilders.standaloneSetup(transactionWalletController).addFilters(filter).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replayedKey_ReturnsStoredResponseWithoutExecutingAgain() throws Exception {
+        // Arrange
+        TransactionWallet transaction = new TransactionWallet();
+        transaction.setId(7L);
+        transaction.setAmount(Money.of(150000));
+        transaction.setType(TransactionWallet.TransactionType.DEPOSIT);
+        when(transactionWalletService.deposit(1L, Money.of(150000))).thenReturn(transaction);
+
+        // Act
+        MvcResult first = mockMvc.perform(deposit("key-1", "150000"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        MvcResult second = mockMvc.perform(deposit("key-1", "150000"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+        verifyNoInteractions(jdbcTemplate);
+        idempotencyService.flushCompletions();
+
+        // Assert: one claim on the request's path, the response stored by the flush
+        assertEquals(first.getResponse().getContentAsString(), second.getResponse().getContentAsString());
+        verify(transactionWalletService, times(1)).deposit(any(), any());
+        verify(idempotencyRecordRepo, times(1)).claim(eq(storedKey(ANONYMOUS, "key-1")), anyString(), any());
+        verify(idempotencyRecordRepo, never()).complete(anyString(), anyInt(), any(), any());
+        verify(jdbcTemplate).batchUpdate(anyString(), stored.capture());
+        assertEquals(1, stored.getValue().size());
+        assertEquals(201, stored.getValue().get(0)[0]);
+        assertEquals(storedKey(ANONYMOUS, "key-1"), stored.getValue().get(0)[3]);
+    }
+
+    @Test
+    void completedResponses_AreStoredTogetherInOneFlush() throws Exception {
+        // Arrange
+        when(transactionWalletService.deposit(any(), any())).thenReturn(new TransactionWallet());
+
+        // Act
+        mockMvc.perform(deposit("key-6", "150000")).andExpect(status().isCreated());
+        mockMvc.perform(deposit("key-7", "150000")).andExpect(status().isCreated());
+        idempotencyService.flushCompletions();
+        idempotencyService.flushCompletions();
+
+        // Assert: one batch with both responses, nothing left for the second flush
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), stored.capture());
+        assertEquals(List.of(storedKey(ANONYMOUS, "key-6"), storedKey(ANONYMOUS, "key-7")),
+                stored.getValue().stream().map(values -> values[3]).toList());
+    }
+
+    @Test
+    void sameKeyFromAnotherCaller_IsNotReplayed() throws Exception {
+        // Arrange
+        when(transactionWalletService.deposit(any(), any())).thenReturn(new TransactionWallet());
+
+        // Act: two users pick the same key
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("7", null, "ROLE_USER"));
+        mockMvc.perform(deposit("shared-key", "150000")).andExpect(status().isCreated());
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("8", null, "ROLE_USER"));
+        mockMvc.perform(deposit("shared-key", "150000"))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        // Assert: each ran under its own key
+        verify(transactionWalletService, times(2)).deposit(any(), any());
+        verify(idempotencyRecordRepo).claim(eq(storedKey("7", "shared-key")), anyString(), any());
+        verify(idempotencyRecordRepo).claim(eq(storedKey("8", "shared-key")), anyString(), any());
+    }
+
+    @Test
+    void reusedKeyWithDifferentBody_IsRejected() throws Exception {
+        // Arrange
+        when(transactionWalletService.deposit(any(), any())).thenReturn(new TransactionWallet());
+        mockMvc.perform(deposit("key-2", "150000")).andExpect(status().isCreated());
+
+        // Act & Assert
+        mockMvc.perform(deposit("key-2", "250000"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().string("Idempotency-Key was already used for a different request"));
+        verify(transactionWalletService, times(1)).deposit(any(), any());
+    }
+
+    @Test
+    void failedRequest_ReleasesKey() throws Exception {
+        // Act: a negative amount is rejected by the controller
+        mockMvc.perform(deposit("key-3", "-5"))
+                .andExpect(status().isBadRequest());
+
+        // Assert
+        idempotencyService.flushCompletions();
+        verify(idempotencyRecordRepo).release(storedKey(ANONYMOUS, "key-3"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void storingResponseFails_KeepsKeyPendingSoRetryIsNotAppliedTwice() throws Exception {
+        // Arrange: the deposit commits, then writing its response to the key fails
+        when(transactionWalletService.deposit(any(), any())).thenReturn(new TransactionWallet());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("connection lost"));
+
+        // Act: the client still gets the deposit's response, and a retry here gets it again from memory
+        mockMvc.perform(deposit("key-5", "150000"))
+                .andExpect(status().isCreated());
+        idempotencyService.flushCompletions();
+        mockMvc.perform(deposit("key-5", "150000"))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        // Assert
+        verify(idempotencyRecordRepo, never()).release(anyString());
+        verify(transactionWalletService, times(1)).deposit(any(), any());
+    }
+
+    @Test
+    void keyStillInFlight_ReturnsConflict() throws Exception {
+        // Arrange: another request holds the key but has not completed yet
+        IdempotencyRecord pending = new IdempotencyRecord();
+        pending.setIdempotencyKey(storedKey(ANONYMOUS, "key-4"));
+        pending.setCreatedAt(LocalDateTime.now());
+        when(idempotencyRecordRepo.claim(eq(storedKey(ANONYMOUS, "key-4")), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(idempotencyRecordRepo.findById(storedKey(ANONYMOUS, "key-4"))).thenAnswer(invocation -> {
+            pending.setRequestFingerprint(captureFingerprint());
+            return Optional.of(pending);
+        });
+
+        // Act & Assert
+        mockMvc.perform(deposit("key-4", "150000"))
+                .andExpect(status().isConflict());
+        verify(transactionWalletService, never()).deposit(any(), any());
+        verify(idempotencyRecordRepo, never()).release(anyString());
+    }
+
+    @Test
+    void requestWithoutKey_IsNotTracked() throws Exception {
+        when(transactionWalletService.deposit(any(), any())).thenReturn(new TransactionWallet());
+
+        mockMvc.perform(post("/api/transactions/{walletId}/deposit", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("150000"))
+                .andExpect(status().isCreated());
+
+        verifyNoInteractions(idempotencyRecordRepo);
+    }
+
+    private String captureFingerprint() {
+        return mockingDetails(idempotencyRecordRepo).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("claim"))
+                .map(invocation -> (String) invocation.getArgument(1))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // The key column holds a SHA-256 of the caller and the header, not the header itself
+    private static String storedKey(String principal, String key) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update((principal + "\n" + key).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static RequestBuilder deposit(String key, String amount) {
+        return post("/api/transactions/{walletId}/deposit", 1L)
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(amount);
+    }
+}
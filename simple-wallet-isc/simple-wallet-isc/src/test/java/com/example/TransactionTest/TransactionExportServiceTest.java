@@ -0,0 +1,103 @@
+package com.example.TransactionTest;
+
+import com.example.model.TransactionWallet;
+import com.example.model.dto.TransactionExportRow;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.TransactionExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TransactionExportServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @InjectMocks
+    private TransactionExportService transactionExportService;
+
+    @Mock
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Mock
+    private WalletRepo walletRepo;
+
+    private final TransactionExportRow deposit = new TransactionExportRow(7L, 1L,
+            TransactionWallet.TransactionType.DEPOSIT, Money.of(150000), LocalDateTime.of(2024, 1, 5, 10, 30), null);
+    private final TransactionExportRow transferLeg = new TransactionExportRow(8L, 2L,
+            TransactionWallet.TransactionType.WITHDRAWAL, Money.parse("100000.50"), LocalDateTime.of(2024, 1, 6, 9, 0), "t-1");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transactionExportService, "objectMapper",
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void export_WritesCsvAndClosesTheStream() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionWalletRepo.streamExport(FROM, TO))
+                .thenReturn(Stream.of(deposit, transferLeg).onClose(() -> closed.set(true)));
+        StringWriter output = new StringWriter();
+
+        // Act
+        long written = transactionExportService.export(FROM, TO, null, TransactionExportService.Format.CSV, () -> output);
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals("id,walletId,type,amount,transactionDate,transferId\n"
+                + "7,1,DEPOSIT,150000.00,2024-01-05T10:30,\n"
+                + "8,2,WITHDRAWAL,100000.50,2024-01-06T09:00,t-1\n", output.toString());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void export_WritesOneJsonObjectPerLineForOneWallet() throws IOException {
+        // Arrange
+        when(walletRepo.existsById(1L)).thenReturn(true);
+        when(transactionWalletRepo.streamExportForWallet(1L, FROM, TO)).thenReturn(Stream.of(deposit));
+        StringWriter output = new StringWriter();
+
+        // Act
+        long written = transactionExportService.export(FROM, TO, 1L, TransactionExportService.Format.NDJSON, () -> output);
+
+        // Assert
+        assertEquals(1, written);
+        String[] lines = output.toString().split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":7,\"walletId\":1,\"type\":\"DEPOSIT\",\"amount\":150000.00,"));
+        verify(transactionWalletRepo, never()).streamExport(any(), any());
+    }
+
+    @Test
+    void export_RejectsBadArgumentsBeforeOpeningTheDestination() {
+        // Arrange
+        when(walletRepo.existsById(9L)).thenReturn(false);
+        TransactionExportService.Destination destination = () -> fail("Destination must not be opened");
+
+        // Act & Assert
+        assertEquals("Export range must have from before to", assertThrows(IllegalArgumentException.class,
+                () -> transactionExportService.export(TO, FROM, null, TransactionExportService.Format.CSV, destination)).getMessage());
+        assertEquals("Wallet not found", assertThrows(IllegalArgumentException.class,
+                () -> transactionExportService.export(FROM, TO, 9L, TransactionExportService.Format.CSV, destination)).getMessage());
+        verifyNoInteractions(transactionWalletRepo);
+    }
+}
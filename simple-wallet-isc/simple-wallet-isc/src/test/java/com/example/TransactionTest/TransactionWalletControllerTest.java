@@ -1,9 +1,22 @@
 package com.example.TransactionTest;
 
 import com.example.controller.TransactionWalletController;
+import com.example.exception.BalanceEngineActiveException;
+import com.example.exception.GlobalExceptionHandlerUser;
+import com.example.exception.TransactionQueueFullException;
 import com.example.model.TransactionWallet;
-import com.example.model.Wallet;
+import com.example.model.dto.AsyncTransactionStatus;
+import com.example.model.dto.TransactionHistoryItem;
+import com.example.model.dto.TransactionHistoryPage;
+import com.example.model.dto.TransferRequest;
+import com.example.model.dto.TransferResult;
+import com.example.model.dto.WalletDetails;
+import com.example.model.money.Money;
+import com.example.service.BulkTransactionService;
+import com.example.service.TransactionExportService;
 import com.example.service.TransactionWalletService;
+import com.example.service.async.AsyncTransactionQueue;
+import com.example.service.auth.ResourceOwnership;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,8 +25,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -21,7 +38,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
-import java.math.BigDecimal;
+import java.io.ByteArrayInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,6 +56,15 @@ public class TransactionWalletControllerTest {
     @Mock
     private TransactionWalletService transactionWalletService;
 
+    @Mock
+    private BulkTransactionService bulkTransactionService;
+
+    @Mock
+    private AsyncTransactionQueue asyncTransactionQueue;
+
+    @Mock
+    private TransactionExportService transactionExportService;
+
 
     private MockMvc mockMvc;
 
@@ -47,7 +80,7 @@ public class TransactionWalletControllerTest {
     @Test
     void deposit_Success() throws Exception {
         Long walletId = 1L;
-        BigDecimal amount = BigDecimal.valueOf(150000.00);
+        Money amount = Money.of(150000);
         TransactionWallet transaction = new TransactionWallet();
         transaction.setAmount(amount);
         transaction.setType(TransactionWallet.TransactionType.DEPOSIT);
@@ -58,7 +91,7 @@ public class TransactionWalletControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(amount)))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.amount").value(amount))
+                .andExpect(jsonPath("$.amount").value(amount.toBigDecimal().doubleValue()))
                 .andExpect(jsonPath("$.type").value("DEPOSIT"));
 
         verify(transactionWalletService).deposit(walletId, amount);
@@ -67,7 +100,7 @@ public class TransactionWalletControllerTest {
     @Test
     void deposit_InvalidAmount() throws Exception {
         Long walletId = 1L;
-        BigDecimal amount = BigDecimal.valueOf(-1000.00); // Invalid amount
+        Money amount = Money.of(-1000); // Invalid amount
 
         // Perform the deposit request
         mockMvc.perform(post("/api/transactions/{walletId}/deposit", walletId)
@@ -82,7 +115,7 @@ public class TransactionWalletControllerTest {
     @Test
     void withdraw_Success() throws Exception {
         Long walletId = 1L;
-        BigDecimal amount = BigDecimal.valueOf(100000.00);
+        Money amount = Money.of(100000);
         TransactionWallet transaction = new TransactionWallet();
         transaction.setAmount(amount);
         transaction.setType(TransactionWallet.TransactionType.WITHDRAWAL);
@@ -93,7 +126,7 @@ public class TransactionWalletControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(amount)))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.amount").value(amount))
+                .andExpect(jsonPath("$.amount").value(amount.toBigDecimal().doubleValue()))
                 .andExpect(jsonPath("$.type").value("WITHDRAWAL"));
 
         verify(transactionWalletService).withdraw(walletId, amount);
@@ -102,7 +135,7 @@ public class TransactionWalletControllerTest {
     @Test
     void withdraw_InsufficientFunds() throws Exception {
         Long walletId = 1L;
-        BigDecimal amount = BigDecimal.valueOf(600000.00); // More than the current balance
+        Money amount = Money.of(600000); // More than the current balance
 
         when(transactionWalletService.withdraw(walletId, amount)).thenThrow(new IllegalArgumentException("Insufficient funds for withdrawal"));
 
@@ -117,16 +150,16 @@ public class TransactionWalletControllerTest {
     @Test
     void getWalletDetails_Success() throws Exception {
         Long walletId = 1L;
-        Wallet wallet = new Wallet();
-        wallet.setId(walletId);
-        wallet.setBalance(BigDecimal.valueOf(500000.00));
+        WalletDetails wallet = new WalletDetails(walletId, "1234567890", "IR123456789012345678901234",
+                Money.of(500000), "John Doe", LocalDateTime.now(), 7L);
 
         when(transactionWalletService.getWalletDetails(walletId)).thenReturn(wallet);
 
         mockMvc.perform(get("/api/transactions/{walletId}", walletId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(walletId))
-                .andExpect(jsonPath("$.balance").value(500000.00));
+                .andExpect(jsonPath("$.balance").value(500000.00))
+                .andExpect(jsonPath("$.userId").value(7));
 
         verify(transactionWalletService).getWalletDetails(walletId);
     }
@@ -142,4 +175,212 @@ public class TransactionWalletControllerTest {
 
         verify(transactionWalletService).getWalletDetails(walletId);
     }
+
+    @Test
+    void getHistory_Success() throws Exception {
+        Long walletId = 1L;
+        TransactionHistoryItem item = new TransactionHistoryItem(7L, TransactionWallet.TransactionType.DEPOSIT,
+                Money.of(150000), LocalDateTime.of(2024, 1, 1, 12, 0));
+        TransactionHistoryPage page = new TransactionHistoryPage(List.of(item), "next");
+
+        when(transactionWalletService.getHistory(walletId, "abc", 10)).thenReturn(page);
+
+        mockMvc.perform(get("/api/transactions/{walletId}/history", walletId)
+                        .param("cursor", "abc")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.items[0].type").value("DEPOSIT"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(transactionWalletService).getHistory(walletId, "abc", 10);
+    }
+
+    @Test
+    void getHistory_InvalidCursor() throws Exception {
+        when(transactionWalletService.getHistory(1L, "bad", 20)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/transactions/{walletId}/history", 1L)
+                        .param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor"));
+    }
+
+    @Test
+    void transfer_Success() throws Exception {
+        Money amount = Money.of(150000);
+        TransferResult result = new TransferResult("t-1", 1L, 2L, amount, 10L, 11L, null);
+
+        when(transactionWalletService.transfer(1L, 2L, amount)).thenReturn(result);
+
+        mockMvc.perform(post("/api/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransferRequest(1L, 2L, amount))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.transferId").value("t-1"))
+                .andExpect(jsonPath("$.debitTransactionId").value(10))
+                .andExpect(jsonPath("$.creditTransactionId").value(11));
+
+        verify(transactionWalletService).transfer(1L, 2L, amount);
+    }
+
+    @Test
+    void transfer_MissingAmount() throws Exception {
+        mockMvc.perform(post("/api/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromWalletId\":1,\"toWalletId\":2}"))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionWalletService, never()).transfer(any(), any(), any());
+    }
+
+    @Test
+    void bulk_CsvUploadIsStreamedToService() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<java.io.Writer>getArgument(2).write("{\"line\":1,\"status\":\"APPLIED\"}\n");
+            return null;
+        }).when(bulkTransactionService).process(any(), eq(BulkTransactionService.Format.CSV), any());
+
+        mockMvc.perform(post("/api/transactions/bulk")
+                        .contentType("text/csv")
+                        .content("1,DEPOSIT,150000\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"line\":1,\"status\":\"APPLIED\"}\n"));
+
+        verify(bulkTransactionService).process(any(), eq(BulkTransactionService.Format.CSV), any());
+    }
+
+    @Test
+    void bulk_RefusedWithConflictWhileBalanceEngineIsOn() throws Exception {
+        MockMvc withAdvice = MockMvcBuilders.standaloneSetup(transactionWalletController)
+                .setControllerAdvice(new GlobalExceptionHandlerUser())
+                .build();
+        doThrow(new BalanceEngineActiveException("Bulk uploads are not available while the balance engine is enabled"))
+                .when(bulkTransactionService).process(any(), any(), any());
+
+        withAdvice.perform(post("/api/transactions/bulk")
+                        .contentType("text/csv")
+                        .content("1,DEPOSIT,150000\n"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Bulk uploads are not available while the balance engine is enabled"));
+    }
+
+    @Test
+    void depositAsync_ReturnsAcceptedWithStatusLocation() throws Exception {
+        Money amount = Money.of(150000);
+        AsyncTransactionStatus pending = AsyncTransactionStatus.pending("a-1", 1L,
+                TransactionWallet.TransactionType.DEPOSIT, amount);
+        when(asyncTransactionQueue.submit(1L, TransactionWallet.TransactionType.DEPOSIT, amount)).thenReturn(pending);
+
+        mockMvc.perform(post("/api/transactions/{walletId}/deposit", 1L)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amount)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/transactions/status/a-1"))
+                .andExpect(jsonPath("$.id").value("a-1"))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+
+        verify(transactionWalletService, never()).deposit(any(), any());
+    }
+
+    @Test
+    void withdrawAsync_QueueFull() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(transactionWalletController)
+                .setControllerAdvice(new GlobalExceptionHandlerUser())
+                .build();
+        when(asyncTransactionQueue.submit(eq(1L), eq(TransactionWallet.TransactionType.WITHDRAWAL), any()))
+                .thenThrow(new TransactionQueueFullException("Transaction queue is full, please retry later",
+                        Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/api/transactions/{walletId}/withdraw", 1L)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Money.of(100000))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void withdrawAsync_NegativeAmountIsRejectedBeforeQueueing() throws Exception {
+        mockMvc.perform(post("/api/transactions/{walletId}/withdraw", 1L)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Money.of(-1000))))
+                .andExpect(status().isBadRequest());
+
+        verify(asyncTransactionQueue, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    void getStatus_CompletedAndUnknown() throws Exception {
+        AsyncTransactionStatus completed = AsyncTransactionStatus.pending("a-1", 1L,
+                TransactionWallet.TransactionType.DEPOSIT, Money.of(150000)).completed(42L);
+        when(asyncTransactionQueue.status("a-1")).thenReturn(Optional.of(completed));
+        when(asyncTransactionQueue.status("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/transactions/status/{id}", "a-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.transactionId").value(42));
+        mockMvc.perform(get("/api/transactions/status/{id}", "missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getStatus_OtherUsersWalletIsDenied() {
+        ResourceOwnership ownership = mock(ResourceOwnership.class);
+        ReflectionTestUtils.setField(transactionWalletController, "resourceOwnership", ownership);
+        AsyncTransactionStatus pending = AsyncTransactionStatus.pending("a-1", 1L,
+                TransactionWallet.TransactionType.DEPOSIT, Money.of(150000));
+        when(asyncTransactionQueue.status("a-1")).thenReturn(Optional.of(pending));
+        doThrow(new AccessDeniedException("Not the owner of wallet 1")).when(ownership).checkWallet(1L);
+
+        assertThrows(AccessDeniedException.class, () -> transactionWalletController.getStatus("a-1"));
+    }
+
+    @Test
+    void export_CsvGzipped() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(transactionExportService.export(eq(from), eq(to), eq(1L), eq(TransactionExportService.Format.CSV), any()))
+                .thenAnswer(invocation -> {
+                    try (Writer output = invocation.getArgument(4, TransactionExportService.Destination.class).open()) {
+                        output.write("id,walletId\n7,1\n");
+                    }
+                    return 1L;
+                });
+
+        byte[] body = mockMvc.perform(get("/api/transactions/export")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("walletId", "1")
+                        .header("Accept", "text/csv")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream unzipped = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("id,walletId\n7,1\n",
+                    new String(unzipped.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void export_BadRangeIsRejectedBeforeStreaming() throws Exception {
+        when(transactionExportService.export(any(), any(), any(), eq(TransactionExportService.Format.NDJSON), any()))
+                .thenThrow(new IllegalArgumentException("Export range must have from before to"));
+
+        mockMvc.perform(get("/api/transactions/export")
+                        .param("from", "2024-02-01T00:00:00")
+                        .param("to", "2024-01-01T00:00:00")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("Export range must have from before to"));
+    }
 }
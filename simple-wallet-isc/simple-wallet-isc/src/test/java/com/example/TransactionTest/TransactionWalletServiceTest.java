@@ -1,19 +1,39 @@
 package com.example.TransactionTest;
 
+import com.example.exception.BalanceEngineActiveException;
 import com.example.model.TransactionWallet;
 import com.example.model.Wallet;
+import com.example.model.dto.BalanceChange;
+import com.example.model.dto.HistoryCursor;
+import com.example.model.dto.TransactionHistoryItem;
+import com.example.model.dto.TransactionHistoryPage;
+import com.example.model.dto.TransferResult;
+import com.example.model.dto.WalletDetails;
+import com.example.model.money.Money;
 import com.example.repository.TransactionWalletRepo;
 import com.example.repository.WalletRepo;
 import com.example.service.TransactionWalletService;
+import com.example.service.concurrency.OptimisticBalanceUpdateStrategy;
+import com.example.service.engine.BalanceEngine;
+import com.example.service.groupcommit.GroupCommitStage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.data.domain.Limit;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.mockito.Mockito.when;
@@ -29,21 +49,26 @@ public class TransactionWalletServiceTest {
     @Mock
     private WalletRepo walletRepo;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private Wallet wallet;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transactionWalletService, "balanceUpdateStrategy",
+                new OptimisticBalanceUpdateStrategy(walletRepo, TransactionOperations.withoutTransaction(), 1));
         wallet = new Wallet();
         wallet.setId(1L);
-        wallet.setBalance(BigDecimal.valueOf(500000.00)); // Set initial balance for testing
+        wallet.setBalance(Money.of(500000)); // Set initial balance for testing
     }
 
     @Test
     void deposit_Success() {
         // Arrange
         Long walletId = wallet.getId();
-        BigDecimal amount = BigDecimal.valueOf(150000.00);
+        Money amount = Money.of(150000);
 
         when(walletRepo.findById(walletId)).thenReturn(Optional.of(wallet));
 
@@ -55,18 +80,31 @@ public class TransactionWalletServiceTest {
         assertEquals(wallet, transaction.getWallet());
         assertEquals(TransactionWallet.TransactionType.DEPOSIT, transaction.getType());
         assertEquals(amount, transaction.getAmount());
-        assertEquals(wallet.getBalance(), BigDecimal.valueOf(650000.00)); // Check new balance
+        assertEquals(wallet.getBalance(), Money.of(650000)); // Check new balance
 
         // Verify repository interactions
         verify(transactionWalletRepo).save(transaction);
         verify(walletRepo).save(wallet);
     }
 
+    @Test
+    void deposit_PublishesNewBalance() {
+        // Arrange
+        when(walletRepo.findById(wallet.getId())).thenReturn(Optional.of(wallet));
+
+        // Act
+        transactionWalletService.deposit(wallet.getId(), Money.of(150000));
+
+        // Assert
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof BalanceChange change
+                && change.walletId().equals(wallet.getId()) && change.balance().equals(Money.of(650000))));
+    }
+
     @Test
     void deposit_InvalidAmount() {
         // Arrange
         Long walletId = wallet.getId();
-        BigDecimal amount = BigDecimal.valueOf(-1000.00); // Invalid amount
+        Money amount = Money.of(-1000); // Invalid amount
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -82,7 +120,7 @@ public class TransactionWalletServiceTest {
     void deposit_WalletNotFound() {
         // Arrange
         Long walletId = 999L; // Non-existing wallet ID
-        BigDecimal amount = BigDecimal.valueOf(150000.00);
+        Money amount = Money.of(150000);
 
         when(walletRepo.findById(walletId)).thenReturn(Optional.empty());
 
@@ -100,7 +138,7 @@ public class TransactionWalletServiceTest {
     void withdraw_Success() {
         // Arrange
         Long walletId = wallet.getId();
-        BigDecimal amount = BigDecimal.valueOf(100000.00);
+        Money amount = Money.of(100000);
 
         when(walletRepo.findById(walletId)).thenReturn(Optional.of(wallet));
 
@@ -112,7 +150,7 @@ public class TransactionWalletServiceTest {
         assertEquals(wallet, transaction.getWallet());
         assertEquals(TransactionWallet.TransactionType.WITHDRAWAL, transaction.getType());
         assertEquals(amount, transaction.getAmount());
-        assertEquals(wallet.getBalance(), BigDecimal.valueOf(400000.00)); // Check new balance
+        assertEquals(wallet.getBalance(), Money.of(400000)); // Check new balance
 
         // Verify repository interactions
         verify(transactionWalletRepo).save(transaction);
@@ -123,7 +161,7 @@ public class TransactionWalletServiceTest {
     void withdraw_InsufficientFunds() {
         // Arrange
         Long walletId = wallet.getId();
-        BigDecimal amount = BigDecimal.valueOf(600000.00); // More than the current balance
+        Money amount = Money.of(600000); // More than the current balance
 
         when(walletRepo.findById(walletId)).thenReturn(Optional.of(wallet));
 
@@ -141,7 +179,7 @@ public class TransactionWalletServiceTest {
     void withdraw_WalletNotFound() {
         // Arrange
         Long walletId = 999L; // Non-existing wallet ID
-        BigDecimal amount = BigDecimal.valueOf(100000.00);
+        Money amount = Money.of(100000);
 
         when(walletRepo.findById(walletId)).thenReturn(Optional.empty());
 
@@ -159,24 +197,28 @@ public class TransactionWalletServiceTest {
     void getWalletDetails_Success() {
         // Arrange
         Long walletId = wallet.getId();
-        when(walletRepo.findById(walletId)).thenReturn(Optional.of(wallet));
+        WalletDetails details = new WalletDetails(walletId, "1234567890", "IR123456789012345678901234",
+                wallet.getBalance(), "John Doe", LocalDateTime.now(), 7L);
+        when(walletRepo.findDetailsById(walletId)).thenReturn(Optional.of(details));
 
         // Act
-        Wallet foundWallet = transactionWalletService.getWalletDetails(walletId);
+        WalletDetails foundWallet = transactionWalletService.getWalletDetails(walletId);
 
         // Assert
         assertNotNull(foundWallet);
-        assertEquals(walletId, foundWallet.getId());
+        assertEquals(walletId, foundWallet.id());
+        assertEquals(7L, foundWallet.userId());
 
         // Verify repository interaction
-        verify(walletRepo).findById(walletId);
+        verify(walletRepo).findDetailsById(walletId);
+        verify(walletRepo, never()).findById(any());
     }
 
     @Test
     void getWalletDetails_WalletNotFound() {
         // Arrange
         Long walletId = 999L; // Non-existing wallet ID
-        when(walletRepo.findById(walletId)).thenReturn(Optional.empty());
+        when(walletRepo.findDetailsById(walletId)).thenReturn(Optional.empty());
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -184,6 +226,180 @@ public class TransactionWalletServiceTest {
         });
 
         assertEquals("Wallet not found", exception.getMessage());
-        verify(walletRepo).findById(walletId);
+        verify(walletRepo).findDetailsById(walletId);
+    }
+
+    @Test
+    void getHistory_FirstPageReturnsCursorWhenMoreRowsExist() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        TransactionHistoryItem newest = new TransactionHistoryItem(3L, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000), now);
+        TransactionHistoryItem middle = new TransactionHistoryItem(2L, TransactionWallet.TransactionType.WITHDRAWAL, Money.of(100000), now.minusMinutes(1));
+        TransactionHistoryItem extra = new TransactionHistoryItem(1L, TransactionWallet.TransactionType.DEPOSIT, Money.of(200000), now.minusMinutes(2));
+        when(walletRepo.existsById(1L)).thenReturn(true);
+        when(transactionWalletRepo.findHistory(1L, Limit.of(3))).thenReturn(List.of(newest, middle, extra));
+
+        // Act
+        TransactionHistoryPage page = transactionWalletService.getHistory(1L, null, 2);
+
+        // Assert
+        assertEquals(List.of(newest, middle), page.items());
+        assertEquals(new HistoryCursor(middle.transactionDate(), middle.id()), HistoryCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void getHistory_CursorSeeksPastLastRow() {
+        // Arrange
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 12, 0);
+        String cursor = new HistoryCursor(date, 2L).encode();
+        TransactionHistoryItem last = new TransactionHistoryItem(1L, TransactionWallet.TransactionType.DEPOSIT, Money.of(200000), date.minusMinutes(1));
+        when(walletRepo.existsById(1L)).thenReturn(true);
+        when(transactionWalletRepo.findHistoryBefore(1L, date, 2L, Limit.of(3))).thenReturn(List.of(last));
+
+        // Act
+        TransactionHistoryPage page = transactionWalletService.getHistory(1L, cursor, 2);
+
+        // Assert
+        assertEquals(List.of(last), page.items());
+        assertNull(page.nextCursor());
+        verify(transactionWalletRepo, never()).findHistory(any(), any());
+    }
+
+    @Test
+    void getHistory_WalletNotFound() {
+        // Arrange
+        when(walletRepo.existsById(999L)).thenReturn(false);
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            transactionWalletService.getHistory(999L, null, 20);
+        });
+
+        assertEquals("Wallet not found", exception.getMessage());
+    }
+
+    @Test
+    void getHistory_InvalidCursor() {
+        // Arrange
+        when(walletRepo.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            transactionWalletService.getHistory(1L, "not-a-cursor", 20);
+        });
+
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    void transfer_LocksWalletsInAscendingIdOrder() {
+        // Arrange: transfer from the higher id to the lower id
+        Wallet target = new Wallet();
+        target.setId(2L);
+        target.setBalance(Money.of(500000));
+        Wallet source = new Wallet();
+        source.setId(5L);
+        source.setBalance(Money.of(400000));
+        when(walletRepo.findByIdForUpdate(2L)).thenReturn(Optional.of(target));
+        when(walletRepo.findByIdForUpdate(5L)).thenReturn(Optional.of(source));
+
+        // Act
+        TransferResult result = transactionWalletService.transfer(5L, 2L, Money.of(150000));
+
+        // Assert
+        InOrder locks = inOrder(walletRepo);
+        locks.verify(walletRepo).findByIdForUpdate(2L);
+        locks.verify(walletRepo).findByIdForUpdate(5L);
+        assertEquals(Money.of(250000), source.getBalance());
+        assertEquals(Money.of(650000), target.getBalance());
+        assertNotNull(result.transferId());
+        verify(transactionWalletRepo, times(2)).save(argThat(leg -> result.transferId().equals(leg.getTransferId())));
+    }
+
+    @Test
+    void transfer_InsufficientFunds() {
+        // Arrange
+        Wallet target = new Wallet();
+        target.setId(2L);
+        when(walletRepo.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        when(walletRepo.findByIdForUpdate(2L)).thenReturn(Optional.of(target));
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            transactionWalletService.transfer(1L, 2L, Money.of(600000));
+        });
+
+        assertEquals("Insufficient funds for withdrawal", exception.getMessage());
+        assertEquals(Money.of(500000), wallet.getBalance());
+        verify(transactionWalletRepo, never()).save(any());
+    }
+
+    @Test
+    void transfer_SameWallet() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            transactionWalletService.transfer(1L, 1L, Money.of(150000));
+        });
+
+        assertEquals("Cannot transfer to the same wallet", exception.getMessage());
+        verify(walletRepo, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void transfer_RefusedWhileBalanceEngineIsOn() {
+        // Arrange
+        ReflectionTestUtils.setField(transactionWalletService, "balanceEngine", mock(BalanceEngine.class));
+
+        // Act & Assert: neither wallet is locked or written
+        assertThrows(BalanceEngineActiveException.class, () -> transactionWalletService.transfer(1L, 2L, Money.of(150000)));
+        verifyNoInteractions(walletRepo, transactionWalletRepo);
+    }
+
+    @Test
+    void deposit_RoutesThroughBalanceEngineWhenEnabled() {
+        // Arrange
+        BalanceEngine balanceEngine = mock(BalanceEngine.class);
+        ReflectionTestUtils.setField(transactionWalletService, "balanceEngine", balanceEngine);
+        TransactionWallet applied = new TransactionWallet(wallet, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000));
+        when(balanceEngine.submit(eq(1L), any(), eq(TransactionWallet.TransactionType.DEPOSIT), any()))
+                .thenReturn(CompletableFuture.completedFuture(applied));
+
+        // Act
+        TransactionWallet transaction = transactionWalletService.deposit(1L, Money.of(150000));
+
+        // Assert
+        assertSame(applied, transaction);
+        verifyNoInteractions(walletRepo, transactionWalletRepo);
+    }
+
+    @Test
+    void withdraw_ViaBalanceEngine_RethrowsRuleFailure() {
+        // Arrange
+        BalanceEngine balanceEngine = mock(BalanceEngine.class);
+        ReflectionTestUtils.setField(transactionWalletService, "balanceEngine", balanceEngine);
+        when(balanceEngine.submit(eq(1L), any(), eq(TransactionWallet.TransactionType.WITHDRAWAL), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Insufficient funds for withdrawal")));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> transactionWalletService.withdraw(1L, Money.of(150000)));
+        assertEquals("Insufficient funds for withdrawal", exception.getMessage());
+    }
+
+    @Test
+    void deposit_RoutesThroughGroupCommitWhenEnabled() {
+        // Arrange
+        GroupCommitStage groupCommitStage = mock(GroupCommitStage.class);
+        ReflectionTestUtils.setField(transactionWalletService, "groupCommitStage", groupCommitStage);
+        TransactionWallet committed = new TransactionWallet(wallet, TransactionWallet.TransactionType.DEPOSIT, Money.of(150000));
+        when(groupCommitStage.submit(eq(1L), any(), eq(TransactionWallet.TransactionType.DEPOSIT), any()))
+                .thenReturn(CompletableFuture.completedFuture(committed));
+
+        // Act
+        TransactionWallet transaction = transactionWalletService.deposit(1L, Money.of(150000));
+
+        // Assert
+        assertSame(committed, transaction);
+        verifyNoInteractions(walletRepo, transactionWalletRepo);
     }
 }
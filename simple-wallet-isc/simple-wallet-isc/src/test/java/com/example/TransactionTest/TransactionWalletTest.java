@@ -2,6 +2,7 @@ package com.example.TransactionTest;
 
 import com.example.model.TransactionWallet;
 import com.example.model.Wallet;
+import com.example.model.money.Money;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
@@ -9,8 +10,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
-
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,7 +27,7 @@ public class TransactionWalletTest {
         // Given
         Wallet wallet = new Wallet(); // You would need to create a mock or a valid wallet object
         TransactionWallet.TransactionType type = TransactionWallet.TransactionType.DEPOSIT;
-        BigDecimal amount = new BigDecimal("150000.00");
+        Money amount = Money.parse("150000.00");
 
         // When
         TransactionWallet transactionWallet = new TransactionWallet(wallet, type, amount);
@@ -46,7 +45,7 @@ public class TransactionWalletTest {
     void testTransactionWallet_Validation_AmountTooLow() {
         // Given
         TransactionWallet transactionWallet = new TransactionWallet();
-        transactionWallet.setAmount(new BigDecimal("50000.00")); // Amount below the minimum
+        transactionWallet.setAmount(Money.parse("50000.00")); // Amount below the minimum
         transactionWallet.setWallet(new Wallet()); // Set a valid wallet object
         transactionWallet.setType(TransactionWallet.TransactionType.DEPOSIT);
 
@@ -63,7 +62,7 @@ public class TransactionWalletTest {
     void testTransactionWallet_Validation_AmountTooHigh() {
         // Given
         TransactionWallet transactionWallet = new TransactionWallet();
-        transactionWallet.setAmount(new BigDecimal("15000000.00")); // Amount above the maximum
+        transactionWallet.setAmount(Money.parse("15000000.00")); // Amount above the maximum
         transactionWallet.setWallet(new Wallet());
         transactionWallet.setType(TransactionWallet.TransactionType.WITHDRAWAL);
 
@@ -97,7 +96,7 @@ public class TransactionWalletTest {
     void testTransactionWallet_Validation_NullWallet() {
         // Given
         TransactionWallet transactionWallet = new TransactionWallet();
-        transactionWallet.setAmount(new BigDecimal("150000.00")); // Valid amount
+        transactionWallet.setAmount(Money.parse("150000.00")); // Valid amount
         transactionWallet.setWallet(null); // Set wallet to null
         transactionWallet.setType(TransactionWallet.TransactionType.DEPOSIT); // Valid transaction type
 
@@ -114,7 +113,7 @@ public class TransactionWalletTest {
     void testTransactionWallet_Validation_NullTransactionType() {
         // Given
         TransactionWallet transactionWallet = new TransactionWallet();
-        transactionWallet.setAmount(new BigDecimal("150000.00"));
+        transactionWallet.setAmount(Money.parse("150000.00"));
         transactionWallet.setWallet(new Wallet());
         transactionWallet.setType(null); // Set transaction type to null
 
@@ -0,0 +1,279 @@
+package com.example.WalleTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.example.model.TransactionWallet;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.engine.BalanceEngine;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+public class BalanceEngineTest {
+
+    @Mock
+    private WalletRepo walletRepo;
+
+    @Mock
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Mock
+    private Consumer<Long> writtenBack;
+
+    private final AtomicInteger writtenTransactions = new AtomicInteger();
+
+    private BalanceEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(walletRepo.findById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            if (id > 100) {
+                return Optional.empty();
+            }
+            Wallet wallet = new Wallet();
+            wallet.setId(id);
+            wallet.setBalance(Money.of(250000));
+            return Optional.of(wallet);
+        });
+        when(transactionWalletRepo.saveAll(any())).thenAnswer(invocation -> {
+            List<TransactionWallet> rows = invocation.getArgument(0);
+            writtenTransactions.addAndGet(rows.size());
+            return rows;
+        });
+        engine = new BalanceEngine(4, 1024, 64, 100000, walletRepo, transactionWalletRepo,
+                TransactionOperations.withoutTransaction(), Validation.buildDefaultValidatorFactory().getValidator(), writtenBack);
+        engine.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    @Test
+    public void testConcurrentDeposits_AllAppliedAndWrittenBack() throws InterruptedException {
+        // Arrange
+        int threads = 8;
+        int perThread = 500;
+        List<Thread> producers = new ArrayList<>();
+        List<CompletableFuture<TransactionWallet>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    CompletableFuture<TransactionWallet> result;
+                    do {
+                        result = engine.submit(1L, BalanceMutation.credit(Money.of(100000)),
+                                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found"));
+                    } while (result.isCompletedExceptionally());
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            }));
+        }
+
+        // Act
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        results.forEach(CompletableFuture::join);
+        engine.stop();
+
+        // Assert: nothing lost in memory or on the way to the database
+        Money expected = Money.of(250000 + 100000L * threads * perThread);
+        ArgumentCaptor<Money> balances = ArgumentCaptor.forClass(Money.class);
+        verify(walletRepo, atLeastOnce()).overwriteBalance(eq(1L), balances.capture());
+        assertEquals(expected, balances.getAllValues().get(balances.getAllValues().size() - 1));
+        assertEquals(threads * perThread, writtenTransactions.get());
+        verify(walletRepo, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testWithdrawBelowMinimum_FailsWithoutChangingBalance() throws InterruptedException {
+        // Act
+        CompletableFuture<TransactionWallet> rejected = engine.submit(2L, BalanceMutation.debit(Money.of(245000)),
+                TransactionWallet.TransactionType.WITHDRAWAL, () -> new IllegalArgumentException("Wallet not found"));
+        TransactionWallet accepted = engine.submit(2L, BalanceMutation.debit(Money.of(240000)),
+                TransactionWallet.TransactionType.WITHDRAWAL, () -> new IllegalArgumentException("Wallet not found")).join();
+        engine.stop();
+
+        // Assert
+        CompletionException error = assertThrows(CompletionException.class, rejected::join);
+        assertEquals("Withdrawal would result in a balance below the minimum of 10,000", error.getCause().getMessage());
+        assertEquals(0, Money.of(10000).compareTo(accepted.getWallet().getBalance()));
+        InOrder writes = inOrder(walletRepo, writtenBack);
+        writes.verify(walletRepo).overwriteBalance(2L, Money.of(10000));
+        writes.verify(writtenBack).accept(2L);
+        assertEquals(1, writtenTransactions.get());
+    }
+
+    @Test
+    public void testUnknownWallet_FailsWithNotFound() {
+        CompletableFuture<TransactionWallet> result = engine.submit(999L, BalanceMutation.credit(Money.of(100000)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found"));
+
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+    }
+
+    @Test
+    public void testAmountOutsideLedgerLimits_FailsWithoutBlockingLaterCommands() throws InterruptedException {
+        // Act: below @MoneyMin, then above @MoneyMax, then a valid deposit on the same partition
+        CompletableFuture<TransactionWallet> tooSmall = engine.submit(3L, BalanceMutation.credit(Money.of(10)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found"));
+        CompletableFuture<TransactionWallet> tooLarge = engine.submit(3L, BalanceMutation.credit(Money.of(20_000_000)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found"));
+        TransactionWallet accepted = engine.submit(3L, BalanceMutation.credit(Money.of(100000)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found")).join();
+        engine.stop();
+
+        // Assert: neither invalid amount touched the balance or reached the write-back
+        assertInstanceOf(ConstraintViolationException.class, assertThrows(CompletionException.class, tooSmall::join).getCause());
+        assertInstanceOf(ConstraintViolationException.class, assertThrows(CompletionException.class, tooLarge::join).getCause());
+        assertEquals(Money.of(350000), accepted.getWallet().getBalance());
+        verify(walletRepo).overwriteBalance(3L, Money.of(350000));
+        assertEquals(1, writtenTransactions.get());
+        assertFalse(engine.writeBackFailing());
+    }
+
+    @Test
+    public void testFailingWriteBack_IsRetriedUntilStoredAndRefusesNewWorkMeanwhile() throws InterruptedException {
+        // Arrange: the first two write-back attempts fail, later ones succeed
+        AtomicInteger failuresLeft = new AtomicInteger(2);
+        doAnswer(invocation -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new DataAccessResourceFailureException("Database unavailable");
+            }
+            List<TransactionWallet> rows = invocation.getArgument(0);
+            writtenTransactions.addAndGet(rows.size());
+            return rows;
+        }).when(transactionWalletRepo).saveAll(any());
+
+        // Act: a deposit whose write-back fails, one submitted while it fails, one after it recovered
+        engine.submit(4L, BalanceMutation.credit(Money.of(100000)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found")).join();
+        awaitWriteBackFailing(true);
+        CompletableFuture<TransactionWallet> refused = engine.submit(4L, BalanceMutation.credit(Money.of(100000)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found"));
+        awaitWriteBackFailing(false);
+        engine.submit(4L, BalanceMutation.credit(Money.of(100000)),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found")).join();
+        engine.stop();
+
+        // Assert: the stuck batch was stored before anything after it, and the refused deposit never counted
+        assertInstanceOf(ConcurrencyFailureException.class, assertThrows(CompletionException.class, refused::join).getCause());
+        assertEquals(2, writtenTransactions.get());
+        InOrder writes = inOrder(walletRepo);
+        writes.verify(walletRepo).overwriteBalance(4L, Money.of(350000));
+        writes.verify(walletRepo).overwriteBalance(4L, Money.of(450000));
+    }
+
+    @Test
+    public void testFullPartition_DropsWrittenBackWalletsToLoadOthers() throws InterruptedException {
+        // Arrange: one partition that holds a single wallet
+        BalanceEngine small = new BalanceEngine(1, 1024, 64, 1, walletRepo, transactionWalletRepo,
+                TransactionOperations.withoutTransaction(), Validation.buildDefaultValidatorFactory().getValidator(), writtenBack);
+        small.start();
+        try {
+            // Act: each wallet needs the other's place, which frees up once its deposit is written back
+            depositWhenThereIsRoom(small, 5L);
+            depositWhenThereIsRoom(small, 6L);
+            depositWhenThereIsRoom(small, 5L);
+        } finally {
+            small.stop();
+        }
+
+        // Assert: wallet 5 was dropped and loaded again
+        verify(walletRepo, times(2)).findById(5L);
+        assertEquals(3, writtenTransactions.get());
+    }
+
+    @Test
+    public void testFullPartition_RefusesNewWalletWhileHeldOnesAreUnwritten() throws InterruptedException {
+        // Arrange: one partition that holds a single wallet, and a write-back held until released
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            List<TransactionWallet> rows = invocation.getArgument(0);
+            writtenTransactions.addAndGet(rows.size());
+            return rows;
+        }).when(transactionWalletRepo).saveAll(any());
+        BalanceEngine small = new BalanceEngine(1, 1024, 64, 1, walletRepo, transactionWalletRepo,
+                TransactionOperations.withoutTransaction(), Validation.buildDefaultValidatorFactory().getValidator(), writtenBack);
+        small.start();
+        CompletableFuture<TransactionWallet> refused;
+        try {
+            // Act: wallet 6 arrives while wallet 5's deposit is still being written
+            small.submit(5L, BalanceMutation.credit(Money.of(100000)),
+                    TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found")).join();
+            refused = small.submit(6L, BalanceMutation.credit(Money.of(100000)),
+                    TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found"));
+            refused.handle((transaction, error) -> null).join();
+            release.countDown();
+            depositWhenThereIsRoom(small, 6L);
+        } finally {
+            release.countDown();
+            small.stop();
+        }
+
+        // Assert: wallet 5 was never dropped with its change unwritten
+        assertInstanceOf(ConcurrencyFailureException.class, assertThrows(CompletionException.class, refused::join).getCause());
+        verify(walletRepo, times(1)).findById(5L);
+        verify(walletRepo).overwriteBalance(5L, Money.of(350000));
+        verify(walletRepo).overwriteBalance(6L, Money.of(350000));
+    }
+
+    // Retries while the partition is full of unwritten wallets, as a caller answered 409 would
+    private void depositWhenThereIsRoom(BalanceEngine target, Long walletId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                target.submit(walletId, BalanceMutation.credit(Money.of(100000)),
+                        TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found")).join();
+                return;
+            } catch (CompletionException e) {
+                assertInstanceOf(ConcurrencyFailureException.class, e.getCause());
+                assertTrue(System.nanoTime() < deadline, "Wallet " + walletId + " never found room");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private void awaitWriteBackFailing(boolean failing) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (engine.writeBackFailing() != failing) {
+            assertTrue(System.nanoTime() < deadline, "Write-back never became " + (failing ? "failing" : "healthy"));
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.WalleTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.example.exception.WalletNotFoundException;
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.concurrency.ConditionalUpdateBalanceStrategy;
+import com.example.service.concurrency.OptimisticBalanceUpdateStrategy;
+import com.example.service.concurrency.PessimisticBalanceUpdateStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+public class BalanceUpdateStrategyTest {
+
+    @Mock
+    private WalletRepo walletRepo;
+
+    private final TransactionOperations noTransaction = TransactionOperations.withoutTransaction();
+
+    private Wallet wallet;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setBalance(Money.of(50000));
+    }
+
+    @Test
+    public void testOptimistic_RetriesAfterConflict() {
+        // Arrange: the first commit loses the race, the second one wins
+        when(walletRepo.findById(1L)).thenAnswer(invocation -> Optional.of(copyOf(wallet)));
+        when(walletRepo.save(any(Wallet.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        OptimisticBalanceUpdateStrategy strategy = new OptimisticBalanceUpdateStrategy(walletRepo, noTransaction, 3);
+
+        // Act
+        Wallet updated = strategy.update(1L, BalanceMutation.credit(Money.of(5000)),
+                () -> new WalletNotFoundException("Wallet not found"), Function.identity());
+
+        // Assert: the replay started from a fresh read, so the credit was applied exactly once
+        assertEquals(Money.of(55000), updated.getBalance());
+        verify(walletRepo, times(2)).findById(1L);
+    }
+
+    @Test
+    public void testOptimistic_GivesUpAfterMaxAttempts() {
+        // Arrange
+        when(walletRepo.findById(1L)).thenAnswer(invocation -> Optional.of(copyOf(wallet)));
+        when(walletRepo.save(any(Wallet.class))).thenThrow(new OptimisticLockingFailureException("conflict"));
+        OptimisticBalanceUpdateStrategy strategy = new OptimisticBalanceUpdateStrategy(walletRepo, noTransaction, 3);
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> strategy.update(1L,
+                BalanceMutation.credit(Money.of(5000)),
+                () -> new WalletNotFoundException("Wallet not found"), Function.identity()));
+        verify(walletRepo, times(3)).findById(1L);
+    }
+
+    @Test
+    public void testPessimistic_LocksRowBeforeUpdating() {
+        // Arrange
+        when(walletRepo.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        PessimisticBalanceUpdateStrategy strategy = new PessimisticBalanceUpdateStrategy(walletRepo, noTransaction);
+
+        // Act
+        Wallet updated = strategy.update(1L, BalanceMutation.debit(Money.of(20000)),
+                () -> new WalletNotFoundException("Wallet not found"), Function.identity());
+
+        // Assert
+        assertEquals(Money.of(30000), updated.getBalance());
+        verify(walletRepo, never()).findById(any());
+        verify(walletRepo).save(wallet);
+    }
+
+    @Test
+    public void testConditional_AppliesDeltaInDatabase() {
+        // Arrange
+        when(walletRepo.applyBalanceDelta(1L, Money.of(-20000), Wallet.MINIMUM_BALANCE)).thenReturn(1);
+        when(walletRepo.findById(1L)).thenReturn(Optional.of(wallet));
+        ConditionalUpdateBalanceStrategy strategy = new ConditionalUpdateBalanceStrategy(walletRepo, noTransaction);
+
+        // Act
+        strategy.update(1L, BalanceMutation.debit(Money.of(20000)),
+                () -> new WalletNotFoundException("Wallet not found"), Function.identity());
+
+        // Assert: the entity is not mutated or saved, the UPDATE statement did the work
+        verify(walletRepo).applyBalanceDelta(1L, Money.of(-20000), Wallet.MINIMUM_BALANCE);
+        verify(walletRepo, never()).save(any());
+    }
+
+    @Test
+    public void testConditional_GuardRejectsWithdrawalBelowMinimum() {
+        // Arrange
+        when(walletRepo.applyBalanceDelta(eq(1L), any(), any())).thenReturn(0);
+        when(walletRepo.findById(1L)).thenReturn(Optional.of(wallet));
+        ConditionalUpdateBalanceStrategy strategy = new ConditionalUpdateBalanceStrategy(walletRepo, noTransaction);
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> strategy.update(1L,
+                BalanceMutation.debit(Money.of(45000)),
+                () -> new WalletNotFoundException("Wallet not found"), Function.identity()));
+        assertEquals("Withdrawal would result in a balance below the minimum of 10,000", exception.getMessage());
+        assertEquals(Money.of(50000), wallet.getBalance());
+    }
+
+    @Test
+    public void testConditional_WalletNotFound() {
+        // Arrange
+        when(walletRepo.applyBalanceDelta(eq(999L), any(), any())).thenReturn(0);
+        when(walletRepo.findById(999L)).thenReturn(Optional.empty());
+        ConditionalUpdateBalanceStrategy strategy = new ConditionalUpdateBalanceStrategy(walletRepo, noTransaction);
+
+        // Act & Assert
+        assertThrows(WalletNotFoundException.class, () -> strategy.update(999L,
+                BalanceMutation.credit(Money.of(5000)),
+                () -> new WalletNotFoundException("Wallet not found"), Function.identity()));
+    }
+
+    @Test
+    public void testConditional_RejectsNonPositiveAmount() {
+        ConditionalUpdateBalanceStrategy strategy = new ConditionalUpdateBalanceStrategy(walletRepo, noTransaction);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> strategy.update(1L,
+                BalanceMutation.credit(Money.of(-5000)),
+                () -> new WalletNotFoundException("Wallet not found"), Function.identity()));
+        assertEquals("Amount must be positive", exception.getMessage());
+        verifyNoInteractions(walletRepo);
+    }
+
+    private static Wallet copyOf(Wallet source) {
+        Wallet copy = new Wallet();
+        copy.setId(source.getId());
+        copy.setBalance(source.getBalance());
+        return copy;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.WalleTest;
+
+import com.example.model.money.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testParseAndFormat() {
+        // Act
+        Money money = Money.parse("150000.5");
+
+        // Assert
+        assertEquals(15000050L, money.minorUnits());
+        assertEquals("150000.50", money.toString());
+        assertEquals(new BigDecimal("150000.50"), money.toBigDecimal());
+        assertEquals(Money.of(150000), Money.of(new BigDecimal("150000.000")));
+    }
+
+    @Test
+    public void testRejectsMoreThanTwoDecimals() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("10.001"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("abc"));
+    }
+
+    @Test
+    public void testArithmeticAndComparisons() {
+        // Arrange
+        Money balance = Money.of(50000);
+        Money amount = Money.parse("45000.01");
+
+        // Act
+        Money remaining = balance.minus(amount);
+
+        // Assert
+        assertEquals(Money.parse("4999.99"), remaining);
+        assertTrue(remaining.isLessThan(Money.of(10000)));
+        assertTrue(balance.plus(amount).isGreaterThan(balance));
+        assertTrue(amount.negate().isNegative());
+        assertFalse(Money.ZERO.isPositive());
+    }
+
+    @Test
+    public void testOverflowThrows() {
+        // Arrange
+        Money max = new Money(Long.MAX_VALUE);
+
+        // Act & Assert
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.of(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws Exception {
+        // Act
+        String json = objectMapper.writeValueAsString(Money.parse("100000.25"));
+
+        // Assert
+        assertEquals("100000.25", json);
+        assertEquals(Money.parse("100000.25"), objectMapper.readValue("100000.25", Money.class));
+        assertEquals(Money.of(5000), objectMapper.readValue("\"5000\"", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("1.234", Money.class));
+    }
+}
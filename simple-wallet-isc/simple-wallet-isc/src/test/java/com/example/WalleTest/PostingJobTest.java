@@ -0,0 +1,264 @@
+package com.example.WalleTest;
+
+import com.example.config.PostingConfig;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.dto.PostingProgress;
+import com.example.model.money.Money;
+import com.example.repository.PostingCheckpointRepo;
+import com.example.repository.PostingRunRepo;
+import com.example.repository.ReconciliationMismatchRepo;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.ledger.LedgerRowWriter;
+import com.example.service.posting.InterestPostingRule;
+import com.example.service.posting.MaintenanceFeeRule;
+import com.example.service.posting.PostingJob;
+import com.example.service.posting.PostingRule;
+import com.example.service.posting.PostingThrottle;
+import com.example.service.posting.PostingWriter;
+import com.example.service.reconciliation.ReconciliationJob;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:postings;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PostingJobTest {
+
+    private static final int WALLETS = 10;
+    private static final Money DEPOSIT = Money.of(300000);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Autowired
+    private PostingRunRepo runRepo;
+
+    @Autowired
+    private PostingCheckpointRepo checkpointRepo;
+
+    @Autowired
+    private ReconciliationMismatchRepo mismatchRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // While set, the flaky rule fails on the fifth wallet, so the chunk holding it rolls back
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final List<Wallet> wallets = new ArrayList<>();
+    private PostingJob job;
+
+    @BeforeEach
+    void setUp() {
+        PostingRule interest = new InterestPostingRule(100);
+        PostingRule flaky = new PostingRule() {
+            @Override
+            public String name() {
+                return "flaky-interest";
+            }
+
+            @Override
+            public TransactionWallet.TransactionType type() {
+                return interest.type();
+            }
+
+            @Override
+            public Money amountFor(Wallet wallet) {
+                if (failing.get() && wallet.getId().equals(wallets.get(4).getId())) {
+                    throw new IllegalStateException("Rate service unavailable");
+                }
+                return interest.amountFor(wallet);
+            }
+        };
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        PostingWriter writer = new PostingWriter(walletRepo, checkpointRepo,
+                new LedgerRowWriter(jdbcTemplate, entityManager), transactions, eventPublisher);
+        // Chunks of 3 ids over 2 workers, so a run has several chunks posting side by side
+        job = new PostingJob(walletRepo, runRepo, checkpointRepo, writer, PostingThrottle.unlimited(), transactions,
+                List.of(interest, new MaintenanceFeeRule(Money.of(200000)), flaky), 2, 3);
+        job.start();
+
+        for (int n = 0; n < WALLETS; n++) {
+            User user = userRepo.save(new User("Posting User " + n, LocalDate.of(1990, 1, 1), "0918" + String.format("%06d", n),
+                    "posting" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female));
+            Wallet wallet = new Wallet(user, String.format("8%09d", n), String.format("I8%021d", n));
+            wallet.setOwner(user.getFullName());
+            // Even wallets hold 310,000, odd ones just the minimum
+            if (n % 2 == 0) {
+                wallet.addFunds(DEPOSIT);
+            }
+            wallets.add(walletRepo.save(wallet));
+            if (n % 2 == 0) {
+                transactionWalletRepo.save(new TransactionWallet(wallet, TransactionWallet.TransactionType.DEPOSIT, DEPOSIT));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        job.stop();
+        checkpointRepo.deleteAll();
+        runRepo.deleteAll();
+        mismatchRepo.deleteAll();
+        transactionWalletRepo.deleteAll();
+        walletRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void runNow_PostsInterestToEveryWallet() {
+        // Act
+        PostingProgress progress = job.runNow("interest", "interest-2026-10");
+
+        // Assert: 1% of 310,000 on even wallets, 1% of 10,000 on odd ones
+        assertEquals(PostingProgress.State.COMPLETED, progress.state());
+        assertEquals(WALLETS, progress.walletsPosted());
+        assertEquals(0, progress.walletsSkipped());
+        assertEquals(progress.chunksTotal(), progress.chunksDone());
+        assertEquals(Money.of(5 * 3100 + 5 * 100), progress.amountPosted());
+        assertEquals(Money.of(313100), balanceOf(0));
+        assertEquals(Money.of(10100), balanceOf(1));
+        assertEquals(5 + WALLETS, transactionWalletRepo.count());
+        assertEquals(0, reconcile());
+    }
+
+    @Test
+    void runNow_SkipsWalletsThatCannotPayTheFee() {
+        // Act
+        PostingProgress progress = job.runNow("maintenance-fee", "fee-2026-10");
+
+        // Assert
+        assertEquals(PostingProgress.State.COMPLETED, progress.state());
+        assertEquals(5, progress.walletsPosted());
+        assertEquals(5, progress.walletsSkipped());
+        assertEquals(Money.of(110000), balanceOf(0));
+        assertEquals(Wallet.MINIMUM_BALANCE, balanceOf(1));
+        assertEquals(0, reconcile());
+    }
+
+    @Test
+    void runNow_ResumesFailedRunWithoutPostingChunksTwice() {
+        // Arrange: the chunk holding the fifth wallet fails the first time
+        failing.set(true);
+        PostingProgress failed = job.runNow("flaky-interest", "interest-2026-11");
+        assertEquals(PostingProgress.State.FAILED, failed.state());
+        assertEquals(1, failed.chunksFailed());
+        assertEquals(failed.chunksTotal() - 1, failed.chunksDone());
+        assertEquals(Money.of(310000), balanceOf(4));
+
+        // Act
+        failing.set(false);
+        PostingProgress resumed = job.runNow("flaky-interest", "interest-2026-11");
+
+        // Assert: every wallet posted exactly once over both passes
+        assertEquals(PostingProgress.State.COMPLETED, resumed.state());
+        assertEquals(resumed.chunksTotal(), resumed.chunksDone());
+        assertEquals(WALLETS, resumed.walletsPosted());
+        assertEquals(Money.of(313100), balanceOf(0));
+        assertEquals(Money.of(313100), balanceOf(4));
+        assertEquals(5 + WALLETS, transactionWalletRepo.count());
+        assertEquals(0, reconcile());
+    }
+
+    @Test
+    void runNow_CompletedRunKeyPostsNothingAgain() {
+        // Arrange
+        PostingProgress first = job.runNow("interest", "interest-2026-12");
+
+        // Act
+        PostingProgress again = job.runNow("interest", "interest-2026-12");
+
+        // Assert
+        assertEquals(PostingProgress.State.COMPLETED, again.state());
+        assertEquals(first.walletsPosted(), again.walletsPosted());
+        assertEquals(first.amountPosted(), again.amountPosted());
+        assertEquals(Money.of(313100), balanceOf(0));
+        assertEquals(5 + WALLETS, transactionWalletRepo.count());
+    }
+
+    @Test
+    void runNow_RejectsUnknownRuleAndRunKeyOfAnotherRule() {
+        // Arrange
+        job.runNow("interest", "interest-2027-01");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> job.runNow("bonus", "bonus-2027-01"));
+        assertThrows(IllegalArgumentException.class, () -> job.runNow("maintenance-fee", "interest-2027-01"));
+        assertThrows(IllegalArgumentException.class, () -> job.runNow("interest", " "));
+    }
+
+    @Test
+    void postingConfig_RefusesToStartWithTheBalanceEngine() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(PostingConfig.class)
+                .withPropertyValues("wallet.posting.enabled=true", "wallet.balance.engine.enabled=true")
+                .run(context -> assertInstanceOf(IllegalStateException.class,
+                        NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure())));
+    }
+
+    private Money balanceOf(int wallet) {
+        return walletRepo.findBalanceById(wallets.get(wallet).getId()).orElseThrow();
+    }
+
+    // Mismatches a reconciliation pass finds once the postings are in
+    private long reconcile() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ReconciliationJob reconciliation = new ReconciliationJob(walletRepo, mismatchRepo, readOnly,
+                new TransactionTemplate(transactionManager), 1, 100);
+        reconciliation.start();
+        try {
+            return reconciliation.runNow().mismatches();
+        } finally {
+            try {
+                reconciliation.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.WalleTest;
+
+import com.example.service.posting.PostingThrottle;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PostingThrottleTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void reserve_SpacesChunksToTheWalletRate() {
+        // Arrange: 1,000 wallets a second, with a clock that only moves when told
+        PostingThrottle throttle = new PostingThrottle(1000, Duration.ZERO, () -> false, now::get);
+
+        // Act & Assert: the first chunk starts at once, the next ones queue behind the wallets booked before them
+        assertEquals(0, throttle.reserve(500));
+        assertEquals(SECOND / 2, throttle.reserve(500));
+        assertEquals(SECOND, throttle.reserve(100));
+    }
+
+    @Test
+    void reserve_IdleTimeIsNotBanked() {
+        // Arrange
+        PostingThrottle throttle = new PostingThrottle(1000, Duration.ZERO, () -> false, now::get);
+        throttle.reserve(1000);
+
+        // Act: ten seconds idle
+        now.addAndGet(10 * SECOND);
+
+        // Assert: one chunk starts at once, the one after still waits its turn
+        assertEquals(0, throttle.reserve(1000));
+        assertEquals(SECOND, throttle.reserve(1000));
+    }
+
+    @Test
+    void acquire_BacksOffWhileOnlineRequestsWait() throws InterruptedException {
+        // Arrange: the pool reports waiters for the first two checks
+        AtomicInteger busyChecks = new AtomicInteger(2);
+        PostingThrottle throttle = new PostingThrottle(0, Duration.ofMillis(1),
+                () -> busyChecks.getAndDecrement() > 0, now::get);
+
+        // Act
+        throttle.acquire(1000);
+
+        // Assert
+        assertEquals(2, throttle.backoffCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2), throttle.throttledNanos());
+    }
+
+    @Test
+    void constructor_RejectsNegativeRate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PostingThrottle(-1, Duration.ZERO, () -> false, now::get));
+    }
+}
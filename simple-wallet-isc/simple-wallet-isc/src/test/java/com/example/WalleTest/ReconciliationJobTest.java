@@ -0,0 +1,142 @@
+package com.example.WalleTest;
+
+import com.example.model.ReconciliationMismatch;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.dto.ReconciliationProgress;
+import com.example.model.money.Money;
+import com.example.repository.ReconciliationMismatchRepo;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.reconciliation.ReconciliationJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconciliation;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReconciliationJobTest {
+
+    private static final int WALLETS = 10;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Autowired
+    private ReconciliationMismatchRepo mismatchRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReconciliationJob job;
+    private final List<Wallet> wallets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // Chunks of 3 ids over 2 workers, so a pass has several chunks running side by side
+        job = new ReconciliationJob(walletRepo, mismatchRepo, readOnly, new TransactionTemplate(transactionManager), 2, 3);
+        job.start();
+
+        for (int n = 0; n < WALLETS; n++) {
+            User user = userRepo.save(new User("Ledger User " + n, LocalDate.of(1990, 1, 1), "0917" + String.format("%06d", n),
+                    "ledger" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female));
+            Wallet wallet = new Wallet(user, String.format("7%09d", n), String.format("I7%021d", n));
+            wallet.setOwner(user.getFullName());
+            // Every wallet gets a deposit, every other one a withdrawal too, and the balance to match
+            wallet.addFunds(Money.of(300000));
+            if (n % 2 == 0) {
+                wallet.withdrawFunds(Money.of(150000));
+            }
+            wallets.add(walletRepo.save(wallet));
+            transactionWalletRepo.save(new TransactionWallet(wallet, TransactionWallet.TransactionType.DEPOSIT, Money.of(300000)));
+            if (n % 2 == 0) {
+                transactionWalletRepo.save(new TransactionWallet(wallet, TransactionWallet.TransactionType.WITHDRAWAL, Money.of(150000)));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        job.stop();
+        mismatchRepo.deleteAll();
+        transactionWalletRepo.deleteAll();
+        walletRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void runNow_BalancesMatchLedger() {
+        // Act
+        ReconciliationProgress progress = job.runNow();
+
+        // Assert
+        assertEquals(ReconciliationProgress.State.COMPLETED, progress.state());
+        assertEquals(WALLETS, progress.walletsChecked());
+        assertEquals(0, progress.mismatches());
+        assertEquals(progress.chunksTotal(), progress.chunksDone());
+        assertTrue(mismatchRepo.findAll().isEmpty());
+    }
+
+    @Test
+    void runNow_RecordsWalletWhoseBalanceDisagrees() {
+        // Arrange: the balance moves without a ledger row
+        Wallet tampered = wallets.get(3);
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> walletRepo.overwriteBalance(tampered.getId(), Money.of(999999)));
+
+        // Act
+        ReconciliationProgress progress = job.runNow();
+
+        // Assert
+        assertEquals(ReconciliationProgress.State.COMPLETED, progress.state());
+        assertEquals(WALLETS, progress.walletsChecked());
+        assertEquals(1, progress.mismatches());
+        List<ReconciliationMismatch> mismatches = job.mismatches(progress.runId());
+        assertEquals(1, mismatches.size());
+        assertEquals(tampered.getId(), mismatches.get(0).getWalletId());
+        assertEquals(Money.of(310000), mismatches.get(0).getExpectedBalance());
+        assertEquals(Money.of(999999), mismatches.get(0).getActualBalance());
+    }
+
+    @Test
+    void progress_ReportsLastPass() {
+        // Arrange
+        assertTrue(job.progress().isEmpty());
+
+        // Act
+        ReconciliationProgress finished = job.runNow();
+
+        // Assert
+        assertEquals(finished.runId(), job.progress().orElseThrow().runId());
+        assertEquals(ReconciliationProgress.State.COMPLETED, job.progress().orElseThrow().state());
+    }
+}
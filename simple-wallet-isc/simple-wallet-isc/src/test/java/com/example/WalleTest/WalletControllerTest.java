@@ -4,12 +4,14 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-import java.math.BigDecimal;
+import com.example.model.dto.BalanceChange;
+import com.example.model.money.Money;
 import com.example.service.UserService;
 import com.example.controller.WalletController;
 import com.example.model.User;
 import com.example.model.Wallet;
 import com.example.service.WalletService;
+import com.example.service.stream.BalanceStreamHub;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,12 +19,19 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class WalletControllerTest {
 
     private MockMvc mockMvc;
@@ -67,7 +76,7 @@ public class WalletControllerTest {
     }
     @Test
     public void testfoundUser_UserNotFound() throws Exception {
-        when(userService.findUserById(1L)).thenReturn(null);
+        when(userService.userExists(1L)).thenReturn(false);
 
         mockMvc.perform(post("/api/wallets/{userId}/foundUser", 1L)
                         .param("accountNumber", "1234567890")
@@ -78,9 +87,7 @@ public class WalletControllerTest {
 
     @Test
     public void testfoundUser_UserFound() throws Exception {
-        User user = new User();
-        user.setId(1L);
-        when(userService.findUserById(1L)).thenReturn(user);
+        when(userService.userExists(1L)).thenReturn(true);
 
         mockMvc.perform(post("/api/wallets/{userId}/foundUser", 1L)
                         .param("accountNumber", "1234567890")
@@ -119,7 +126,7 @@ public class WalletControllerTest {
 
     @Test
     public void testGetBalance_Success() throws Exception {
-        when(walletService.getBalance(anyLong())).thenReturn(BigDecimal.valueOf(100));
+        when(walletService.getBalance(anyLong())).thenReturn(Money.of(100));
 
         mockMvc.perform(get("/api/wallets/1/balance"))
                 .andExpect(status().isOk())
@@ -138,71 +145,134 @@ public class WalletControllerTest {
         verify(walletService, times(1)).getBalance(999L);
     }
 
+    @Test
+    public void testStreamBalance_SendsCurrentBalanceThenChanges() throws Exception {
+        BalanceStreamHub hub = new BalanceStreamHub(Duration.ofMinutes(1), Duration.ofMinutes(1));
+        hub.start();
+        ReflectionTestUtils.setField(walletController, "balanceStreamHub", hub);
+        when(walletService.getBalance(1L)).thenReturn(Money.of(100));
+
+        MvcResult result = mockMvc.perform(get("/api/wallets/1/balance/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(result, "\"balance\":100");
+        hub.onBalanceChanged(new BalanceChange(1L, Money.of(250), LocalDateTime.now()));
+        hub.onBalanceChanged(new BalanceChange(2L, Money.of(999), LocalDateTime.now()));
+        awaitContent(result, "\"balance\":250");
+
+        String content = result.getResponse().getContentAsString();
+        assertTrue(content.startsWith("event:balance"));
+        assertFalse(content.contains("999"));
+        assertEquals(1, hub.subscriberCount());
+        hub.stop();
+        assertEquals(0, hub.subscriberCount());
+    }
+
+    @Test
+    public void testStreamBalance_DropsChangeOlderThanOneAlreadySeen() throws Exception {
+        BalanceStreamHub hub = new BalanceStreamHub(Duration.ofMinutes(1), Duration.ofMinutes(1));
+        hub.start();
+        ReflectionTestUtils.setField(walletController, "balanceStreamHub", hub);
+        when(walletService.getBalance(1L)).thenReturn(Money.of(100));
+        LocalDateTime committed = LocalDateTime.now().plusSeconds(1);
+
+        MvcResult result = mockMvc.perform(get("/api/wallets/1/balance/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(result, "\"balance\":100");
+        // The second change was stamped first but its after-commit event arrives last
+        hub.onBalanceChanged(new BalanceChange(1L, Money.of(300), committed.plusNanos(2000)));
+        awaitContent(result, "\"balance\":300");
+        hub.onBalanceChanged(new BalanceChange(1L, Money.of(200), committed.plusNanos(1000)));
+        hub.onBalanceChanged(new BalanceChange(1L, Money.of(400), committed.plusNanos(3000)));
+        awaitContent(result, "\"balance\":400");
+
+        assertFalse(result.getResponse().getContentAsString().contains("\"balance\":200"));
+        hub.stop();
+    }
+
+    @Test
+    public void testStreamBalance_Disabled() throws Exception {
+        mockMvc.perform(get("/api/wallets/1/balance/stream"))
+                .andExpect(status().isNotFound());
+
+        verify(walletService, never()).getBalance(anyLong());
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!result.getResponse().getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(result.getResponse().getContentAsString().contains(expected),
+                () -> "Stream did not contain " + expected);
+    }
+
     @Test
     public void testAddFunds_Success() throws Exception {
         Wallet wallet = new Wallet();
         wallet.setId(1L);
-        wallet.setBalance(BigDecimal.valueOf(200));
+        wallet.setBalance(Money.of(200));
 
-        when(walletService.addFunds(anyLong(), any(BigDecimal.class))).thenReturn(wallet);
+        when(walletService.addFunds(anyLong(), any(Money.class))).thenReturn(wallet);
 
         mockMvc.perform(post("/api/wallets/1/addFunds")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(BigDecimal.valueOf(100))))
+                        .content(asJsonString(Money.of(100))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.balance").value(200));
 
-        verify(walletService, times(1)).addFunds(1L, BigDecimal.valueOf(100));
+        verify(walletService, times(1)).addFunds(1L, Money.of(100));
     }
 
     @Test
     public void testAddFunds_InvalidAmount() throws Exception {
         mockMvc.perform(post("/api/wallets/1/addFunds")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(BigDecimal.valueOf(-100))))
+                        .content(asJsonString(Money.of(-100))))
                 .andExpect(status().isBadRequest());
 
-        verify(walletService, times(0)).addFunds(anyLong(), any(BigDecimal.class));
+        verify(walletService, times(0)).addFunds(anyLong(), any(Money.class));
     }
 
     @Test
     public void testWithdrawFunds_Success() throws Exception {
         Wallet wallet = new Wallet();
         wallet.setId(1L);
-        wallet.setBalance(BigDecimal.valueOf(50));
+        wallet.setBalance(Money.of(50));
 
-        when(walletService.withdrawFunds(anyLong(), any(BigDecimal.class))).thenReturn(wallet);
+        when(walletService.withdrawFunds(anyLong(), any(Money.class))).thenReturn(wallet);
 
         mockMvc.perform(post("/api/wallets/1/withdrawFunds")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(BigDecimal.valueOf(50))))
+                        .content(asJsonString(Money.of(50))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.balance").value(50));
 
-        verify(walletService, times(1)).withdrawFunds(1L, BigDecimal.valueOf(50));
+        verify(walletService, times(1)).withdrawFunds(1L, Money.of(50));
     }
 
     @Test
     public void testWithdrawFunds_InvalidAmount() throws Exception {
         mockMvc.perform(post("/api/wallets/1/withdrawFunds")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(BigDecimal.valueOf(-50))))
+                        .content(asJsonString(Money.of(-50))))
                 .andExpect(status().isBadRequest());
 
-        verify(walletService, times(0)).withdrawFunds(anyLong(), any(BigDecimal.class));
+        verify(walletService, times(0)).withdrawFunds(anyLong(), any(Money.class));
     }
 
     @Test
     public void testWithdrawFunds_InsufficientFunds() throws Exception {
-        when(walletService.withdrawFunds(anyLong(), any(BigDecimal.class)))
+        when(walletService.withdrawFunds(anyLong(), any(Money.class)))
                 .thenThrow(new IllegalArgumentException("Insufficient funds."));
 
         mockMvc.perform(post("/api/wallets/1/withdrawFunds")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(BigDecimal.valueOf(200))))
+                        .content(asJsonString(Money.of(200))))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Insufficient funds."));
 
-        verify(walletService, times(1)).withdrawFunds(1L, BigDecimal.valueOf(200));
+        verify(walletService, times(1)).withdrawFunds(1L, Money.of(200));
     }
 }
@@ -0,0 +1,99 @@
+package com.example.WalleTest;
+
+import com.example.model.dto.BalanceChange;
+import com.example.model.money.Money;
+import com.example.service.cache.WalletReadCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WalletReadCacheTest {
+
+    private WalletReadCache cache;
+    private AtomicInteger loads;
+    private Function<Long, Money> loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WalletReadCache(100, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+        loader = walletId -> Money.of(10000 + loads.incrementAndGet());
+    }
+
+    @Test
+    void balance_LoadsOnceThenServesFromCache() {
+        // Act
+        Money first = cache.balance(1L, loader);
+        Money second = cache.balance(1L, loader);
+
+        // Assert
+        assertEquals(Money.of(10001), first);
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onBalanceChanged_EvictsTheWallet() {
+        // Arrange
+        cache.balance(1L, loader);
+        cache.balance(2L, loader);
+
+        // Act
+        cache.onBalanceChanged(new BalanceChange(1L, Money.of(50000), LocalDateTime.now()));
+
+        // Assert
+        assertEquals(Money.of(10003), cache.balance(1L, loader));
+        assertEquals(Money.of(10002), cache.balance(2L, loader));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evict_DropsBalanceAndDetails() {
+        // Arrange
+        cache.balance(1L, loader);
+
+        // Act
+        cache.evict(1L);
+
+        // Assert
+        assertEquals(Money.of(10002), cache.balance(1L, loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void balance_DoesNotCacheFailedLoads() {
+        // Arrange
+        Function<Long, Money> missing = walletId -> {
+            loads.incrementAndGet();
+            throw new IllegalArgumentException("Wallet not found");
+        };
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> cache.balance(9L, missing));
+        assertThrows(IllegalArgumentException.class, () -> cache.balance(9L, missing));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void bindTo_PublishesHitsAndMisses() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Act
+        cache.balance(1L, loader);
+        cache.balance(1L, loader);
+        cache.balance(1L, loader);
+
+        // Assert
+        assertEquals(2.0, registry.get("cache.gets").tags("cache", "wallet.balance", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "wallet.balance", "result", "miss").functionCounter().count());
+    }
+}
@@ -2,19 +2,37 @@ package com.example.WalleTest;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import com.example.exception.BalanceEngineActiveException;
 import com.example.exception.WalletNotFoundException;
+import com.example.model.TransactionWallet;
 import com.example.model.User;
 import com.example.model.Wallet;
+import com.example.model.dto.BalanceChange;
+import com.example.model.money.Money;
 import com.example.repository.WalletRepo;
 import com.example.service.WalletService;
+import com.example.service.cache.WalletReadCache;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.concurrency.OptimisticBalanceUpdateStrategy;
+import com.example.service.engine.BalanceEngine;
+import com.example.service.ledger.LedgerRowWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 
 public class WalletServiceTest {
@@ -25,12 +43,20 @@ public class WalletServiceTest {
     @Mock
     private WalletRepo walletRepo;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LedgerRowWriter ledgerRowWriter;
+
     private User user;
     private Wallet wallet;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(walletService, "balanceUpdateStrategy",
+                new OptimisticBalanceUpdateStrategy(walletRepo, TransactionOperations.withoutTransaction(), 1));
 
         // Initialize test data
         user = new User();
@@ -52,11 +78,50 @@ public class WalletServiceTest {
         assertNotNull(createdWallet);
         assertEquals("1234567890", createdWallet.getAccountNumber());
         assertEquals("IR1234567890123456789012", createdWallet.getShabaNumber());
-        assertEquals(BigDecimal.valueOf(10000), createdWallet.getBalance());
+        assertEquals(Money.of(10000), createdWallet.getBalance());
 
         verify(walletRepo, times(1)).save(any(Wallet.class));
     }
 
+    @Test
+    public void testCreateWallet_DuplicateAccountNumber() {
+        // Arrange
+        when(walletRepo.existsByAccountNumberOrShabaNumber("1234567890", "IR1234567890123456789012")).thenReturn(true);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> walletService.createWallet(user, "1234567890", "IR1234567890123456789012"));
+        assertEquals("Account or SHABA number is already in use", exception.getMessage());
+        verify(walletRepo, never()).save(any(Wallet.class));
+    }
+
+    @Test
+    public void testCreateWallet_DuplicateFoundOnlyByUniqueIndex() {
+        // Arrange: a concurrent request took the account number after the pre-check
+        when(walletRepo.save(any(Wallet.class))).thenReturn(wallet);
+        doThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                "Unique index or primary key violation: \"PUBLIC.UK_WALLETS_ACCOUNT_NUMBER_INDEX_9 ON PUBLIC.WALLETS(ACCOUNT_NUMBER NULLS FIRST)\"")))
+                .when(walletRepo).flush();
+
+        // Act & Assert: the same answer as the pre-check
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> walletService.createWallet(user, "1234567890", "IR1234567890123456789012"));
+        assertEquals("Account or SHABA number is already in use", exception.getMessage());
+    }
+
+    @Test
+    public void testCreateWallet_OtherIntegrityViolationIsNotTranslated() {
+        // Arrange: the user already has a wallet, which the account pre-check does not cover
+        when(walletRepo.save(any(Wallet.class))).thenReturn(wallet);
+        doThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                "Unique index or primary key violation: \"PUBLIC.UK_WALLETS_USER_INDEX_9 ON PUBLIC.WALLETS(USER_ID NULLS FIRST)\"")))
+                .when(walletRepo).flush();
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> walletService.createWallet(user, "1234567890", "IR1234567890123456789012"));
+    }
+
     @Test
     public void testLogin_Success() {
         // Arrange
@@ -86,21 +151,46 @@ public class WalletServiceTest {
     @Test
     public void testGetBalance_Success() {
         // Arrange
-        when(walletRepo.findById(1L)).thenReturn(Optional.of(wallet));
+        when(walletRepo.findBalanceById(1L)).thenReturn(Optional.of(wallet.getBalance()));
 
         // Act
-        BigDecimal balance = walletService.getBalance(1L);
+        Money balance = walletService.getBalance(1L);
 
         // Assert
         assertNotNull(balance);
-        assertEquals(BigDecimal.valueOf(10000), balance);
-        verify(walletRepo, times(1)).findById(1L);
+        assertEquals(Money.of(10000), balance);
+        verify(walletRepo, times(1)).findBalanceById(1L);
+        verify(walletRepo, never()).findById(anyLong());
+    }
+
+    @Test
+    public void testGetBalance_ServedFromCacheUntilBalanceChanges() {
+        // Arrange
+        WalletReadCache cache = new WalletReadCache(100, Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(walletService, "walletReadCache", cache);
+        ReflectionTestUtils.setField(walletService, "eventPublisher",
+                (ApplicationEventPublisher) event -> cache.onBalanceChanged((BalanceChange) event));
+        wallet.setId(1L);
+        when(walletRepo.findBalanceById(1L)).thenAnswer(invocation -> Optional.of(wallet.getBalance()));
+        when(walletRepo.findById(1L)).thenReturn(Optional.of(wallet));
+        when(walletRepo.save(any(Wallet.class))).thenReturn(wallet);
+
+        // Act
+        walletService.getBalance(1L);
+        walletService.getBalance(1L);
+        walletService.addFunds(1L, Money.of(5000));
+        Money balance = walletService.getBalance(1L);
+
+        // Assert
+        assertEquals(Money.of(15000), balance);
+        verify(walletRepo, times(2)).findBalanceById(1L); // loaded again only after the change
+        verify(walletRepo, times(1)).findById(1L); // inside addFunds
     }
 
     @Test
     public void testGetBalance_WalletNotFound() {
         // Arrange
-        when(walletRepo.findById(1L)).thenReturn(Optional.empty());
+        when(walletRepo.findBalanceById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -116,13 +206,45 @@ public class WalletServiceTest {
         when(walletRepo.save(any(Wallet.class))).thenReturn(wallet);
 
         // Act
-        Wallet updatedWallet = walletService.addFunds(1L, BigDecimal.valueOf(5000));
+        Wallet updatedWallet = walletService.addFunds(1L, Money.of(5000));
 
         // Assert
         assertNotNull(updatedWallet);
-        assertEquals(BigDecimal.valueOf(15000), updatedWallet.getBalance());
+        assertEquals(Money.of(15000), updatedWallet.getBalance());
         verify(walletRepo, times(1)).findById(1L);
         verify(walletRepo, times(1)).save(any(Wallet.class));
+        ArgumentCaptor<LedgerRowWriter.Row> row = ArgumentCaptor.forClass(LedgerRowWriter.Row.class);
+        verify(ledgerRowWriter).insert(row.capture());
+        assertEquals(TransactionWallet.TransactionType.DEPOSIT, row.getValue().type());
+        assertEquals(Money.of(5000), row.getValue().amount()); // below the ledger's request minimum
+    }
+
+    @Test
+    public void testAddFunds_PublishesTheBalanceAsOfTheUpdate() {
+        // Arrange: a strategy whose wallet is changed again after its transaction, as a shared entity can be
+        OptimisticBalanceUpdateStrategy strategy = new OptimisticBalanceUpdateStrategy(walletRepo, TransactionOperations.withoutTransaction(), 1) {
+            @Override
+            public <T> T update(Long walletId, BalanceMutation mutation, Supplier<? extends RuntimeException> notFound,
+                                Function<Wallet, T> afterUpdate) {
+                T result = super.update(walletId, mutation, notFound, afterUpdate);
+                wallet.setBalance(Money.of(99999));
+                return result;
+            }
+        };
+        ReflectionTestUtils.setField(walletService, "balanceUpdateStrategy", strategy);
+        wallet.setId(1L);
+        when(walletRepo.findById(1L)).thenReturn(Optional.of(wallet));
+        when(walletRepo.save(any(Wallet.class))).thenReturn(wallet);
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        walletService.addFunds(1L, Money.of(5000));
+
+        // Assert
+        ArgumentCaptor<BalanceChange> change = ArgumentCaptor.forClass(BalanceChange.class);
+        verify(eventPublisher).publishEvent(change.capture());
+        assertEquals(Money.of(15000), change.getValue().balance());
+        assertFalse(change.getValue().changedAt().isBefore(before));
     }
 
     @Test
@@ -132,7 +254,7 @@ public class WalletServiceTest {
 
         // Act & Assert
         Exception exception = assertThrows(WalletNotFoundException.class, () -> {
-            walletService.addFunds(1L, BigDecimal.valueOf(5000));
+            walletService.addFunds(1L, Money.of(5000));
         });
         assertEquals("Wallet not found", exception.getMessage());
     }
@@ -141,19 +263,24 @@ public class WalletServiceTest {
         // Arrange
         Wallet wallet = new Wallet();
         wallet.setId(1L);
-        wallet.setBalance(BigDecimal.valueOf(12000)); // Initial balance of 12,000
+        wallet.setBalance(Money.of(12000)); // Initial balance of 12,000
 
         when(walletRepo.findById(1L)).thenReturn(Optional.of(wallet)); // Mock wallet lookup
         when(walletRepo.save(any(Wallet.class))).thenReturn(wallet); // Mock wallet save
 
         // Act
-        Wallet updatedWallet = walletService.withdrawFunds(1L, BigDecimal.valueOf(2000)); // Withdraw 2000
+        Wallet updatedWallet = walletService.withdrawFunds(1L, Money.of(2000)); // Withdraw 2000
 
         // Assert
         assertNotNull(updatedWallet);
-        assertEquals(BigDecimal.valueOf(10000), updatedWallet.getBalance()); // New balance should be 10,000
+        assertEquals(Money.of(10000), updatedWallet.getBalance()); // New balance should be 10,000
         verify(walletRepo, times(1)).findById(1L); // Ensure findById was called once
         verify(walletRepo, times(1)).save(any(Wallet.class)); // Ensure save was called once
+        ArgumentCaptor<LedgerRowWriter.Row> row = ArgumentCaptor.forClass(LedgerRowWriter.Row.class);
+        verify(ledgerRowWriter).insert(row.capture()); // The ledger explains the new balance
+        assertEquals(1L, row.getValue().walletId());
+        assertEquals(TransactionWallet.TransactionType.WITHDRAWAL, row.getValue().type());
+        assertEquals(Money.of(2000), row.getValue().amount());
     }
 
 
@@ -164,7 +291,7 @@ public class WalletServiceTest {
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            walletService.withdrawFunds(1L, BigDecimal.valueOf(11000));
+            walletService.withdrawFunds(1L, Money.of(11000));
         });
         assertEquals("Withdrawal would result in a balance below the minimum of 10,000", exception.getMessage());
     }
@@ -173,13 +300,13 @@ public class WalletServiceTest {
         // Arrange
         Wallet wallet = new Wallet();
         wallet.setId(1L);
-        wallet.setBalance(BigDecimal.valueOf(10500)); // Setting balance to 10,500
+        wallet.setBalance(Money.of(10500)); // Setting balance to 10,500
 
         when(walletRepo.findById(1L)).thenReturn(Optional.of(wallet)); // Mock wallet lookup
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            walletService.withdrawFunds(1L, BigDecimal.valueOf(11000)); // Attempt to withdraw 11,000
+            walletService.withdrawFunds(1L, Money.of(11000)); // Attempt to withdraw 11,000
         });
 
         // Assert that the correct exception message is thrown
@@ -187,6 +314,7 @@ public class WalletServiceTest {
 
         // Optionally verify that save is not called, as the withdrawal should fail
         verify(walletRepo, never()).save(any(Wallet.class));
+        verifyNoInteractions(ledgerRowWriter);
     }
 
     @Test
@@ -196,11 +324,22 @@ public class WalletServiceTest {
 
         // Act & Assert
         Exception exception = assertThrows(WalletNotFoundException.class, () -> {
-            walletService.withdrawFunds(1L, BigDecimal.valueOf(5000));
+            walletService.withdrawFunds(1L, Money.of(5000));
         });
         assertEquals("Wallet not found", exception.getMessage());
     }
 
+    @Test
+    public void testAddAndWithdrawFunds_RefusedWhileBalanceEngineIsOn() {
+        // Arrange
+        ReflectionTestUtils.setField(walletService, "balanceEngine", mock(BalanceEngine.class));
+
+        // Act & Assert: the balance is never read or written
+        assertThrows(BalanceEngineActiveException.class, () -> walletService.addFunds(1L, Money.of(5000)));
+        assertThrows(BalanceEngineActiveException.class, () -> walletService.withdrawFunds(1L, Money.of(5000)));
+        verifyNoInteractions(walletRepo, eventPublisher);
+    }
+
     @Test
     public void testGetWalletByUserId_Success() {
         // Arrange
@@ -1,11 +1,11 @@
 package com.example.WalleTest;
 import static org.junit.jupiter.api.Assertions.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 import com.example.model.User;
 import com.example.model.Wallet;
+import com.example.model.money.Money;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -39,21 +39,21 @@ public class WalletTest {
     public void testWalletCreation_ValidData() {
         // Wallet should be created with a minimum balance of 10,000
         assertNotNull(wallet);
-        assertEquals(BigDecimal.valueOf(10000), wallet.getBalance());
+        assertEquals(Money.of(10000), wallet.getBalance());
         assertEquals(user, wallet.getUser());
         assertNotNull(wallet.getCreationDate());
     }
 
     @Test
     public void testAddFunds_ValidAmount() {
-        wallet.addFunds(BigDecimal.valueOf(5000));
-        assertEquals(BigDecimal.valueOf(15000), wallet.getBalance());
+        wallet.addFunds(Money.of(5000));
+        assertEquals(Money.of(15000), wallet.getBalance());
     }
 
     @Test
     public void testAddFunds_InvalidAmount() {
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            wallet.addFunds(BigDecimal.valueOf(-500));
+            wallet.addFunds(Money.of(-500));
         });
 
         assertEquals("Amount must be positive", exception.getMessage());
@@ -62,22 +62,22 @@ public class WalletTest {
     @Test
     void testWithdrawFunds_ValidAmount() {
         Wallet wallet = new Wallet();
-        wallet.setBalance(new BigDecimal("20000.00"));  // Initial balance
+        wallet.setBalance(Money.parse("20000.00"));  // Initial balance
 
-        BigDecimal withdrawAmount = new BigDecimal("5000.00");
+        Money withdrawAmount = Money.parse("5000.00");
 
         // Withdraw an amount that doesn't bring the balance below the minimum
         wallet.withdrawFunds(withdrawAmount);
 
         // Assert that the balance is updated correctly after the withdrawal
-        assertEquals(new BigDecimal("15000.00"), wallet.getBalance());
+        assertEquals(Money.parse("15000.00"), wallet.getBalance());
     }
 
     @Test
     public void testWithdrawFunds_InvalidAmount() {
         // Try to withdraw negative amount
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            wallet.withdrawFunds(BigDecimal.valueOf(-200));
+            wallet.withdrawFunds(Money.of(-200));
         });
         assertEquals("Amount must be positive", exception.getMessage());
     }
@@ -86,7 +86,7 @@ public class WalletTest {
     public void testWithdrawFunds_ExceedingBalance() {
         // Try to withdraw an amount that brings balance below minimum (10,000)
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            wallet.withdrawFunds(BigDecimal.valueOf(11000)); // This will drop below 10,000
+            wallet.withdrawFunds(Money.of(11000)); // This will drop below 10,000
         });
 
         assertEquals("Withdrawal would result in a balance below the minimum of 10,000", exception.getMessage());
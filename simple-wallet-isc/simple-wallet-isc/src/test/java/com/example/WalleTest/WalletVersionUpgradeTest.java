@@ -0,0 +1,93 @@
+package com.example.WalleTest;
+
+import com.example.model.Wallet;
+import com.example.model.money.Money;
+import com.example.repository.WalletRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Wallets stored before the version column existed, upgraded the way a deployment is: ddl-auto=update adds the
+ * column to a table that already holds rows.
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.hibernate.ddl-auto=update")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletVersionUpgradeTest {
+
+    private static final String URL = "jdbc:h2:mem:wallet-version-upgrade;DB_CLOSE_DELAY=-1";
+    private static final long EXISTING_WALLET = 1;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Runs before the context starts, so Hibernate finds the table as an older release left it
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS wallets (id BIGINT PRIMARY KEY, account_number VARCHAR(255), " +
+                    "balance NUMERIC(19, 2), creation_date TIMESTAMP, owner VARCHAR(255), shaba_number VARCHAR(255), " +
+                    "transaction_wallet_id BIGINT, user_id BIGINT NOT NULL)");
+            statement.execute("MERGE INTO wallets (id, account_number, balance, creation_date, owner, shaba_number, user_id) " +
+                    "KEY (id) VALUES (1, '3000000001', 50000, CURRENT_TIMESTAMP, 'Existing Owner', " +
+                    "'I3000000000000000000001', 1)");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void existingRow_GetsVersionZeroAndTakesOptimisticUpdates() {
+        // Assert: the column came with its default
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE id = ?", Long.class, EXISTING_WALLET));
+
+        // Act: an optimistic write checks version = 0
+        Wallet wallet = walletRepo.findById(EXISTING_WALLET).orElseThrow();
+        wallet.addFunds(Money.of(100000));
+        walletRepo.save(wallet);
+
+        // Assert
+        assertEquals(Money.of(150000), walletRepo.findBalanceById(EXISTING_WALLET).orElseThrow());
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE id = ?", Long.class, EXISTING_WALLET));
+    }
+
+    @Test
+    void backfillVersions_ReplacesNullLeftByEarlierUpgrade() {
+        // Arrange: a row whose version column was added without a default
+        jdbcTemplate.execute("ALTER TABLE wallets ALTER COLUMN version SET NULL");
+        jdbcTemplate.update("INSERT INTO wallets (id, account_number, balance, creation_date, owner, shaba_number, user_id, version) " +
+                "VALUES (2, '3000000002', 50000, CURRENT_TIMESTAMP, 'Null Version', 'I3000000000000000000002', 2, NULL)");
+
+        // Act
+        int backfilled = walletRepo.backfillVersions();
+        Integer applied = new TransactionTemplate(transactionManager).execute(status ->
+                walletRepo.applyBalanceDelta(2L, Money.of(100000), Wallet.MINIMUM_BALANCE));
+
+        // Assert
+        assertEquals(1, backfilled);
+        assertEquals(1, applied);
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE id = 2", Long.class));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reads a wallet balance over HTTP the way clients had to before access tokens, logging in again for
+ * every call so BCrypt runs each time, and then with one login followed by a bearer token per call.
+ * Also checks that the balance endpoint answers 401 without a token and 200 with one.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:access-token;DB_CLOSE_DELAY=-1",
+        "wallet.auth.token.enabled=true",
+        "wallet.login.rate-limit.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example=WARN"})
+class AccessTokenBenchmark {
+
+    private static final int CALLS = Integer.getInteger("bench.calls", 500);
+    private static final String EMAIL = "token@example.com";
+    private static final String PASSWORD = "password";
+    private static final String PHONE = "09130000000";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Test
+    void reLoginVersusBearerToken() throws Exception {
+        Long walletId = createWallet();
+        assertEquals(401, balance(walletId, null).statusCode());
+
+        long[] reLogin = new long[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            long begin = System.nanoTime();
+            assertEquals(200, balance(walletId, login()).statusCode());
+            reLogin[i] = System.nanoTime() - begin;
+        }
+
+        String token = login();
+        long[] bearer = new long[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            long begin = System.nanoTime();
+            assertEquals(200, balance(walletId, token).statusCode());
+            bearer[i] = System.nanoTime() - begin;
+        }
+
+        report("RE-LOGIN", reLogin);
+        report("BEARER  ", bearer);
+    }
+
+    private String login() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/users/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("email=" + EMAIL + "&password=" + PASSWORD + "&phoneNumber=" + PHONE))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return objectMapper.readTree(response.body()).get("accessToken").asText();
+    }
+
+    private HttpResponse<Void> balance(Long walletId, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/wallets/" + walletId + "/balance"));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private Long createWallet() {
+        User user = new User("Token User", LocalDate.of(1990, 1, 1), PHONE, EMAIL,
+                new BCryptPasswordEncoder().encode(PASSWORD), UserStatusForMan.yes, UserGender.Female);
+        userRepo.save(user);
+        Wallet wallet = new Wallet(user, "3000000000", "I3000000000000000000000");
+        wallet.setOwner(user.getFullName());
+        return walletRepo.save(wallet).getId();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void report(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double seconds = Arrays.stream(latencies).sum() / 1e9;
+        System.out.printf("%s calls=%d  req/s=%7.0f  p50=%7.2f ms  p99=%7.2f ms%n",
+                label, CALLS, CALLS / seconds, percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.benchmark;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.exception.TransactionQueueFullException;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.dto.AsyncTransactionStatus;
+import com.example.model.money.Money;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.TransactionWalletService;
+import com.example.service.async.AsyncTransactionQueue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A burst of callers against a small connection pool. Synchronous deposits hold a request thread and
+ * a connection each for the whole round trip; async submissions return once queued, a fixed worker
+ * pool bounds the connections in use, and submissions past the queue capacity are refused.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:asyncsubmit;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "wallet.balance.concurrency=PESSIMISTIC",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionWalletService.class, BalanceConcurrencyConfig.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class AsyncSubmissionBenchmark {
+
+    private static final int CALLERS = Integer.getInteger("bench.threads", 64);
+    private static final int OPS_PER_CALLER = Integer.getInteger("bench.opsPerThread", 100);
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 16);
+    private static final int WORKERS = Integer.getInteger("bench.workers", 8);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("bench.queueCapacity", 2000);
+    private static final Money AMOUNT = Money.of(100000);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletService transactionWalletService;
+
+    @Test
+    void synchronousVersusQueued() throws InterruptedException {
+        List<Long> walletIds = createWallets();
+
+        // Warm-up
+        burst(8, 50, walletIds, walletId -> transactionWalletService.deposit(walletId, AMOUNT));
+
+        Burst sync = burst(CALLERS, OPS_PER_CALLER, walletIds,
+                walletId -> transactionWalletService.deposit(walletId, AMOUNT));
+        report("SYNC ", sync, sync.elapsedNanos, 0);
+
+        AsyncTransactionQueue queue = new AsyncTransactionQueue(transactionWalletService, WORKERS, QUEUE_CAPACITY,
+                CALLERS * OPS_PER_CALLER, Duration.ofMinutes(10), Duration.ofSeconds(1));
+        queue.start();
+        Queue<String> accepted = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        long began = System.nanoTime();
+        Burst async = burst(CALLERS, OPS_PER_CALLER, walletIds, walletId -> {
+            try {
+                accepted.add(queue.submit(walletId, TransactionWallet.TransactionType.DEPOSIT, AMOUNT).id());
+            } catch (TransactionQueueFullException e) {
+                rejected.incrementAndGet();
+            }
+        });
+        queue.stop();
+        long drained = System.nanoTime() - began;
+        report("ASYNC", async, drained, rejected.get());
+
+        long completed = accepted.stream()
+                .map(id -> queue.status(id).orElseThrow().state())
+                .filter(AsyncTransactionStatus.State.COMPLETED::equals)
+                .count();
+        assertEquals(accepted.size(), completed);
+    }
+
+    private Burst burst(int callers, int opsPerCaller, List<Long> walletIds, Consumer<Long> call)
+            throws InterruptedException {
+        long[] latencies = new long[callers * opsPerCaller];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        for (int c = 0; c < callers; c++) {
+            int caller = c;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < opsPerCaller; i++) {
+                    long begin = System.nanoTime();
+                    call.accept(walletIds.get((caller + i) % walletIds.size()));
+                    latencies[caller * opsPerCaller + i] = System.nanoTime() - begin;
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        return new Burst(latencies, System.nanoTime() - began);
+    }
+
+    private static void report(String label, Burst burst, long completedNanos, int rejected) {
+        long[] latencies = burst.latencies.clone();
+        Arrays.sort(latencies);
+        System.out.printf("%s callers=%d ops=%d  response p50=%7.2f ms  p99=%7.2f ms  "
+                        + "burst accepted in %6.2f s  completed in %6.2f s  rejected=%d%n",
+                label, CALLERS, latencies.length,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                burst.elapsedNanos / 1e9, completedNanos / 1e9, rejected);
+    }
+
+    private List<Long> createWallets() {
+        List<Long> ids = new ArrayList<>();
+        for (int n = 0; n < WALLETS; n++) {
+            User user = new User("Async Wallet " + n, LocalDate.of(1990, 1, 1), "0917" + String.format("%06d", n),
+                    "async" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+            userRepo.save(user);
+            Wallet wallet = new Wallet(user, String.format("5%09d", n), String.format("I5%021d", n));
+            wallet.setOwner(user.getFullName());
+            ids.add(walletRepo.save(wallet).getId());
+        }
+        return ids;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Burst(long[] latencies, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.benchmark;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.concurrency.BalanceConcurrencyMode;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.concurrency.BalanceUpdateStrategy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives N threads at one hot wallet through each {@link BalanceConcurrencyMode} and reports
+ * throughput and latency percentiles. Excluded from the default build; run it with
+ * {@code mvn test -Pbenchmark}, tuning {@code -Dbench.threads} and {@code -Dbench.opsPerThread}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BalanceContentionBenchmark {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 16);
+    private static final int OPS_PER_THREAD = Integer.getInteger("bench.opsPerThread", 500);
+    private static final Money AMOUNT = Money.of(100000);
+    private static final Money OPENING_BALANCE = Money.of(1_000_000_000L);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @ParameterizedTest
+    @EnumSource(BalanceConcurrencyMode.class)
+    void hotWallet(BalanceConcurrencyMode mode) throws InterruptedException {
+        BalanceUpdateStrategy strategy = BalanceConcurrencyConfig.create(mode, 50, walletRepo,
+                new TransactionTemplate(transactionManager));
+        Long walletId = createHotWallet(mode);
+
+        long[] latencies = new long[THREADS * OPS_PER_THREAD];
+        AtomicInteger credits = new AtomicInteger();
+        AtomicInteger debits = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    boolean debit = (thread + i) % 2 == 1;
+                    long begin = System.nanoTime();
+                    try {
+                        strategy.update(walletId,
+                                debit ? BalanceMutation.debit(AMOUNT) : BalanceMutation.credit(AMOUNT),
+                                () -> new IllegalStateException("Wallet not found"),
+                                wallet -> transactionWalletRepo.save(new TransactionWallet(wallet,
+                                        debit ? TransactionWallet.TransactionType.WITHDRAWAL : TransactionWallet.TransactionType.DEPOSIT,
+                                        AMOUNT)));
+                        (debit ? debits : credits).incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[thread * OPS_PER_THREAD + i] = System.nanoTime() - begin;
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-18s threads=%d ops=%d  throughput=%8.0f ops/s  p50=%7.2f ms  p99=%7.2f ms  max=%7.2f ms  failed=%d%n",
+                mode, THREADS, latencies.length, (latencies.length - failures.get()) / seconds,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6, failures.get());
+
+        // Every committed operation must be reflected in the balance: no lost updates
+        Money expected = OPENING_BALANCE.plus(AMOUNT.times(credits.get() - debits.get()));
+        assertEquals(0, expected.compareTo(walletRepo.findById(walletId).orElseThrow().getBalance()));
+    }
+
+    private Long createHotWallet(BalanceConcurrencyMode mode) {
+        int n = mode.ordinal();
+        User user = new User("Hot Wallet " + n, LocalDate.of(1990, 1, 1), "0912000000" + n,
+                "hot" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+        userRepo.save(user);
+        Wallet wallet = new Wallet(user, "100000000" + n, "I100000000000000000000" + n);
+        wallet.setOwner(user.getFullName());
+        wallet.setBalance(OPENING_BALANCE);
+        return walletRepo.save(wallet).getId();
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.benchmark;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.TransactionWalletService;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.engine.BalanceEngine;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same deposit/withdraw mix against a few hot wallets through the JPA path
+ * ({@link TransactionWalletService} with the configured concurrency strategy) and through the
+ * partitioned {@link BalanceEngine}. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:engine;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "wallet.balance.concurrency=PESSIMISTIC",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionWalletService.class, BalanceConcurrencyConfig.class})
+class BalanceEngineBenchmark {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 16);
+    private static final int OPS_PER_THREAD = Integer.getInteger("bench.opsPerThread", 2000);
+    private static final int HOT_WALLETS = Integer.getInteger("bench.wallets", 4);
+    private static final Money AMOUNT = Money.of(100000);
+    private static final Money OPENING_BALANCE = Money.of(1_000_000_000L);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Autowired
+    private TransactionWalletService transactionWalletService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void jpaVersusEngine() throws InterruptedException {
+        List<Long> jpaWallets = createWallets("jpa");
+        double jpaSeconds = run(jpaWallets, (walletId, debit) -> {
+            if (debit) {
+                transactionWalletService.withdraw(walletId, AMOUNT);
+            } else {
+                transactionWalletService.deposit(walletId, AMOUNT);
+            }
+        });
+
+        List<Long> engineWallets = createWallets("engine");
+        BalanceEngine engine = new BalanceEngine(4, 65536, 512, 100000, walletRepo, transactionWalletRepo,
+                new TransactionTemplate(transactionManager), Validation.buildDefaultValidatorFactory().getValidator(),
+                walletId -> { });
+        engine.start();
+        double engineSeconds = run(engineWallets, (walletId, debit) -> engine.submit(walletId,
+                debit ? BalanceMutation.debit(AMOUNT) : BalanceMutation.credit(AMOUNT),
+                debit ? TransactionWallet.TransactionType.WITHDRAWAL : TransactionWallet.TransactionType.DEPOSIT,
+                () -> new IllegalArgumentException("Wallet not found")).join());
+        long stopping = System.nanoTime();
+        engine.stop();
+        double drainSeconds = (System.nanoTime() - stopping) / 1e9;
+
+        int ops = THREADS * OPS_PER_THREAD;
+        System.out.printf("JPA (PESSIMISTIC) threads=%d wallets=%d ops=%d  %8.0f ops/s%n",
+                THREADS, HOT_WALLETS, ops, ops / jpaSeconds);
+        System.out.printf("ENGINE            threads=%d wallets=%d ops=%d  %8.0f ops/s  (%.1fx, write-back drained in %.2f s)%n",
+                THREADS, HOT_WALLETS, ops, ops / engineSeconds, jpaSeconds / engineSeconds, drainSeconds);
+
+        // Credits and debits alternate per wallet, so every balance is back where it started once written back
+        for (Long walletId : engineWallets) {
+            assertEquals(0, OPENING_BALANCE.compareTo(walletRepo.findById(walletId).orElseThrow().getBalance()));
+        }
+        assertEquals(2L * ops, transactionWalletRepo.count());
+    }
+
+    private double run(List<Long> walletIds, BiConsumer<Long, Boolean> operation) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    operation.accept(walletIds.get((thread + i / 2) % walletIds.size()), i % 2 == 1);
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        return (System.nanoTime() - began) / 1e9;
+    }
+
+    private List<Long> createWallets(String prefix) {
+        List<Long> ids = new ArrayList<>();
+        for (int n = 0; n < HOT_WALLETS; n++) {
+            User user = new User("Engine Wallet " + n, LocalDate.of(1990, 1, 1), "0915" + String.format("%06d", n),
+                    prefix + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+            userRepo.save(user);
+            Wallet wallet = new Wallet(user, String.format("%010d", prefix.length() * 1000 + n),
+                    String.format("I%022d", prefix.length() * 1000 + n));
+            wallet.setOwner(user.getFullName());
+            wallet.setBalance(OPENING_BALANCE);
+            ids.add(walletRepo.save(wallet).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.benchmark;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.config.WalletReadCacheConfig;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.WalletService;
+import com.example.service.cache.WalletReadCache;
+import com.example.service.ledger.LedgerRowWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs a read-heavy balance workload (one addFunds per {@code bench.readsPerWrite} getBalance calls)
+ * with and without {@link WalletReadCache}, and reports read latency, throughput and how many reads
+ * made straight after the caller's own addFunds returned an older balance. That count must be zero.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-cache;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN",
+        "wallet.cache.enabled=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({WalletService.class, LedgerRowWriter.class, BalanceConcurrencyConfig.class, WalletReadCacheConfig.class})
+class BalanceReadCacheBenchmark {
+
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 1000);
+    private static final int THREADS = Integer.getInteger("bench.threads", 8);
+    private static final int OPERATIONS_PER_THREAD = Integer.getInteger("bench.operationsPerThread", 20000);
+    private static final int READS_PER_WRITE = Integer.getInteger("bench.readsPerWrite", 50);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletReadCache walletReadCache;
+
+    @Test
+    void cachedVersusUncached() throws InterruptedException {
+        List<Long> walletIds = createWallets();
+
+        ReflectionTestUtils.setField(walletService, "walletReadCache", null);
+        run("UNCACHED", walletIds);
+        ReflectionTestUtils.setField(walletService, "walletReadCache", walletReadCache);
+        run("CACHED  ", walletIds);
+    }
+
+    private void run(String label, List<Long> walletIds) throws InterruptedException {
+        int readsPerThread = OPERATIONS_PER_THREAD - OPERATIONS_PER_THREAD / (READS_PER_WRITE + 1);
+        long[] readLatencies = new long[THREADS * readsPerThread];
+        AtomicInteger readSlots = new AtomicInteger();
+        AtomicInteger staleReads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    Long walletId = walletIds.get(random.nextInt(walletIds.size()));
+                    if (i % (READS_PER_WRITE + 1) == READS_PER_WRITE) {
+                        // Deposits only, so a balance read after our own write can never be lower
+                        Money written = walletService.addFunds(walletId, Money.of(1000)).getBalance();
+                        if (walletService.getBalance(walletId).isLessThan(written)) {
+                            staleReads.incrementAndGet();
+                        }
+                        continue;
+                    }
+                    long begin = System.nanoTime();
+                    walletService.getBalance(walletId);
+                    int slot = readSlots.getAndIncrement();
+                    if (slot < readLatencies.length) {
+                        readLatencies[slot] = System.nanoTime() - begin;
+                    }
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        long[] sorted = Arrays.copyOf(readLatencies, Math.min(readSlots.get(), readLatencies.length));
+        Arrays.sort(sorted);
+        System.out.printf("%s threads=%d  ops/s=%9.0f  read p50=%7.3f ms  p99=%7.3f ms  stale reads after own write=%d%n",
+                label, THREADS, THREADS * OPERATIONS_PER_THREAD / seconds,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), staleReads.get());
+        assertEquals(0, staleReads.get());
+    }
+
+    private List<Long> createWallets() {
+        List<Long> ids = new ArrayList<>();
+        for (int n = 0; n < WALLETS; n++) {
+            User user = new User("Cached Wallet " + n, LocalDate.of(1990, 1, 1), "0915" + String.format("%06d", n),
+                    "cached" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+            userRepo.save(user);
+            Wallet wallet = new Wallet(user, String.format("5%09d", n), String.format("I5%021d", n));
+            wallet.setOwner(user.getFullName());
+            ids.add(walletRepo.save(wallet).getId());
+        }
+        return ids;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.stream.BalanceStreamHub;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens many balance streams at once, then deposits into their wallets one at a time and measures
+ * how long it takes from sending the deposit until every subscriber of that wallet has seen the new
+ * balance. The JVM thread count is reported with all streams open: it should stay near the Tomcat
+ * pool size however many streams there are. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:balance-stream;DB_CLOSE_DELAY=-1",
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration,"
+                + "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration",
+        "wallet.auth.token.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example=WARN"})
+class BalanceStreamBenchmark {
+
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 50);
+    private static final int STREAMS_PER_WALLET = Integer.getInteger("bench.streamsPerWallet", 20);
+    private static final int DEPOSITS = Integer.getInteger("bench.deposits", 500);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // "walletId:balance" -> subscribers still to see that balance
+    private final Map<String, CountDownLatch> awaited = new ConcurrentHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private BalanceStreamHub balanceStreamHub;
+
+    @Test
+    void fanOutLatency() throws Exception {
+        List<Long> walletIds = createWallets();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        int streams = WALLETS * STREAMS_PER_WALLET;
+        for (Long walletId : walletIds) {
+            for (int s = 0; s < STREAMS_PER_WALLET; s++) {
+                client.sendAsync(HttpRequest.newBuilder(uri("/api/wallets/" + walletId + "/balance/stream")).build(),
+                        HttpResponse.BodyHandlers.fromLineSubscriber(new BalanceLineSubscriber()));
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (balanceStreamHub.subscriberCount() < streams && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(streams, balanceStreamHub.subscriberCount());
+        int threadsWithStreamsOpen = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        long[] latencies = new long[DEPOSITS];
+        BigDecimal[] balances = new BigDecimal[WALLETS];
+        Arrays.fill(balances, Wallet.MINIMUM_BALANCE.toBigDecimal());
+        for (int i = 0; i < DEPOSITS; i++) {
+            int w = i % WALLETS;
+            balances[w] = balances[w].add(BigDecimal.valueOf(150000));
+            CountDownLatch seen = new CountDownLatch(STREAMS_PER_WALLET);
+            awaited.put(key(walletIds.get(w), balances[w]), seen);
+
+            long begin = System.nanoTime();
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri("/api/transactions/" + walletIds.get(w) + "/deposit"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("150000")).build(), HttpResponse.BodyHandlers.discarding());
+            assertEquals(201, response.statusCode());
+            assertTrue(seen.await(10, TimeUnit.SECONDS), "Not every subscriber saw deposit " + i);
+            latencies[i] = System.nanoTime() - begin;
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("STREAM  streams=%d  jvm-threads=%d  deposit-to-all-subscribers p50=%6.2f ms  p99=%6.2f ms%n",
+                streams, threadsWithStreamsOpen, percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+    }
+
+    private List<Long> createWallets() {
+        List<Long> ids = new ArrayList<>();
+        for (int n = 0; n < WALLETS; n++) {
+            User user = new User("Stream Wallet " + n, LocalDate.of(1990, 1, 1), "0917" + String.format("%06d", n),
+                    "stream" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+            userRepo.save(user);
+            Wallet wallet = new Wallet(user, String.format("7%09d", n), String.format("I7%021d", n));
+            wallet.setOwner(user.getFullName());
+            ids.add(walletRepo.save(wallet).getId());
+        }
+        return ids;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String key(Long walletId, BigDecimal balance) {
+        return walletId + ":" + balance.stripTrailingZeros().toPlainString();
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    // Reads "data:" lines without a thread per stream and counts down the latch for the balance they carry
+    private class BalanceLineSubscriber implements Flow.Subscriber<String> {
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            try {
+                JsonNode change = objectMapper.readTree(line.substring("data:".length()));
+                CountDownLatch latch = awaited.get(key(change.get("walletId").asLong(), change.get("balance").decimalValue()));
+                if (latch != null) {
+                    latch.countDown();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.benchmark;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.BulkTransactionService;
+import com.example.service.TransactionWalletService;
+import com.example.service.ledger.LedgerRowWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares applying the same mixed deposit/withdraw workload one operation per call
+ * (the per-request path) against one bulk upload. Both paths are warmed up first: the
+ * per-operation loop otherwise warms itself up while a single upload is timed cold. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionWalletService.class, BulkTransactionService.class, LedgerRowWriter.class, BalanceConcurrencyConfig.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+class BulkIngestionBenchmark {
+
+    private static final int OPERATIONS = Integer.getInteger("bench.operations", 20000);
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 200);
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 2000);
+    private static final int WARMUP_UPLOADS = Integer.getInteger("bench.warmup-uploads", 2);
+    private static final Money AMOUNT = Money.of(100000);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletService transactionWalletService;
+
+    @Autowired
+    private BulkTransactionService bulkTransactionService;
+
+    @Test
+    void perOperationVersusBulk() throws Exception {
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds.add(createWallet(i));
+        }
+
+        applyOneByOne(walletIds, WARMUP);
+        long began = System.nanoTime();
+        applyOneByOne(walletIds, OPERATIONS);
+        double perOperationSeconds = (System.nanoTime() - began) / 1e9;
+
+        StringBuilder upload = new StringBuilder(OPERATIONS * 24);
+        for (int i = 0; i < OPERATIONS; i++) {
+            upload.append(walletIds.get(i % WALLETS)).append(i % 2 == 0 ? ",DEPOSIT," : ",WITHDRAWAL,").append(AMOUNT).append('\n');
+        }
+        for (int i = 0; i < WARMUP_UPLOADS; i++) {
+            bulkTransactionService.process(new StringReader(upload.toString()), BulkTransactionService.Format.CSV, new StringWriter());
+        }
+        StringWriter results = new StringWriter();
+        began = System.nanoTime();
+        bulkTransactionService.process(new StringReader(upload.toString()), BulkTransactionService.Format.CSV, results);
+        double bulkSeconds = (System.nanoTime() - began) / 1e9;
+
+        System.out.printf("PER-OPERATION ops=%d  %8.0f ops/s%n", OPERATIONS, OPERATIONS / perOperationSeconds);
+        System.out.printf("BULK          ops=%d  %8.0f ops/s  (%.1fx)%n", OPERATIONS, OPERATIONS / bulkSeconds,
+                perOperationSeconds / bulkSeconds);
+
+        assertEquals(OPERATIONS, results.toString().split("APPLIED", -1).length - 1);
+    }
+
+    private void applyOneByOne(List<Long> walletIds, int operations) {
+        for (int i = 0; i < operations; i++) {
+            Long walletId = walletIds.get(i % WALLETS);
+            if (i % 2 == 0) {
+                transactionWalletService.deposit(walletId, AMOUNT);
+            } else {
+                transactionWalletService.withdraw(walletId, AMOUNT);
+            }
+        }
+    }
+
+    private Long createWallet(int n) {
+        User user = new User("Bulk Wallet " + n, LocalDate.of(1990, 1, 1), "0914" + String.format("%06d", n),
+                "bulk" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+        userRepo.save(user);
+        Wallet wallet = new Wallet(user, String.format("3%09d", n), String.format("I3%021d", n));
+        wallet.setOwner(user.getFullName());
+        wallet.setBalance(Money.of(1_000_000_000L));
+        return walletRepo.save(wallet).getId();
+    }
+}
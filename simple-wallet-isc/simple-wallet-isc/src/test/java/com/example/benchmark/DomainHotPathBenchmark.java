@@ -0,0 +1,122 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * JMH throughput of the wallet and user rules every request runs: {@link Wallet#addFunds},
+ * {@link Wallet#withdrawFunds}, {@link Wallet#login}, {@link User#isEligible}, and bean validation of the
+ * account and SHABA number {@code @Pattern}s, both accepted and rejected. Run with
+ * {@code mvn test -Pbenchmark -Dtest=DomainHotPathBenchmark}; add {@code -Dbench.jmh.prof=gc} to report
+ * allocation per operation.
+ */
+@Tag("benchmark")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DomainHotPathBenchmark {
+
+    private static final Money AMOUNT = Money.of(100000);
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Wallet wallet;
+    private Wallet invalidWallet;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        user = new User("Bench User", LocalDate.of(1990, 1, 1), "09120000000", "bench@example.com",
+                "password", UserStatusForMan.yes, UserGender.Female);
+        wallet = new Wallet(user, "1234567890", "I1234567890123456789012");
+        wallet.setOwner(user.getFullName());
+        invalidWallet = new Wallet(user, "12345", "IR12345");
+        invalidWallet.setOwner(user.getFullName());
+    }
+
+    // Each iteration starts from a balance deposits cannot overflow and withdrawals cannot drain
+    @Setup(Level.Iteration)
+    public void resetBalance() {
+        wallet.setBalance(new Money(Long.MAX_VALUE / 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Money addFunds() {
+        wallet.addFunds(AMOUNT);
+        return wallet.getBalance();
+    }
+
+    @Benchmark
+    public Money withdrawFunds() {
+        wallet.withdrawFunds(AMOUNT);
+        return wallet.getBalance();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return wallet.login("1234567890", "I1234567890123456789012");
+    }
+
+    @Benchmark
+    public boolean loginMismatch() {
+        return wallet.login("1234567890", "I1234567890123456789013");
+    }
+
+    @Benchmark
+    public boolean isEligible() {
+        return user.isEligible();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Wallet>> validateAccountNumber() {
+        return validator.validateProperty(wallet, "accountNumber");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Wallet>> validateShabaNumber() {
+        return validator.validateProperty(wallet, "shabaNumber");
+    }
+
+    // A rejected value also interpolates the constraint message
+    @Benchmark
+    public Set<ConstraintViolation<Wallet>> validateInvalidShabaNumber() {
+        return validator.validateProperty(invalidWallet, "shabaNumber");
+    }
+
+    @Test
+    void measureDomainHotPaths() throws RunnerException {
+        assertFalse(JmhBenchmarks.run(DomainHotPathBenchmark.class).isEmpty());
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.auth.AccessTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application on an in-memory H2 database and drives it over HTTP with a mix of register, login,
+ * balance, deposit and withdraw requests, the way release capacity checks do.
+ * <p>
+ * Load follows an open model: requests arrive at {@code bench.rate} per second with exponential gaps, whether or not
+ * earlier ones have answered, and each latency is measured from the request's scheduled arrival, not from when it
+ * was sent. A server that stalls therefore shows the queueing its clients would see instead of slowing the load down
+ * (no coordinated omission). Latencies go into one HdrHistogram per endpoint; p50, p99, p99.9 and the encoded
+ * histograms are written as JSON to {@code bench.report}.
+ * <p>
+ * Security runs as deployed: balance, deposit and withdraw carry the wallet owner's bearer token, and the owner
+ * check and the login rate limiter are on. Every user starts with a token, as if logged in before the run; logins
+ * in the mix replace it. All clients share one address, so logins past the per-address limit answer 429 and are
+ * reported as throttled; raise {@code -Dwallet.login.rate-limit.client.capacity} to measure logins unthrottled.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=EndToEndLoadBenchmark}, tuning {@code -Dbench.rate},
+ * {@code -Dbench.duration} and {@code -Dbench.warmup} (seconds), {@code -Dbench.wallets} and
+ * {@code -Dbench.mix=register=2,login=3,balance=55,deposit=25,withdraw=15} (relative weights).
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:end-to-end;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false", "logging.level.com.example=WARN"})
+class EndToEndLoadBenchmark {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("bench.rate", "50"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("bench.duration", 60));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("bench.warmup", 15));
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 200);
+    private static final String MIX = System.getProperty("bench.mix", "register=2,login=3,balance=55,deposit=25,withdraw=15");
+    private static final Path REPORT = Path.of(System.getProperty("bench.report", "target/load-report.json"));
+    private static final long SEED = Long.getLong("bench.seed", 42);
+
+    private static final String PASSWORD = "password";
+    // Far above what the withdrawals of a run take out, so none is refused for the minimum balance
+    private static final Money OPENING_BALANCE = Money.of(1_000_000_000);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    private final List<Long> walletIds = new ArrayList<>();
+    // The current bearer token of each wallet's owner
+    private final AtomicReferenceArray<String> tokens = new AtomicReferenceArray<>(WALLETS);
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    enum Operation {
+        REGISTER, LOGIN, BALANCE, DEPOSIT, WITHDRAW;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        seed();
+        Map<Operation, Integer> weights = parseMix(MIX);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        drive(client, weights, WARMUP, new Random(SEED - 1));
+        Phase measured = drive(client, weights, DURATION, new Random(SEED));
+
+        Report report = report(weights, measured);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+
+        report.endpoints().forEach((endpoint, result) -> System.out.printf(
+                "%-8s requests=%,7d  errors=%,5d  throttled=%,5d  p50=%8.2f ms  p99=%8.2f ms  p99.9=%8.2f ms  max=%8.2f ms%n",
+                endpoint, result.requests(), result.errors(), result.throttled(), result.p50Millis(), result.p99Millis(),
+                result.p999Millis(), result.maxMillis()));
+        System.out.printf("target=%.0f req/s  achieved=%.0f req/s  report=%s%n",
+                report.targetRate(), report.achievedRate(), REPORT.toAbsolutePath());
+        assertTrue(Files.size(REPORT) > 0);
+    }
+
+    // Issues requests at their scheduled arrival times until the phase ends, then waits for the stragglers
+    private Phase drive(HttpClient client, Map<Operation, Integer> weights, Duration duration, Random random) {
+        Phase phase = new Phase();
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        long begin = System.nanoTime();
+        long end = begin + duration.toNanos();
+        long arrival = begin;
+        while (true) {
+            arrival += (long) (-Math.log(1 - random.nextDouble()) / RATE * TimeUnit.SECONDS.toNanos(1));
+            if (arrival >= end) {
+                break;
+            }
+            for (long wait = arrival - System.nanoTime(); wait > 0; wait = arrival - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(weights, totalWeight, random);
+            int wallet = random.nextInt(WALLETS);
+            HttpRequest request = request(operation, wallet);
+            long scheduled = arrival;
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .handle((response, failure) -> {
+                        long latency = System.nanoTime() - scheduled;
+                        phase.record(operation, latency, failure != null ? -1 : response.statusCode());
+                        if (operation == Operation.LOGIN && failure == null && response.statusCode() == 200) {
+                            tokens.set(wallet, accessToken(response.body()));
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+        phase.elapsedNanos = System.nanoTime() - begin;
+        return phase;
+    }
+
+    private static Operation pick(Map<Operation, Integer> weights, int totalWeight, Random random) {
+        int draw = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            draw -= weight.getValue();
+            if (draw < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+
+    private HttpRequest request(Operation operation, int wallet) {
+        return switch (operation) {
+            case REGISTER -> {
+                int n = registrations.incrementAndGet();
+                yield post("/api/users/register?fullName=" + encode("Registered " + n)
+                        + "&dateOfBirth=1990-01-01&phoneNumber=" + String.format("0919%07d", n)
+                        + "&email=" + encode("registered" + n + "@example.com") + "&password=" + PASSWORD
+                        + "&userStatusForMan=yes&gender=Female", HttpRequest.BodyPublishers.noBody());
+            }
+            case LOGIN -> post("/api/users/login?email=" + encode(email(wallet)) + "&password=" + PASSWORD
+                    + "&phoneNumber=" + phoneNumber(wallet), HttpRequest.BodyPublishers.noBody());
+            case BALANCE -> HttpRequest.newBuilder(uri("/api/wallets/" + walletIds.get(wallet) + "/balance"))
+                    .timeout(REQUEST_TIMEOUT).header("Authorization", "Bearer " + tokens.get(wallet)).GET().build();
+            case DEPOSIT -> authorized(post("/api/transactions/" + walletIds.get(wallet) + "/deposit",
+                    HttpRequest.BodyPublishers.ofString("150000")), wallet);
+            case WITHDRAW -> authorized(post("/api/transactions/" + walletIds.get(wallet) + "/withdraw",
+                    HttpRequest.BodyPublishers.ofString("100000")), wallet);
+        };
+    }
+
+    private HttpRequest post(String pathAndQuery, HttpRequest.BodyPublisher body) {
+        return HttpRequest.newBuilder(uri(pathAndQuery))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(body)
+                .build();
+    }
+
+    private HttpRequest authorized(HttpRequest request, int wallet) {
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .header("Authorization", "Bearer " + tokens.get(wallet))
+                .build();
+    }
+
+    private String accessToken(String loginResponse) {
+        try {
+            return objectMapper.readTree(loginResponse).get("accessToken").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://localhost:" + port + pathAndQuery);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String email(int n) {
+        return "e2e" + n + "@example.com";
+    }
+
+    private static String phoneNumber(int n) {
+        return String.format("0917%07d", n);
+    }
+
+    // Users carry a real bcrypt hash so logins do the work they do in production; hashing it once keeps seeding fast
+    private void seed() {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        for (int n = 0; n < WALLETS; n++) {
+            User user = userRepo.save(new User("Load User " + n, LocalDate.of(1990, 1, 1), phoneNumber(n), email(n),
+                    hash, UserStatusForMan.yes, UserGender.Female));
+            Wallet wallet = new Wallet(user, String.format("7%09d", n), String.format("I7%021d", n));
+            wallet.setOwner(user.getFullName());
+            wallet.addFunds(OPENING_BALANCE);
+            walletIds.add(walletRepo.save(wallet).getId());
+            tokens.set(n, accessTokenService.issue(user.getId()).value());
+        }
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like balance=50, got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operation with a positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static Report report(Map<Operation, Integer> weights, Phase phase) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+        long requests = 0;
+        for (Operation operation : weights.keySet()) {
+            mix.put(operation.key(), weights.get(operation));
+            Histogram histogram = phase.latencies.get(operation).getIntervalHistogram();
+            requests += histogram.getTotalCount();
+            endpoints.put(operation.key(), new EndpointResult(histogram.getTotalCount(), phase.errors.get(operation).sum(),
+                    phase.throttled.get(operation).sum(), millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()), compressed(histogram)));
+        }
+        return new Report(RATE, requests / (phase.elapsedNanos / 1e9), DURATION.toSeconds(), WARMUP.toSeconds(),
+                WALLETS, SEED, mix, endpoints);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // HdrHistogram's compressed form, as its log files carry it, so runs can be merged or replotted later
+    private static String compressed(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static final class Phase {
+        private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> throttled = new EnumMap<>(Operation.class);
+        private long elapsedNanos;
+
+        Phase() {
+            for (Operation operation : Operation.values()) {
+                // Three significant digits; grows past its initial range instead of rejecting slow requests
+                latencies.put(operation, new Recorder(3));
+                errors.put(operation, new LongAdder());
+                throttled.put(operation, new LongAdder());
+            }
+        }
+
+        // status is -1 when no response came back; 429s count as errors and, separately, as throttled
+        void record(Operation operation, long latencyNanos, int status) {
+            latencies.get(operation).recordValue(latencyNanos);
+            if (status < 0 || status >= 300) {
+                errors.get(operation).increment();
+            }
+            if (status == 429) {
+                throttled.get(operation).increment();
+            }
+        }
+    }
+
+    record Report(double targetRate, double achievedRate, long durationSeconds, long warmupSeconds, int wallets,
+                  long seed, Map<String, Integer> mix, Map<String, EndpointResult> endpoints) {
+    }
+
+    record EndpointResult(long requests, long errors, long throttled, double p50Millis, double p99Millis, double p999Millis,
+                          double maxMillis, String histogram) {
+    }
+}
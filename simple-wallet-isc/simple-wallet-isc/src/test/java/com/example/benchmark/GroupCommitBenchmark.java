@@ -0,0 +1,158 @@
+package com.example.benchmark;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.TransactionWalletService;
+import com.example.service.concurrency.BalanceMutation;
+import com.example.service.groupcommit.GroupCommitStage;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compares one transaction per deposit (the pessimistic concurrency strategy) with the
+ * group-commit stage, under heavy load and with a single caller to show that light traffic
+ * is not delayed by the window. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:groupcommit;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "wallet.balance.concurrency=PESSIMISTIC",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionWalletService.class, BalanceConcurrencyConfig.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class GroupCommitBenchmark {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 32);
+    private static final int OPS_PER_THREAD = Integer.getInteger("bench.opsPerThread", 300);
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 8);
+    private static final Money AMOUNT = Money.of(100000);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Autowired
+    private TransactionWalletService transactionWalletService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Test
+    void perRequestVersusGroupCommit() throws InterruptedException {
+        List<Long> walletIds = createWallets();
+        GroupCommitStage stage = new GroupCommitStage(walletRepo, transactionWalletRepo,
+                new TransactionTemplate(transactionManager), validator, Duration.ofMillis(2), 256, 100000);
+        stage.start();
+        Consumer<Long> grouped = walletId -> stage.submit(walletId, BalanceMutation.credit(AMOUNT),
+                TransactionWallet.TransactionType.DEPOSIT, () -> new IllegalArgumentException("Wallet not found")).join();
+        Consumer<Long> perRequest = walletId -> transactionWalletService.deposit(walletId, AMOUNT);
+
+        // Warm-up
+        run(4, 200, walletIds, perRequest);
+        run(4, 200, walletIds, grouped);
+
+        report("PER-REQUEST  light", run(1, 500, walletIds, perRequest), null);
+        report("GROUP-COMMIT light", run(1, 500, walletIds, grouped), stage);
+        report("PER-REQUEST  heavy", run(THREADS, OPS_PER_THREAD, walletIds, perRequest), null);
+        report("GROUP-COMMIT heavy", run(THREADS, OPS_PER_THREAD, walletIds, grouped), stage);
+        stage.stop();
+    }
+
+    private long[] run(int threads, int opsPerThread, List<Long> walletIds, Consumer<Long> deposit)
+            throws InterruptedException {
+        long[] latencies = new long[threads * opsPerThread + 1];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < opsPerThread; i++) {
+                    long begin = System.nanoTime();
+                    deposit.accept(walletIds.get((thread + i) % walletIds.size()));
+                    latencies[thread * opsPerThread + i] = System.nanoTime() - begin;
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        // The last slot carries the wall-clock duration of the run
+        latencies[latencies.length - 1] = System.nanoTime() - began;
+        return latencies;
+    }
+
+    private static void report(String label, long[] run, GroupCommitStage stage) {
+        long elapsed = run[run.length - 1];
+        long[] latencies = Arrays.copyOf(run, run.length - 1);
+        Arrays.sort(latencies);
+        System.out.printf("%s ops=%d  %8.0f ops/s  p50=%6.2f ms  p99=%6.2f ms%s%n",
+                label, latencies.length, latencies.length / (elapsed / 1e9),
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                stage == null ? "" : String.format("  avg group=%.1f", stage.averageBatchSize()));
+    }
+
+    private List<Long> createWallets() {
+        List<Long> ids = new ArrayList<>();
+        for (int n = 0; n < WALLETS; n++) {
+            User user = new User("Group Wallet " + n, LocalDate.of(1990, 1, 1), "0916" + String.format("%06d", n),
+                    "group" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+            userRepo.save(user);
+            Wallet wallet = new Wallet(user, String.format("4%09d", n), String.format("I4%021d", n));
+            wallet.setOwner(user.getFullName());
+            ids.add(walletRepo.save(wallet).getId());
+        }
+        return ids;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.benchmark;
+
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures ledger insert throughput for different id allocation sizes. An allocation size of 1
+ * costs one sequence round trip per row, the way a non-pooled generator behaves.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class IdAllocationBenchmark {
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 50000);
+    private static final int CHUNK = 1000;
+
+    @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    abstract static class LedgerInserts {
+
+        @Autowired
+        private UserRepo userRepo;
+
+        @Autowired
+        private WalletRepo walletRepo;
+
+        @Autowired
+        private TransactionWalletRepo transactionWalletRepo;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        void insertLedgerRows(String label) {
+            User user = new User("Id Benchmark", LocalDate.of(1990, 1, 1), "09140000000",
+                    "ids@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+            userRepo.save(user);
+            Wallet wallet = new Wallet(user, "3000000000", "I3000000000000000000000");
+            wallet.setOwner(user.getFullName());
+            walletRepo.save(wallet);
+
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            long began = System.nanoTime();
+            for (int done = 0; done < ROWS; done += CHUNK) {
+                tx.executeWithoutResult(status -> {
+                    List<TransactionWallet> rows = new ArrayList<>(CHUNK);
+                    for (int i = 0; i < CHUNK; i++) {
+                        rows.add(new TransactionWallet(wallet, TransactionWallet.TransactionType.DEPOSIT, Money.of(100000)));
+                    }
+                    transactionWalletRepo.saveAll(rows);
+                });
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+
+            System.out.printf("%-24s rows=%d  %8.0f inserts/s%n", label, ROWS, ROWS / seconds);
+            assertEquals(ROWS, transactionWalletRepo.count());
+        }
+    }
+
+    @Nested
+    @DataJpaTest(showSql = false, properties = {
+            "spring.datasource.url=jdbc:h2:mem:ids1;DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.wallet.id.allocation_size=1",
+            "logging.level.com.example=WARN"})
+    class AllocationSizeOne extends LedgerInserts {
+
+        @Test
+        void insertThroughput() {
+            insertLedgerRows("ALLOCATION 1");
+        }
+    }
+
+    @Nested
+    @DataJpaTest(showSql = false, properties = {
+            "spring.datasource.url=jdbc:h2:mem:ids50;DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.wallet.id.allocation_size=50",
+            "logging.level.com.example=WARN"})
+    class AllocationSizeFifty extends LedgerInserts {
+
+        @Test
+        void insertThroughput() {
+            insertLedgerRows("ALLOCATION 50 pooled-lo");
+        }
+    }
+
+    @Nested
+    @DataJpaTest(showSql = false, properties = {
+            "spring.datasource.url=jdbc:h2:mem:ids500;DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.wallet.id.allocation_size=500",
+            "logging.level.com.example=WARN"})
+    class AllocationSizeFiveHundred extends LedgerInserts {
+
+        @Test
+        void insertThroughput() {
+            insertLedgerRows("ALLOCATION 500 pooled-lo");
+        }
+    }
+}
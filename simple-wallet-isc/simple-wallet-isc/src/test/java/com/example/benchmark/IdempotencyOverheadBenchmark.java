@@ -0,0 +1,126 @@
+package com.example.benchmark;
+
+import com.example.filter.IdempotencyFilter;
+import com.example.repository.IdempotencyRecordRepo;
+import com.example.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Time {@link IdempotencyFilter} adds to a deposit: the same request through the filter without a key (not
+ * tracked), with a new key (the claim on the request's path, the response stored by a background flush every
+ * 20 ms as in the application) and with a completed key (replayed from memory). The downstream handler only
+ * writes a response, so the differences are the filter's own cost. The database is in-memory H2, so the claim
+ * costs no network round trip here; add the database's round-trip time once for a new key in production. Run with {@code mvn test -Pbenchmark -Dtest=IdempotencyOverheadBenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency-overhead;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyOverheadBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 20_000);
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 20_000);
+    private static final byte[] RESPONSE = "{\"id\":1,\"amount\":150000,\"type\":\"DEPOSIT\"}".getBytes(StandardCharsets.UTF_8);
+
+    // Stands in for the controller: a 201 with a small JSON body
+    private static final FilterChain HANDLER = (request, response) -> {
+        request.getInputStream().readAllBytes();
+        ((HttpServletResponse) response).setStatus(201);
+        response.setContentType("application/json");
+        response.getOutputStream().write(RESPONSE);
+    };
+
+    @Autowired
+    private IdempotencyRecordRepo idempotencyRecordRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void filterOverhead() throws Exception {
+        IdempotencyService idempotencyService = new IdempotencyService(idempotencyRecordRepo, jdbcTemplate,
+                new TransactionTemplate(transactionManager), REQUESTS + WARMUP, Duration.ofHours(24), Duration.ofMinutes(5));
+        IdempotencyFilter filter = new IdempotencyFilter(idempotencyService, List.of("/api/transactions/*/deposit"));
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(idempotencyService::flushCompletions, 20, 20, TimeUnit.MILLISECONDS);
+
+        long[] untracked;
+        long[] newKey;
+        long[] replayed;
+        try {
+            run(filter, "warm-up", WARMUP, n -> null);
+            run(filter, "warm-up", WARMUP, n -> "warm-up-" + n);
+            untracked = run(filter, "no key", REQUESTS, n -> null);
+            newKey = run(filter, "new key", REQUESTS, n -> "key-" + n);
+            replayed = run(filter, "replayed", REQUESTS, n -> "key-" + n);
+        } finally {
+            flusher.shutdown();
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        idempotencyService.flushCompletions();
+
+        System.out.printf("overhead over no key: new key p50=%6.1f us  replayed p50=%6.1f us%n",
+                (percentile(newKey, 50) - percentile(untracked, 50)) / 1e3,
+                (percentile(replayed, 50) - percentile(untracked, 50)) / 1e3);
+        assertEquals(REQUESTS + WARMUP, idempotencyRecordRepo.count());
+        assertEquals(0, idempotencyRecordRepo.findAll().stream().filter(r -> !r.isCompleted()).count());
+    }
+
+    private static long[] run(IdempotencyFilter filter, String label, int requests,
+                              IntFunction<String> key) throws Exception {
+        long[] latencies = new long[requests];
+        for (int n = 0; n < requests; n++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions/1/deposit");
+            request.setContentType("application/json");
+            request.setContent("150000".getBytes(StandardCharsets.UTF_8));
+            String idempotencyKey = key.apply(n);
+            if (idempotencyKey != null) {
+                request.addHeader(IdempotencyFilter.HEADER, idempotencyKey);
+            }
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            long begin = System.nanoTime();
+            filter.doFilter(request, response, HANDLER);
+            latencies[n] = System.nanoTime() - begin;
+            assertEquals(201, response.getStatus());
+        }
+        Arrays.sort(latencies);
+        if (!label.equals("warm-up")) {
+            System.out.printf("%-9s requests=%,d  p50=%7.1f us  p99=%7.1f us  p99.9=%7.1f us%n", label, requests,
+                    percentile(latencies, 50) / 1e3, percentile(latencies, 99) / 1e3, percentile(latencies, 99.9) / 1e3);
+        }
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1)];
+    }
+}
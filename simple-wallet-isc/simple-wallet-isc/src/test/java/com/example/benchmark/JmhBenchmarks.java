@@ -0,0 +1,35 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+/**
+ * Runs the JMH benchmarks of one class from a JUnit test, sized by system properties:
+ * {@code bench.jmh.forks}, {@code bench.jmh.warmups}, {@code bench.jmh.iterations}, and {@code bench.jmh.prof}
+ * to add a profiler ({@code gc} reports bytes allocated per operation).
+ */
+final class JmhBenchmarks {
+
+    private JmhBenchmarks() {
+    }
+
+    static Collection<RunResult> run(Class<?> benchmarks) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(benchmarks.getName() + ".*")
+                .forks(Integer.getInteger("bench.jmh.forks", 1))
+                .warmupIterations(Integer.getInteger("bench.jmh.warmups", 3))
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(Integer.getInteger("bench.jmh.iterations", 5))
+                .measurementTime(TimeValue.seconds(1));
+        String profiler = System.getProperty("bench.jmh.prof");
+        if (profiler != null) {
+            options.addProfiler(profiler);
+        }
+        return new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.benchmark;
+
+import com.example.config.JacksonConfig;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * JMH throughput of writing the Wallet, User and TransactionWallet entities to JSON through the mapper
+ * {@link JacksonConfig} declares, as the controllers return them. Writers are resolved once, as Spring's
+ * message converter caches them. Run with {@code mvn test -Pbenchmark -Dtest=JsonSerializationBenchmark};
+ * add {@code -Dbench.jmh.prof=gc} to report allocation per operation.
+ */
+@Tag("benchmark")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter walletWriter;
+    private ObjectWriter userWriter;
+    private ObjectWriter transactionWriter;
+    private Wallet wallet;
+    private User user;
+    private TransactionWallet transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var mapper = new JacksonConfig().objectMapper();
+        walletWriter = mapper.writerFor(Wallet.class);
+        userWriter = mapper.writerFor(User.class);
+        transactionWriter = mapper.writerFor(TransactionWallet.class);
+
+        user = new User("Bench User", LocalDate.of(1990, 1, 1), "09120000000", "bench@example.com",
+                "password", UserStatusForMan.yes, UserGender.Female);
+        user.setId(1L);
+        wallet = new Wallet(user, "1234567890", "I1234567890123456789012");
+        wallet.setId(1L);
+        wallet.setOwner(user.getFullName());
+        wallet.addFunds(Money.of(250000));
+        transaction = new TransactionWallet(wallet, TransactionWallet.TransactionType.DEPOSIT, Money.of(250000));
+        transaction.setId(1L);
+    }
+
+    @Benchmark
+    public String writeWallet() throws JsonProcessingException {
+        return walletWriter.writeValueAsString(wallet);
+    }
+
+    @Benchmark
+    public String writeUser() throws JsonProcessingException {
+        return userWriter.writeValueAsString(user);
+    }
+
+    // Includes the wallet it belongs to
+    @Benchmark
+    public String writeTransaction() throws JsonProcessingException {
+        return transactionWriter.writeValueAsString(transaction);
+    }
+
+    @Test
+    void measureJsonSerialization() throws RunnerException {
+        assertFalse(JmhBenchmarks.run(JsonSerializationBenchmark.class).isEmpty());
+    }
+}
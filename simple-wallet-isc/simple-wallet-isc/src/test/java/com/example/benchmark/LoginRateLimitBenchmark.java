@@ -0,0 +1,149 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.ratelimit.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Floods {@code POST /api/users/login} with wrong passwords for one account and reports how many attempts
+ * got as far as BCrypt (401) and how many were turned away first (429), and how long the flood took.
+ * Then measures {@link TokenBucketRateLimiter#tryAcquire} alone from many threads over many keys.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:login-rate-limit;DB_CLOSE_DELAY=-1",
+        "wallet.login.rate-limit.enabled=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example=ERROR"})
+class LoginRateLimitBenchmark {
+
+    private static final int ATTACKERS = Integer.getInteger("bench.attackers", 8);
+    private static final int ATTEMPTS_PER_ATTACKER = Integer.getInteger("bench.attemptsPerAttacker", 250);
+    private static final int LIMITER_THREADS = Integer.getInteger("bench.threads", 8);
+    private static final int LIMITER_KEYS = Integer.getInteger("bench.keys", 100_000);
+    private static final int LIMITER_CALLS_PER_THREAD = Integer.getInteger("bench.callsPerThread", 1_000_000);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Test
+    void loginFlood() throws InterruptedException {
+        createUser();
+        AtomicInteger reachedBcrypt = new AtomicInteger();
+        AtomicInteger throttled = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(ATTACKERS);
+        for (int a = 0; a < ATTACKERS; a++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_ATTACKER; i++) {
+                        int status = login("wrong-password").statusCode();
+                        if (status == 429) {
+                            throttled.incrementAndGet();
+                        } else if (status == 401) {
+                            reachedBcrypt.incrementAndGet();
+                        }
+                    }
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        int attempts = ATTACKERS * ATTEMPTS_PER_ATTACKER;
+        System.out.printf("FLOOD    attempts=%d  reached bcrypt=%d  throttled=%d  elapsed=%6.2f s  attempts/s=%7.0f%n",
+                attempts, reachedBcrypt.get(), throttled.get(), seconds, attempts / seconds);
+        assertEquals(attempts, reachedBcrypt.get() + throttled.get());
+        assertTrue(reachedBcrypt.get() <= 5, "Only the identity bucket's capacity may reach BCrypt");
+    }
+
+    @Test
+    void limiterThroughput() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("bench", 5, Duration.ofSeconds(12),
+                LIMITER_KEYS, Duration.ofMinutes(10), System::nanoTime);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(LIMITER_THREADS);
+        for (int t = 0; t < LIMITER_THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < LIMITER_CALLS_PER_THREAD; i++) {
+                    limiter.tryAcquire("email:user" + random.nextInt(LIMITER_KEYS) + "@example.com");
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        long calls = (long) LIMITER_THREADS * LIMITER_CALLS_PER_THREAD;
+        System.out.printf("LIMITER  threads=%d  keys=%d  tryAcquire/s=%,12.0f  rejected=%d%n",
+                LIMITER_THREADS, LIMITER_KEYS, calls / seconds, limiter.rejectedCount());
+    }
+
+    private HttpResponse<Void> login(String password) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "email=flood@example.com&password=" + password + "&phoneNumber=09120000001"))
+                .build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private void createUser() {
+        User user = new User("Flood Target", LocalDate.of(1990, 1, 1), "09120000001", "flood@example.com",
+                new BCryptPasswordEncoder().encode("password"), UserStatusForMan.yes, UserGender.Female);
+        userRepo.save(user);
+        Wallet wallet = new Wallet(user, "2000000000", "I2000000000000000000000");
+        wallet.setOwner(user.getFullName());
+        walletRepo.save(wallet);
+    }
+}
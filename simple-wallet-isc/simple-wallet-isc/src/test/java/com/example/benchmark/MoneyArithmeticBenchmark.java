@@ -0,0 +1,103 @@
+package com.example.benchmark;
+
+import com.example.model.money.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * JMH comparison of the balance rules on {@link Money} against the same rules on {@link BigDecimal}:
+ * the amount bounds check, the minimum-balance guard and the resulting balance of a withdrawal.
+ * Run with {@code mvn test -Pbenchmark -Dtest=MoneyArithmeticBenchmark}; add {@code -Dbench.jmh.prof=gc}
+ * to report allocation per operation.
+ */
+@Tag("benchmark")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyArithmeticBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private static final BigDecimal DECIMAL_MINIMUM_BALANCE = BigDecimal.valueOf(10000);
+    private static final BigDecimal DECIMAL_MIN_AMOUNT = new BigDecimal("100000.00");
+    private static final BigDecimal DECIMAL_MAX_AMOUNT = new BigDecimal("10000000.00");
+
+    private static final Money MINIMUM_BALANCE = Money.of(10000);
+    private static final Money MIN_AMOUNT = Money.of(100000);
+    private static final Money MAX_AMOUNT = Money.of(10000000);
+
+    private final BigDecimal[] decimalBalances = new BigDecimal[SAMPLES];
+    private final BigDecimal[] decimalAmounts = new BigDecimal[SAMPLES];
+    private final Money[] balances = new Money[SAMPLES];
+    private final Money[] amounts = new Money[SAMPLES];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            long balanceMinor = random.nextLong(1_000_000L, 2_000_000_000L);
+            long amountMinor = random.nextLong(5_000_000L, 1_100_000_000L);
+            decimalBalances[i] = BigDecimal.valueOf(balanceMinor, Money.SCALE);
+            decimalAmounts[i] = BigDecimal.valueOf(amountMinor, Money.SCALE);
+            balances[i] = new Money(balanceMinor);
+            amounts[i] = new Money(amountMinor);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalWithdraw() {
+        int i = cursor++ & (SAMPLES - 1);
+        BigDecimal balance = decimalBalances[i];
+        BigDecimal amount = decimalAmounts[i];
+        if (amount.compareTo(DECIMAL_MIN_AMOUNT) < 0 || amount.compareTo(DECIMAL_MAX_AMOUNT) > 0) {
+            return balance;
+        }
+        BigDecimal next = balance.subtract(amount);
+        return next.compareTo(DECIMAL_MINIMUM_BALANCE) < 0 ? balance : next;
+    }
+
+    @Benchmark
+    public Money moneyWithdraw() {
+        int i = cursor++ & (SAMPLES - 1);
+        Money balance = balances[i];
+        Money amount = amounts[i];
+        if (amount.isLessThan(MIN_AMOUNT) || amount.isGreaterThan(MAX_AMOUNT)) {
+            return balance;
+        }
+        Money next = balance.minus(amount);
+        return next.isLessThan(MINIMUM_BALANCE) ? balance : next;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalDeposit() {
+        int i = cursor++ & (SAMPLES - 1);
+        return decimalBalances[i].add(decimalAmounts[i]);
+    }
+
+    @Benchmark
+    public Money moneyDeposit() {
+        int i = cursor++ & (SAMPLES - 1);
+        return balances[i].plus(amounts[i]);
+    }
+
+    @Test
+    void compareMoneyWithBigDecimal() throws RunnerException {
+        assertFalse(JmhBenchmarks.run(MoneyArithmeticBenchmark.class).isEmpty());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.benchmark;
+
+import com.example.model.dto.PostingProgress;
+import com.example.repository.PostingCheckpointRepo;
+import com.example.repository.PostingRunRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.ledger.LedgerRowWriter;
+import com.example.service.posting.InterestPostingRule;
+import com.example.service.posting.PostingJob;
+import com.example.service.posting.PostingThrottle;
+import com.example.service.posting.PostingWriter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Seeds wallets and posts interest to all of them: once to warm up, once per worker count, and once throttled below
+ * the unthrottled rate. Reports wallets per second, the time 10 million wallets would take at that rate, and the
+ * latency of a balance read issued in a loop alongside each run (the online traffic the throttle protects). The
+ * database is an H2 file under target/.
+ * Run with {@code mvn test -Pbenchmark}; size it with {@code -Dbench.wallets}, {@code -Dbench.parallelism=1,2,4}
+ * and {@code -Dbench.throttle} (wallets per second for the throttled run).
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/posting-benchmark",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PostingBenchmark {
+
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 200_000);
+    private static final int CHUNK_SIZE = Integer.getInteger("bench.chunkSize", 1_000);
+    private static final int[] PARALLELISM = Arrays.stream(System.getProperty("bench.parallelism", "1,2,4").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int THROTTLED_PARALLELISM = 2;
+    private static final long THROTTLE = Long.getLong("bench.throttle", 2_500);
+    private static final int SEED_CHUNK = 100_000;
+    private static final long TEN_MILLION = 10_000_000L;
+    private static final long FIRST_ID = 100_000_001L;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private PostingRunRepo runRepo;
+
+    @Autowired
+    private PostingCheckpointRepo checkpointRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void interestRun() throws Exception {
+        long seedBegin = System.nanoTime();
+        seed();
+        System.out.printf("seeded %,d wallets in %.1f s%n", WALLETS, (System.nanoTime() - seedBegin) / 1e9);
+
+        long[] idle = probe(Duration.ofSeconds(2));
+        System.out.printf("no posting run:     balance read p50=%6.2f ms  p99=%6.2f ms%n", percentile(idle, 50), percentile(idle, 99));
+
+        // Warms up the JIT so the first measured worker count is not penalized
+        int run = 0;
+        post("interest-" + ++run, THROTTLED_PARALLELISM, PostingThrottle.unlimited(), "warm-up");
+        for (int parallelism : PARALLELISM) {
+            post("interest-" + ++run, parallelism, PostingThrottle.unlimited(), "none");
+        }
+        post("interest-" + ++run, THROTTLED_PARALLELISM,
+                new PostingThrottle(THROTTLE, Duration.ZERO, () -> false, System::nanoTime), THROTTLE + "/s");
+    }
+
+    private void post(String runKey, int parallelism, PostingThrottle throttle, String throttleLabel) throws Exception {
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        PostingWriter writer = new PostingWriter(walletRepo, checkpointRepo,
+                new LedgerRowWriter(jdbcTemplate, entityManager), transactions, eventPublisher);
+        PostingJob job = new PostingJob(walletRepo, runRepo, checkpointRepo, writer, throttle, transactions,
+                List.of(new InterestPostingRule(100)), parallelism, CHUNK_SIZE);
+        job.start();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[][] latencies = new long[1][];
+        Thread prober = new Thread(() -> latencies[0] = probeWhile(running));
+        prober.start();
+        long begin = System.nanoTime();
+        PostingProgress progress = job.runNow("interest", runKey);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        running.set(false);
+        prober.join();
+        job.stop();
+
+        System.out.printf("parallelism=%d  throttle=%-9s wallets=%,d  seconds=%6.1f  wallets/s=%,8.0f  10M wallets=%5.1f min  " +
+                        "balance read p50=%6.2f ms  p99=%6.2f ms  throttled=%5.1f s%n",
+                parallelism, throttleLabel, progress.walletsPosted(), seconds,
+                progress.walletsPosted() / seconds, TEN_MILLION / (progress.walletsPosted() / seconds) / 60,
+                percentile(latencies[0], 50), percentile(latencies[0], 99), throttle.throttledNanos() / 1e9);
+        assertEquals(PostingProgress.State.COMPLETED, progress.state());
+        assertEquals(WALLETS, progress.walletsPosted());
+    }
+
+    private long[] probe(Duration duration) {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread timer = new Thread(() -> {
+            try {
+                Thread.sleep(duration.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.set(false);
+        });
+        timer.start();
+        return probeWhile(running);
+    }
+
+    // Reads random balances back to back, one connection checkout each as a request would
+    private long[] probeWhile(AtomicBoolean running) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (running.get()) {
+            long id = FIRST_ID + ThreadLocalRandom.current().nextInt(WALLETS);
+            long begin = System.nanoTime();
+            walletRepo.findBalanceById(id);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - begin;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1e6;
+    }
+
+    // Bulk-loads rows in SQL; ids are offset so they never meet ones handed out by the sequences
+    private void seed() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement users = connection.prepareStatement(
+                     "INSERT INTO users (id, date_of_birth, email, full_name, gender, password, phone_number, user_status_for_man) " +
+                             "SELECT 100000000 + X, DATE '1990-01-01', 'posting' || X || '@example.com', 'Posting ' || X, " +
+                             "'Female', 'password', '0913' || X, 'yes' FROM SYSTEM_RANGE(?, ?)");
+             PreparedStatement wallets = connection.prepareStatement(
+                     "INSERT INTO wallets (id, account_number, balance, creation_date, owner, shaba_number, user_id, version) " +
+                             "SELECT 100000000 + X, LPAD(X, 10, '0'), 310000, CURRENT_TIMESTAMP, 'Posting ' || X, " +
+                             "'I' || LPAD(X, 22, '0'), 100000000 + X, 0 FROM SYSTEM_RANGE(?, ?)")) {
+            for (PreparedStatement insert : new PreparedStatement[]{users, wallets}) {
+                for (int from = 1; from <= WALLETS; from += SEED_CHUNK) {
+                    insert.setLong(1, from);
+                    insert.setLong(2, Math.min(WALLETS, from + SEED_CHUNK - 1L));
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the read paths behind GET balance, GET wallet details and GET user as they were (load the
+ * entity with findById) and as they are now (a projection query in a read-only transaction). Reports SQL
+ * statements, bytes allocated on the calling thread and latency per read, and the size of the JSON each
+ * response body serializes to. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-projection;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadProjectionBenchmark {
+
+    private static final int USERS = Integer.getInteger("bench.users", 1000);
+    private static final int READS = Integer.getInteger("bench.reads", 50_000);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void entityVersusProjection() {
+        List<Wallet> wallets = createUsersWithWallets();
+        List<Long> walletIds = wallets.stream().map(Wallet::getId).toList();
+        List<Long> userIds = wallets.stream().map(wallet -> wallet.getUser().getId()).toList();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        report("balance  ENTITY    ", walletIds, id -> walletRepo.findById(id).map(Wallet::getBalance).orElseThrow());
+        report("balance  PROJECTION", walletIds, id -> readOnly.execute(status -> walletRepo.findBalanceById(id).orElseThrow()));
+        report("wallet   ENTITY    ", walletIds, id -> walletRepo.findById(id).orElseThrow());
+        report("wallet   PROJECTION", walletIds, id -> readOnly.execute(status -> walletRepo.findDetailsById(id).orElseThrow()));
+        report("user     ENTITY    ", userIds, id -> userRepo.findById(id).orElseThrow());
+        report("user     PROJECTION", userIds, id -> readOnly.execute(status -> userRepo.findProfileById(id).orElseThrow()));
+    }
+
+    private void report(String label, List<Long> ids, Function<Long, Object> read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < Math.min(READS, 5_000); i++) {
+            assertNotNull(read.apply(ids.get(i % ids.size())));
+        }
+        statistics.clear();
+
+        long[] latencies = new long[READS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < READS; i++) {
+            Long id = ids.get(random.nextInt(ids.size()));
+            long begin = System.nanoTime();
+            read.apply(id);
+            latencies[i] = System.nanoTime() - begin;
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Arrays.sort(latencies);
+        System.out.printf("%s statements/read=%.2f  bytes/read=%,8d  p50=%6.3f ms  p99=%6.3f ms  json=%s%n",
+                label, (double) statistics.getPrepareStatementCount() / READS, allocated / READS,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99), jsonSize(read.apply(ids.get(0))));
+    }
+
+    // Reports why instead of a size when the body cannot be serialized
+    private String jsonSize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body).length + " bytes";
+        } catch (JsonProcessingException | StackOverflowError e) {
+            return "fails (" + e.getClass().getSimpleName() + ")";
+        }
+    }
+
+    private List<Wallet> createUsersWithWallets() {
+        List<Wallet> wallets = new ArrayList<>();
+        for (int n = 0; n < USERS; n++) {
+            User user = new User("Reader " + n, LocalDate.of(1990, 1, 1), "0915" + String.format("%06d", n),
+                    "reader" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+            userRepo.save(user);
+            Wallet wallet = new Wallet(user, String.format("5%09d", n), String.format("I5%021d", n));
+            wallet.setOwner(user.getFullName());
+            wallets.add(walletRepo.save(wallet));
+        }
+        return wallets;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.benchmark;
+
+import com.example.model.dto.ReconciliationProgress;
+import com.example.repository.ReconciliationMismatchRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.reconciliation.ReconciliationJob;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds wallets with one deposit each, tampers with every {@code TAMPER_EVERY}th balance, and times a full
+ * reconciliation pass per worker count. Reports wallets per second, the time a 10-million-wallet pass would
+ * take at that rate, and the most connections the pass held at once. The database is an H2 file under
+ * target/ so a large seed stays off the heap. Run with {@code mvn test -Pbenchmark}; size it with
+ * {@code -Dbench.wallets} and {@code -Dbench.parallelism=1,2,4}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/reconciliation-benchmark",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReconciliationBenchmark {
+
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 1_000_000);
+    private static final int CHUNK_SIZE = Integer.getInteger("bench.chunkSize", 10_000);
+    private static final int[] PARALLELISM = Arrays.stream(System.getProperty("bench.parallelism", "1,2,4").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int TAMPER_EVERY = 1000;
+    private static final int SEED_CHUNK = 100_000;
+    private static final long TEN_MILLION = 10_000_000L;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private ReconciliationMismatchRepo mismatchRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void fullPass() throws Exception {
+        long seedBegin = System.nanoTime();
+        seed();
+        System.out.printf("seeded %,d wallets and %,d transactions in %.1f s%n",
+                WALLETS, WALLETS, (System.nanoTime() - seedBegin) / 1e9);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        for (int parallelism : PARALLELISM) {
+            ReconciliationJob job = new ReconciliationJob(walletRepo, mismatchRepo, readOnly,
+                    new TransactionTemplate(transactionManager), parallelism, CHUNK_SIZE);
+            job.start();
+            AtomicInteger peakConnections = new AtomicInteger();
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> peakConnections.accumulateAndGet(
+                    ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections(), Math::max),
+                    0, 1, TimeUnit.MILLISECONDS);
+
+            long begin = System.nanoTime();
+            ReconciliationProgress progress = job.runNow();
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            sampler.shutdownNow();
+            job.stop();
+
+            System.out.printf("parallelism=%d  wallets=%,d  chunks=%,d  mismatches=%,d  seconds=%6.1f  wallets/s=%,9.0f  " +
+                            "10M wallets=%5.1f min  peak connections=%d%n",
+                    parallelism, progress.walletsChecked(), progress.chunksTotal(), progress.mismatches(), seconds,
+                    progress.walletsChecked() / seconds, TEN_MILLION / (progress.walletsChecked() / seconds) / 60,
+                    peakConnections.get());
+            assertEquals(ReconciliationProgress.State.COMPLETED, progress.state());
+            assertEquals(WALLETS, progress.walletsChecked());
+            assertEquals(WALLETS / TAMPER_EVERY, progress.mismatches());
+            assertTrue(peakConnections.get() <= parallelism);
+        }
+    }
+
+    // Bulk-loads rows in SQL; ids are offset so they never meet ones handed out by the sequences
+    private void seed() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement users = connection.prepareStatement(
+                     "INSERT INTO users (id, date_of_birth, email, full_name, gender, password, phone_number, user_status_for_man) " +
+                             "SELECT 100000000 + X, DATE '1990-01-01', 'ledger' || X || '@example.com', 'Ledger ' || X, " +
+                             "'Female', 'password', '0912' || X, 'yes' FROM SYSTEM_RANGE(?, ?)");
+             PreparedStatement wallets = connection.prepareStatement(
+                     "INSERT INTO wallets (id, account_number, balance, creation_date, owner, shaba_number, user_id, version) " +
+                             "SELECT 100000000 + X, LPAD(X, 10, '0'), " +
+                             "CASE WHEN MOD(X, " + TAMPER_EVERY + ") = 0 THEN 310001 ELSE 310000 END, " +
+                             "CURRENT_TIMESTAMP, 'Ledger ' || X, 'IR' || LPAD(X, 22, '0'), 100000000 + X, 0 FROM SYSTEM_RANGE(?, ?)");
+             PreparedStatement transactions = connection.prepareStatement(
+                     "INSERT INTO transaction_wallet (id, amount, transaction_date, type, wallet_id) " +
+                             "SELECT 100000000 + X, 300000, CURRENT_TIMESTAMP, 0, 100000000 + X FROM SYSTEM_RANGE(?, ?)")) {
+            for (PreparedStatement insert : new PreparedStatement[]{users, wallets, transactions}) {
+                for (int from = 1; from <= WALLETS; from += SEED_CHUNK) {
+                    insert.setLong(1, from);
+                    insert.setLong(2, Math.min(WALLETS, from + SEED_CHUNK - 1L));
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+}
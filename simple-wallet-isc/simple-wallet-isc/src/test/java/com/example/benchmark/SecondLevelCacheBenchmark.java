@@ -0,0 +1,151 @@
+package com.example.benchmark;
+
+import com.example.config.SecondLevelCacheConfig;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.UserService;
+import com.example.service.search.UserSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Repeats the read-mostly profile lookups ({@code UserService.findUserById} and
+ * {@code WalletRepo.findByUserId}) over a fixed set of users, without and with the Hibernate
+ * second-level and query cache, and reports latency and SQL statements per call once warm.
+ * With the cache on every user, wallet and finder result must come from the cache, so no
+ * statement reaches H2. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SecondLevelCacheBenchmark {
+
+    private static final int USERS = Integer.getInteger("bench.users", 1000);
+    private static final int CALLS = Integer.getInteger("bench.calls", 200_000);
+
+    @Nested
+    @DataJpaTest(showSql = false, properties = {
+            "spring.datasource.url=jdbc:h2:mem:l2-off;DB_CLOSE_DELAY=-1",
+            "spring.jpa.properties.hibernate.generate_statistics=true",
+            "logging.level.com.example=WARN",
+            "wallet.l2-cache.enabled=false"})
+    @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Import({UserService.class, UserSearchIndex.class, SecondLevelCacheConfig.class})
+    class Uncached extends ProfileReads {
+
+        @Test
+        void repeatedProfileReads() {
+            run("UNCACHED");
+        }
+    }
+
+    @Nested
+    @DataJpaTest(showSql = false, properties = {
+            "spring.datasource.url=jdbc:h2:mem:l2-on;DB_CLOSE_DELAY=-1",
+            "logging.level.com.example=WARN",
+            "wallet.l2-cache.enabled=true"})
+    @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Import({UserService.class, UserSearchIndex.class, SecondLevelCacheConfig.class})
+    class Cached extends ProfileReads {
+
+        @Test
+        void repeatedProfileReads() {
+            Statistics statistics = run("CACHED  ");
+            assertEquals(0, statistics.getSecondLevelCacheMissCount());
+            assertEquals(CALLS, statistics.getQueryCacheHitCount());
+        }
+    }
+
+    abstract static class ProfileReads {
+
+        @Autowired
+        private UserRepo userRepo;
+
+        @Autowired
+        private WalletRepo walletRepo;
+
+        @Autowired
+        private UserService userService;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        Statistics run(String label) {
+            List<Long> userIds = createUsers();
+            // Each user went into the cache on insert, before its wallet existed; Hibernate cannot trust that entry's
+            // empty User.wallet and looks the wallet up on every hit. Start from entries put by reads instead
+            entityManagerFactory.getCache().evictAll();
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            // Warm-up: every user and wallet is read once
+            for (Long userId : userIds) {
+                read(userId);
+            }
+            statistics.clear();
+
+            long[] latencies = new long[CALLS];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long began = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                Long userId = userIds.get(random.nextInt(userIds.size()));
+                long begin = System.nanoTime();
+                read(userId);
+                latencies[i] = System.nanoTime() - begin;
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("%s users=%d  ops/s=%9.0f  p50=%7.3f ms  p99=%7.3f ms  statements/call=%.2f  l2 hits=%d  query cache hits=%d%n",
+                    label, USERS, CALLS / seconds, percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                    (double) statistics.getPrepareStatementCount() / CALLS,
+                    statistics.getSecondLevelCacheHitCount(), statistics.getQueryCacheHitCount());
+            return statistics;
+        }
+
+        private void read(Long userId) {
+            User user = userService.findUserById(userId);
+            Wallet wallet = walletRepo.findByUserId(user.getId());
+            assertEquals(userId, wallet.getUser().getId());
+        }
+
+        private List<Long> createUsers() {
+            List<Long> ids = new ArrayList<>();
+            for (int n = 0; n < USERS; n++) {
+                User user = new User("Profile User " + n, LocalDate.of(1990, 1, 1), "0914" + String.format("%06d", n),
+                        "profile" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+                userRepo.save(user);
+                Wallet wallet = new Wallet(user, String.format("4%09d", n), String.format("I4%021d", n));
+                wallet.setOwner(user.getFullName());
+                walletRepo.save(wallet);
+                ids.add(user.getId());
+            }
+            return ids;
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.benchmark;
+
+import com.example.config.JacksonConfig;
+import com.example.model.TransactionWallet;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.repository.TransactionWalletRepo;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.TransactionExportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exports the whole transaction table at two sizes, once through {@link TransactionExportService}
+ * and once by loading every entity first, and reports the heap still reachable halfway through the
+ * export (measured after a full GC). The streamed export should stay flat as the table grows.
+ * Run with {@code mvn test -Pbenchmark}; tune sizes with {@code -Dbench.smallRows} and {@code -Dbench.largeRows}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionExportService.class, JacksonConfig.class})
+class TransactionExportBenchmark {
+
+    private static final int SMALL_ROWS = Integer.getInteger("bench.smallRows", 10_000);
+    private static final int LARGE_ROWS = Integer.getInteger("bench.largeRows", 500_000);
+    private static final LocalDateTime FROM = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletRepo transactionWalletRepo;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void streamedVersusMaterialized() throws Exception {
+        Long walletId = createWallet();
+
+        insertTransactions(walletId, 0, SMALL_ROWS);
+        measure(SMALL_ROWS);
+        insertTransactions(walletId, SMALL_ROWS, LARGE_ROWS - SMALL_ROWS);
+        measure(LARGE_ROWS);
+    }
+
+    private void measure(int rows) throws Exception {
+        long baseline = heapAfterGc();
+
+        MidpointWriter streamed = new MidpointWriter(rows);
+        long began = System.nanoTime();
+        long exported = transactionExportService.export(FROM, TO, null, TransactionExportService.Format.CSV, () -> streamed);
+        double streamedSeconds = (System.nanoTime() - began) / 1e9;
+        assertEquals(rows, exported);
+
+        MidpointWriter materialized = new MidpointWriter(rows);
+        began = System.nanoTime();
+        List<TransactionWallet> all = transactionWalletRepo.findAll();
+        for (TransactionWallet transaction : all) {
+            materialized.write(transaction.getId() + "," + transaction.getWallet().getId() + "," + transaction.getType()
+                    + "," + transaction.getAmount().toBigDecimal().toPlainString() + "," + transaction.getTransactionDate() + "\n");
+        }
+        double materializedSeconds = (System.nanoTime() - began) / 1e9;
+        assertEquals(rows, all.size());
+
+        System.out.printf("EXPORT rows=%,9d  streamed: retained=%7.1f MB %,9.0f rows/s   materialized: retained=%7.1f MB %,9.0f rows/s%n",
+                rows, (streamed.heapAtMidpoint - baseline) / 1e6, rows / streamedSeconds,
+                (materialized.heapAtMidpoint - baseline) / 1e6, rows / materializedSeconds);
+    }
+
+    private Long createWallet() {
+        User user = new User("Export Wallet", LocalDate.of(1990, 1, 1), "09160000000",
+                "export@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+        userRepo.save(user);
+        Wallet wallet = new Wallet(user, "8000000000", "I8000000000000000000000");
+        wallet.setOwner(user.getFullName());
+        return walletRepo.save(wallet).getId();
+    }
+
+    // Bulk-loads rows in SQL; ids are offset so they never meet ones handed out by the sequence
+    private void insertTransactions(Long walletId, int offset, int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO transaction_wallet (id, amount, transaction_date, wallet_id, type) " +
+                             "SELECT 100000000 + X, 150000.00, DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), ?, MOD(X, 2) " +
+                             "FROM SYSTEM_RANGE(?, ?)")) {
+            insert.setLong(1, walletId);
+            insert.setLong(2, offset + 1L);
+            insert.setLong(3, (long) offset + count);
+            insert.executeUpdate();
+        }
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Discards the export, but measures reachable heap when half of the expected lines have gone by
+    private static final class MidpointWriter extends Writer {
+        private final long midpoint;
+        private long lines;
+        private long heapAtMidpoint;
+
+        MidpointWriter(int expectedLines) {
+            this.midpoint = expectedLines / 2;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n' && ++lines == midpoint) {
+                    heapAtMidpoint = heapAfterGc();
+                }
+            }
+        }
+
+        @Override
+        public void write(String text) {
+            write(text.toCharArray(), 0, text.length());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.benchmark;
+
+import com.example.config.BalanceConcurrencyConfig;
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.model.money.Money;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import com.example.service.TransactionWalletService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fires random transfers, in both directions, between a handful of wallets from many threads.
+ * Ordered locking means no transfer may fail with a deadlock, and money is only ever moved,
+ * never created or lost. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:transfers;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionWalletService.class, BalanceConcurrencyConfig.class})
+class TransferContentionBenchmark {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 16);
+    private static final int OPS_PER_THREAD = Integer.getInteger("bench.opsPerThread", 500);
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 4);
+    private static final Money AMOUNT = Money.of(100000);
+    private static final Money OPENING_BALANCE = Money.of(1_000_000_000L);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionWalletService transactionWalletService;
+
+    @Test
+    void overlappingTransfers() throws InterruptedException {
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds.add(createWallet(i));
+        }
+
+        long[] latencies = new long[THREADS * OPS_PER_THREAD];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                awaitQuietly(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    int from = random.nextInt(WALLETS);
+                    int to = (from + 1 + random.nextInt(WALLETS - 1)) % WALLETS;
+                    long begin = System.nanoTime();
+                    try {
+                        transactionWalletService.transfer(walletIds.get(from), walletIds.get(to), AMOUNT);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[thread * OPS_PER_THREAD + i] = System.nanoTime() - begin;
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("TRANSFER wallets=%d threads=%d ops=%d  throughput=%8.0f ops/s  p50=%7.2f ms  p99=%7.2f ms  failed=%d%n",
+                WALLETS, THREADS, latencies.length, (latencies.length - failures.get()) / seconds,
+                latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99) - 1] / 1e6,
+                failures.get());
+
+        assertEquals(0, failures.get(), "no transfer may deadlock or time out");
+        Money total = walletIds.stream()
+                .map(id -> walletRepo.findById(id).orElseThrow().getBalance())
+                .reduce(Money.ZERO, Money::plus);
+        assertEquals(0, OPENING_BALANCE.times(WALLETS).compareTo(total));
+    }
+
+    private Long createWallet(int n) {
+        User user = new User("Transfer Wallet " + n, LocalDate.of(1990, 1, 1), "0913000000" + n,
+                "transfer" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+        userRepo.save(user);
+        Wallet wallet = new Wallet(user, "200000000" + n, "I200000000000000000000" + n);
+        wallet.setOwner(user.getFullName());
+        wallet.setBalance(OPENING_BALANCE);
+        return walletRepo.save(wallet).getId();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.benchmark;
+
+import com.example.repository.UserRepo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds a large users table and times the lookups behind login ({@code findByEmail}) and user search
+ * ({@code findByfullName}), first with the indexes declared on {@link com.example.model.User} and then
+ * after dropping them. Run with {@code mvn test -Pbenchmark}; size it with {@code -Dbench.users}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-index;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserIndexBenchmark {
+
+    private static final int USERS = Integer.getInteger("bench.users", 1_000_000);
+    private static final int INDEXED_LOOKUPS = Integer.getInteger("bench.indexedLookups", 20_000);
+    private static final int UNINDEXED_LOOKUPS = Integer.getInteger("bench.unindexedLookups", 100);
+    private static final int SEED_CHUNK = 100_000;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void withAndWithoutIndexes() throws SQLException {
+        seedUsers();
+
+        measure("INDEXED  ", INDEXED_LOOKUPS);
+        execute("ALTER TABLE users DROP CONSTRAINT uk_users_email", "DROP INDEX idx_users_full_name");
+        measure("UNINDEXED", UNINDEXED_LOOKUPS);
+    }
+
+    private void measure(String label, int lookups) {
+        report(label, "login  (findByEmail)   ", lookups,
+                n -> assertTrue(userRepo.findByEmail("user" + n + "@example.com").isPresent()));
+        report(label, "search (findByfullName)", lookups,
+                n -> assertTrue(userRepo.findByfullName("User " + n).isPresent()));
+    }
+
+    private static void report(String label, String lookup, int lookups, IntConsumer query) {
+        // Warm-up
+        for (int i = 0; i < Math.min(lookups, 50); i++) {
+            query.accept(ThreadLocalRandom.current().nextInt(1, USERS + 1));
+        }
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            int n = ThreadLocalRandom.current().nextInt(1, USERS + 1);
+            long begin = System.nanoTime();
+            query.accept(n);
+            latencies[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s %s users=%,d  lookups=%,d  p50=%9.3f ms  p99=%9.3f ms%n",
+                label, lookup, USERS, lookups, percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+    }
+
+    // Bulk-loads rows in SQL; ids are offset so they never meet ones handed out by the sequence
+    private void seedUsers() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO users (id, date_of_birth, email, full_name, gender, password, phone_number, user_status_for_man) " +
+                             "SELECT 100000000 + X, DATE '1990-01-01', 'user' || X || '@example.com', 'User ' || X, " +
+                             "'Female', 'password', '0912' || X, 'yes' FROM SYSTEM_RANGE(?, ?)")) {
+            for (int from = 1; from <= USERS; from += SEED_CHUNK) {
+                insert.setLong(1, from);
+                insert.setLong(2, Math.min(USERS, from + SEED_CHUNK - 1L));
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
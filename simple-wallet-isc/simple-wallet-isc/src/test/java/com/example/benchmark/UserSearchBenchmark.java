@@ -0,0 +1,166 @@
+package com.example.benchmark;
+
+import com.example.model.dto.UserSearchPage;
+import com.example.service.search.UserSearchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Seeds a large users table with generated names, builds the search index through
+ * {@link UserSearchIndex#backfill()} and times first pages of typical support-desk queries, a
+ * page reached through five cursors, and, for comparison, an unindexed {@code LIKE '%...%'} scan.
+ * Run with {@code mvn test -Pbenchmark}; size it with {@code -Dbench.users}.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-search;DB_CLOSE_DELAY=-1",
+        "logging.level.com.example=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(UserSearchIndex.class)
+class UserSearchBenchmark {
+
+    private static final int USERS = Integer.getInteger("bench.users", 1_000_000);
+    private static final int QUERIES = Integer.getInteger("bench.queries", 2_000);
+    private static final int SCAN_QUERIES = Integer.getInteger("bench.scanQueries", 20);
+    private static final int PAGE_SIZE = 20;
+    private static final int SEED_BATCH = 10_000;
+
+    private static final String[] FIRST_NAMES = {
+            "Ali", "Mohammad", "Reza", "Hossein", "Mehdi", "Amir", "Hamed", "Saeed", "Omid", "Arash",
+            "Fatemeh", "Zahra", "Maryam", "Sara", "Narges", "Leila", "Mina", "Elham", "Parisa", "Neda",
+            "John", "James", "Robert", "Michael", "David", "Anna", "Maria", "Laura", "Emma", "Sophie"};
+    private static final String[] SYLLABLES = {
+            "ka", "ri", "mo", "ha", "se", "ni", "za", "de", "ba", "ra",
+            "to", "la", "me", "sa", "no", "fa", "gh", "ja", "pe", "vi"};
+
+    // Names as seeded, so every drawn query has matches
+    private final String[] names = new String[USERS];
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void search() {
+        seedUsers();
+        long begin = System.nanoTime();
+        userSearchIndex.backfill();
+        System.out.printf("Indexed %,d users in %.1f s%n", USERS, (System.nanoTime() - begin) / 1e9);
+
+        report("first name, 1 letter  ", QUERIES, () -> word(0).substring(0, 1));
+        report("last name, 3 letters  ", QUERIES, () -> word(1).substring(0, 3));
+        report("first + last prefixes ", QUERIES, () -> {
+            String[] name = name();
+            return name[0].substring(0, 3) + " " + name[1].substring(0, 4);
+        });
+        report("full last + first     ", QUERIES, () -> {
+            String[] name = name();
+            return name[1] + " " + name[0];
+        });
+        report("6th page, 1 letter    ", QUERIES / 5, () -> {
+            String query = word(0).substring(0, 1);
+            UserSearchPage page = userSearchIndex.search(query, null, PAGE_SIZE);
+            for (int i = 0; i < 5; i++) {
+                page = userSearchIndex.search(query, page.nextCursor(), PAGE_SIZE);
+            }
+            return null;
+        });
+        scan();
+    }
+
+    // Times query() end to end; a null query means the supplier already did the searching
+    private void report(String label, int queries, Supplier<String> query) {
+        for (int i = 0; i < Math.min(queries, 100); i++) {
+            run(query);
+        }
+        long[] latencies = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            run(query);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("INDEX %s users=%,d  queries=%,d  p50=%8.3f ms  p99=%8.3f ms%n",
+                label, USERS, queries, percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+    }
+
+    private void run(Supplier<String> query) {
+        String q = query.get();
+        if (q != null) {
+            assertFalse(userSearchIndex.search(q, null, PAGE_SIZE).items().isEmpty(), q);
+        }
+    }
+
+    // What a search on the users table costs without the token index
+    private void scan() {
+        long[] latencies = new long[SCAN_QUERIES];
+        for (int i = 0; i < SCAN_QUERIES; i++) {
+            String pattern = "%" + word(1).substring(0, 3).toLowerCase() + "%";
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList("SELECT id, full_name, email FROM users WHERE LOWER(full_name) LIKE ? " +
+                    "ORDER BY full_name, id LIMIT ?", pattern, PAGE_SIZE + 1);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("SCAN  last name, 3 letters   users=%,d  queries=%,d  p50=%8.3f ms  p99=%8.3f ms%n",
+                USERS, SCAN_QUERIES, percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+    }
+
+    // Ids are offset so they never meet ones handed out by the sequence
+    private void seedUsers() {
+        Random random = new Random(42);
+        Date dateOfBirth = Date.valueOf(LocalDate.of(1990, 1, 1));
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (int n = 1; n <= USERS; n++) {
+            String fullName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + lastName(random);
+            names[n - 1] = fullName;
+            batch.add(new Object[]{100_000_000L + n, dateOfBirth, "user" + n + "@example.com", fullName, "0912" + n});
+            if (batch.size() == SEED_BATCH || n == USERS) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (id, date_of_birth, email, full_name, gender, password, " +
+                        "phone_number, user_status_for_man) VALUES (?, ?, ?, ?, 'Female', 'password', ?, 'yes')", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private String[] name() {
+        return names[ThreadLocalRandom.current().nextInt(USERS)].split(" ");
+    }
+
+    private String word(int index) {
+        return name()[index];
+    }
+
+    // 8,000 distinct surnames of three syllables
+    private static String lastName(Random random) {
+        String name = SYLLABLES[random.nextInt(SYLLABLES.length)]
+                + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                + SYLLABLES[random.nextInt(SYLLABLES.length)] + "i";
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
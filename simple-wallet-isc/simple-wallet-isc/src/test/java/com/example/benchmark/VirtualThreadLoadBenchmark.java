@@ -0,0 +1,212 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.model.Wallet;
+import com.example.model.domain.UserGender;
+import com.example.model.domain.UserStatusForMan;
+import com.example.repository.UserRepo;
+import com.example.repository.WalletRepo;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Drives the running application over HTTP with many concurrent clients, half reading
+ * {@code GET /api/wallets/{id}/balance} and half posting {@code /api/transactions/{id}/deposit},
+ * against H2 served over TCP like the production setup. The platform-thread run is the baseline;
+ * the virtual-thread run uses the {@code virtual-threads} profile and is skipped below Java 21.
+ * Run with {@code mvn test -Pbenchmark} (add {@code -Pvirtual-threads} for the Java 21 toolchain),
+ * tuning {@code -Dbench.clients} and {@code -Dbench.requestsPerClient}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 400);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("bench.requestsPerClient", 50);
+    private static final int WALLETS = Integer.getInteger("bench.wallets", 100);
+
+    static final String PROPERTIES = "spring.autoconfigure.exclude="
+            + "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration,"
+            + "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration";
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            PROPERTIES, "wallet.auth.token.enabled=false", "spring.jpa.show-sql=false", "logging.level.com.example=WARN"})
+    class PlatformThreads extends LoadRun {
+
+        @Test
+        void walletAndTransactionEndpoints() throws InterruptedException {
+            run("PLATFORM");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            PROPERTIES, "wallet.auth.token.enabled=false", "spring.jpa.show-sql=false", "logging.level.com.example=WARN"})
+    @ActiveProfiles("virtual-threads")
+    class VirtualThreads extends LoadRun {
+
+        @Test
+        void walletAndTransactionEndpoints() throws InterruptedException {
+            assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+            run("VIRTUAL ");
+        }
+    }
+
+    abstract static class LoadRun {
+
+        private static final Server DATABASE = startDatabase();
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private UserRepo userRepo;
+
+        @Autowired
+        private WalletRepo walletRepo;
+
+        @DynamicPropertySource
+        static void database(DynamicPropertyRegistry registry) {
+            registry.add("spring.datasource.url",
+                    () -> "jdbc:h2:tcp://localhost:" + DATABASE.getPort() + "/mem:load;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        }
+
+        void run(String label) throws InterruptedException {
+            List<Long> walletIds = createWallets(label.trim());
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newFixedThreadPool(4))
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            // Warm-up
+            load(client, walletIds, 16, 50);
+
+            Result result = load(client, walletIds, CLIENTS, REQUESTS_PER_CLIENT);
+            report(label, "balance", result.balanceLatencies, result.elapsedNanos);
+            report(label, "deposit", result.depositLatencies, result.elapsedNanos);
+            System.out.printf("%s total    clients=%d  throughput=%7.0f req/s  errors=%d%n", label, CLIENTS,
+                    (result.balanceLatencies.length + result.depositLatencies.length) / (result.elapsedNanos / 1e9),
+                    result.errors);
+        }
+
+        private Result load(HttpClient client, List<Long> walletIds, int clients, int requestsPerClient)
+                throws InterruptedException {
+            int perEndpoint = requestsPerClient / 2;
+            long[] balanceLatencies = new long[clients * perEndpoint];
+            long[] depositLatencies = new long[clients * perEndpoint];
+            AtomicInteger errors = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            for (int c = 0; c < clients; c++) {
+                int caller = c;
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perEndpoint; i++) {
+                        Long walletId = walletIds.get((caller * perEndpoint + i) % walletIds.size());
+                        int slot = caller * perEndpoint + i;
+                        balanceLatencies[slot] = send(client, HttpRequest.newBuilder(uri("/api/wallets/" + walletId + "/balance"))
+                                .GET().build(), errors);
+                        depositLatencies[slot] = send(client, HttpRequest.newBuilder(uri("/api/transactions/" + walletId + "/deposit"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("150000")).build(), errors);
+                    }
+                });
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            pool.shutdown();
+            pool.awaitTermination(30, TimeUnit.MINUTES);
+            return new Result(balanceLatencies, depositLatencies, System.nanoTime() - began, errors.get());
+        }
+
+        private static long send(HttpClient client, HttpRequest request, AtomicInteger errors) {
+            long begin = System.nanoTime();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status >= 300) {
+                    errors.incrementAndGet();
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return System.nanoTime() - begin;
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+
+        private List<Long> createWallets(String prefix) {
+            List<Long> ids = new ArrayList<>();
+            int offset = prefix.startsWith("V") ? WALLETS : 0;
+            for (int n = offset; n < offset + WALLETS; n++) {
+                User user = new User("Load Wallet " + n, LocalDate.of(1990, 1, 1), "0918" + String.format("%06d", n),
+                        "load" + n + "@example.com", "password", UserStatusForMan.yes, UserGender.Female);
+                userRepo.save(user);
+                Wallet wallet = new Wallet(user, String.format("6%09d", n), String.format("I6%021d", n));
+                wallet.setOwner(user.getFullName());
+                ids.add(walletRepo.save(wallet).getId());
+            }
+            return ids;
+        }
+
+        private static void report(String label, String endpoint, long[] latencies, long elapsedNanos) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%s %-8s clients=%d  throughput=%7.0f req/s  p50=%7.2f ms  p99=%7.2f ms%n",
+                    label, endpoint, CLIENTS, sorted.length / (elapsedNanos / 1e9),
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99));
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+        }
+
+        private static Server startDatabase() {
+            try {
+                return Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private record Result(long[] balanceLatencies, long[] depositLatencies, long elapsedNanos, int errors) {
+        }
+    }
+}
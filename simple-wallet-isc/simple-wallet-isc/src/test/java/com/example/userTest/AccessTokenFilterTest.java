@@ -0,0 +1,85 @@
+package com.example.userTest;
+
+import com.example.filter.AccessTokenFilter;
+import com.example.service.auth.AccessTokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessTokenFilterTest {
+
+    private AccessTokenService accessTokenService;
+    private AccessTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        accessTokenService = new AccessTokenService("0123456789abcdef0123456789abcdef".getBytes(),
+                Duration.ofMinutes(15), 100, Clock.systemUTC());
+        filter = new AccessTokenFilter(accessTokenService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validBearerToken_AuthenticatesAsTheUser() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/wallets/1/balance");
+        request.addHeader("Authorization", "Bearer " + accessTokenService.issue(42L).value());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Authentication[] seen = new Authentication[1];
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication());
+
+        // Assert
+        assertNotNull(seen[0]);
+        assertTrue(seen[0].isAuthenticated());
+        assertEquals(42L, seen[0].getPrincipal());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void invalidBearerToken_IsRejectedWithoutReachingTheChain() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/wallets/1/balance");
+        request.addHeader("Authorization", "Bearer forged.token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer error=\"invalid_token\"", response.getHeader("WWW-Authenticate"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void noBearerToken_PassesThroughUnauthenticated() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
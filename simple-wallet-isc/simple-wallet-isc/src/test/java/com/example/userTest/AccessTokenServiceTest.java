@@ -0,0 +1,124 @@
+package com.example.userTest;
+
+import com.example.service.auth.AccessTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessTokenServiceTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes();
+
+    private MutableClock clock;
+    private AccessTokenService accessTokenService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        accessTokenService = new AccessTokenService(SECRET, Duration.ofMinutes(15), 100, clock);
+    }
+
+    @Test
+    void verify_AcceptsIssuedToken() {
+        // Arrange
+        AccessTokenService.AccessToken issued = accessTokenService.issue(42L);
+
+        // Act
+        Optional<AccessTokenService.AccessToken> verified = accessTokenService.verify(issued.value());
+
+        // Assert
+        assertTrue(verified.isPresent());
+        assertEquals(42L, verified.get().userId());
+        assertEquals(Instant.parse("2024-01-01T00:15:00Z"), verified.get().expiresAt());
+    }
+
+    @Test
+    void verify_RejectsTamperedOrForeignTokens() {
+        // Arrange
+        String token = accessTokenService.issue(42L).value();
+        String otherUser = accessTokenService.issue(43L).value();
+        byte[] otherSecret = Arrays.copyOf(SECRET, SECRET.length);
+        otherSecret[0] ^= 1;
+        AccessTokenService otherKey = new AccessTokenService(otherSecret, Duration.ofMinutes(15), 100, clock);
+
+        // Act & Assert: another user's payload with this signature, a foreign key, and garbage
+        String swapped = otherUser.substring(0, otherUser.indexOf('.')) + token.substring(token.indexOf('.'));
+        assertTrue(accessTokenService.verify(swapped).isEmpty());
+        assertTrue(otherKey.verify(token).isEmpty());
+        assertTrue(accessTokenService.verify("not-a-token").isEmpty());
+        assertTrue(accessTokenService.verify("a.b.c").isEmpty());
+    }
+
+    @Test
+    void verify_RejectsExpiredToken_EvenWhenCached() {
+        // Arrange
+        String token = accessTokenService.issue(42L).value();
+        assertTrue(accessTokenService.verify(token).isPresent());
+
+        // Act
+        clock.advance(Duration.ofMinutes(15));
+
+        // Assert
+        assertTrue(accessTokenService.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_ServesRepeatsFromCache() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        accessTokenService.bindTo(registry);
+        String token = accessTokenService.issue(42L).value();
+
+        // Act
+        accessTokenService.verify(token);
+        accessTokenService.verify(token);
+        accessTokenService.verify(token);
+
+        // Assert
+        assertEquals(2.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void constructor_RejectsShortSecret() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccessTokenService(new byte[16], Duration.ofMinutes(15), 100, clock));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
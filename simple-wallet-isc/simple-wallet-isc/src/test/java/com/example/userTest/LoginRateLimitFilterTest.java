@@ -0,0 +1,87 @@
+package com.example.userTest;
+
+import com.example.filter.LoginRateLimitFilter;
+import com.example.service.ratelimit.TokenBucketRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimitFilterTest {
+
+    private LoginRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        TokenBucketRateLimiter clientLimiter = new TokenBucketRateLimiter(
+                "client", 10, Duration.ofSeconds(3), 1000, Duration.ofMinutes(10), System::nanoTime);
+        TokenBucketRateLimiter identityLimiter = new TokenBucketRateLimiter(
+                "identity", 2, Duration.ofSeconds(30), 1000, Duration.ofMinutes(10), System::nanoTime);
+        filter = new LoginRateLimitFilter(clientLimiter, identityLimiter);
+    }
+
+    @Test
+    void sameEmail_IsThrottledBeforeReachingLogin() throws Exception {
+        // Arrange
+        filter.doFilter(userLogin("John.Doe@example.com", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(userLogin("john.doe@example.com", "10.0.0.2"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(userLogin("john.doe@example.com", "10.0.0.3"), response, chain);
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertEquals("30", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void otherIdentity_IsNotAffected() throws Exception {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(userLogin("john.doe@example.com", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletRequest walletLogin = new MockHttpServletRequest("POST", "/api/wallets/login");
+        walletLogin.setRemoteAddr("10.0.0.1");
+        walletLogin.addParameter("walletId", "7");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(walletLogin, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void sameClient_IsThrottledAcrossIdentities() throws Exception {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(userLogin("user" + i + "@example.com", "10.0.0.9"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(userLogin("fresh@example.com", "10.0.0.9"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertEquals("3", response.getHeader("Retry-After"));
+    }
+
+    private static MockHttpServletRequest userLogin(String email, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        request.setRemoteAddr(remoteAddress);
+        request.addParameter("email", email);
+        request.addParameter("password", "password");
+        request.addParameter("phoneNumber", "1234567890");
+        return request;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.userTest;
+
+import com.example.repository.WalletRepo;
+import com.example.service.auth.ResourceOwnership;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ResourceOwnershipTest {
+
+    private static final long OWNER = 42L;
+    private static final long WALLET = 7L;
+
+    private WalletRepo walletRepo;
+    private ResourceOwnership ownership;
+
+    @BeforeEach
+    void setUp() {
+        walletRepo = mock(WalletRepo.class);
+        when(walletRepo.findUserIdById(WALLET)).thenReturn(Optional.of(OWNER));
+        when(walletRepo.findUserIdById(99L)).thenReturn(Optional.empty());
+        ownership = new ResourceOwnership(walletRepo, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void walletRule_GrantsOwnerOnlyAndLooksOwnerUpOnce() {
+        // Act
+        boolean owner = walletGranted(user(OWNER), "7");
+        boolean ownerAgain = walletGranted(user(OWNER), "7");
+        boolean stranger = walletGranted(user(43L), "7");
+
+        // Assert
+        assertTrue(owner);
+        assertTrue(ownerAgain);
+        assertFalse(stranger);
+        verify(walletRepo, times(1)).findUserIdById(WALLET);
+    }
+
+    @Test
+    void walletRule_DeniesUnknownWalletAndMalformedIdButGrantsAdmin() {
+        // Assert
+        assertFalse(walletGranted(user(OWNER), "99"));
+        assertFalse(walletGranted(user(OWNER), "abc"));
+        assertTrue(walletGranted(admin(1L), "7"));
+    }
+
+    @Test
+    void userRule_GrantsOnlyTheUserItself() {
+        // Arrange
+        RequestAuthorizationContext context = new RequestAuthorizationContext(
+                new MockHttpServletRequest("PUT", "/api/users/updateUser/42"), Map.of("id", "42"));
+
+        // Assert
+        assertTrue(ownership.user("id").check(() -> user(OWNER), context).isGranted());
+        assertFalse(ownership.user("id").check(() -> user(43L), context).isGranted());
+    }
+
+    @Test
+    void checkWallet_DeniesOtherWalletsAndAllWalletsToNonAdmins() {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(user(43L));
+
+        // Assert
+        assertThrows(AccessDeniedException.class, () -> ownership.checkWallet(WALLET));
+        assertThrows(AccessDeniedException.class, () -> ownership.checkWallet(null));
+
+        // Arrange: the owner, then an admin
+        SecurityContextHolder.getContext().setAuthentication(user(OWNER));
+        assertDoesNotThrow(() -> ownership.checkWallet(WALLET));
+        SecurityContextHolder.getContext().setAuthentication(admin(1L));
+        assertDoesNotThrow(() -> ownership.checkWallet(null));
+    }
+
+    private boolean walletGranted(Authentication caller, String walletId) {
+        RequestAuthorizationContext context = new RequestAuthorizationContext(
+                new MockHttpServletRequest("POST", "/api/transactions/" + walletId + "/deposit"), Map.of("walletId", walletId));
+        return ownership.wallet("walletId").check(() -> caller, context).isGranted();
+    }
+
+    private static Authentication user(long userId) {
+        return UsernamePasswordAuthenticationToken.authenticated(userId, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+    private static Authentication admin(long userId) {
+        return UsernamePasswordAuthenticationToken.authenticated(userId, null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+    }
+}
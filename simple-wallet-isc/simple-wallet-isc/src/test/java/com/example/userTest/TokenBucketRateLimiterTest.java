@@ -0,0 +1,118 @@
+package com.example.userTest;
+
+import com.example.service.ratelimit.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final Duration REFILL = Duration.ofSeconds(10);
+
+    private AtomicLong now;
+    private TokenBucketRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000_000L);
+        limiter = new TokenBucketRateLimiter("test", 3, REFILL, 1000, Duration.ofMinutes(10), now::get);
+    }
+
+    @Test
+    void tryAcquire_AllowsCapacityThenRejectsUntilRefill() {
+        // Act & Assert
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(REFILL.toNanos(), limiter.tryAcquire("a"));
+
+        now.addAndGet(REFILL.toNanos());
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(2, limiter.rejectedCount());
+    }
+
+    @Test
+    void tryAcquire_KeysHaveSeparateBuckets() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void tryAcquire_IdleBucketRefillsToCapacityOnly() {
+        // Arrange
+        limiter.tryAcquire("a");
+
+        // Act
+        now.addAndGet(REFILL.toNanos() * 100);
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void tryAcquire_ConcurrentCallersGetExactlyCapacity() throws InterruptedException {
+        // Arrange
+        TokenBucketRateLimiter wide = new TokenBucketRateLimiter("test", 1000, REFILL, 1000, Duration.ofMinutes(10), now::get);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (wide.tryAcquire("shared") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(1000, granted.get());
+        assertEquals(3000, wide.rejectedCount());
+    }
+
+    @Test
+    void bindTo_PublishesRejections() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        // Assert
+        assertEquals(2.0, registry.get("wallet.rate-limit.rejected").tag("limiter", "test").functionCounter().count());
+    }
+}
@@ -9,6 +9,9 @@ import com.example.controller.UserController;
 import com.example.model.User;
 import com.example.model.domain.UserGender;
 import com.example.model.domain.UserStatusForMan;
+import com.example.model.dto.UserProfile;
+import com.example.model.dto.UserSearchPage;
+import com.example.model.dto.UserSearchResult;
 import com.example.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +27,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -120,17 +124,21 @@ public class UserControllerTest {
 
     @Test
     void getUser_Success() throws Exception {
-        when(userService.findUserById(anyLong())).thenReturn(user);
+        UserProfile profile = new UserProfile(user.getId(), user.getFullName(), user.getEmail(), user.getPhoneNumber(),
+                user.getDateOfBirth(), user.getGender(), user.getUserStatusForMan(), 5L);
+        when(userService.getUserProfile(anyLong())).thenReturn(Optional.of(profile));
 
         mockMvc.perform(get("/api/users/getUser/{id}", user.getId()))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.fullName").value(user.getFullName()));
+                .andExpect(jsonPath("$.fullName").value(user.getFullName()))
+                .andExpect(jsonPath("$.walletId").value(5))
+                .andExpect(jsonPath("$.password").doesNotExist());
     }
 
     @Test
     void getUser_NotFound() throws Exception {
-        when(userService.findUserById(anyLong())).thenReturn(null);
+        when(userService.getUserProfile(anyLong())).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/users/getUser/{id}", 999L))
                 .andExpect(status().isNotFound());
@@ -177,21 +185,25 @@ public class UserControllerTest {
     }
 
     @Test
-    void getUserByFullName_Success() throws Exception {
-        when(userService.findUserByFullName(any())).thenReturn(user);
+    void searchUsers_Success() throws Exception {
+        UserSearchResult result = new UserSearchResult("john", 1L, user.getFullName(), user.getEmail());
+        when(userService.searchUsers("jo", null, 20)).thenReturn(new UserSearchPage(List.of(result), "next"));
 
         mockMvc.perform(get("/api/users/search")
-                        .param("fullName", user.getFullName()))
+                        .param("q", "jo"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.fullName").value(user.getFullName()));
+                .andExpect(jsonPath("$.items[0].fullName").value(user.getFullName()))
+                .andExpect(jsonPath("$.items[0].matchedToken").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
     }
 
     @Test
-    void getUserByFullName_NotFound() throws Exception {
-        when(userService.findUserByFullName(any())).thenReturn(null);
+    void searchUsers_BadRequest() throws Exception {
+        when(userService.searchUsers(any(), any(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Search query must contain a letter or digit"));
 
         mockMvc.perform(get("/api/users/search")
-                        .param("fullName", "NotFoundUser"))
-                .andExpect(status().isNotFound());
+                        .param("q", "--"))
+                .andExpect(status().isBadRequest());
     }
 }
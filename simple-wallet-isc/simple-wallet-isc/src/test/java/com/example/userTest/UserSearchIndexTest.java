@@ -0,0 +1,106 @@
+package com.example.userTest;
+
+import com.example.model.UserNameToken;
+import com.example.model.dto.UserSearchCursor;
+import com.example.model.dto.UserSearchPage;
+import com.example.model.dto.UserSearchResult;
+import com.example.repository.UserNameTokenRepo;
+import com.example.service.search.UserSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserSearchIndexTest {
+
+    @Mock
+    private UserNameTokenRepo userNameTokenRepo;
+
+    @InjectMocks
+    private UserSearchIndex userSearchIndex;
+
+    @Test
+    void tokens_FoldsCaseAccentsAndSeparators() {
+        // Act & Assert
+        assertEquals(List.of("jose", "maria", "o", "neill"), UserSearchIndex.tokens("  José-María O'Neill "));
+        assertEquals(List.of("anna"), UserSearchIndex.tokens("Anna ANNA"));
+        assertEquals(List.of(), UserSearchIndex.tokens(" -- "));
+        assertEquals(List.of(), UserSearchIndex.tokens(null));
+    }
+
+    @Test
+    void tokens_FoldsArabicLetterVariants() {
+        // Act & Assert
+        assertEquals(UserSearchIndex.tokens("علی کریمی"),
+                UserSearchIndex.tokens("علي كريمي"));
+    }
+
+    @Test
+    void index_ReplacesTokensOfUser() {
+        // Act
+        userSearchIndex.index(7L, "John Doe");
+
+        // Assert
+        verify(userNameTokenRepo).deleteByUserId(7L);
+        verify(userNameTokenRepo).saveAll(List.of(new UserNameToken("john", 7L), new UserNameToken("doe", 7L)));
+    }
+
+    @Test
+    void search_SeeksOnMostSelectiveWordAndReturnsCursor() {
+        // Arrange
+        when(userNameTokenRepo.findUserIdsByTokenLike("mohammad%", Limit.of(1000))).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(userNameTokenRepo.findUserIdsByTokenLike("kari%", Limit.of(1000))).thenReturn(List.of(3L, 9L));
+        List<UserSearchResult> rows = List.of(
+                new UserSearchResult("karimi", 3L, "Mohammad Karimi", "m.karimi@example.com"),
+                new UserSearchResult("karimi", 9L, "Mohammad Ali Karimi", "ma.karimi@example.com"),
+                new UserSearchResult("karimian", 4L, "Mohammad Karimian", "m.karimian@example.com"));
+        when(userNameTokenRepo.search("kari%", "mohammad%", "kari%", "kari%", Limit.of(3))).thenReturn(rows);
+
+        // Act
+        UserSearchPage page = userSearchIndex.search("Mohammad Kari", null, 2);
+
+        // Assert
+        assertEquals(rows.subList(0, 2), page.items());
+        UserSearchCursor next = UserSearchCursor.decode(page.nextCursor());
+        assertEquals("kari%", next.lead());
+        assertEquals("karimi", next.token());
+        assertEquals(9L, next.id());
+    }
+
+    @Test
+    void search_ContinuesAfterCursorOnSameWord() {
+        // Arrange
+        String cursor = new UserSearchCursor("kari%", "karimi", 9L).encode();
+        when(userNameTokenRepo.searchAfter("kari%", "mohammad%", "kari%", "kari%", "karimi", 9L, Limit.of(21)))
+                .thenReturn(List.of());
+
+        // Act
+        UserSearchPage page = userSearchIndex.search("Mohammad Kari", cursor, 20);
+
+        // Assert
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verify(userNameTokenRepo, never()).findUserIdsByTokenLike(any(), any());
+    }
+
+    @Test
+    void search_RejectsQueriesWithoutWordsOrTooManyWords() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userSearchIndex.search("%_", null, 20));
+        assertThrows(IllegalArgumentException.class, () -> userSearchIndex.search("a b c d e", null, 20));
+        assertThrows(IllegalArgumentException.class, () -> userSearchIndex.search("john", null, 0));
+        assertThrows(IllegalArgumentException.class, () -> userSearchIndex.search("john", "not a cursor", 20));
+        String otherQuery = new UserSearchCursor("anna%", "anna", 1L).encode();
+        assertThrows(IllegalArgumentException.class, () -> userSearchIndex.search("john", otherQuery, 20));
+        verifyNoInteractions(userNameTokenRepo);
+    }
+}
@@ -7,8 +7,11 @@ import static org.mockito.Mockito.*;
 import com.example.model.User;
 import com.example.model.domain.UserGender;
 import com.example.model.domain.UserStatusForMan;
+import com.example.model.dto.UserProfile;
+import com.example.model.money.Money;
 import com.example.repository.UserRepo;
 import com.example.service.UserService;
+import com.example.service.search.UserSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,9 +19,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
-import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Optional;
 
@@ -29,6 +33,9 @@ public class UserServiceTest {
     @Mock
     private UserRepo userRepo;
 
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
     @InjectMocks
     private UserService userService;
 
@@ -62,6 +69,7 @@ public class UserServiceTest {
         assertEquals("John Doe", createdUser.getFullName());
         assertEquals("john.doe@example.com", createdUser.getEmail());
         verify(userRepo, times(1)).save(any(User.class));
+        verify(userSearchIndex, times(1)).index(user.getId(), "John Doe");
     }
 
     @Test
@@ -84,6 +92,52 @@ public class UserServiceTest {
         assertEquals("User must be at least 18 years old.", exception.getMessage());
     }
 
+    @Test
+    public void testCreateUser_DuplicateEmail() {
+        // Given
+        when(userRepo.existsByEmail("john.doe@example.com")).thenReturn(true);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            userService.createUser("John Doe", LocalDate.of(1990, 1, 1), "1234567890",
+                    "john.doe@example.com", "password123", UserStatusForMan.yes, UserGender.Male);
+        });
+        assertEquals("Email is already registered.", exception.getMessage());
+        verify(userRepo, never()).save(any(User.class));
+    }
+
+    @Test
+    public void testCreateUser_DuplicateEmailFoundOnlyByUniqueIndex() {
+        // Given: a concurrent registration took the email after the pre-check
+        when(userRepo.save(any(User.class))).thenReturn(user);
+        doThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                "Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL NULLS FIRST)\"")))
+                .when(userRepo).flush();
+
+        // When & Then: the same answer as the pre-check, and nothing indexed
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            userService.createUser("John Doe", LocalDate.of(1990, 1, 1), "1234567890",
+                    "john.doe@example.com", "password123", UserStatusForMan.yes, UserGender.Male);
+        });
+        assertEquals("Email is already registered.", exception.getMessage());
+        verify(userSearchIndex, never()).index(any(), any());
+    }
+
+    @Test
+    public void testCreateUser_OtherIntegrityViolationIsNotTranslated() {
+        // Given
+        when(userRepo.save(any(User.class))).thenReturn(user);
+        doThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                "NULL not allowed for column \"PHONE_NUMBER\"")))
+                .when(userRepo).flush();
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            userService.createUser("John Doe", LocalDate.of(1990, 1, 1), "1234567890",
+                    "john.doe@example.com", "password123", UserStatusForMan.yes, UserGender.Male);
+        });
+    }
+
     @Test
     public void testLogin_Success() {
         // Given
@@ -142,6 +196,23 @@ public class UserServiceTest {
         assertEquals("jane.doe@example.com", updatedUser.getEmail());
         verify(userRepo, times(1)).findById(anyLong());
         verify(userRepo, times(1)).save(any(User.class));
+        verify(userSearchIndex, times(1)).index(user.getId(), "Jane Doe");
+    }
+
+    @Test
+    public void testUpdateUser_SameName_KeepsSearchIndex() {
+        // Given
+        when(userRepo.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepo.save(any(User.class))).thenReturn(user);
+
+        User updatedData = new User("John Doe", LocalDate.of(1990, 1, 1), "0987654321",
+                "john.doe@example.com", "password123", UserStatusForMan.yes, UserGender.Male);
+
+        // When
+        userService.updateUser(1L, updatedData);
+
+        // Then
+        verify(userSearchIndex, never()).index(any(), any());
     }
 
     @Test
@@ -156,6 +227,21 @@ public class UserServiceTest {
         assertEquals("User not found", exception.getMessage());
     }
 
+    @Test
+    public void testGetUserProfile_UsesProjection() {
+        // Given
+        UserProfile profile = new UserProfile(1L, "John Doe", "john.doe@example.com", "1234567890",
+                LocalDate.of(1990, 1, 1), UserGender.Male, UserStatusForMan.yes, 5L);
+        when(userRepo.findProfileById(1L)).thenReturn(Optional.of(profile));
+
+        // When
+        Optional<UserProfile> result = userService.getUserProfile(1L);
+
+        // Then
+        assertEquals(Optional.of(profile), result);
+        verify(userRepo, never()).findById(anyLong());
+    }
+
     @Test
     public void testDeleteUser_Success() {
         // Given
@@ -167,6 +253,7 @@ public class UserServiceTest {
         // Then
         verify(userRepo, times(1)).existsById(anyLong());
         verify(userRepo, times(1)).deleteById(anyLong());
+        verify(userSearchIndex, times(1)).remove(anyLong());
     }
 
     @Test
@@ -204,7 +291,7 @@ public class UserServiceTest {
         assertNotNull(createdUser);
         assertEquals("john.doe@example.com", createdUser.getEmail());
         assertNotNull(createdUser.getWallet());
-        assertEquals(BigDecimal.valueOf(10000), createdUser.getWallet().getBalance());
+        assertEquals(Money.of(10000), createdUser.getWallet().getBalance());
     }
 
     @Test